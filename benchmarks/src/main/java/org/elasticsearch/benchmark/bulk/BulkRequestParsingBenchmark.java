@@ -0,0 +1,118 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.bulk;
+
+import org.elasticsearch.action.bulk.BulkItemRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkShardRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.shard.ShardId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a bulk request on the coordinating node, and reading the resulting shard-level bulk request off the wire on
+ * a primary or replica. The bulk body is either backed by a single array, as it is when received over HTTP, or by pages, in which
+ * case the action lines are parsed through a stream that copies them. Run with {@code -prof gc} to compare the allocation rates.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class BulkRequestParsingBenchmark {
+
+    @Param({"100", "1000"})
+    private int numDocs;
+
+    @Param({"64", "1024"})
+    private int docSize;
+
+    @Param({"array", "paged"})
+    private String bodyType;
+
+    private BytesReference bulkBody;
+
+    private BytesReference serializedShardRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        final char[] value = new char[docSize];
+        Arrays.fill(value, 'a');
+        final String source = "{\"field\":\"" + new String(value) + "\"}";
+        final StringBuilder body = new StringBuilder();
+        final BulkItemRequest[] items = new BulkItemRequest[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+            body.append("{\"index\":{\"_id\":\"").append(i).append("\"}}\n").append(source).append('\n');
+            items[i] = new BulkItemRequest(i, new IndexRequest("index").id(Integer.toString(i)).source(source, XContentType.JSON));
+        }
+        final byte[] bodyBytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        switch (bodyType) {
+            case "array":
+                bulkBody = new BytesArray(bodyBytes);
+                break;
+            case "paged":
+                final BytesStreamOutput out = new BytesStreamOutput(bodyBytes.length);
+                out.writeBytes(bodyBytes);
+                bulkBody = out.bytes();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown body type [" + bodyType + "]");
+        }
+
+        final BulkShardRequest shardRequest = new BulkShardRequest(new ShardId("index", "_na_", 0), WriteRequest.RefreshPolicy.NONE,
+            items);
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            shardRequest.writeTo(out);
+            serializedShardRequest = new BytesArray(BytesReference.toBytes(out.bytes()));
+        }
+    }
+
+    @Benchmark
+    public BulkRequest parseBulkRequest() throws IOException {
+        return new BulkRequest().add(bulkBody, "index", XContentType.JSON);
+    }
+
+    @Benchmark
+    public BulkShardRequest readShardRequest() throws IOException {
+        return new BulkShardRequest(serializedShardRequest.streamInput());
+    }
+}
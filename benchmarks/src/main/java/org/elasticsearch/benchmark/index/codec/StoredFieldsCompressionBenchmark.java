@@ -0,0 +1,171 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.index.codec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.codec.CodecService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the stored fields codecs on the {@code _source} of log events of a few KB each, which is the case that the
+ * {@code dictionary_compression} codec is meant for. The benchmarks measure fetching the {@code _source} of random documents, which is
+ * what the fetch phase of a search does, and {@link #storedFieldsSize} reports the size of the stored fields of each codec as the
+ * {@code storedFieldsBytes} secondary result.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class StoredFieldsCompressionBenchmark {
+
+    private static final String[] METHODS = {"GET", "GET", "GET", "POST", "PUT", "DELETE"};
+    private static final String[] PATHS = {"/api/v1/orders", "/api/v1/users", "/static/app.js", "/login", "/api/v1/search"};
+    private static final String[] AGENTS = {
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/74.0.3729.169 Safari/537.36",
+        "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_14_5) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/12.1.1 Safari/605.1.15",
+        "curl/7.64.1", "Apache-HttpClient/4.5.8 (Java/11.0.3)"};
+
+    @Param({"default", "best_compression", "dictionary_compression"})
+    private String codec;
+
+    @Param({"100000"})
+    private int numDocs;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private Random random;
+    private long storedFieldsBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Random docRandom = new Random(42);
+        directory = new ByteBuffersDirectory();
+        final IndexWriterConfig config = new IndexWriterConfig();
+        // keep the stored fields files out of compound files so that their size can be reported
+        config.setUseCompoundFile(false);
+        config.getMergePolicy().setNoCFSRatio(0.0);
+        config.setCodec(new CodecService(null, LogManager.getLogger(StoredFieldsCompressionBenchmark.class)).codec(codec));
+        try (IndexWriter writer = new IndexWriter(directory, config)) {
+            for (int i = 0; i < numDocs; i++) {
+                final Document document = new Document();
+                document.add(new StoredField("_source", new BytesRef(logEvent(docRandom, i))));
+                writer.addDocument(document);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        storedFieldsBytes = 0;
+        for (String file : directory.listAll()) {
+            if (file.endsWith(".fdt") || file.endsWith(".fdx")) {
+                storedFieldsBytes += directory.fileLength(file);
+            }
+        }
+        random = new Random(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    private static byte[] logEvent(Random random, int i) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("{\"@timestamp\":\"2019-05-").append(10 + i / 10000).append("T").append(i / 600 % 24).append(':')
+            .append(i / 10 % 60).append(':').append(i % 60).append('.').append(random.nextInt(1000)).append("Z\",");
+        builder.append("\"host\":{\"name\":\"web-").append(random.nextInt(20)).append("\",\"ip\":\"10.0.").append(random.nextInt(256))
+            .append('.').append(random.nextInt(256)).append("\"},");
+        builder.append("\"http\":{\"request\":{\"method\":\"").append(METHODS[random.nextInt(METHODS.length)]).append("\",\"path\":\"")
+            .append(PATHS[random.nextInt(PATHS.length)]).append('/').append(random.nextInt(100000)).append("\"},\"response\":{")
+            .append("\"status_code\":").append(random.nextInt(10) == 0 ? 500 : 200).append(",\"bytes\":").append(random.nextInt(50000))
+            .append("}},");
+        builder.append("\"user_agent\":{\"original\":\"").append(AGENTS[random.nextInt(AGENTS.length)]).append("\"},");
+        builder.append("\"event\":{\"duration\":").append(random.nextInt(1000000)).append(",\"dataset\":\"nginx.access\"},");
+        builder.append("\"message\":\"");
+        // a message of a few hundred bytes of words of a small vocabulary, like the ones of application logs
+        final int words = 50 + random.nextInt(250);
+        for (int w = 0; w < words; w++) {
+            builder.append(PATHS[random.nextInt(PATHS.length)].substring(1).replace('/', '_')).append(' ')
+                .append(Integer.toHexString(random.nextInt(4096))).append(' ');
+        }
+        builder.append("\"}");
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Holds the size of the stored fields as a secondary result of {@link #storedFieldsSize}. Events are summed across iterations and
+     * threads, which is why that benchmark runs a single measurement iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StoredFieldsSize {
+        public long storedFieldsBytes;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void storedFieldsSize(StoredFieldsSize size) {
+        size.storedFieldsBytes = storedFieldsBytes;
+    }
+
+    @Benchmark
+    public BytesRef fetchRandomDocument() throws IOException {
+        return reader.document(random.nextInt(numDocs)).getBinaryValue("_source");
+    }
+
+    @Benchmark
+    public int fetchTenConsecutiveDocuments() throws IOException {
+        final int from = random.nextInt(numDocs - 10);
+        int length = 0;
+        for (int i = from; i < from + 10; i++) {
+            length += reader.document(i).getBinaryValue("_source").length;
+        }
+        return length;
+    }
+}
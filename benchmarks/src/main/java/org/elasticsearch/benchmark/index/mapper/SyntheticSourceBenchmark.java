@@ -0,0 +1,221 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.index.mapper;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.AnalyzerScope;
+import org.elasticsearch.index.analysis.IndexAnalyzers;
+import org.elasticsearch.index.analysis.NamedAnalyzer;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.mapper.SyntheticSourceLoader;
+import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.indices.IndicesModule;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares fetching a page of hits of a metrics index whose {@code _source} is stored with the same index whose {@code _source} is
+ * synthesized from doc values. {@link #indexSize} reports the size of each index as the {@code indexBytes} secondary result.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class SyntheticSourceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"false", "true"})
+    private boolean synthetic;
+
+    @Param({"100000"})
+    private int numDocs;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private SyntheticSourceLoader.Leaf syntheticSourceLeaf;
+    private Random random;
+    private long indexBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final MapperService mapperService = createMapperService();
+        directory = new ByteBuffersDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+            final Random docRandom = new Random(42);
+            for (int i = 0; i < numDocs; i++) {
+                final BytesReference source = BytesReference.bytes(metricsDocument(docRandom, i));
+                writer.addDocuments(mapperService.documentMapper()
+                    .parse(new SourceToParse("index", "_doc", Integer.toString(i), source, XContentType.JSON)).docs());
+            }
+            writer.forceMerge(1);
+        }
+        indexBytes = 0;
+        for (String file : directory.listAll()) {
+            indexBytes += directory.fileLength(file);
+        }
+        reader = DirectoryReader.open(directory);
+        final LeafReaderContext leaf = reader.leaves().get(0);
+        syntheticSourceLeaf = new SyntheticSourceLoader(mapperService.documentMapper(), fieldType -> fieldType
+            .fielddataBuilder("index")
+            .build(mapperService.getIndexSettings(), fieldType, new IndexFieldDataCache.None(), new NoneCircuitBreakerService(),
+                mapperService))
+            .leaf(leaf);
+        random = new Random(0);
+    }
+
+    private MapperService createMapperService() throws IOException {
+        final Settings settings = Settings.builder()
+            .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+            // the recovery source that is kept for soft deletes is pruned by merges, leave it out
+            .put(IndexSettings.INDEX_SOFT_DELETES_SETTING.getKey(), false)
+            .build();
+        final IndexSettings indexSettings = new IndexSettings(IndexMetaData.builder("index").settings(settings).build(), Settings.EMPTY);
+        final IndexAnalyzers indexAnalyzers = new IndexAnalyzers(
+            Map.of("default", new NamedAnalyzer("default", AnalyzerScope.INDEX, new StandardAnalyzer())), Map.of(), Map.of());
+        final MapperService mapperService = new MapperService(indexSettings, indexAnalyzers, NamedXContentRegistry.EMPTY,
+            new SimilarityService(indexSettings, null, Map.of()), new IndicesModule(Collections.emptyList()).getMapperRegistry(),
+            () -> null);
+        final XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("_doc")
+            .startObject("_source").field("synthetic", synthetic).endObject()
+            .startObject("properties")
+                .startObject("@timestamp").field("type", "date").endObject()
+                .startObject("host").startObject("properties")
+                    .startObject("name").field("type", "keyword").endObject()
+                    .startObject("ip").field("type", "ip").endObject()
+                .endObject().endObject()
+                .startObject("metricset").field("type", "keyword").endObject()
+                .startObject("system").startObject("properties")
+                    .startObject("cpu").startObject("properties")
+                        .startObject("user").field("type", "float").endObject()
+                        .startObject("system").field("type", "float").endObject()
+                        .startObject("cores").field("type", "short").endObject()
+                    .endObject().endObject()
+                    .startObject("memory").startObject("properties")
+                        .startObject("used").field("type", "long").endObject()
+                        .startObject("free").field("type", "long").endObject()
+                    .endObject().endObject()
+                .endObject().endObject()
+            .endObject()
+            .endObject().endObject();
+        mapperService.merge("_doc", new CompressedXContent(Strings.toString(mapping)), MapperService.MergeReason.MAPPING_UPDATE);
+        return mapperService;
+    }
+
+    private static XContentBuilder metricsDocument(Random random, int i) throws IOException {
+        return XContentFactory.jsonBuilder().startObject()
+            .field("@timestamp", 1557482400000L + i * 10_000L)
+            .startObject("host").field("name", "host-" + random.nextInt(100)).field("ip", "10.0.0." + random.nextInt(100)).endObject()
+            .field("metricset", "cpu")
+            .startObject("system")
+                .startObject("cpu").field("user", random.nextFloat()).field("system", random.nextFloat()).field("cores", 8).endObject()
+                .startObject("memory").field("used", random.nextInt(1 << 30)).field("free", random.nextInt(1 << 30)).endObject()
+            .endObject()
+            .endObject();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    /**
+     * Holds the size of the index as a secondary result of {@link #indexSize}. Events are summed across iterations and threads, which
+     * is why that benchmark runs a single measurement iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class IndexSize {
+        public long indexBytes;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public void indexSize(IndexSize size) {
+        size.indexBytes = indexBytes;
+    }
+
+    @Benchmark
+    public long fetchPage() throws IOException {
+        // the fetch phase loads the hits of a page in the order of their doc ids
+        final int[] docIds = new int[PAGE_SIZE];
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            docIds[i] = random.nextInt(numDocs);
+        }
+        Arrays.sort(docIds);
+        long length = 0;
+        for (int docId : docIds) {
+            if (synthetic) {
+                length += syntheticSourceLeaf.source(docId).length();
+            } else {
+                final FieldsVisitor visitor = new FieldsVisitor(true);
+                reader.document(docId, visitor);
+                length += visitor.source().length();
+            }
+        }
+        return length;
+    }
+}
@@ -130,6 +130,21 @@ class ByteBufUtils {
             return buffer.toString(offset, length, StandardCharsets.UTF_8);
         }
 
+        @Override
+        public boolean hasArray() {
+            return buffer.hasArray();
+        }
+
+        @Override
+        public byte[] array() {
+            return buffer.array();
+        }
+
+        @Override
+        public int arrayOffset() {
+            return buffer.arrayOffset() + offset;
+        }
+
         @Override
         public BytesRef toBytesRef() {
             if (buffer.hasArray()) {
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.action.admin.cluster.node.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.support.nodes.BaseNodeResponse;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
@@ -29,6 +30,10 @@ import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.discovery.DiscoveryStats;
 import org.elasticsearch.http.HttpStats;
+import org.elasticsearch.index.IndexingPressureStats;
+import org.elasticsearch.index.translog.TranslogSyncStats;
+import org.elasticsearch.indices.IndexingBufferStats;
+import org.elasticsearch.indices.MergeBudgetStats;
 import org.elasticsearch.indices.NodeIndicesStats;
 import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
 import org.elasticsearch.ingest.IngestStats;
@@ -38,6 +43,7 @@ import org.elasticsearch.monitor.os.OsStats;
 import org.elasticsearch.monitor.process.ProcessStats;
 import org.elasticsearch.node.AdaptiveSelectionStats;
 import org.elasticsearch.script.ScriptStats;
+import org.elasticsearch.search.CoordinatorCanMatchStats;
 import org.elasticsearch.threadpool.ThreadPoolStats;
 import org.elasticsearch.transport.TransportStats;
 
@@ -90,6 +96,21 @@ public class NodeStats extends BaseNodeResponse implements ToXContentFragment {
     @Nullable
     private AdaptiveSelectionStats adaptiveSelectionStats;
 
+    @Nullable
+    private CoordinatorCanMatchStats coordinatorCanMatchStats;
+
+    @Nullable
+    private TranslogSyncStats translogSyncStats;
+
+    @Nullable
+    private IndexingPressureStats indexingPressureStats;
+
+    @Nullable
+    private IndexingBufferStats indexingBufferStats;
+
+    @Nullable
+    private MergeBudgetStats mergeBudgetStats;
+
     NodeStats() {
     }
 
@@ -100,7 +121,12 @@ public class NodeStats extends BaseNodeResponse implements ToXContentFragment {
                      @Nullable ScriptStats scriptStats,
                      @Nullable DiscoveryStats discoveryStats,
                      @Nullable IngestStats ingestStats,
-                     @Nullable AdaptiveSelectionStats adaptiveSelectionStats) {
+                     @Nullable AdaptiveSelectionStats adaptiveSelectionStats,
+                     @Nullable CoordinatorCanMatchStats coordinatorCanMatchStats,
+                     @Nullable TranslogSyncStats translogSyncStats,
+                     @Nullable IndexingPressureStats indexingPressureStats,
+                     @Nullable IndexingBufferStats indexingBufferStats,
+                     @Nullable MergeBudgetStats mergeBudgetStats) {
         super(node);
         this.timestamp = timestamp;
         this.indices = indices;
@@ -116,6 +142,11 @@ public class NodeStats extends BaseNodeResponse implements ToXContentFragment {
         this.discoveryStats = discoveryStats;
         this.ingestStats = ingestStats;
         this.adaptiveSelectionStats = adaptiveSelectionStats;
+        this.coordinatorCanMatchStats = coordinatorCanMatchStats;
+        this.translogSyncStats = translogSyncStats;
+        this.indexingPressureStats = indexingPressureStats;
+        this.indexingBufferStats = indexingBufferStats;
+        this.mergeBudgetStats = mergeBudgetStats;
     }
 
     public long getTimestamp() {
@@ -210,6 +241,31 @@ public class NodeStats extends BaseNodeResponse implements ToXContentFragment {
         return adaptiveSelectionStats;
     }
 
+    @Nullable
+    public CoordinatorCanMatchStats getCoordinatorCanMatchStats() {
+        return coordinatorCanMatchStats;
+    }
+
+    @Nullable
+    public TranslogSyncStats getTranslogSyncStats() {
+        return translogSyncStats;
+    }
+
+    @Nullable
+    public IndexingPressureStats getIndexingPressureStats() {
+        return indexingPressureStats;
+    }
+
+    @Nullable
+    public IndexingBufferStats getIndexingBufferStats() {
+        return indexingBufferStats;
+    }
+
+    @Nullable
+    public MergeBudgetStats getMergeBudgetStats() {
+        return mergeBudgetStats;
+    }
+
     public static NodeStats readNodeStats(StreamInput in) throws IOException {
         NodeStats nodeInfo = new NodeStats();
         nodeInfo.readFrom(in);
@@ -235,6 +291,13 @@ public class NodeStats extends BaseNodeResponse implements ToXContentFragment {
         discoveryStats = in.readOptionalWriteable(DiscoveryStats::new);
         ingestStats = in.readOptionalWriteable(IngestStats::new);
         adaptiveSelectionStats = in.readOptionalWriteable(AdaptiveSelectionStats::new);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            coordinatorCanMatchStats = in.readOptionalWriteable(CoordinatorCanMatchStats::new);
+            translogSyncStats = in.readOptionalWriteable(TranslogSyncStats::new);
+            indexingPressureStats = in.readOptionalWriteable(IndexingPressureStats::new);
+            indexingBufferStats = in.readOptionalWriteable(IndexingBufferStats::new);
+            mergeBudgetStats = in.readOptionalWriteable(MergeBudgetStats::new);
+        }
     }
 
     @Override
@@ -259,6 +322,13 @@ public class NodeStats extends BaseNodeResponse implements ToXContentFragment {
         out.writeOptionalWriteable(discoveryStats);
         out.writeOptionalWriteable(ingestStats);
         out.writeOptionalWriteable(adaptiveSelectionStats);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeOptionalWriteable(coordinatorCanMatchStats);
+            out.writeOptionalWriteable(translogSyncStats);
+            out.writeOptionalWriteable(indexingPressureStats);
+            out.writeOptionalWriteable(indexingBufferStats);
+            out.writeOptionalWriteable(mergeBudgetStats);
+        }
     }
 
     @Override
@@ -322,6 +392,21 @@ public class NodeStats extends BaseNodeResponse implements ToXContentFragment {
         if (getAdaptiveSelectionStats() != null) {
             getAdaptiveSelectionStats().toXContent(builder, params);
         }
+        if (getCoordinatorCanMatchStats() != null) {
+            getCoordinatorCanMatchStats().toXContent(builder, params);
+        }
+        if (getTranslogSyncStats() != null) {
+            getTranslogSyncStats().toXContent(builder, params);
+        }
+        if (getIndexingPressureStats() != null) {
+            getIndexingPressureStats().toXContent(builder, params);
+        }
+        if (getIndexingBufferStats() != null) {
+            getIndexingBufferStats().toXContent(builder, params);
+        }
+        if (getMergeBudgetStats() != null) {
+            getMergeBudgetStats().toXContent(builder, params);
+        }
         return builder;
     }
 }
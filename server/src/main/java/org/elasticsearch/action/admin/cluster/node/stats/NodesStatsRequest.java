@@ -19,6 +19,7 @@
 
 package org.elasticsearch.action.admin.cluster.node.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.admin.indices.stats.CommonStatsFlags;
 import org.elasticsearch.action.support.nodes.BaseNodesRequest;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -44,6 +45,11 @@ public class NodesStatsRequest extends BaseNodesRequest<NodesStatsRequest> {
     private boolean discovery;
     private boolean ingest;
     private boolean adaptiveSelection;
+    private boolean coordinatorCanMatch;
+    private boolean translogSync;
+    private boolean indexingPressure;
+    private boolean indexingBuffer;
+    private boolean mergeBudget;
 
     public NodesStatsRequest() {
     }
@@ -73,6 +79,11 @@ public class NodesStatsRequest extends BaseNodesRequest<NodesStatsRequest> {
         this.discovery = true;
         this.ingest = true;
         this.adaptiveSelection = true;
+        this.coordinatorCanMatch = true;
+        this.translogSync = true;
+        this.indexingPressure = true;
+        this.indexingBuffer = true;
+        this.mergeBudget = true;
         return this;
     }
 
@@ -93,6 +104,11 @@ public class NodesStatsRequest extends BaseNodesRequest<NodesStatsRequest> {
         this.discovery = false;
         this.ingest = false;
         this.adaptiveSelection = false;
+        this.coordinatorCanMatch = false;
+        this.translogSync = false;
+        this.indexingPressure = false;
+        this.indexingBuffer = false;
+        this.mergeBudget = false;
         return this;
     }
 
@@ -280,6 +296,66 @@ public class NodesStatsRequest extends BaseNodesRequest<NodesStatsRequest> {
         return this;
     }
 
+    public boolean coordinatorCanMatch() {
+        return coordinatorCanMatch;
+    }
+
+    /**
+     * Should coordinator can_match statistics be returned.
+     */
+    public NodesStatsRequest coordinatorCanMatch(boolean coordinatorCanMatch) {
+        this.coordinatorCanMatch = coordinatorCanMatch;
+        return this;
+    }
+
+    public boolean translogSync() {
+        return translogSync;
+    }
+
+    /**
+     * Should translog sync statistics be returned.
+     */
+    public NodesStatsRequest translogSync(boolean translogSync) {
+        this.translogSync = translogSync;
+        return this;
+    }
+
+    public boolean indexingPressure() {
+        return indexingPressure;
+    }
+
+    /**
+     * Should indexing pressure statistics be returned.
+     */
+    public NodesStatsRequest indexingPressure(boolean indexingPressure) {
+        this.indexingPressure = indexingPressure;
+        return this;
+    }
+
+    public boolean indexingBuffer() {
+        return indexingBuffer;
+    }
+
+    /**
+     * Should indexing buffer statistics be returned.
+     */
+    public NodesStatsRequest indexingBuffer(boolean indexingBuffer) {
+        this.indexingBuffer = indexingBuffer;
+        return this;
+    }
+
+    public boolean mergeBudget() {
+        return mergeBudget;
+    }
+
+    /**
+     * Should merge budget statistics be returned.
+     */
+    public NodesStatsRequest mergeBudget(boolean mergeBudget) {
+        this.mergeBudget = mergeBudget;
+        return this;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -296,6 +372,13 @@ public class NodesStatsRequest extends BaseNodesRequest<NodesStatsRequest> {
         discovery = in.readBoolean();
         ingest = in.readBoolean();
         adaptiveSelection = in.readBoolean();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            coordinatorCanMatch = in.readBoolean();
+            translogSync = in.readBoolean();
+            indexingPressure = in.readBoolean();
+            indexingBuffer = in.readBoolean();
+            mergeBudget = in.readBoolean();
+        }
     }
 
     @Override
@@ -314,5 +397,12 @@ public class NodesStatsRequest extends BaseNodesRequest<NodesStatsRequest> {
         out.writeBoolean(discovery);
         out.writeBoolean(ingest);
         out.writeBoolean(adaptiveSelection);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeBoolean(coordinatorCanMatch);
+            out.writeBoolean(translogSync);
+            out.writeBoolean(indexingPressure);
+            out.writeBoolean(indexingBuffer);
+            out.writeBoolean(mergeBudget);
+        }
     }
 }
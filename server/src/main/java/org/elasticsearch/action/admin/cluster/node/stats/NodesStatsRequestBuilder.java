@@ -149,4 +149,44 @@ public class NodesStatsRequestBuilder
         return this;
     }
 
+    /**
+     * Should coordinator can_match statistics be returned.
+     */
+    public NodesStatsRequestBuilder setCoordinatorCanMatch(boolean coordinatorCanMatch) {
+        request.coordinatorCanMatch(coordinatorCanMatch);
+        return this;
+    }
+
+    /**
+     * Should translog sync statistics be returned.
+     */
+    public NodesStatsRequestBuilder setTranslogSync(boolean translogSync) {
+        request.translogSync(translogSync);
+        return this;
+    }
+
+    /**
+     * Should indexing pressure statistics be returned.
+     */
+    public NodesStatsRequestBuilder setIndexingPressure(boolean indexingPressure) {
+        request.indexingPressure(indexingPressure);
+        return this;
+    }
+
+    /**
+     * Should indexing buffer statistics be returned.
+     */
+    public NodesStatsRequestBuilder setIndexingBuffer(boolean indexingBuffer) {
+        request.indexingBuffer(indexingBuffer);
+        return this;
+    }
+
+    /**
+     * Should merge budget statistics be returned.
+     */
+    public NodesStatsRequestBuilder setMergeBudget(boolean mergeBudget) {
+        request.mergeBudget(mergeBudget);
+        return this;
+    }
+
 }
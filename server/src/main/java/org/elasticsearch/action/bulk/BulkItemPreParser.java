@@ -0,0 +1,176 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.shard.IndexShard;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parses the documents of the index requests of a {@link BulkShardRequest} on other threads while the items of the request are
+ * executed in order on the primary, so that parsing, which is independent for each document, does not hold up the sequential
+ * execution of the items.
+ * <p>
+ * Helpers forked to the executor claim items that were not claimed yet and parse them. The thread that executes the items claims
+ * and parses the current item itself if no helper got to it yet, and otherwise waits for the helper that is parsing it. Helpers that
+ * never get to run thus never block the execution of the request.
+ */
+final class BulkItemPreParser {
+
+    private static final Logger logger = LogManager.getLogger(BulkItemPreParser.class);
+
+    private static final int UNCLAIMED = 0;
+    private static final int CLAIMED = 1;
+    private static final int DONE = 2;
+
+    /** The minimum number of index requests each helper should get to parse for forking it to be worth it. */
+    static final int MIN_ITEMS_PER_HELPER = 8;
+
+    private final BulkShardRequest request;
+    private final IndexShard primary;
+    private final AtomicIntegerArray states;
+    private final IndexShard.PreParsedDocument[] documents;
+    private final AtomicInteger nextItem = new AtomicInteger();
+    private volatile boolean closed;
+
+    private BulkItemPreParser(BulkShardRequest request, IndexShard primary) {
+        this.request = request;
+        this.primary = primary;
+        this.states = new AtomicIntegerArray(request.items().length);
+        this.documents = new IndexShard.PreParsedDocument[request.items().length];
+    }
+
+    /**
+     * Starts parsing the documents of the given request with up to {@code maxHelpers} helpers forked to the given executor. Returns
+     * {@code null} if the request does not hold enough index requests to make that worth it.
+     */
+    @Nullable
+    static BulkItemPreParser start(BulkShardRequest request, IndexShard primary, Executor executor, int maxHelpers) {
+        if (maxHelpers <= 0) {
+            return null;
+        }
+        int numIndexRequests = 0;
+        for (BulkItemRequest item : request.items()) {
+            if (isIndexRequest(item.request())) {
+                numIndexRequests++;
+            }
+        }
+        final int numHelpers = Math.min(maxHelpers, numIndexRequests / MIN_ITEMS_PER_HELPER);
+        if (numHelpers == 0) {
+            return null;
+        }
+        final BulkItemPreParser preParser = new BulkItemPreParser(request, primary);
+        for (int i = 0; i < numHelpers; i++) {
+            try {
+                executor.execute(preParser::parseRemaining);
+            } catch (EsRejectedExecutionException e) {
+                // the executing thread parses the items that helpers don't get to
+                break;
+            }
+        }
+        return preParser;
+    }
+
+    private static boolean isIndexRequest(DocWriteRequest<?> request) {
+        return request.opType() == DocWriteRequest.OpType.INDEX || request.opType() == DocWriteRequest.OpType.CREATE;
+    }
+
+    private void parseRemaining() {
+        final int numItems = states.length();
+        for (int item = nextItem.getAndIncrement(); item < numItems && closed == false; item = nextItem.getAndIncrement()) {
+            if (states.compareAndSet(item, UNCLAIMED, CLAIMED)) {
+                parseClaimed(item);
+            }
+        }
+    }
+
+    private void parseClaimed(int item) {
+        try {
+            documents[item] = parse(item);
+        } catch (Exception e) {
+            // no document is recorded for the item, so it is parsed again and fails in the usual place when it is executed
+            logger.trace(() -> new ParameterizedMessage("failed to parse item [{}] of {} ahead of time", item, request), e);
+        } finally {
+            // the executing thread waits for claimed items, so they must be marked as done whatever happened
+            states.set(item, DONE);
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    @Nullable
+    private IndexShard.PreParsedDocument parse(int item) {
+        final DocWriteRequest<?> docWriteRequest = request.items()[item].request();
+        if (isIndexRequest(docWriteRequest) == false) {
+            return null;
+        }
+        final IndexRequest indexRequest = (IndexRequest) docWriteRequest;
+        return primary.preParseDocument(new SourceToParse(indexRequest.index(), indexRequest.type(), indexRequest.id(),
+            indexRequest.source(), indexRequest.getContentType(), indexRequest.routing()));
+    }
+
+    /**
+     * Returns the document of the item at the given position parsed ahead of time, or {@code null} if it could not be parsed ahead
+     * of time and should be parsed when it is executed. Each item may only be taken once.
+     */
+    @Nullable
+    IndexShard.PreParsedDocument take(int item) {
+        if (states.compareAndSet(item, UNCLAIMED, DONE)) {
+            // no helper got to this item yet, parsing it when executing it is just as fast
+            return null;
+        }
+        if (states.get(item) != DONE) {
+            boolean interrupted = false;
+            synchronized (this) {
+                while (states.get(item) != DONE) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final IndexShard.PreParsedDocument document = documents[item];
+        documents[item] = null;
+        return document;
+    }
+
+    /**
+     * Stops the helpers from parsing further items, for instance because the execution of the request failed.
+     */
+    void close() {
+        closed = true;
+    }
+}
@@ -25,6 +25,7 @@ import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.action.support.replication.TransportWriteAction;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.translog.Translog;
@@ -68,6 +69,8 @@ class BulkPrimaryExecutionContext {
 
     private final BulkShardRequest request;
     private final IndexShard primary;
+    @Nullable
+    private final BulkItemPreParser preParser;
     private Translog.Location locationToSync = null;
     private int currentIndex = -1;
 
@@ -78,8 +81,13 @@ class BulkPrimaryExecutionContext {
 
 
     BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary) {
+        this(request, primary, null);
+    }
+
+    BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary, @Nullable BulkItemPreParser preParser) {
         this.request = request;
         this.primary = primary;
+        this.preParser = preParser;
         advance();
     }
 
@@ -113,6 +121,12 @@ class BulkPrimaryExecutionContext {
         return getCurrentItem().request();
     }
 
+    /** returns the document of the current item if it was parsed ahead of its execution, see {@link BulkItemPreParser} */
+    @Nullable
+    public IndexShard.PreParsedDocument takePreParsedDocument() {
+        return preParser == null ? null : preParser.take(currentIndex);
+    }
+
     public BulkShardRequest getBulkShardRequest() {
         return request;
     }
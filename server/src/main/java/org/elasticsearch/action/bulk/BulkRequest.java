@@ -147,7 +147,7 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
 
         requests.add(request);
         // lack of source is validated in validate() method
-        sizeInBytes += (request.source() != null ? request.source().length() : 0) + REQUEST_OVERHEAD;
+        sizeInBytes += estimatedSizeInBytes(request);
         indices.add(request.index());
         return this;
     }
@@ -164,15 +164,7 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
         applyGlobalMandatoryParameters(request);
 
         requests.add(request);
-        if (request.doc() != null) {
-            sizeInBytes += request.doc().source().length();
-        }
-        if (request.upsertRequest() != null) {
-            sizeInBytes += request.upsertRequest().source().length();
-        }
-        if (request.script() != null) {
-            sizeInBytes += request.script().getIdOrCode().length() * 2;
-        }
+        sizeInBytes += estimatedSizeInBytes(request);
         indices.add(request.index());
         return this;
     }
@@ -185,11 +177,36 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
         applyGlobalMandatoryParameters(request);
 
         requests.add(request);
-        sizeInBytes += REQUEST_OVERHEAD;
+        sizeInBytes += estimatedSizeInBytes(request);
         indices.add(request.index());
         return this;
     }
 
+    /**
+     * The estimated size in bytes of a single write request, as accounted for by {@link #estimatedSizeInBytes()}.
+     */
+    static long estimatedSizeInBytes(DocWriteRequest<?> request) {
+        if (request instanceof IndexRequest) {
+            IndexRequest indexRequest = (IndexRequest) request;
+            return (indexRequest.source() != null ? indexRequest.source().length() : 0) + REQUEST_OVERHEAD;
+        } else if (request instanceof UpdateRequest) {
+            UpdateRequest updateRequest = (UpdateRequest) request;
+            long size = 0;
+            if (updateRequest.doc() != null) {
+                size += updateRequest.doc().source().length();
+            }
+            if (updateRequest.upsertRequest() != null) {
+                size += updateRequest.upsertRequest().source().length();
+            }
+            if (updateRequest.script() != null) {
+                size += updateRequest.script().getIdOrCode().length() * 2;
+            }
+            return size;
+        } else {
+            return REQUEST_OVERHEAD;
+        }
+    }
+
     /**
      * The list of requests in this bulk request.
      */
@@ -49,10 +49,12 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetResult;
@@ -80,18 +82,38 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
     private static final Logger logger = LogManager.getLogger(TransportShardBulkAction.class);
 
+    /**
+     * The maximum number of write threads that parse the documents of a shard bulk request in parallel with the thread that applies
+     * its items in order. Defaults to {@code 0}, which parses each document on the applying thread right before indexing it.
+     */
+    public static final Setting<Integer> PARSING_HELPERS_SETTING =
+        Setting.intSetting("bulk.shard.parsing_helpers", 0, 0, Setting.Property.NodeScope, Setting.Property.Dynamic);
+
     private final UpdateHelper updateHelper;
     private final MappingUpdatedAction mappingUpdatedAction;
+    private volatile int parsingHelpers;
 
     @Inject
     public TransportShardBulkAction(Settings settings, TransportService transportService, ClusterService clusterService,
                                     IndicesService indicesService, ThreadPool threadPool, ShardStateAction shardStateAction,
                                     MappingUpdatedAction mappingUpdatedAction, UpdateHelper updateHelper, ActionFilters actionFilters,
-                                    IndexNameExpressionResolver indexNameExpressionResolver) {
+                                    IndexNameExpressionResolver indexNameExpressionResolver, IndexingPressure indexingPressure) {
         super(settings, ACTION_NAME, transportService, clusterService, indicesService, threadPool, shardStateAction, actionFilters,
-        indexNameExpressionResolver, BulkShardRequest::new, BulkShardRequest::new, ThreadPool.Names.WRITE, false);
+        indexNameExpressionResolver, BulkShardRequest::new, BulkShardRequest::new, ThreadPool.Names.WRITE, false, indexingPressure);
         this.updateHelper = updateHelper;
         this.mappingUpdatedAction = mappingUpdatedAction;
+        this.parsingHelpers = PARSING_HELPERS_SETTING.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(PARSING_HELPERS_SETTING, value -> this.parsingHelpers = value);
+    }
+
+    @Override
+    protected long primaryOperationSize(BulkShardRequest request) {
+        return request.estimatedSizeInBytes();
+    }
+
+    @Override
+    protected long replicaOperationSize(BulkShardRequest request) {
+        return request.estimatedSizeInBytes();
     }
 
     @Override
@@ -134,7 +156,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 public void onTimeout(TimeValue timeout) {
                     mappingUpdateListener.onFailure(new MapperException("timed out while waiting for a dynamic mapping update"));
                 }
-            }), listener, threadPool
+            }), listener, threadPool, parsingHelpers
         );
     }
 
@@ -147,11 +169,32 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         Consumer<ActionListener<Void>> waitForMappingUpdate,
         ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener,
         ThreadPool threadPool) {
+        performOnPrimary(request, primary, updateHelper, nowInMillisSupplier, mappingUpdater, waitForMappingUpdate, listener, threadPool,
+            0);
+    }
+
+    /**
+     * Executes the items of the given request in order on the primary.
+     *
+     * @param parsingHelpers the maximum number of write threads that parse the documents of the request ahead of their execution
+     */
+    public static void performOnPrimary(
+        BulkShardRequest request,
+        IndexShard primary,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        Consumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener,
+        ThreadPool threadPool,
+        int parsingHelpers) {
         new ActionRunnable<>(listener) {
 
             private final Executor executor = threadPool.executor(ThreadPool.Names.WRITE);
 
-            private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary);
+            private final BulkItemPreParser preParser = BulkItemPreParser.start(request, primary, executor, parsingHelpers);
+
+            private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary, preParser);
 
             @Override
             protected void doRun() throws Exception {
@@ -182,7 +225,20 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 finishRequest();
             }
 
+            @Override
+            public void onFailure(Exception e) {
+                closePreParser();
+                super.onFailure(e);
+            }
+
+            private void closePreParser() {
+                if (preParser != null) {
+                    preParser.close();
+                }
+            }
+
             private void finishRequest() {
+                closePreParser();
                 ActionListener.completeWith(listener,
                     () -> new WritePrimaryResult<>(
                         context.getBulkShardRequest(), context.buildShardResponse(), context.getLocationToSync(), null,
@@ -253,9 +309,11 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 request.ifSeqNo(), request.ifPrimaryTerm());
         } else {
             final IndexRequest request = context.getRequestToExecute();
+            // documents of update requests are only known once the update is translated, so they are never parsed ahead of time
+            final IndexShard.PreParsedDocument preParsedDocument = updateResult == null ? context.takePreParsedDocument() : null;
             result = primary.applyIndexOperationOnPrimary(version, request.versionType(), new SourceToParse(
                     request.index(), request.type(), request.id(), request.source(), request.getContentType(), request.routing()),
-                request.ifSeqNo(), request.ifPrimaryTerm(), request.getAutoGeneratedTimestamp(), request.isRetry());
+                preParsedDocument, request.ifSeqNo(), request.ifPrimaryTerm(), request.getAutoGeneratedTimestamp(), request.isRetry());
         }
         if (result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
             mappingUpdater.updateMappings(result.getRequiredMappingUpdate(), primary.shardId(),
@@ -0,0 +1,61 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.get;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.node.ResponseCollectorService;
+
+import java.util.Objects;
+
+/**
+ * A wrapper of the listener of a shard-level get or multi get request that counts the request as outstanding to the target
+ * node in the coordinating node's {@code ResponseCollectorService} until it completes, and adds its response time to the
+ * statistics of the node, so that adaptive replica selection takes get requests into account.
+ */
+final class GetExecutionStatsCollector<Response> implements ActionListener<Response> {
+
+    private final ActionListener<Response> listener;
+    private final ResponseCollectorService collector;
+    private final String nodeId;
+    private final double cost;
+    private final long startNanos;
+
+    GetExecutionStatsCollector(ActionListener<Response> listener, ResponseCollectorService collector, String nodeId) {
+        this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+        this.collector = Objects.requireNonNull(collector, "response collector cannot be null");
+        this.nodeId = Objects.requireNonNull(nodeId, "node id cannot be null");
+        this.startNanos = System.nanoTime();
+        // the response time of searches on the index says little about the cost of a get, so it is not used to estimate it
+        this.cost = collector.onRequestSent(nodeId, null);
+    }
+
+    @Override
+    public void onResponse(Response response) {
+        collector.onRequestCompleted(nodeId, cost);
+        collector.addResponseTime(nodeId, System.nanoTime() - startNanos);
+        listener.onResponse(response);
+    }
+
+    @Override
+    public void onFailure(Exception e) {
+        collector.onRequestCompleted(nodeId, cost);
+        listener.onFailure(e);
+    }
+}
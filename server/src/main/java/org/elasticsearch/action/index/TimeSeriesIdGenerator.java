@@ -0,0 +1,126 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.index;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the ids of documents indexed without an id into indices that use the {@code time_series}
+ * {@link IndexSettings#INDEX_ID_FORMAT_SETTING id format}. Such an id is derived from the timestamp of the document followed by a
+ * hash of its dimensions, so that:
+ * <ul>
+ *     <li>a document that is sent again gets the same id and replaces the previous copy instead of being duplicated,</li>
+ *     <li>ids sort by timestamp, so the ids of recent documents are larger than the ids of all older segments and looking them up
+ *     only needs to visit the newest segments,</li>
+ *     <li>ids of documents with close timestamps share prefixes, which keeps the terms index of the {@code _id} field small.</li>
+ * </ul>
+ */
+public final class TimeSeriesIdGenerator {
+
+    private static final int TIMESTAMP_BYTES = Long.BYTES;
+    private static final int HASH_BYTES = 10;
+
+    private final List<String> dimensions;
+    private final String timestampField;
+
+    TimeSeriesIdGenerator(List<String> dimensions, String timestampField) {
+        if (dimensions.isEmpty()) {
+            throw new IllegalArgumentException("[" + IndexSettings.INDEX_ID_FORMAT_DIMENSIONS_SETTING.getKey()
+                + "] must be set when using the [time_series] id format");
+        }
+        this.dimensions = dimensions;
+        this.timestampField = timestampField;
+    }
+
+    /**
+     * Returns the generator for an index with the given settings, or {@code null} if the index uses the default id format.
+     */
+    @Nullable
+    public static TimeSeriesIdGenerator fromSettings(Settings indexSettings) {
+        if (IndexSettings.INDEX_ID_FORMAT_SETTING.exists(indexSettings) == false
+            || IndexSettings.TIME_SERIES_ID_FORMAT.equals(IndexSettings.INDEX_ID_FORMAT_SETTING.get(indexSettings)) == false) {
+            return null;
+        }
+        return new TimeSeriesIdGenerator(IndexSettings.INDEX_ID_FORMAT_DIMENSIONS_SETTING.get(indexSettings),
+            IndexSettings.INDEX_ID_FORMAT_TIMESTAMP_FIELD_SETTING.get(indexSettings));
+    }
+
+    /**
+     * Generates the id of the document with the given source.
+     *
+     * @throws IllegalArgumentException if the document has no valid timestamp
+     */
+    public String generateId(BytesReference source, XContentType xContentType) {
+        final Map<String, Object> document = XContentHelper.convertToMap(source, false, xContentType).v2();
+        final byte[] id = new byte[TIMESTAMP_BYTES + HASH_BYTES];
+        // flip the sign bit so that the unsigned byte order of ids follows the order of timestamps, including negative ones
+        final long timestamp = timestamp(document) ^ Long.MIN_VALUE;
+        for (int i = 0; i < TIMESTAMP_BYTES; i++) {
+            id[i] = (byte) (timestamp >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+        }
+        final MurmurHash3.Hash128 hash = hashDimensions(document);
+        for (int i = 0; i < HASH_BYTES; i++) {
+            final long bits = i < Long.BYTES ? hash.h1 : hash.h2;
+            id[TIMESTAMP_BYTES + i] = (byte) (bits >>> (Byte.SIZE * (i % Long.BYTES)));
+        }
+        // 18 bytes encode to 24 base64 characters without padding, which the _id field stores as the decoded bytes
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+    }
+
+    private long timestamp(Map<String, Object> document) {
+        final Object value = XContentMapValues.extractValue(timestampField, document);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value instanceof String) {
+            return DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseMillis((String) value);
+        }
+        throw new IllegalArgumentException("documents of indices using the [time_series] id format must have a single date in the ["
+            + timestampField + "] field, but got [" + value + "]");
+    }
+
+    private MurmurHash3.Hash128 hashDimensions(Map<String, Object> document) {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            for (String dimension : dimensions) {
+                out.writeString(dimension);
+                out.writeGenericValue(XContentMapValues.extractValue(dimension, document));
+            }
+            final BytesRef bytes = out.bytes().toBytesRef();
+            return MurmurHash3.hash128(bytes.bytes, bytes.offset, bytes.length, 0, new MurmurHash3.Hash128());
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to hash dimensions", e);
+        }
+    }
+}
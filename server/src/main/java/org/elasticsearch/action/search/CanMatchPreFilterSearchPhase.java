@@ -21,8 +21,13 @@ package org.elasticsearch.action.search;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryRewriteContext;
+import org.elasticsearch.search.CanMatchFieldRangeCache;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.transport.Transport;
@@ -45,6 +50,9 @@ final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<Searc
 
     private final Function<GroupShardsIterator<SearchShardIterator>, SearchPhase> phaseFactory;
     private final GroupShardsIterator<SearchShardIterator> shardsIts;
+    private final CanMatchFieldRangeCache fieldRangeCache;
+    private final ClusterState clusterState;
+    private final QueryRewriteContext rewriteContext;
 
     CanMatchPreFilterSearchPhase(Logger logger, SearchTransportService searchTransportService,
                                         BiFunction<String, String, Transport.Connection> nodeIdToConnection,
@@ -54,20 +62,44 @@ final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<Searc
                                         ActionListener<SearchResponse> listener, GroupShardsIterator<SearchShardIterator> shardsIts,
                                         TransportSearchAction.SearchTimeProvider timeProvider, long clusterStateVersion,
                                         SearchTask task, Function<GroupShardsIterator<SearchShardIterator>, SearchPhase> phaseFactory,
-                                        SearchResponse.Clusters clusters) {
+                                        SearchResponse.Clusters clusters, @Nullable CanMatchFieldRangeCache fieldRangeCache,
+                                        ClusterState clusterState, QueryRewriteContext rewriteContext) {
         //We set max concurrent shard requests to the number of shards so no throttling happens for can_match requests
         super("can_match", logger, searchTransportService, nodeIdToConnection, aliasFilter, concreteIndexBoosts, indexRoutings,
                 executor, request, listener, shardsIts, timeProvider, clusterStateVersion, task,
                 new BitSetSearchPhaseResults(shardsIts.size()), shardsIts.size(), clusters);
         this.phaseFactory = phaseFactory;
         this.shardsIts = shardsIts;
+        this.fieldRangeCache = fieldRangeCache;
+        this.clusterState = clusterState;
+        this.rewriteContext = rewriteContext;
     }
 
     @Override
     protected void executePhaseOnShard(SearchShardIterator shardIt, ShardRouting shard,
                                        SearchActionListener<SearchService.CanMatchResponse> listener) {
+        // field ranges are only cached for shards of the local cluster, since we can't tell whether remote indices are write-blocked
+        final boolean localShard = shardIt.getClusterAlias() == null;
+        if (fieldRangeCache != null && localShard) {
+            final QueryBuilder query = getRequest().source() == null ? null : getRequest().source().query();
+            if (fieldRangeCache.canMatch(clusterState, shardIt.shardId(), query, rewriteContext) == false) {
+                listener.onResponse(new SearchService.CanMatchResponse(false));
+                return;
+            }
+        }
+        final ActionListener<SearchService.CanMatchResponse> responseListener;
+        if (fieldRangeCache != null && localShard) {
+            responseListener = ActionListener.map(listener, response -> {
+                if (response.getFieldRanges() != null) {
+                    fieldRangeCache.put(clusterState, shardIt.shardId(), response.getFieldRanges());
+                }
+                return response;
+            });
+        } else {
+            responseListener = listener;
+        }
         getSearchTransport().sendCanMatch(getConnection(shardIt.getClusterAlias(), shard.currentNodeId()),
-            buildShardSearchRequest(shardIt), getTask(), listener);
+            buildShardSearchRequest(shardIt), getTask(), responseListener);
     }
 
     @Override
@@ -113,6 +113,7 @@ final class FetchSearchPhase extends SearchPhase {
             final IntArrayList[] docIdsToLoad = searchPhaseController.fillDocIdsToLoad(numShards, scoreDocs);
             if (scoreDocs.length == 0) { // no docs to fetch -- sidestep everything and return
                 phaseResults.stream()
+                    .filter(result -> result.fetchResult() == null) // shards that fetched speculatively already freed their context
                     .map(SearchPhaseResult::queryResult)
                     .forEach(this::releaseIrrelevantSearchContext); // we have to release contexts here to free up resources
                 finishPhase.run();
@@ -126,7 +127,10 @@ final class FetchSearchPhase extends SearchPhase {
                 for (int i = 0; i < docIdsToLoad.length; i++) {
                     IntArrayList entry = docIdsToLoad[i];
                     SearchPhaseResult queryResult = queryResults.get(i);
-                    if (entry == null) { // no results for this shard ID
+                    if (queryResult != null && queryResult.fetchResult() != null) {
+                        // the shard fetched its top hits speculatively along with the query results, and freed its context
+                        counter.onResult(queryResult.fetchResult());
+                    } else if (entry == null) { // no results for this shard ID
                         if (queryResult != null) {
                             // if we got some hits from this shard we have to release the context there
                             // we do this as we go since it will free up resources and passing on the request on the
@@ -45,6 +45,10 @@ abstract class SearchActionListener<T extends SearchPhaseResult> implements Acti
         innerOnResponse(response);
     }
 
+    SearchShardTarget getSearchShardTarget() {
+        return searchShardTarget;
+    }
+
     protected void setSearchShardTarget(T response) { // some impls need to override this
         response.setSearchShardTarget(searchShardTarget);
     }
@@ -20,8 +20,10 @@
 package org.elasticsearch.action.search;
 
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.transport.Transport;
 
@@ -31,26 +33,40 @@ import java.util.function.BiFunction;
 /**
  * A wrapper of search action listeners (search results) that unwraps the query
  * result to get the piggybacked queue size and service time EWMA, adding those
- * values to the coordinating nodes' {@code ResponseCollectorService}.
+ * values to the coordinating nodes' {@code ResponseCollectorService}. It also
+ * records the response time against the index of the targeted shard.
  */
 public final class SearchExecutionStatsCollector implements ActionListener<SearchPhaseResult> {
 
     private final ActionListener<SearchPhaseResult> listener;
     private final String nodeId;
     private final ResponseCollectorService collector;
+    private final String index;
     private final long startNanos;
 
     SearchExecutionStatsCollector(ActionListener<SearchPhaseResult> listener,
                                   ResponseCollectorService collector,
                                   String nodeId) {
+        this(listener, collector, nodeId, null);
+    }
+
+    SearchExecutionStatsCollector(ActionListener<SearchPhaseResult> listener,
+                                  ResponseCollectorService collector,
+                                  String nodeId,
+                                  @Nullable String index) {
         this.listener = Objects.requireNonNull(listener, "listener cannot be null");
         this.collector = Objects.requireNonNull(collector, "response collector cannot be null");
         this.startNanos = System.nanoTime();
         this.nodeId = nodeId;
+        this.index = index;
     }
 
     public static BiFunction<Transport.Connection, SearchActionListener, ActionListener> makeWrapper(ResponseCollectorService service) {
-        return (connection, originalListener) -> new SearchExecutionStatsCollector(originalListener, service, connection.getNode().getId());
+        return (connection, originalListener) -> {
+            final SearchShardTarget shardTarget = originalListener.getSearchShardTarget();
+            final String index = shardTarget != null ? shardTarget.getIndex() : null;
+            return new SearchExecutionStatsCollector(originalListener, service, connection.getNode().getId(), index);
+        };
     }
 
     @Override
@@ -64,6 +80,9 @@ public final class SearchExecutionStatsCollector implements ActionListener<Searc
             if (serviceTimeEWMA > 0 && queueSize >= 0) {
                 collector.addNodeStatistics(nodeId, queueSize, responseDuration, serviceTimeEWMA);
             }
+            if (index != null) {
+                collector.addIndexStatistics(index, responseDuration);
+            }
         }
         listener.onResponse(response);
     }
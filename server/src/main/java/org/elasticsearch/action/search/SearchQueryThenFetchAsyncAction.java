@@ -24,7 +24,10 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ShardSearchTransportRequest;
 import org.elasticsearch.transport.Transport;
 
 import java.util.Map;
@@ -35,6 +38,7 @@ import java.util.function.BiFunction;
 final class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<SearchPhaseResult> {
 
     private final SearchPhaseController searchPhaseController;
+    private final boolean speculativeFetch;
 
     SearchQueryThenFetchAsyncAction(final Logger logger, final SearchTransportService searchTransportService,
             final BiFunction<String, String, Transport.Connection> nodeIdToConnection, final Map<String, AliasFilter> aliasFilter,
@@ -42,17 +46,40 @@ final class SearchQueryThenFetchAsyncAction extends AbstractSearchAsyncAction<Se
             final SearchPhaseController searchPhaseController, final Executor executor,
             final SearchRequest request, final ActionListener<SearchResponse> listener,
             final GroupShardsIterator<SearchShardIterator> shardsIts, final TransportSearchAction.SearchTimeProvider timeProvider,
-            long clusterStateVersion, SearchTask task, SearchResponse.Clusters clusters) {
+            long clusterStateVersion, SearchTask task, SearchResponse.Clusters clusters, int speculativeFetchMaxSize) {
         super("query", logger, searchTransportService, nodeIdToConnection, aliasFilter, concreteIndexBoosts, indexRoutings,
                 executor, request, listener, shardsIts, timeProvider, clusterStateVersion, task,
                 searchPhaseController.newSearchPhaseResults(request, shardsIts.size()), request.getMaxConcurrentShardRequests(), clusters);
         this.searchPhaseController = searchPhaseController;
+        this.speculativeFetch = shouldFetchSpeculatively(request, shardsIts.size(), speculativeFetchMaxSize);
+    }
+
+    /**
+     * Returns <code>true</code> if the shards should fetch their top hits together with the query results. Each shard then
+     * fetches up to <code>size</code> hits, which saves the round trip of the fetch phase at the cost of loading hits that
+     * may not make it to the final response. This is only worth it for small sizes and it requires the top hits of each
+     * shard to be a prefix of the shard's hits in the merged response, which excludes pagination, field collapsing and
+     * suggestions.
+     */
+    static boolean shouldFetchSpeculatively(SearchRequest request, int numShards, int maxSize) {
+        if (maxSize <= 0 || numShards <= 1 || request.scroll() != null) {
+            return false;
+        }
+        final SearchSourceBuilder source = request.source();
+        if (source == null) {
+            return SearchService.DEFAULT_SIZE <= maxSize;
+        }
+        final int size = source.size() == -1 ? SearchService.DEFAULT_SIZE : source.size();
+        return size > 0 && size <= maxSize && source.from() <= 0
+            && source.collapse() == null && source.suggest() == null;
     }
 
     protected void executePhaseOnShard(final SearchShardIterator shardIt, final ShardRouting shard,
                                        final SearchActionListener<SearchPhaseResult> listener) {
+        final ShardSearchTransportRequest request = buildShardSearchRequest(shardIt);
+        request.speculativeFetch(speculativeFetch);
         getSearchTransport().sendExecuteQuery(getConnection(shardIt.getClusterAlias(), shard.currentNodeId()),
-            buildShardSearchRequest(shardIt), getTask(), listener);
+            request, getTask(), listener);
     }
 
     @Override
@@ -0,0 +1,182 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ContextPreservingActionListener;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskCancelledException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces identical search requests that are in flight on the coordinating node at the same time. The first request is
+ * executed and all the identical requests that arrive before it completes are attached to it and receive its response.
+ * Requests are identical if they serialize to the same bytes and are executed with the same request headers, so that
+ * requests are never shared across security contexts.
+ */
+final class SearchRequestDeduplicator {
+
+    private final ConcurrentMap<Key, CompositeListener> requests = ConcurrentCollections.newConcurrentMap();
+
+    /**
+     * Executes the given search unless an identical request is already in flight, in which case the listener is notified
+     * with the response of the in-flight request. Scroll requests and requests that disable the request cache are always
+     * executed.
+     *
+     * @param request the search request to deduplicate
+     * @param threadContext the thread context of the request, used to compare request headers and to restore the context of
+     *                      attached requests when notifying them
+     * @param listener the listener to notify with the response
+     * @param search executes the search and notifies the given listener
+     */
+    void executeOnce(SearchRequest request, ThreadContext threadContext, ActionListener<SearchResponse> listener,
+                     Consumer<ActionListener<SearchResponse>> search) {
+        if (canDeduplicate(request) == false) {
+            search.accept(listener);
+            return;
+        }
+        final Key key;
+        try {
+            key = new Key(request, threadContext.getHeaders());
+        } catch (IOException e) {
+            search.accept(listener);
+            return;
+        }
+        final CompositeListener composite = requests.computeIfAbsent(key, CompositeListener::new);
+        // attached requests run their own search if the one they are attached to gets cancelled
+        final ActionListener<SearchResponse> attached = ContextPreservingActionListener.wrapPreservingContext(
+            ActionListener.wrap(listener::onResponse, e -> {
+                if (ExceptionsHelper.unwrap(e, TaskCancelledException.class) != null) {
+                    search.accept(listener);
+                } else {
+                    listener.onFailure(e);
+                }
+            }), threadContext);
+        final ActionListener<SearchResponse> searchListener = composite.addListener(listener, attached);
+        if (searchListener != null) {
+            search.accept(searchListener);
+        }
+    }
+
+    /**
+     * Returns the number of distinct search requests that are currently in flight.
+     */
+    int size() {
+        return requests.size();
+    }
+
+    static boolean canDeduplicate(SearchRequest request) {
+        // scroll contexts belong to a single request and a request that opts out of the request cache asks for fresh results
+        return request.scroll() == null && Boolean.FALSE.equals(request.requestCache()) == false;
+    }
+
+    private static final class Key {
+
+        private final BytesReference request;
+        private final Map<String, String> headers;
+
+        Key(SearchRequest request, Map<String, String> headers) throws IOException {
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                request.writeTo(out);
+                this.request = out.bytes();
+            }
+            // the opaque id only identifies the request for the client, it doesn't affect how the request is executed
+            this.headers = new HashMap<>(headers);
+            this.headers.remove(Task.X_OPAQUE_ID);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return request.equals(other.request) && headers.equals(other.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(request, headers);
+        }
+    }
+
+    private final class CompositeListener implements ActionListener<SearchResponse> {
+
+        private final Key key;
+        private final List<ActionListener<SearchResponse>> listeners = new ArrayList<>();
+        private boolean completed;
+
+        CompositeListener(Key key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds a listener to this request. Returns the listener the caller must execute the search with, or <code>null</code>
+         * if the listener was attached to the running search.
+         */
+        synchronized ActionListener<SearchResponse> addListener(ActionListener<SearchResponse> first,
+                                                                ActionListener<SearchResponse> attached) {
+            if (completed) {
+                // the search completed between the lookup of this listener and now, so the request runs on its own
+                return first;
+            }
+            if (listeners.isEmpty()) {
+                listeners.add(first);
+                return this;
+            }
+            listeners.add(attached);
+            return null;
+        }
+
+        private List<ActionListener<SearchResponse>> complete() {
+            requests.remove(key, this);
+            synchronized (this) {
+                completed = true;
+                return new ArrayList<>(listeners);
+            }
+        }
+
+        @Override
+        public void onResponse(SearchResponse response) {
+            ActionListener.onResponse(complete(), response);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            ActionListener.onFailure(complete(), e);
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.action.IndicesRequest;
@@ -30,7 +31,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
-import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.dfs.DfsSearchResult;
@@ -57,8 +58,6 @@ import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.BiFunction;
 
 /**
@@ -80,12 +79,17 @@ public class SearchTransportService {
     public static final String QUERY_CAN_MATCH_NAME = "indices:data/read/search[can_match]";
 
     private final TransportService transportService;
+    @Nullable
+    private final ResponseCollectorService responseCollectorService;
     private final BiFunction<Transport.Connection, SearchActionListener, ActionListener> responseWrapper;
-    private final Map<String, Long> clientConnections = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    public SearchTransportService(TransportService transportService,
+    /**
+     * @param responseCollectorService tracks the requests that are outstanding to each node, or {@code null} to not track them
+     */
+    public SearchTransportService(TransportService transportService, @Nullable ResponseCollectorService responseCollectorService,
                                   BiFunction<Transport.Connection, SearchActionListener, ActionListener> responseWrapper) {
         this.transportService = transportService;
+        this.responseCollectorService = responseCollectorService;
         this.responseWrapper = responseWrapper;
     }
 
@@ -123,38 +127,40 @@ public class SearchTransportService {
     public void sendExecuteDfs(Transport.Connection connection, final ShardSearchTransportRequest request, SearchTask task,
                                final SearchActionListener<DfsSearchResult> listener) {
         transportService.sendChildRequest(connection, DFS_ACTION_NAME, request, task,
-                new ConnectionCountingHandler<>(listener, DfsSearchResult::new, clientConnections, connection.getNode().getId()));
+                new ConnectionCountingHandler<>(listener, DfsSearchResult::new, connection.getNode().getId(),
+                    request.shardId().getIndexName()));
     }
 
     public void sendExecuteQuery(Transport.Connection connection, final ShardSearchTransportRequest request, SearchTask task,
                                  final SearchActionListener<SearchPhaseResult> listener) {
         // we optimize this and expect a QueryFetchSearchResult if we only have a single shard in the search request
-        // this used to be the QUERY_AND_FETCH which doesn't exist anymore.
-        final boolean fetchDocuments = request.numberOfShards() == 1;
+        // this used to be the QUERY_AND_FETCH which doesn't exist anymore. Shards also fetch their top hits along with
+        // the query results if we asked them to, which nodes before 8.0 don't know about.
+        final boolean fetchDocuments = request.numberOfShards() == 1
+            || (request.speculativeFetch() && connection.getVersion().onOrAfter(Version.V_8_0_0));
         Writeable.Reader<SearchPhaseResult> reader = fetchDocuments ? QueryFetchSearchResult::new : QuerySearchResult::new;
 
         final ActionListener handler = responseWrapper.apply(connection, listener);
         transportService.sendChildRequest(connection, QUERY_ACTION_NAME, request, task,
-                new ConnectionCountingHandler<>(handler, reader, clientConnections, connection.getNode().getId()));
+                new ConnectionCountingHandler<>(handler, reader, connection.getNode().getId(), request.shardId().getIndexName()));
     }
 
     public void sendExecuteQuery(Transport.Connection connection, final QuerySearchRequest request, SearchTask task,
                                  final SearchActionListener<QuerySearchResult> listener) {
         transportService.sendChildRequest(connection, QUERY_ID_ACTION_NAME, request, task,
-                new ConnectionCountingHandler<>(listener, QuerySearchResult::new, clientConnections, connection.getNode().getId()));
+                new ConnectionCountingHandler<>(listener, QuerySearchResult::new, connection.getNode().getId()));
     }
 
     public void sendExecuteScrollQuery(Transport.Connection connection, final InternalScrollSearchRequest request, SearchTask task,
                                        final SearchActionListener<ScrollQuerySearchResult> listener) {
         transportService.sendChildRequest(connection, QUERY_SCROLL_ACTION_NAME, request, task,
-                new ConnectionCountingHandler<>(listener, ScrollQuerySearchResult::new, clientConnections, connection.getNode().getId()));
+                new ConnectionCountingHandler<>(listener, ScrollQuerySearchResult::new, connection.getNode().getId()));
     }
 
     public void sendExecuteScrollFetch(Transport.Connection connection, final InternalScrollSearchRequest request, SearchTask task,
                                        final SearchActionListener<ScrollQueryFetchSearchResult> listener) {
         transportService.sendChildRequest(connection, QUERY_FETCH_SCROLL_ACTION_NAME, request, task,
-                new ConnectionCountingHandler<>(listener, ScrollQueryFetchSearchResult::new, clientConnections,
-                    connection.getNode().getId()));
+                new ConnectionCountingHandler<>(listener, ScrollQueryFetchSearchResult::new, connection.getNode().getId()));
     }
 
     public void sendExecuteFetch(Transport.Connection connection, final ShardFetchSearchRequest request, SearchTask task,
@@ -170,7 +176,7 @@ public class SearchTransportService {
     private void sendExecuteFetch(Transport.Connection connection, String action, final ShardFetchRequest request, SearchTask task,
                                   final SearchActionListener<FetchSearchResult> listener) {
         transportService.sendChildRequest(connection, action, request, task,
-                new ConnectionCountingHandler<>(listener, FetchSearchResult::new, clientConnections, connection.getNode().getId()));
+                new ConnectionCountingHandler<>(listener, FetchSearchResult::new, connection.getNode().getId()));
     }
 
     /**
@@ -180,21 +186,13 @@ public class SearchTransportService {
                                 final ActionListener<MultiSearchResponse> listener) {
         final Transport.Connection connection = transportService.getConnection(transportService.getLocalNode());
         transportService.sendChildRequest(connection, MultiSearchAction.NAME, request, task,
-                new ConnectionCountingHandler<>(listener, MultiSearchResponse::new, clientConnections, connection.getNode().getId()));
+                new ConnectionCountingHandler<>(listener, MultiSearchResponse::new, connection.getNode().getId()));
     }
 
     public RemoteClusterService getRemoteClusterService() {
         return transportService.getRemoteClusterService();
     }
 
-    /**
-     * Return a map of nodeId to pending number of search requests.
-     * This is a snapshot of the current pending search and not a live map.
-     */
-    public Map<String, Long> getPendingSearchRequests() {
-        return new HashMap<>(clientConnections);
-    }
-
     static class ScrollFreeContextRequest extends TransportRequest {
         private long id;
 
@@ -414,46 +412,48 @@ public class SearchTransportService {
         }
     }
 
+    /**
+     * Response handler that counts the request as outstanding to the target node in the {@link ResponseCollectorService} until it
+     * is answered, so that adaptive replica selection can take it into account.
+     */
     final class ConnectionCountingHandler<Response extends TransportResponse> extends ActionListenerResponseHandler<Response> {
-        private final Map<String, Long> clientConnections;
         private final String nodeId;
+        private final double cost;
 
         ConnectionCountingHandler(final ActionListener<? super Response> listener, final Writeable.Reader<Response> responseReader,
-                                  final Map<String, Long> clientConnections, final String nodeId) {
+                                  final String nodeId) {
+            this(listener, responseReader, nodeId, null);
+        }
+
+        ConnectionCountingHandler(final ActionListener<? super Response> listener, final Writeable.Reader<Response> responseReader,
+                                  final String nodeId, @Nullable final String index) {
             super(listener, responseReader);
-            this.clientConnections = clientConnections;
             this.nodeId = nodeId;
-            // Increment the number of connections for this node by one
-            clientConnections.compute(nodeId, (id, conns) -> conns == null ? 1 : conns + 1);
+            this.cost = responseCollectorService == null ? 0 : responseCollectorService.onRequestSent(nodeId, index);
         }
 
         @Override
         public void handleResponse(Response response) {
-            super.handleResponse(response);
-            // Decrement the number of connections or remove it entirely if there are no more connections
-            // We need to remove the entry here so we don't leak when nodes go away forever
-            assert assertNodePresent();
-            clientConnections.computeIfPresent(nodeId, (id, conns) -> conns.longValue() == 1 ? null : conns - 1);
+            try {
+                super.handleResponse(response);
+            } finally {
+                onRequestCompleted();
+            }
         }
 
         @Override
         public void handleException(TransportException e) {
-            super.handleException(e);
-            // Decrement the number of connections or remove it entirely if there are no more connections
-            // We need to remove the entry here so we don't leak when nodes go away forever
-            assert assertNodePresent();
-            clientConnections.computeIfPresent(nodeId, (id, conns) -> conns.longValue() == 1 ? null : conns - 1);
+            try {
+                super.handleException(e);
+            } finally {
+                onRequestCompleted();
+            }
         }
 
-        private boolean assertNodePresent() {
-            clientConnections.compute(nodeId, (id, conns) -> {
-                assert conns != null : "number of connections for " + id + " is null, but should be an integer";
-                assert conns >= 1 : "number of connections for " + id + " should be >= 1 but was " + conns;
-                return conns;
-            });
-            // Always return true, there is additional asserting here, the boolean is just so this
-            // can be skipped when assertions are not enabled
-            return true;
+        private void onRequestCompleted() {
+            if (responseCollectorService != null) {
+                responseCollectorService.onRequestCompleted(nodeId, cost);
+            }
         }
     }
 }
@@ -46,6 +46,7 @@ import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.aggregations.InternalAggregation;
@@ -90,6 +91,20 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
     public static final Setting<Long> SHARD_COUNT_LIMIT_SETTING = Setting.longSetting(
             "action.search.shard_count.limit", Long.MAX_VALUE, 1L, Property.Dynamic, Property.NodeScope);
 
+    /**
+     * The maximum {@code size} of a search request for which shards fetch their top hits together with the query results
+     * instead of waiting for a fetch request from the coordinating node. {@code 0} disables speculative fetching.
+     */
+    public static final Setting<Integer> SPECULATIVE_FETCH_MAX_SIZE_SETTING = Setting.intSetting(
+            "action.search.speculative_fetch.max_size", 0, 0, Property.Dynamic, Property.NodeScope);
+
+    /**
+     * Whether identical search requests that are in flight on the coordinating node at the same time should be executed
+     * only once.
+     */
+    public static final Setting<Boolean> DEDUPLICATE_REQUESTS_SETTING = Setting.boolSetting(
+            "action.search.deduplicate_requests", false, Property.Dynamic, Property.NodeScope);
+
     private final ThreadPool threadPool;
     private final ClusterService clusterService;
     private final SearchTransportService searchTransportService;
@@ -97,6 +112,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
     private final SearchPhaseController searchPhaseController;
     private final SearchService searchService;
     private final IndexNameExpressionResolver indexNameExpressionResolver;
+    private final SearchRequestDeduplicator requestDeduplicator = new SearchRequestDeduplicator();
 
     @Inject
     public TransportSearchAction(ThreadPool threadPool, TransportService transportService, SearchService searchService,
@@ -195,6 +211,15 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
 
     @Override
     protected void doExecute(Task task, SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
+        if (clusterService.getClusterSettings().get(DEDUPLICATE_REQUESTS_SETTING)) {
+            requestDeduplicator.executeOnce(searchRequest, threadPool.getThreadContext(), listener,
+                l -> executeRequest(task, searchRequest, l));
+        } else {
+            executeRequest(task, searchRequest, listener);
+        }
+    }
+
+    private void executeRequest(Task task, SearchRequest searchRequest, ActionListener<SearchResponse> listener) {
         final long relativeStartNanos = System.nanoTime();
         final SearchTimeProvider timeProvider =
             new SearchTimeProvider(searchRequest.getOrCreateAbsoluteStartMillis(), relativeStartNanos, System::nanoTime);
@@ -556,9 +581,12 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                                List<SearchShardIterator> remoteShardIterators, BiFunction<String, String, DiscoveryNode> remoteConnections,
                                ClusterState clusterState, ActionListener<SearchResponse> listener, SearchResponse.Clusters clusters) {
 
-        Map<String, Long> nodeSearchCounts = searchTransportService.getPendingSearchRequests();
+        final ResponseCollectorService responseCollectorService = searchService.getResponseCollectorService();
+        // the search service of some tests has no response collector
+        final Map<String, Long> outstandingRequests =
+            responseCollectorService == null ? null : responseCollectorService.getOutstandingRequests();
         GroupShardsIterator<ShardIterator> localShardsIterator = clusterService.operationRouting().searchShards(clusterState,
-                concreteIndices, routingMap, searchRequest.preference(), searchService.getResponseCollectorService(), nodeSearchCounts);
+                concreteIndices, routingMap, searchRequest.preference(), responseCollectorService, outstandingRequests);
         GroupShardsIterator<SearchShardIterator> shardIterators = mergeShardsIterators(localShardsIterator, localIndices,
             searchRequest.getLocalClusterAlias(), remoteShardIterators);
 
@@ -586,7 +614,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         BiFunction<String, String, Transport.Connection> connectionLookup = buildConnectionLookup(searchRequest.getLocalClusterAlias(),
             nodes::get, remoteConnections, searchTransportService::getConnection);
         boolean preFilterSearchShards = shouldPreFilterSearchShards(searchRequest, shardIterators);
-        searchAsyncAction(task, searchRequest, shardIterators, timeProvider, connectionLookup, clusterState.version(),
+        searchAsyncAction(task, searchRequest, shardIterators, timeProvider, connectionLookup, clusterState,
             Collections.unmodifiableMap(aliasFilter), concreteIndexBoosts, routingMap, listener, preFilterSearchShards, clusters).start();
     }
 
@@ -635,7 +663,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                                                         GroupShardsIterator<SearchShardIterator> shardIterators,
                                                         SearchTimeProvider timeProvider,
                                                         BiFunction<String, String, Transport.Connection> connectionLookup,
-                                                        long clusterStateVersion,
+                                                        ClusterState clusterState,
                                                         Map<String, AliasFilter> aliasFilter,
                                                         Map<String, Float> concreteIndexBoosts,
                                                         Map<String, Set<String>> indexRoutings,
@@ -643,19 +671,21 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                                                         boolean preFilter,
                                                         SearchResponse.Clusters clusters) {
         Executor executor = threadPool.executor(ThreadPool.Names.SEARCH);
+        final long clusterStateVersion = clusterState.version();
         if (preFilter) {
             return new CanMatchPreFilterSearchPhase(logger, searchTransportService, connectionLookup,
                 aliasFilter, concreteIndexBoosts, indexRoutings, executor, searchRequest, listener, shardIterators,
                 timeProvider, clusterStateVersion, task, (iter) -> {
                 AbstractSearchAsyncAction action = searchAsyncAction(task, searchRequest, iter, timeProvider, connectionLookup,
-                    clusterStateVersion, aliasFilter, concreteIndexBoosts, indexRoutings, listener, false, clusters);
+                    clusterState, aliasFilter, concreteIndexBoosts, indexRoutings, listener, false, clusters);
                 return new SearchPhase(action.getName()) {
                     @Override
                     public void run() {
                         action.start();
                     }
                 };
-            }, clusters);
+            }, clusters, searchService.getCanMatchFieldRangeCache(), clusterState,
+                searchService.getRewriteContext(timeProvider::getAbsoluteStartMillis));
         } else {
             AbstractSearchAsyncAction<? extends SearchPhaseResult> searchAsyncAction;
             switch (searchRequest.searchType()) {
@@ -667,7 +697,8 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 case QUERY_THEN_FETCH:
                     searchAsyncAction = new SearchQueryThenFetchAsyncAction(logger, searchTransportService, connectionLookup,
                         aliasFilter, concreteIndexBoosts, indexRoutings, searchPhaseController, executor, searchRequest, listener,
-                        shardIterators, timeProvider, clusterStateVersion, task, clusters);
+                        shardIterators, timeProvider, clusterStateVersion, task, clusters,
+                        clusterService.getClusterSettings().get(SPECULATIVE_FETCH_MAX_SIZE_SETTING));
                     break;
                 default:
                     throw new IllegalStateException("Unknown search type: [" + searchRequest.searchType() + "]");
@@ -23,6 +23,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.ChannelActionListener;
 import org.elasticsearch.action.support.TransportActions;
 import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.support.WriteResponse;
@@ -33,7 +34,9 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.mapper.MapperParsingException;
 import org.elasticsearch.index.shard.IndexShard;
@@ -41,7 +44,9 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.Translog.Location;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
@@ -59,13 +64,79 @@ public abstract class TransportWriteAction<
             Response extends ReplicationResponse & WriteResponse
         > extends TransportReplicationAction<Request, ReplicaRequest, Response> {
 
+    /**
+     * The type of the channels of requests that a node sends to itself, see {@link TransportChannel#getChannelType()}.
+     */
+    private static final String DIRECT_CHANNEL_TYPE = "direct";
+
+    @Nullable
+    private final IndexingPressure indexingPressure;
+
     protected TransportWriteAction(Settings settings, String actionName, TransportService transportService,
                                    ClusterService clusterService, IndicesService indicesService, ThreadPool threadPool,
                                    ShardStateAction shardStateAction, ActionFilters actionFilters,
                                    IndexNameExpressionResolver indexNameExpressionResolver, Writeable.Reader<Request> request,
                                    Writeable.Reader<ReplicaRequest> replicaRequest, String executor, boolean forceExecutionOnPrimary) {
+        this(settings, actionName, transportService, clusterService, indicesService, threadPool, shardStateAction, actionFilters,
+            indexNameExpressionResolver, request, replicaRequest, executor, forceExecutionOnPrimary, null);
+    }
+
+    /**
+     * Creates an action whose primary and replica operations are accounted for by the given {@link IndexingPressure}, which
+     * rejects them if the node has too many bytes of indexing requests in flight. The sizes of the operations are given by
+     * {@link #primaryOperationSize} and {@link #replicaOperationSize}.
+     */
+    protected TransportWriteAction(Settings settings, String actionName, TransportService transportService,
+                                   ClusterService clusterService, IndicesService indicesService, ThreadPool threadPool,
+                                   ShardStateAction shardStateAction, ActionFilters actionFilters,
+                                   IndexNameExpressionResolver indexNameExpressionResolver, Writeable.Reader<Request> request,
+                                   Writeable.Reader<ReplicaRequest> replicaRequest, String executor, boolean forceExecutionOnPrimary,
+                                   @Nullable IndexingPressure indexingPressure) {
         super(settings, actionName, transportService, clusterService, indicesService, threadPool, shardStateAction, actionFilters,
               indexNameExpressionResolver, request, replicaRequest, executor, true, forceExecutionOnPrimary);
+        this.indexingPressure = indexingPressure;
+    }
+
+    @Override
+    protected void handlePrimaryRequest(final ConcreteShardRequest<Request> request, final TransportChannel channel, final Task task) {
+        if (indexingPressure == null) {
+            super.handlePrimaryRequest(request, channel, task);
+            return;
+        }
+        // a primary request that was sent by this same node is already accounted for by its coordinating stage
+        final boolean localToCoordinatingNode = DIRECT_CHANNEL_TYPE.equals(channel.getChannelType());
+        final Releasable releasable =
+            indexingPressure.markPrimaryOperationStarted(primaryOperationSize(request.getRequest()), localToCoordinatingNode);
+        final ActionListener<Response> listener =
+            ActionListener.runAfter(new ChannelActionListener<>(channel, transportPrimaryAction, request), releasable::close);
+        new AsyncPrimaryAction(request, listener, (ReplicationTask) task).run();
+    }
+
+    @Override
+    protected void handleReplicaRequest(final ConcreteReplicaRequest<ReplicaRequest> replicaRequest,
+                                        final TransportChannel channel, final Task task) {
+        if (indexingPressure == null) {
+            super.handleReplicaRequest(replicaRequest, channel, task);
+            return;
+        }
+        final Releasable releasable = indexingPressure.markReplicaOperationStarted(replicaOperationSize(replicaRequest.getRequest()));
+        final ActionListener<ReplicaResponse> listener =
+            ActionListener.runAfter(new ChannelActionListener<>(channel, transportReplicaAction, replicaRequest), releasable::close);
+        new AsyncReplicaAction(replicaRequest, listener, (ReplicationTask) task).run();
+    }
+
+    /**
+     * The number of bytes that the given request holds on to while it is executed on the primary.
+     */
+    protected long primaryOperationSize(Request request) {
+        return 0;
+    }
+
+    /**
+     * The number of bytes that the given request holds on to while it is executed on a replica.
+     */
+    protected long replicaOperationSize(ReplicaRequest request) {
+        return 0;
     }
 
     /** Syncs operation result to the translog or throws a shard not available failure */
@@ -83,13 +154,16 @@ public abstract class TransportWriteAction<
         return location;
     }
 
-    public static Location locationToSync(Location current, Location next) {
+    public static Location locationToSync(@Nullable Location current, @Nullable Location next) {
         /* here we are moving forward in the translog with each operation. Under the hood this might
          * cross translog files which is ok since from the user perspective the translog is like a
          * tape where only the highest location needs to be fsynced in order to sync all previous
          * locations even though they are not in the same file. When the translog rolls over files
          * the previous file is fsynced on after closing if needed.*/
-        assert next != null : "next operation can't be null";
+        if (next == null) {
+            // the index does not write operations to the translog
+            return current;
+        }
         assert current == null || current.compareTo(next) < 0 :
                 "translog locations are not increasing";
         return next;
@@ -300,6 +374,10 @@ public abstract class TransportWriteAction<
                     if (location != null) {
                         waitUntilRefresh = true;
                         pendingOps.incrementAndGet();
+                    } else if (indexShard.indexSettings().isTranslogEnabled() == false) {
+                        // refresh listeners wait for translog locations, which operations of this index don't have
+                        indexShard.refresh("refresh_flag_index");
+                        refreshed.set(true);
                     }
                     break;
                 case NONE:
@@ -137,6 +137,14 @@ public abstract class TransportSingleShardAction<Request extends SingleShardRequ
     @Nullable
     protected abstract ShardsIterator shards(ClusterState state, InternalRequest request);
 
+    /**
+     * Wraps the listener that is notified of the outcome of a shard-level request that is about to be sent to the given node,
+     * for instance to track the requests that are outstanding to each node. Returns the listener unchanged by default.
+     */
+    protected ActionListener<Response> wrapShardListener(DiscoveryNode node, ActionListener<Response> listener) {
+        return listener;
+    }
+
     class AsyncSingleAction {
 
         private final ActionListener<Response> listener;
@@ -247,6 +255,17 @@ public abstract class TransportSingleShardAction<Request extends SingleShardRequ
                     );
                 }
                 final Writeable.Reader<Response> reader = getResponseReader();
+                final ActionListener<Response> shardListener = wrapShardListener(node, new ActionListener<Response>() {
+                    @Override
+                    public void onResponse(Response response) {
+                        listener.onResponse(response);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        AsyncSingleAction.this.onFailure(shardRouting, e);
+                    }
+                });
                 transportService.sendRequest(node, transportShardAction, internalRequest.request(),
                     new TransportResponseHandler<Response>() {
 
@@ -262,12 +281,12 @@ public abstract class TransportSingleShardAction<Request extends SingleShardRequ
 
                         @Override
                         public void handleResponse(final Response response) {
-                            listener.onResponse(response);
+                            shardListener.onResponse(response);
                         }
 
                         @Override
                         public void handleException(TransportException exp) {
-                            onFailure(shardRouting, exp);
+                            shardListener.onFailure(exp);
                         }
                 });
             }
@@ -72,14 +72,35 @@ public class OperationRouting {
 
     public ShardIterator getShards(ClusterState clusterState, String index, String id, @Nullable String routing,
                                    @Nullable String preference) {
+        return getShards(clusterState, index, id, routing, preference, null, null);
+    }
+
+    /**
+     * Returns the shards to execute a single document operation on, ranked with adaptive replica
+     * selection if it is enabled and a {@link ResponseCollectorService} is provided.
+     */
+    public ShardIterator getShards(ClusterState clusterState, String index, String id, @Nullable String routing,
+                                   @Nullable String preference,
+                                   @Nullable ResponseCollectorService collectorService,
+                                   @Nullable Map<String, Long> nodeCounts) {
         return preferenceActiveShardIterator(shards(clusterState, index, id, routing), clusterState.nodes().getLocalNodeId(),
-            clusterState.nodes(), preference, null, null);
+            clusterState.nodes(), preference, collectorService, nodeCounts);
     }
 
     public ShardIterator getShards(ClusterState clusterState, String index, int shardId, @Nullable String preference) {
+        return getShards(clusterState, index, shardId, preference, null, null);
+    }
+
+    /**
+     * Returns the copies of the given shard to execute an operation on, ranked with adaptive replica
+     * selection if it is enabled and a {@link ResponseCollectorService} is provided.
+     */
+    public ShardIterator getShards(ClusterState clusterState, String index, int shardId, @Nullable String preference,
+                                   @Nullable ResponseCollectorService collectorService,
+                                   @Nullable Map<String, Long> nodeCounts) {
         final IndexShardRoutingTable indexShard = clusterState.getRoutingTable().shardRoutingTable(index, shardId);
         return preferenceActiveShardIterator(indexShard, clusterState.nodes().getLocalNodeId(), clusterState.nodes(),
-            preference, null, null);
+            preference, collectorService, nodeCounts);
     }
 
     public GroupShardsIterator<ShardIterator> searchShards(ClusterState clusterState,
@@ -0,0 +1,71 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.index.store.SearchableSnapshotDirectoryFactory;
+
+/**
+ * An allocation decider that prevents the shards of indices that are mounted from a snapshot from being recovered from another copy.
+ * Their files are read from the snapshot and their primaries are recovered from it, but a peer recovery would copy the files of the
+ * source to the local disk of the target, which a mounted shard can't write to. This is why these shards can't be relocated and
+ * can't have replicas.
+ */
+public class SearchableSnapshotAllocationDecider extends AllocationDecider {
+
+    public static final String NAME = "searchable_snapshot";
+
+    @Override
+    public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+        return canAllocate(shardRouting, allocation);
+    }
+
+    @Override
+    public Decision canAllocate(ShardRouting shardRouting, RoutingAllocation allocation) {
+        if (isMounted(shardRouting, allocation) == false) {
+            return allocation.decision(Decision.YES, NAME, "the shard is not mounted from a snapshot");
+        }
+        if (shardRouting.primary() && shardRouting.unassigned()) {
+            return allocation.decision(Decision.YES, NAME, "the primary of a shard mounted from a snapshot recovers from the snapshot");
+        }
+        return allocation.decision(Decision.NO, NAME, "a shard mounted from a snapshot can't be recovered from another copy");
+    }
+
+    @Override
+    public Decision canRebalance(ShardRouting shardRouting, RoutingAllocation allocation) {
+        if (isMounted(shardRouting, allocation)) {
+            return allocation.decision(Decision.NO, NAME, "a shard mounted from a snapshot can't be relocated");
+        }
+        return allocation.decision(Decision.YES, NAME, "the shard is not mounted from a snapshot");
+    }
+
+    @Override
+    public Decision canForceAllocatePrimary(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+        assert shardRouting.primary() : "must not call canForceAllocatePrimary on a non-primary shard " + shardRouting;
+        return canAllocate(shardRouting, node, allocation);
+    }
+
+    private static boolean isMounted(ShardRouting shardRouting, RoutingAllocation allocation) {
+        return SearchableSnapshotDirectoryFactory.isSearchableSnapshotStore(
+            allocation.metaData().getIndexSafe(shardRouting.index()).getSettings());
+    }
+}
@@ -60,6 +60,12 @@ public interface CircuitBreaker {
      * segments.
      */
     String ACCOUNTING = "accounting";
+    /**
+     * The frozen readers breaker tracks memory used by the readers of frozen
+     * shards that are kept open between searches, so that they don't have to
+     * be reopened by the next search.
+     */
+    String FROZEN_READERS = "frozen_readers";
 
     enum Type {
         // A regular or ChildMemoryCircuitBreaker
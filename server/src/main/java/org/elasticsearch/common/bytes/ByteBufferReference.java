@@ -67,6 +67,21 @@ public class ByteBufferReference extends BytesReference {
         return newByteBuffer;
     }
 
+    @Override
+    public boolean hasArray() {
+        return buffer.hasArray();
+    }
+
+    @Override
+    public byte[] array() {
+        return buffer.array();
+    }
+
+    @Override
+    public int arrayOffset() {
+        return buffer.arrayOffset();
+    }
+
     /**
      * This will return a bytes ref composed of the bytes. If this is a direct byte buffer, the bytes will
      * have to be copied.
@@ -98,6 +98,33 @@ public abstract class BytesReference implements Comparable<BytesReference>, ToXC
      */
     public abstract long ramBytesUsed();
 
+    /**
+     * Returns {@code true} iff the referenced bytes are backed by a single contiguous byte array that can be accessed
+     * through {@link #array()} and {@link #arrayOffset()} without copying.
+     */
+    public boolean hasArray() {
+        return false;
+    }
+
+    /**
+     * The byte array backing this reference. The referenced bytes start at {@link #arrayOffset()} and span {@link #length()} bytes.
+     * Callers must not modify the returned array.
+     *
+     * @throws UnsupportedOperationException if this reference is not backed by a single array, see {@link #hasArray()}
+     */
+    public byte[] array() {
+        throw new UnsupportedOperationException("reference is not backed by an array");
+    }
+
+    /**
+     * The offset of the first referenced byte within {@link #array()}.
+     *
+     * @throws UnsupportedOperationException if this reference is not backed by a single array, see {@link #hasArray()}
+     */
+    public int arrayOffset() {
+        throw new UnsupportedOperationException("reference is not backed by an array");
+    }
+
     /**
      * A stream input of the bytes.
      */
@@ -0,0 +1,177 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.search;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.Operations;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A query that matches the documents of an approximation query that have at least one value in the binary doc values of a field which
+ * is accepted by an automaton. The binary doc values must be encoded like
+ * {@link org.elasticsearch.index.mapper.BinaryFieldMapper.CustomBinaryDocValuesField}: the number of values followed by the length
+ * and the bytes of each value.
+ * <p>
+ * The approximation is expected to be a cheap query on an index that matches a superset of the documents that the automaton accepts,
+ * so that the doc values only need to be read for the candidates it returns.
+ */
+public final class AutomatonOnBinaryDocValuesQuery extends Query {
+
+    private final Query approximation;
+    private final String field;
+    private final String description;
+    private final Automaton automaton;
+    private final ByteRunAutomaton runAutomaton;
+
+    /**
+     * @param approximation a query that matches all the documents that the automaton accepts
+     * @param field the field whose binary doc values are verified
+     * @param description a description of the automaton, like the pattern it was built from, used by {@link #toString}
+     * @param automaton an automaton over the unicode code points of the values
+     */
+    public AutomatonOnBinaryDocValuesQuery(Query approximation, String field, String description, Automaton automaton) {
+        this(approximation, field, description, automaton,
+            new ByteRunAutomaton(automaton, false, Operations.DEFAULT_MAX_DETERMINIZED_STATES));
+    }
+
+    private AutomatonOnBinaryDocValuesQuery(Query approximation, String field, String description, Automaton automaton,
+                                            ByteRunAutomaton runAutomaton) {
+        this.approximation = Objects.requireNonNull(approximation);
+        this.field = Objects.requireNonNull(field);
+        this.description = Objects.requireNonNull(description);
+        this.automaton = automaton;
+        this.runAutomaton = runAutomaton;
+    }
+
+    public Query getApproximation() {
+        return approximation;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    @Override
+    public Query rewrite(IndexReader reader) throws IOException {
+        Query rewritten = approximation.rewrite(reader);
+        if (rewritten != approximation) {
+            return new AutomatonOnBinaryDocValuesQuery(rewritten, field, description, automaton, runAutomaton);
+        }
+        return super.rewrite(reader);
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        final Weight approximationWeight = approximation.createWeight(searcher, ScoreMode.COMPLETE_NO_SCORES, 1f);
+        return new ConstantScoreWeight(this, boost) {
+
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                final Scorer approximationScorer = approximationWeight.scorer(context);
+                if (approximationScorer == null) {
+                    return null;
+                }
+                final BinaryDocValues values = DocValues.getBinary(context.reader(), field);
+                final DocIdSetIterator approximationIterator = approximationScorer.iterator();
+                final ByteArrayDataInput in = new ByteArrayDataInput();
+                final TwoPhaseIterator twoPhase = new TwoPhaseIterator(approximationIterator) {
+                    @Override
+                    public boolean matches() throws IOException {
+                        if (values.advanceExact(approximationIterator.docID()) == false) {
+                            return false;
+                        }
+                        final BytesRef bytes = values.binaryValue();
+                        in.reset(bytes.bytes, bytes.offset, bytes.length);
+                        final int count = in.readVInt();
+                        for (int i = 0; i < count; i++) {
+                            final int length = in.readVInt();
+                            final int offset = in.getPosition();
+                            if (runAutomaton.run(bytes.bytes, offset, length)) {
+                                return true;
+                            }
+                            in.setPosition(offset + length);
+                        }
+                        return false;
+                    }
+
+                    @Override
+                    public float matchCost() {
+                        // decoding the values and running the automaton on each of them is much more expensive than a postings lookup
+                        return 1000f;
+                    }
+                };
+                return new ConstantScoreScorer(this, score(), scoreMode, twoPhase);
+            }
+
+            @Override
+            public boolean isCacheable(LeafReaderContext context) {
+                return DocValues.isCacheable(context, field) && approximationWeight.isCacheable(context);
+            }
+        };
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        if (visitor.acceptField(field)) {
+            approximation.visit(visitor.getSubVisitor(BooleanClause.Occur.MUST, this));
+        }
+    }
+
+    @Override
+    public String toString(String field) {
+        return "AutomatonOnBinaryDocValuesQuery(" + this.field + ":" + description + ", approximation=" + approximation.toString(field)
+            + ")";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (sameClassAs(obj) == false) {
+            return false;
+        }
+        AutomatonOnBinaryDocValuesQuery other = (AutomatonOnBinaryDocValuesQuery) obj;
+        return approximation.equals(other.approximation) && field.equals(other.field) && description.equals(other.description)
+            && runAutomaton.equals(other.runAutomaton);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), approximation, field, description, runAutomaton);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.common.lucene.search;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.LongPredicate;
+
+/**
+ * A range query on a numeric field that takes advantage of the segments whose index sort is primarily on that field: the documents
+ * of such segments are ordered by their values, so the matching documents form a contiguous range of doc ids that is found with a
+ * binary search on the doc values instead of visiting the points of the field.
+ * <p>
+ * Segments that are not sorted by the field, or that have documents without a value or with several values for it, are searched
+ * with the fallback query, which must match the same documents. The number of values of the documents is taken from the points of
+ * the field, which must be indexed as a one-dimensional {@link org.apache.lucene.document.LongPoint}.
+ */
+public final class IndexSortSortedNumericDocValuesRangeQuery extends Query {
+
+    private final String field;
+    private final long lowerValue;
+    private final long upperValue;
+    private final Query fallbackQuery;
+
+    /**
+     * @param field the field to search
+     * @param lowerValue the lower bound of the range, inclusive
+     * @param upperValue the upper bound of the range, inclusive
+     * @param fallbackQuery the query that is used on the segments that are not sorted by the field
+     */
+    public IndexSortSortedNumericDocValuesRangeQuery(String field, long lowerValue, long upperValue, Query fallbackQuery) {
+        this.field = Objects.requireNonNull(field);
+        this.lowerValue = lowerValue;
+        this.upperValue = upperValue;
+        this.fallbackQuery = Objects.requireNonNull(fallbackQuery);
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Query getFallbackQuery() {
+        return fallbackQuery;
+    }
+
+    @Override
+    public Query rewrite(IndexReader reader) throws IOException {
+        if (lowerValue > upperValue) {
+            return new MatchNoDocsQuery("empty range");
+        }
+        Query rewritten = fallbackQuery.rewrite(reader);
+        if (rewritten != fallbackQuery) {
+            return new IndexSortSortedNumericDocValuesRangeQuery(field, lowerValue, upperValue, rewritten);
+        }
+        return super.rewrite(reader);
+    }
+
+    /**
+     * Returns the number of documents of the given segment that match this query, ignoring deletions, or {@code -1} if the segment
+     * isn't sorted by the field and the matching documents would have to be counted one by one.
+     */
+    public int count(LeafReader reader) throws IOException {
+        final DocIdSetIterator iterator = getDocIdSetIteratorOrNull(reader);
+        return iterator == null ? -1 : Math.toIntExact(iterator.cost());
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        final Weight fallbackWeight = fallbackQuery.createWeight(searcher, scoreMode, boost);
+        return new ConstantScoreWeight(this, boost) {
+
+            @Override
+            public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+                final DocIdSetIterator iterator = getDocIdSetIteratorOrNull(context.reader());
+                if (iterator == null) {
+                    return fallbackWeight.scorerSupplier(context);
+                }
+                final Scorer scorer = new ConstantScoreScorer(this, score(), scoreMode, iterator);
+                return new ScorerSupplier() {
+                    @Override
+                    public Scorer get(long leadCost) {
+                        return scorer;
+                    }
+
+                    @Override
+                    public long cost() {
+                        return iterator.cost();
+                    }
+                };
+            }
+
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                final ScorerSupplier scorerSupplier = scorerSupplier(context);
+                return scorerSupplier == null ? null : scorerSupplier.get(Long.MAX_VALUE);
+            }
+
+            @Override
+            public boolean isCacheable(LeafReaderContext context) {
+                return DocValues.isCacheable(context, field) && fallbackWeight.isCacheable(context);
+            }
+        };
+    }
+
+    /**
+     * Returns the range of doc ids of the given segment that match this query, or {@code null} if the segment can't be searched by
+     * its index sort.
+     */
+    private DocIdSetIterator getDocIdSetIteratorOrNull(LeafReader reader) throws IOException {
+        final Sort indexSort = reader.getMetaData().getSort();
+        if (indexSort == null) {
+            return null;
+        }
+        final SortField sortField = indexSort.getSort()[0];
+        if (sortField instanceof SortedNumericSortField == false || field.equals(sortField.getField()) == false
+                || ((SortedNumericSortField) sortField).getNumericType() != SortField.Type.LONG) {
+            return null;
+        }
+        final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+        if (fieldInfo == null || fieldInfo.getDocValuesType() != DocValuesType.SORTED_NUMERIC) {
+            return null;
+        }
+        // documents without a value are sorted by the missing value of the sort, which doesn't match them, and documents with
+        // several values are sorted by only one of them, so every document must have exactly one value
+        final PointValues points = reader.getPointValues(field);
+        if (points == null || points.getDocCount() != reader.maxDoc() || points.size() != reader.maxDoc()) {
+            return null;
+        }
+        final int minDoc;
+        final int maxDoc;
+        if (sortField.getReverse()) {
+            minDoc = firstDoc(reader, value -> value <= upperValue);
+            maxDoc = firstDoc(reader, value -> value < lowerValue);
+        } else {
+            minDoc = firstDoc(reader, value -> value >= lowerValue);
+            maxDoc = firstDoc(reader, value -> value > upperValue);
+        }
+        return minDoc < maxDoc ? DocIdSetIterator.range(minDoc, maxDoc) : DocIdSetIterator.empty();
+    }
+
+    /**
+     * Returns the first doc id whose value is accepted by the given predicate, or {@code maxDoc} if there is none. Since the
+     * documents are sorted by their values, the predicate accepts all the documents after the first one that it accepts.
+     */
+    private int firstDoc(LeafReader reader, LongPredicate predicate) throws IOException {
+        int low = 0;
+        int high = reader.maxDoc();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            // doc values can only be read forward, so each probe reads its own instance
+            final SortedNumericDocValues values = DocValues.getSortedNumeric(reader, field);
+            if (values.advanceExact(mid) == false) {
+                throw new IllegalStateException("document [" + mid + "] has no value for field [" + field + "]");
+            }
+            if (predicate.test(values.nextValue())) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        if (visitor.acceptField(field)) {
+            fallbackQuery.visit(visitor.getSubVisitor(BooleanClause.Occur.MUST, this));
+        }
+    }
+
+    @Override
+    public String toString(String field) {
+        return "IndexSortSortedNumericDocValuesRangeQuery(" + this.field + ":[" + lowerValue + " TO " + upperValue + "], fallback="
+            + fallbackQuery.toString(field) + ")";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (sameClassAs(obj) == false) {
+            return false;
+        }
+        IndexSortSortedNumericDocValuesRangeQuery other = (IndexSortSortedNumericDocValuesRangeQuery) obj;
+        return field.equals(other.field) && lowerValue == other.lowerValue && upperValue == other.upperValue
+            && fallbackQuery.equals(other.fallbackQuery);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(classHash(), field, lowerValue, upperValue, fallbackQuery);
+    }
+}
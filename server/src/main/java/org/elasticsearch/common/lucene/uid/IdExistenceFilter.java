@@ -0,0 +1,156 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.uid;
+
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.hash.MurmurHash3;
+
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Answers whether an id might exist in a segment so that primary key lookups can skip seeking the terms dictionary of segments
+ * that certainly do not contain it. An id is always checked against the smallest and largest id of the segment, which rules out
+ * most segments for ids that only grow over time. Optionally the filter also holds a bloom filter over all ids of the segment,
+ * which rules out segments for arbitrary new ids at the cost of {@value #BITS_PER_ID} bits of memory per id.
+ */
+public final class IdExistenceFilter implements Accountable {
+
+    /** The number of bits allocated per id, which together with {@link #NUM_HASHES} yields a false positive rate below 1%. */
+    static final int BITS_PER_ID = 10;
+    static final int NUM_HASHES = 7;
+
+    private static final int CANCELLATION_CHECK_INTERVAL = 1024;
+
+    private final BytesRef minTerm;
+    private final BytesRef maxTerm;
+    private final long[] bits;
+    private final long numBits;
+
+    private IdExistenceFilter(BytesRef minTerm, BytesRef maxTerm, long[] bits) {
+        this.minTerm = minTerm;
+        this.maxTerm = maxTerm;
+        this.bits = bits;
+        this.numBits = bits == null ? 0 : (long) bits.length * Long.SIZE;
+    }
+
+    /**
+     * Creates a filter that only checks ids against the range of the given terms.
+     */
+    static IdExistenceFilter rangeOf(Terms terms) throws IOException {
+        return new IdExistenceFilter(copyOrNull(terms.getMin()), copyOrNull(terms.getMax()), null);
+    }
+
+    /**
+     * Creates a filter that checks ids against the range of the given terms and against a bloom filter built from all of them.
+     *
+     * @param numTerms    the number of terms, or an upper bound if the exact number is unknown
+     * @param isCancelled checked every {@value #CANCELLATION_CHECK_INTERVAL} terms, the filter is not built if it returns {@code true}
+     * @return the filter, or {@code null} if building it was cancelled
+     */
+    static IdExistenceFilter build(Terms terms, long numTerms, BooleanSupplier isCancelled) throws IOException {
+        final long[] bits = new long[numLongs(numTerms)];
+        final long numBits = (long) bits.length * Long.SIZE;
+        final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+        final TermsEnum termsEnum = terms.iterator();
+        long count = 0;
+        for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+            if (++count % CANCELLATION_CHECK_INTERVAL == 0 && isCancelled.getAsBoolean()) {
+                return null;
+            }
+            MurmurHash3.hash128(term.bytes, term.offset, term.length, 0, hash);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                final long bit = bitIndex(hash, i, numBits);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+        return new IdExistenceFilter(copyOrNull(terms.getMin()), copyOrNull(terms.getMax()), bits);
+    }
+
+    /**
+     * Estimates the memory used by the bloom filter of a segment with the given number of terms, before building it.
+     */
+    static long estimateBloomFilterBytes(long numTerms) {
+        return RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) Long.BYTES * numLongs(numTerms));
+    }
+
+    private static int numLongs(long numTerms) {
+        return Math.toIntExact(Math.max(1, (numTerms * BITS_PER_ID + Long.SIZE - 1) / Long.SIZE));
+    }
+
+    private static BytesRef copyOrNull(BytesRef term) {
+        return term == null ? null : BytesRef.deepCopyOf(term);
+    }
+
+    private static long bitIndex(MurmurHash3.Hash128 hash, int i, long numBits) {
+        final long combined = hash.h1 + i * hash.h2;
+        return (combined & Long.MAX_VALUE) % numBits;
+    }
+
+    /**
+     * Returns {@code false} if the given id is certainly not contained in the segment, {@code true} if it might be.
+     *
+     * @param hash scratch space to compute the hash of the id, so that callers can reuse it across lookups
+     */
+    boolean mightContain(BytesRef id, MurmurHash3.Hash128 hash) {
+        if (minTerm != null && id.compareTo(minTerm) < 0) {
+            return false;
+        }
+        if (maxTerm != null && id.compareTo(maxTerm) > 0) {
+            return false;
+        }
+        if (bits != null) {
+            MurmurHash3.hash128(id.bytes, id.offset, id.length, 0, hash);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                final long bit = bitIndex(hash, i, numBits);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether this filter holds a bloom filter over the ids of the segment, as opposed to only checking their range.
+     */
+    boolean hasBloomFilter() {
+        return bits != null;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long size = RamUsageEstimator.shallowSizeOfInstance(IdExistenceFilter.class);
+        if (minTerm != null) {
+            size += RamUsageEstimator.sizeOf(minTerm.bytes);
+        }
+        if (maxTerm != null) {
+            size += RamUsageEstimator.sizeOf(maxTerm.bytes);
+        }
+        if (bits != null) {
+            size += RamUsageEstimator.sizeOf(bits);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.uid;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.Terms;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the bloom filters over the ids of the segments of a shard, see {@link IdExistenceFilter}. A segment's filter is built
+ * once a lookup reaches the segment rather than when the segment is opened, so that segments that are never looked up, for
+ * instance when indexing with auto-generated ids, don't pay for it. Filters are built on the given executor rather than by the
+ * lookup, which usually runs on the write path, and lookups only check the range of the ids of a segment until its filter is
+ * ready. The memory of the filters is tracked in the given circuit breaker, and a filter is not built if it would trip the
+ * breaker. Filters are released when their segment core is closed. Closing this instance cancels the filters that are being
+ * built and waits for them to release their segments.
+ */
+public final class IdExistenceFilters implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(IdExistenceFilters.class);
+
+    private final boolean bloomFiltersEnabled;
+    private final CircuitBreaker breaker;
+    private final Executor executor;
+    private final ConcurrentMap<IndexReader.CacheKey, SegmentFilter> segmentFilters =
+        ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+    private final CounterMetric skippedSegments = new CounterMetric();
+    private volatile boolean closed; // only set while holding this
+    private int runningBuilds; // guarded by this
+
+    private final IndexReader.ClosedListener removeSegmentFilter = key -> {
+        final SegmentFilter segmentFilter = segmentFilters.remove(key);
+        if (segmentFilter != null) {
+            segmentFilter.close();
+        }
+    };
+
+    /**
+     * @param bloomFiltersEnabled whether bloom filters are built at all, if not only the range of the ids of segments is checked
+     * @param breaker             the circuit breaker that tracks the memory of the bloom filters
+     * @param executor            the executor that builds the bloom filters
+     */
+    public IdExistenceFilters(boolean bloomFiltersEnabled, CircuitBreaker breaker, Executor executor) {
+        this.bloomFiltersEnabled = bloomFiltersEnabled;
+        this.breaker = breaker;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the holder of the bloom filter of the segment with the given core, or {@code null} if bloom filters are disabled or
+     * the segment cannot be cached.
+     */
+    @Nullable
+    SegmentFilter getSegmentFilter(@Nullable IndexReader.CacheHelper coreCacheHelper) {
+        if (bloomFiltersEnabled == false || coreCacheHelper == null) {
+            return null;
+        }
+        final IndexReader.CacheKey key = coreCacheHelper.getKey();
+        SegmentFilter segmentFilter = segmentFilters.get(key);
+        if (segmentFilter == null) {
+            segmentFilter = new SegmentFilter();
+            final SegmentFilter other = segmentFilters.putIfAbsent(key, segmentFilter);
+            if (other == null) {
+                // our holder won, we must release it when the segment is closed
+                coreCacheHelper.addClosedListener(removeSegmentFilter);
+            } else {
+                segmentFilter = other;
+            }
+        }
+        return segmentFilter;
+    }
+
+    void onSkippedSegment() {
+        skippedSegments.inc();
+    }
+
+    /**
+     * Returns the number of segments that lookups skipped because they certainly did not contain the looked up id.
+     */
+    public long getSkippedSegmentCount() {
+        return skippedSegments.count();
+    }
+
+    /**
+     * Returns the number of segments that currently hold a bloom filter.
+     */
+    int numBloomFilters() {
+        return (int) segmentFilters.values().stream().filter(segmentFilter -> segmentFilter.filter != null).count();
+    }
+
+    /**
+     * Cancels the bloom filters that are being built and waits for them to release the readers of their segments. Bloom filters
+     * are not built anymore once this instance is closed.
+     */
+    @Override
+    public void close() {
+        boolean interrupted = false;
+        synchronized (this) {
+            closed = true;
+            while (runningBuilds > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized boolean onBuildStarted() {
+        if (closed) {
+            return false;
+        }
+        runningBuilds++;
+        return true;
+    }
+
+    private synchronized void onBuildCompleted() {
+        runningBuilds--;
+        assert runningBuilds >= 0 : "completed more builds than started";
+        notifyAll();
+    }
+
+    /**
+     * The bloom filter of a single segment, which is built once a lookup asks for it.
+     */
+    final class SegmentFilter {
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile IdExistenceFilter filter;
+        private long chargedBytes; // guarded by this
+        private boolean released; // guarded by this
+
+        /**
+         * Returns the bloom filter of the segment, or {@code null} if it is not available (yet). The first call schedules building
+         * it in the background.
+         *
+         * @param segmentReader the reader of the segment, which is only used if it is still open when the filter gets built
+         * @param field         the field that holds the ids
+         */
+        @Nullable
+        IdExistenceFilter get(LeafReader segmentReader, String field) {
+            final IdExistenceFilter filter = this.filter;
+            if (filter != null || claimed.compareAndSet(false, true) == false) {
+                return filter;
+            }
+            try {
+                executor.execute(() -> buildIfOpen(segmentReader, field));
+            } catch (RejectedExecutionException e) {
+                logger.debug("not building the id bloom filter of a segment, the executor rejected it");
+                claimed.set(false);
+            }
+            // the executor may have built it already
+            return this.filter;
+        }
+
+        private void buildIfOpen(LeafReader segmentReader, String field) {
+            if (onBuildStarted() == false) {
+                return;
+            }
+            try {
+                if (segmentReader.tryIncRef() == false) {
+                    // the reader was closed in the meantime, a lookup on a newer reader of the same segment may claim it again
+                    claimed.set(false);
+                    return;
+                }
+                try {
+                    final Terms terms = segmentReader.terms(field);
+                    if (terms != null) {
+                        build(terms, terms.size() >= 0 ? terms.size() : segmentReader.maxDoc());
+                    }
+                } finally {
+                    segmentReader.decRef();
+                }
+            } catch (Exception e) {
+                logger.debug("failed to build the id bloom filter of a segment", e);
+            } finally {
+                onBuildCompleted();
+            }
+        }
+
+        private void build(Terms terms, long numTerms) throws IOException {
+            final long estimatedBytes = IdExistenceFilter.estimateBloomFilterBytes(numTerms);
+            try {
+                breaker.addEstimateBytesAndMaybeBreak(estimatedBytes, "<id_bloom_filter>");
+            } catch (CircuitBreakingException e) {
+                logger.debug("not building the id bloom filter of a segment with [{}] ids", numTerms);
+                return;
+            }
+            boolean success = false;
+            try {
+                final IdExistenceFilter filter = IdExistenceFilter.build(terms, numTerms, () -> closed);
+                synchronized (this) {
+                    if (filter != null && released == false) {
+                        this.chargedBytes = estimatedBytes;
+                        this.filter = filter;
+                        success = true;
+                    }
+                }
+            } finally {
+                if (success == false) {
+                    breaker.addWithoutBreaking(-estimatedBytes);
+                }
+            }
+        }
+
+        synchronized void close() {
+            released = true;
+            filter = null;
+            breaker.addWithoutBreaking(-chargedBytes);
+            chargedBytes = 0;
+        }
+    }
+}
@@ -19,6 +19,8 @@ package org.elasticsearch.common.lucene.uid;
  * under the License.
  */
 
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
@@ -28,6 +30,8 @@ import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.hash.MurmurHash3;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver.DocIdAndSeqNo;
 import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver.DocIdAndVersion;
@@ -58,6 +62,21 @@ final class PerThreadIDVersionAndSeqNoLookup {
     final String uidField;
     private final TermsEnum termsEnum;
 
+    /** the core cache helper of the segment, which identifies its bloom filter */
+    private final IndexReader.CacheHelper coreCacheHelper;
+
+    /** the unwrapped reader of the segment, which the bloom filter of the segment is built from */
+    private final LeafReader segmentReader;
+
+    /** rules out ids outside of the range of the ids of the segment, or null if the segment has no ids */
+    private final IdExistenceFilter rangeFilter;
+
+    /** the holder of the bloom filter of the segment, resolved on the first lookup that provides the filters of the shard */
+    private IdExistenceFilters.SegmentFilter segmentFilter;
+
+    /** Reused to hash ids when checking the filters */
+    private final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+
     /** Reused for iteration (when the term exists) */
     private PostingsEnum docsEnum;
 
@@ -70,6 +89,8 @@ final class PerThreadIDVersionAndSeqNoLookup {
     PerThreadIDVersionAndSeqNoLookup(LeafReader reader, String uidField) throws IOException {
         this.uidField = uidField;
         final Terms terms = reader.terms(uidField);
+        this.coreCacheHelper = reader.getCoreCacheHelper();
+        this.segmentReader = FilterLeafReader.unwrap(reader);
         if (terms == null) {
             // If a segment contains only no-ops, it does not have _uid but has both _soft_deletes and _tombstone fields.
             final NumericDocValues softDeletesDV = reader.getNumericDocValues(Lucene.SOFT_DELETES_FIELD);
@@ -81,8 +102,10 @@ final class PerThreadIDVersionAndSeqNoLookup {
                     "_soft_deletes [" + softDeletesDV + "], _tombstone [" + tombstoneDV + "]");
             }
             termsEnum = null;
+            rangeFilter = null;
         } else {
             termsEnum = terms.iterator();
+            rangeFilter = IdExistenceFilter.rangeOf(terms);
         }
         if (reader.getNumericDocValues(VersionFieldMapper.NAME) == null) {
             throw new IllegalArgumentException("reader misses the [" + VersionFieldMapper.NAME + "] field; _uid terms [" + terms + "]");
@@ -92,6 +115,22 @@ final class PerThreadIDVersionAndSeqNoLookup {
         this.readerKey = readerKey;
     }
 
+    /**
+     * Returns {@code false} if the id certainly does not exist in the segment, in which case looking it up can be skipped.
+     *
+     * @param filters the filters of the shard, whose bloom filter for the segment is used once it is built
+     */
+    boolean mightContain(BytesRef id, @Nullable IdExistenceFilters filters) {
+        if (rangeFilter == null) {
+            return true;
+        }
+        if (filters != null && segmentFilter == null) {
+            segmentFilter = filters.getSegmentFilter(coreCacheHelper);
+        }
+        final IdExistenceFilter bloomFilter = segmentFilter == null ? null : segmentFilter.get(segmentReader, uidField);
+        return (bloomFilter == null ? rangeFilter : bloomFilter).mightContain(id, hash);
+    }
+
     /** Return null if id is not found.
      * We pass the {@link LeafReaderContext} as an argument so that things
      * still work with reader wrappers that hide some documents while still
@@ -24,6 +24,7 @@ import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.util.CloseableThreadLocal;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 
 import java.io.IOException;
@@ -130,6 +131,15 @@ public final class VersionsAndSeqNoResolver {
      * </ul>
      */
     public static DocIdAndVersion loadDocIdAndVersion(IndexReader reader, Term term, boolean loadSeqNo) throws IOException {
+        return loadDocIdAndVersion(reader, term, loadSeqNo, null);
+    }
+
+    /**
+     * Same as {@link #loadDocIdAndVersion(IndexReader, Term, boolean)} but also uses the bloom filters of the given shard to skip
+     * segments that certainly do not contain the uid, and counts the skipped segments.
+     */
+    public static DocIdAndVersion loadDocIdAndVersion(IndexReader reader, Term term, boolean loadSeqNo,
+                                                      @Nullable IdExistenceFilters filters) throws IOException {
         PerThreadIDVersionAndSeqNoLookup[] lookups = getLookupState(reader, term.field());
         List<LeafReaderContext> leaves = reader.leaves();
         // iterate backwards to optimize for the frequently updated documents
@@ -137,6 +147,12 @@ public final class VersionsAndSeqNoResolver {
         for (int i = leaves.size() - 1; i >= 0; i--) {
             final LeafReaderContext leaf = leaves.get(i);
             PerThreadIDVersionAndSeqNoLookup lookup = lookups[leaf.ord];
+            if (lookup.mightContain(term.bytes(), filters) == false) {
+                if (filters != null) {
+                    filters.onSkippedSegment();
+                }
+                continue;
+            }
             DocIdAndVersion result = lookup.lookupVersion(term.bytes(), loadSeqNo, leaf);
             if (result != null) {
                 return result;
@@ -150,6 +166,15 @@ public final class VersionsAndSeqNoResolver {
      * The result is either null or the live and latest version of the given uid.
      */
     public static DocIdAndSeqNo loadDocIdAndSeqNo(IndexReader reader, Term term) throws IOException {
+        return loadDocIdAndSeqNo(reader, term, null);
+    }
+
+    /**
+     * Same as {@link #loadDocIdAndSeqNo(IndexReader, Term)} but also uses the bloom filters of the given shard to skip segments
+     * that certainly do not contain the uid, and counts the skipped segments.
+     */
+    public static DocIdAndSeqNo loadDocIdAndSeqNo(IndexReader reader, Term term, @Nullable IdExistenceFilters filters)
+        throws IOException {
         final PerThreadIDVersionAndSeqNoLookup[] lookups = getLookupState(reader, term.field());
         final List<LeafReaderContext> leaves = reader.leaves();
         // iterate backwards to optimize for the frequently updated documents
@@ -157,6 +182,12 @@ public final class VersionsAndSeqNoResolver {
         for (int i = leaves.size() - 1; i >= 0; i--) {
             final LeafReaderContext leaf = leaves.get(i);
             final PerThreadIDVersionAndSeqNoLookup lookup = lookups[leaf.ord];
+            if (lookup.mightContain(term.bytes(), filters) == false) {
+                if (filters != null) {
+                    filters.onSkippedSegment();
+                }
+                continue;
+            }
             final DocIdAndSeqNo result = lookup.lookupSeqNo(term.bytes(), leaf);
             if (result != null) {
                 return result;
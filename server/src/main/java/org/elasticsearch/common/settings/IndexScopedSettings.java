@@ -39,6 +39,7 @@ import org.elasticsearch.index.mapper.FieldMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.FsDirectoryFactory;
+import org.elasticsearch.index.store.SearchableSnapshotDirectoryFactory;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.indices.IndicesRequestCache;
 
@@ -107,6 +108,7 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexSortConfig.INDEX_SORT_MISSING_SETTING,
             IndexSortConfig.INDEX_SORT_MODE_SETTING,
             IndexSettings.INDEX_TRANSLOG_DURABILITY_SETTING,
+            IndexSettings.INDEX_TRANSLOG_ENABLED_SETTING,
             IndexSettings.INDEX_WARMER_ENABLED_SETTING,
             IndexSettings.INDEX_REFRESH_INTERVAL_SETTING,
             IndexSettings.MAX_RESULT_WINDOW_SETTING,
@@ -121,6 +123,7 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexSettings.MAX_ANALYZED_OFFSET_SETTING,
             IndexSettings.MAX_TERMS_COUNT_SETTING,
             IndexSettings.INDEX_TRANSLOG_SYNC_INTERVAL_SETTING,
+            IndexSettings.COORDINATOR_CAN_MATCH_FIELDS_SETTING,
             IndexSettings.DEFAULT_FIELD_SETTING,
             IndexSettings.QUERY_STRING_LENIENT_SETTING,
             IndexSettings.ALLOW_UNMAPPED,
@@ -131,6 +134,10 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             ShardsLimitAllocationDecider.INDEX_TOTAL_SHARDS_PER_NODE_SETTING,
             IndexSettings.INDEX_GC_DELETES_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_SETTING,
+            IndexSettings.INDEX_ID_BLOOM_FILTER_SETTING,
+            IndexSettings.INDEX_ID_FORMAT_SETTING,
+            IndexSettings.INDEX_ID_FORMAT_DIMENSIONS_SETTING,
+            IndexSettings.INDEX_ID_FORMAT_TIMESTAMP_FIELD_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING,
             IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING,
@@ -155,6 +162,10 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             MapperService.INDEX_MAPPING_FIELD_NAME_LENGTH_LIMIT_SETTING,
             BitsetFilterCache.INDEX_LOAD_RANDOM_ACCESS_FILTERS_EAGERLY_SETTING,
             IndexModule.INDEX_STORE_TYPE_SETTING,
+            SearchableSnapshotDirectoryFactory.SNAPSHOT_REPOSITORY_SETTING,
+            SearchableSnapshotDirectoryFactory.SNAPSHOT_NAME_SETTING,
+            SearchableSnapshotDirectoryFactory.SNAPSHOT_UUID_SETTING,
+            SearchableSnapshotDirectoryFactory.SNAPSHOT_INDEX_ID_SETTING,
             IndexModule.INDEX_STORE_PRE_LOAD_SETTING,
             IndexModule.INDEX_QUERY_CACHE_ENABLED_SETTING,
             FsDirectoryFactory.INDEX_LOCK_FACTOR_SETTING,
@@ -57,7 +57,7 @@ public class XContentHelper {
             final XContentType contentType = XContentFactory.xContentType(compressedInput);
             return XContentFactory.xContent(contentType).createParser(xContentRegistry, deprecationHandler, compressedInput);
         } else {
-            return XContentFactory.xContent(xContentType(bytes)).createParser(xContentRegistry, deprecationHandler, bytes.streamInput());
+            return createParserNotCompressed(XContentFactory.xContent(xContentType(bytes)), xContentRegistry, deprecationHandler, bytes);
         }
     }
 
@@ -75,10 +75,22 @@ public class XContentHelper {
             }
             return XContentFactory.xContent(xContentType).createParser(xContentRegistry, deprecationHandler, compressedInput);
         } else {
-            return xContentType.xContent().createParser(xContentRegistry, deprecationHandler, bytes.streamInput());
+            return createParserNotCompressed(xContentType.xContent(), xContentRegistry, deprecationHandler, bytes);
         }
     }
 
+    /**
+     * Creates a parser for the given uncompressed bytes. If the bytes are backed by a single array the parser reads them in place,
+     * otherwise they are read through {@link BytesReference#streamInput()} which makes the parser copy them into its own buffer.
+     */
+    public static XContentParser createParserNotCompressed(XContent xContent, NamedXContentRegistry xContentRegistry,
+                                                           DeprecationHandler deprecationHandler, BytesReference bytes) throws IOException {
+        if (bytes.hasArray()) {
+            return xContent.createParser(xContentRegistry, deprecationHandler, bytes.array(), bytes.arrayOffset(), bytes.length());
+        }
+        return xContent.createParser(xContentRegistry, deprecationHandler, bytes.streamInput());
+    }
+
     /**
      * Converts the given bytes into a map that is optionally ordered.
      * @deprecated this method relies on auto-detection of content type. Use {@link #convertToMap(BytesReference, boolean, XContentType)}
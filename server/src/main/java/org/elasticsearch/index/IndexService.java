@@ -70,6 +70,9 @@ import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.indices.MergeBudget;
+import org.elasticsearch.indices.ScheduledRefreshBudget;
+import org.elasticsearch.indices.TranslogSyncScheduler;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -133,6 +136,9 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
     private final ScriptService scriptService;
     private final Client client;
     private final CircuitBreakerService circuitBreakerService;
+    private final TranslogSyncScheduler translogSyncScheduler;
+    private final ScheduledRefreshBudget scheduledRefreshBudget;
+    private final MergeBudget mergeBudget;
     private Supplier<Sort> indexSortSupplier;
 
     public IndexService(
@@ -157,13 +163,19 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
             IndicesFieldDataCache indicesFieldDataCache,
             List<SearchOperationListener> searchOperationListeners,
             List<IndexingOperationListener> indexingOperationListeners,
-            NamedWriteableRegistry namedWriteableRegistry) throws IOException {
+            NamedWriteableRegistry namedWriteableRegistry,
+            TranslogSyncScheduler translogSyncScheduler,
+            @Nullable ScheduledRefreshBudget scheduledRefreshBudget,
+            @Nullable MergeBudget mergeBudget) throws IOException {
         super(indexSettings);
         this.indexSettings = indexSettings;
         this.xContentRegistry = xContentRegistry;
         this.similarityService = similarityService;
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.circuitBreakerService = circuitBreakerService;
+        this.translogSyncScheduler = translogSyncScheduler;
+        this.scheduledRefreshBudget = scheduledRefreshBudget;
+        this.mergeBudget = mergeBudget;
         if (indexSettings.getIndexMetaData().getState() == IndexMetaData.State.CLOSE &&
             indexCreationContext == IndexCreationContext.CREATE_INDEX) { // metadata verification needs a mapper service
             this.mapperService = null;
@@ -425,7 +437,9 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                     indexingOperationListeners,
                     () -> globalCheckpointSyncer.accept(shardId),
                     retentionLeaseSyncer,
-                    circuitBreakerService);
+                    circuitBreakerService,
+                    translogSyncScheduler,
+                    mergeBudget);
             eventListener.indexShardStateChanged(indexShard, null, indexShard.state(), "shard created");
             eventListener.afterIndexShardCreated(indexShard);
             shards = Maps.copyMapWithAddedEntry(shards, shardId.id(), indexShard);
@@ -780,7 +794,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         if (indexSettings.getRefreshInterval().millis() > 0 || force) {
             for (IndexShard shard : this.shards.values()) {
                 try {
-                    shard.scheduledRefresh();
+                    shard.scheduledRefresh(scheduledRefreshBudget);
                 } catch (IndexShardClosedException | AlreadyClosedException ex) {
                     // fine - continue;
                 }
@@ -66,9 +66,26 @@ public final class IndexSettings {
     public static final Setting<TimeValue> INDEX_SEARCH_IDLE_AFTER =
         Setting.timeSetting("index.search.idle.after", TimeValue.timeValueSeconds(30),
             TimeValue.timeValueMinutes(0), Property.IndexScope, Property.Dynamic);
+    /**
+     * Index setting listing the date fields whose minimum and maximum values are reported by the shards of the index in their
+     * can_match responses once the index is write-blocked. Coordinating nodes cache these values and use them to skip the
+     * shards of the index without sending them a request when a range query on one of these fields cannot match.
+     */
+    public static final Setting<List<String>> COORDINATOR_CAN_MATCH_FIELDS_SETTING =
+        Setting.listSetting("index.search.coordinator_can_match.fields", Collections.emptyList(), Function.identity(),
+            Property.IndexScope, Property.Dynamic);
     public static final Setting<Translog.Durability> INDEX_TRANSLOG_DURABILITY_SETTING =
         new Setting<>("index.translog.durability", Translog.Durability.REQUEST.name(),
             (value) -> Translog.Durability.valueOf(value.toUpperCase(Locale.ROOT)), Property.Dynamic, Property.IndexScope);
+    /**
+     * Index setting to disable writing operations to the translog. Operations are then only durable once they are part of a Lucene
+     * commit, and the translog merely persists the global checkpoint. Peer recoveries and primary-replica resyncs replay the history
+     * of operations retained by soft deletes instead of the translog, so this requires soft deletes to be enabled. Operations that
+     * were acknowledged but not committed yet are lost if all copies of a shard fail at once, so this is only meant for indices whose
+     * content can be replayed from elsewhere, like follower indices.
+     */
+    public static final Setting<Boolean> INDEX_TRANSLOG_ENABLED_SETTING =
+        Setting.boolSetting("index.translog.enabled", true, Property.IndexScope, Property.Final);
     public static final Setting<Boolean> INDEX_WARMER_ENABLED_SETTING =
         Setting.boolSetting("index.warmer.enabled", true, Property.Dynamic, Property.IndexScope);
     public static final Setting<String> INDEX_CHECK_ON_STARTUP =
@@ -269,6 +286,41 @@ public final class IndexSettings {
                     Property.Dynamic,
                     Property.IndexScope);
 
+    /**
+     * Specifies if bloom filters over the ids of each segment should be built when segments are opened for indexing, which lets
+     * lookups of ids that do not exist yet skip most segments. This costs about ten bits of memory per document.
+     */
+    public static final Setting<Boolean> INDEX_ID_BLOOM_FILTER_SETTING = Setting.boolSetting("index.id_bloom_filter.enabled", false,
+        Property.IndexScope);
+
+    public static final String DEFAULT_ID_FORMAT = "default";
+    public static final String TIME_SERIES_ID_FORMAT = "time_series";
+
+    /**
+     * The format of the ids that are generated for documents indexed without an id. The {@code time_series} format derives the id
+     * from the timestamp and the dimensions of the document, see {@link org.elasticsearch.action.index.TimeSeriesIdGenerator}.
+     */
+    public static final Setting<String> INDEX_ID_FORMAT_SETTING = new Setting<>("index.id_format", DEFAULT_ID_FORMAT, value -> {
+        if (DEFAULT_ID_FORMAT.equals(value) == false && TIME_SERIES_ID_FORMAT.equals(value) == false) {
+            throw new IllegalArgumentException("unknown id format [" + value + "], must be one of [" + DEFAULT_ID_FORMAT + ", "
+                + TIME_SERIES_ID_FORMAT + "]");
+        }
+        return value;
+    }, Property.IndexScope, Property.Final);
+
+    /**
+     * The fields that identify the time series of a document, used to generate ids with the {@code time_series} id format.
+     */
+    public static final Setting<List<String>> INDEX_ID_FORMAT_DIMENSIONS_SETTING =
+        Setting.listSetting("index.time_series_id.dimensions", Collections.emptyList(), Function.identity(),
+            Property.IndexScope, Property.Final);
+
+    /**
+     * The field that holds the timestamp of a document, used to generate ids with the {@code time_series} id format.
+     */
+    public static final Setting<String> INDEX_ID_FORMAT_TIMESTAMP_FIELD_SETTING =
+        Setting.simpleString("index.time_series_id.timestamp_field", "@timestamp", Property.IndexScope, Property.Final);
+
     /**
      * The maximum number of refresh listeners allows on this shard.
      */
@@ -328,6 +380,8 @@ public final class IndexSettings {
     private final IndexScopedSettings scopedSettings;
     private long gcDeletesInMillis = DEFAULT_GC_DELETES.millis();
     private final boolean softDeleteEnabled;
+    private final boolean translogEnabled;
+    private final boolean idBloomFilterEnabled;
     private volatile long softDeleteRetentionOperations;
 
     private volatile long retentionLeaseMillis;
@@ -459,6 +513,17 @@ public final class IndexSettings {
         mergeSchedulerConfig = new MergeSchedulerConfig(this);
         gcDeletesInMillis = scopedSettings.get(INDEX_GC_DELETES_SETTING).getMillis();
         softDeleteEnabled = scopedSettings.get(INDEX_SOFT_DELETES_SETTING);
+        translogEnabled = scopedSettings.get(INDEX_TRANSLOG_ENABLED_SETTING);
+        if (translogEnabled == false && softDeleteEnabled == false) {
+            throw new IllegalArgumentException("[" + INDEX_TRANSLOG_ENABLED_SETTING.getKey() + "] can only be set to [false] when ["
+                + INDEX_SOFT_DELETES_SETTING.getKey() + "] is enabled");
+        }
+        idBloomFilterEnabled = scopedSettings.get(INDEX_ID_BLOOM_FILTER_SETTING);
+        if (TIME_SERIES_ID_FORMAT.equals(scopedSettings.get(INDEX_ID_FORMAT_SETTING))
+            && scopedSettings.get(INDEX_ID_FORMAT_DIMENSIONS_SETTING).isEmpty()) {
+            throw new IllegalArgumentException("[" + INDEX_ID_FORMAT_DIMENSIONS_SETTING.getKey() + "] must be set when using the ["
+                + TIME_SERIES_ID_FORMAT + "] id format");
+        }
         softDeleteRetentionOperations = scopedSettings.get(INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING);
         retentionLeaseMillis = scopedSettings.get(INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING).millis();
         warmerEnabled = scopedSettings.get(INDEX_WARMER_ENABLED_SETTING);
@@ -940,6 +1005,20 @@ public final class IndexSettings {
         return softDeleteEnabled;
     }
 
+    /**
+     * Returns <code>true</code> if operations are written to the translog, see {@link #INDEX_TRANSLOG_ENABLED_SETTING}.
+     */
+    public boolean isTranslogEnabled() {
+        return translogEnabled;
+    }
+
+    /**
+     * Returns <code>true</code> if bloom filters over the ids of each segment are built for id lookups.
+     */
+    public boolean isIdBloomFilterEnabled() {
+        return idBloomFilterEnabled;
+    }
+
     private void setSoftDeleteRetentionOperations(long ops) {
         this.softDeleteRetentionOperations = ops;
     }
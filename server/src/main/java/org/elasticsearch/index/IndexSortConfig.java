@@ -161,6 +161,14 @@ public final class IndexSortConfig {
         return sortSpecs.length > 0;
     }
 
+    /**
+     * Returns true if the index is sorted by the given field first, so that the documents of its segments are ordered by the
+     * values of that field.
+     */
+    public boolean hasPrimarySortOnField(String field) {
+        return sortSpecs.length > 0 && sortSpecs[0].field.equals(field);
+    }
+
     /**
      * Builds the {@link Sort} order from the settings for this index
      * or returns null if this index has no sort.
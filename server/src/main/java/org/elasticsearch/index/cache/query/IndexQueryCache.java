@@ -50,6 +50,11 @@ public class IndexQueryCache extends AbstractIndexComponent implements QueryCach
         indicesQueryCache.clearIndex(index().getName());
     }
 
+    @Override
+    public QueryCachingPolicy newQueryCachingPolicy() {
+        return indicesQueryCache.newQueryCachingPolicy();
+    }
+
     @Override
     public Weight doCache(Weight weight, QueryCachingPolicy policy) {
         return indicesQueryCache.doCache(weight, policy);
@@ -19,6 +19,8 @@
 
 package org.elasticsearch.index.cache.query;
 
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.elasticsearch.index.IndexComponent;
 
 import java.io.Closeable;
@@ -26,4 +28,11 @@ import java.io.Closeable;
 public interface QueryCache extends IndexComponent, Closeable, org.apache.lucene.search.QueryCache {
 
     void clear(String reason);
+
+    /**
+     * Creates the policy that a shard of the index uses to decide which filters should be cached.
+     */
+    default QueryCachingPolicy newQueryCachingPolicy() {
+        return new UsageTrackingQueryCachingPolicy();
+    }
 }
@@ -20,6 +20,7 @@
 package org.elasticsearch.index.cache.query;
 
 import org.apache.lucene.search.DocIdSet;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -30,6 +31,10 @@ import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class QueryCacheStats implements Streamable, Writeable, ToXContentFragment {
 
@@ -38,6 +43,7 @@ public class QueryCacheStats implements Streamable, Writeable, ToXContentFragmen
     private long missCount;
     private long cacheCount;
     private long cacheSize;
+    private Map<String, QueryTypeStats> typeStats = new HashMap<>();
 
     public QueryCacheStats() {
     }
@@ -48,14 +54,23 @@ public class QueryCacheStats implements Streamable, Writeable, ToXContentFragmen
         missCount = in.readLong();
         cacheCount = in.readLong();
         cacheSize = in.readLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            typeStats = in.readMap(StreamInput::readString, QueryTypeStats::new);
+        }
     }
 
     public QueryCacheStats(long ramBytesUsed, long hitCount, long missCount, long cacheCount, long cacheSize) {
+        this(ramBytesUsed, hitCount, missCount, cacheCount, cacheSize, Collections.emptyMap());
+    }
+
+    public QueryCacheStats(long ramBytesUsed, long hitCount, long missCount, long cacheCount, long cacheSize,
+                           Map<String, QueryTypeStats> typeStats) {
         this.ramBytesUsed = ramBytesUsed;
         this.hitCount = hitCount;
         this.missCount = missCount;
         this.cacheCount = cacheCount;
         this.cacheSize = cacheSize;
+        this.typeStats = new HashMap<>(typeStats);
     }
 
     public void add(QueryCacheStats stats) {
@@ -64,6 +79,9 @@ public class QueryCacheStats implements Streamable, Writeable, ToXContentFragmen
         missCount += stats.missCount;
         cacheCount += stats.cacheCount;
         cacheSize += stats.cacheSize;
+        for (Map.Entry<String, QueryTypeStats> entry : stats.typeStats.entrySet()) {
+            typeStats.computeIfAbsent(entry.getKey(), k -> new QueryTypeStats()).add(entry.getValue());
+        }
     }
 
     public long getMemorySizeInBytes() {
@@ -116,6 +134,13 @@ public class QueryCacheStats implements Streamable, Writeable, ToXContentFragmen
         return cacheCount - cacheSize;
     }
 
+    /**
+     * The statistics of the cache per type of query, keyed by the name of the class of the query.
+     */
+    public Map<String, QueryTypeStats> getTypeStats() {
+        return Collections.unmodifiableMap(typeStats);
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
@@ -128,6 +153,9 @@ public class QueryCacheStats implements Streamable, Writeable, ToXContentFragmen
         out.writeLong(missCount);
         out.writeLong(cacheCount);
         out.writeLong(cacheSize);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeMap(typeStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+        }
     }
 
     @Override
@@ -140,6 +168,15 @@ public class QueryCacheStats implements Streamable, Writeable, ToXContentFragmen
         builder.field(Fields.CACHE_SIZE, getCacheSize());
         builder.field(Fields.CACHE_COUNT, getCacheCount());
         builder.field(Fields.EVICTIONS, getEvictions());
+        if (typeStats.isEmpty() == false) {
+            builder.startObject(Fields.TYPES);
+            for (Map.Entry<String, QueryTypeStats> entry : new TreeMap<>(typeStats).entrySet()) {
+                builder.startObject(entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endObject();
+        }
         builder.endObject();
         return builder;
     }
@@ -154,6 +191,7 @@ public class QueryCacheStats implements Streamable, Writeable, ToXContentFragmen
         static final String CACHE_SIZE = "cache_size";
         static final String CACHE_COUNT = "cache_count";
         static final String EVICTIONS = "evictions";
+        static final String TYPES = "types";
     }
 
 }
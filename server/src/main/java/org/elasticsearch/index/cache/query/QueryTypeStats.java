@@ -0,0 +1,126 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.query;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Query cache statistics of a single type of query.
+ */
+public class QueryTypeStats implements Writeable, ToXContentFragment {
+
+    private long hitCount;
+    private long missCount;
+    private long cacheCount;
+    private long evictions;
+
+    public QueryTypeStats() {
+    }
+
+    public QueryTypeStats(long hitCount, long missCount, long cacheCount, long evictions) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.cacheCount = cacheCount;
+        this.evictions = evictions;
+    }
+
+    public QueryTypeStats(StreamInput in) throws IOException {
+        hitCount = in.readVLong();
+        missCount = in.readVLong();
+        cacheCount = in.readVLong();
+        evictions = in.readVLong();
+    }
+
+    public void add(QueryTypeStats stats) {
+        hitCount += stats.hitCount;
+        missCount += stats.missCount;
+        cacheCount += stats.cacheCount;
+        evictions += stats.evictions;
+    }
+
+    /**
+     * The number of successful lookups in the cache.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The number of lookups in the cache that failed to retrieve a cached entry.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The number of entries that have been cached.
+     */
+    public long getCacheCount() {
+        return cacheCount;
+    }
+
+    /**
+     * The number of entries that have been evicted from the cache because the query was evicted.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(hitCount);
+        out.writeVLong(missCount);
+        out.writeVLong(cacheCount);
+        out.writeVLong(evictions);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.field(QueryCacheStats.Fields.HIT_COUNT, hitCount);
+        builder.field(QueryCacheStats.Fields.MISS_COUNT, missCount);
+        builder.field(QueryCacheStats.Fields.CACHE_COUNT, cacheCount);
+        builder.field(QueryCacheStats.Fields.EVICTIONS, evictions);
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        QueryTypeStats that = (QueryTypeStats) o;
+        return hitCount == that.hitCount && missCount == that.missCount && cacheCount == that.cacheCount && evictions == that.evictions;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hitCount, missCount, cacheCount, evictions);
+    }
+}
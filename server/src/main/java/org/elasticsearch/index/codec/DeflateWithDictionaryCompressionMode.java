@@ -0,0 +1,201 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link CompressionMode} that compresses the first bytes of each chunk as a dictionary, and then splits the rest of the chunk
+ * into sub-blocks that are each compressed with DEFLATE using that dictionary. Similar documents, like the {@code _source} of log
+ * events, share most of their bytes with the documents at the start of the chunk, so chunks can be made large enough for a good
+ * compression ratio while reading a single document only has to decompress the dictionary and the sub-block of the document,
+ * rather than the whole chunk.
+ */
+final class DeflateWithDictionaryCompressionMode extends CompressionMode {
+
+    // the number of sub-blocks each chunk is split into, after the dictionary
+    private static final int NUM_SUB_BLOCKS = 16;
+
+    private final int level;
+
+    DeflateWithDictionaryCompressionMode(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public Compressor newCompressor() {
+        return new DeflateWithDictionaryCompressor(level);
+    }
+
+    @Override
+    public Decompressor newDecompressor() {
+        return new DeflateWithDictionaryDecompressor();
+    }
+
+    @Override
+    public String toString() {
+        return "DEFLATE_WITH_DICTIONARY(level=" + level + ")";
+    }
+
+    private static final class DeflateWithDictionaryCompressor extends Compressor {
+
+        private final Deflater deflater;
+        private byte[] compressed = new byte[64];
+        private boolean closed;
+
+        DeflateWithDictionaryCompressor(int level) {
+            deflater = new Deflater(level, true);
+        }
+
+        @Override
+        public void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+            // the dictionary gets the same share of the chunk as each sub-block
+            final int dictLength = len / (NUM_SUB_BLOCKS + 1);
+            final int blockLength = (len - dictLength + NUM_SUB_BLOCKS - 1) / NUM_SUB_BLOCKS;
+            out.writeVInt(dictLength);
+            out.writeVInt(blockLength);
+
+            deflater.reset();
+            doCompress(bytes, off, dictLength, out);
+            final int end = off + len;
+            for (int start = off + dictLength; start < end; start += blockLength) {
+                deflater.reset();
+                if (dictLength > 0) {
+                    deflater.setDictionary(bytes, off, dictLength);
+                }
+                doCompress(bytes, start, Math.min(blockLength, end - start), out);
+            }
+        }
+
+        private void doCompress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+            if (len == 0) {
+                out.writeVInt(0);
+                return;
+            }
+            deflater.setInput(bytes, off, len);
+            deflater.finish();
+            int totalCount = 0;
+            while (true) {
+                totalCount += deflater.deflate(compressed, totalCount, compressed.length - totalCount);
+                if (deflater.finished()) {
+                    break;
+                }
+                compressed = ArrayUtil.grow(compressed);
+            }
+            out.writeVInt(totalCount);
+            out.writeBytes(compressed, totalCount);
+        }
+
+        @Override
+        public void close() {
+            if (closed == false) {
+                deflater.end();
+                closed = true;
+            }
+        }
+    }
+
+    private static final class DeflateWithDictionaryDecompressor extends Decompressor {
+
+        private final Inflater inflater = new Inflater(true);
+        private byte[] compressed = new byte[0];
+
+        @Override
+        public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+            assert offset + length <= originalLength;
+            if (length == 0) {
+                bytes.length = 0;
+                return;
+            }
+            final int dictLength = in.readVInt();
+            final int blockLength = in.readVInt();
+            bytes.bytes = ArrayUtil.grow(bytes.bytes, dictLength);
+            bytes.offset = bytes.length = 0;
+
+            inflater.reset();
+            doDecompress(in, bytes);
+            if (bytes.length != dictLength) {
+                throw new CorruptIndexException("expected dictionary of " + dictLength + " bytes but got " + bytes.length, in);
+            }
+
+            // skip the sub-blocks that end before the requested range
+            int blockStart = dictLength;
+            int offsetInBytes = offset;
+            while (blockStart + blockLength <= offset) {
+                in.skipBytes(in.readVInt());
+                blockStart += blockLength;
+                offsetInBytes -= blockLength;
+            }
+            // and decompress the ones that overlap with it, after the dictionary
+            while (blockStart < offset + length) {
+                bytes.bytes = ArrayUtil.grow(bytes.bytes, bytes.length + blockLength);
+                inflater.reset();
+                if (dictLength > 0) {
+                    inflater.setDictionary(bytes.bytes, 0, dictLength);
+                }
+                doDecompress(in, bytes);
+                blockStart += blockLength;
+            }
+            if (bytes.length < offsetInBytes + length) {
+                throw new CorruptIndexException("expected at least " + (offsetInBytes + length) + " decompressed bytes but got "
+                    + bytes.length, in);
+            }
+            bytes.offset = offsetInBytes;
+            bytes.length = length;
+        }
+
+        private void doDecompress(DataInput in, BytesRef bytes) throws IOException {
+            final int compressedLength = in.readVInt();
+            if (compressedLength == 0) {
+                return;
+            }
+            // Inflater in nowrap mode needs an extra dummy byte after the compressed bytes
+            compressed = ArrayUtil.grow(compressed, compressedLength + 1);
+            in.readBytes(compressed, 0, compressedLength);
+            compressed[compressedLength] = 0;
+            inflater.setInput(compressed, 0, compressedLength + 1);
+            try {
+                bytes.length += inflater.inflate(bytes.bytes, bytes.length, bytes.bytes.length - bytes.length);
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            }
+            if (inflater.finished() == false) {
+                throw new CorruptIndexException("sub-block of chunk is larger than expected", in);
+            }
+        }
+
+        @Override
+        public Decompressor clone() {
+            return new DeflateWithDictionaryDecompressor();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.FilterCodec;
+import org.apache.lucene.codecs.StoredFieldsFormat;
+import org.apache.lucene.codecs.compressing.CompressingStoredFieldsFormat;
+import org.apache.lucene.codecs.lucene80.Lucene80Codec;
+
+import java.util.zip.Deflater;
+
+/**
+ * A {@link Codec} that is the {@link Lucene80Codec} except for its stored fields, which are compressed in large chunks with
+ * {@link DeflateWithDictionaryCompressionMode}. This gives a compression ratio close to the one of the
+ * {@link CodecService#BEST_COMPRESSION_CODEC best_compression} codec for small, similar documents like log events, while fetching a
+ * document only decompresses a small part of its chunk.
+ *
+ * This codec is registered through SPI under {@link #CODEC_NAME}, which is the name that segments written with it record, so that they
+ * can be read back with the postings and doc values formats that their field infos record.
+ */
+public class DictionaryCompressionCodec extends FilterCodec {
+
+    public static final String CODEC_NAME = "DictionaryCompression80";
+
+    static final int CHUNK_SIZE = 128 * 1024;
+    static final int MAX_DOCS_PER_CHUNK = 1024;
+    static final int BLOCK_SIZE = 1024;
+
+    private final StoredFieldsFormat storedFieldsFormat = new CompressingStoredFieldsFormat("DictionaryCompressionStoredFields",
+        new DeflateWithDictionaryCompressionMode(Deflater.BEST_COMPRESSION), CHUNK_SIZE, MAX_DOCS_PER_CHUNK, BLOCK_SIZE);
+
+    /**
+     * Used by SPI to read segments that were written with this codec.
+     */
+    public DictionaryCompressionCodec() {
+        this(new Lucene80Codec());
+    }
+
+    /**
+     * Creates a codec that writes the stored fields with dictionary compression and delegates everything else to the given codec.
+     */
+    public DictionaryCompressionCodec(Codec delegate) {
+        super(CODEC_NAME, delegate);
+    }
+
+    @Override
+    public StoredFieldsFormat storedFieldsFormat() {
+        return storedFieldsFormat;
+    }
+}
@@ -25,6 +25,9 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
 import org.apache.lucene.index.OneMergeHelper;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
@@ -38,6 +41,7 @@ import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.merge.MergeStats;
 import org.elasticsearch.index.merge.OnGoingMerge;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.MergeBudget;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -66,10 +70,13 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
     private final Set<OnGoingMerge> onGoingMerges = ConcurrentCollections.newConcurrentSet();
     private final Set<OnGoingMerge> readOnlyOnGoingMerges = Collections.unmodifiableSet(onGoingMerges);
     private final MergeSchedulerConfig config;
+    @Nullable
+    private final MergeBudget mergeBudget;
 
-    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
+    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings, @Nullable MergeBudget mergeBudget) {
         this.config = indexSettings.getMergeSchedulerConfig();
         this.shardId = shardId;
+        this.mergeBudget = mergeBudget;
         this.indexSettings = indexSettings.getSettings();
         this.logger = Loggers.getLogger(getClass(), shardId);
         refreshConfig();
@@ -81,6 +88,13 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
 
     @Override
     protected void doMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
+        // a merge that waits for the merge budget of the node is not running yet, so it only counts as a current merge once it got a slot
+        try (Releasable ignored = mergeBudget == null ? null : mergeBudget.acquire(merge)) {
+            doMergeWithinBudget(writer, merge);
+        }
+    }
+
+    private void doMergeWithinBudget(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
         int totalNumDocs = merge.totalNumDocs();
         long totalSizeInBytes = merge.totalBytesSize();
         long timeNS = System.nanoTime();
@@ -154,6 +168,12 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
      */
     protected void afterMerge(OnGoingMerge merge) {}
 
+    @Override
+    public Directory wrapForMerge(MergePolicy.OneMerge merge, Directory in) {
+        final Directory wrapped = super.wrapForMerge(merge, in);
+        return mergeBudget == null ? wrapped : mergeBudget.wrapForMerge(merge, wrapped);
+    }
+
     @Override
     public MergeScheduler clone() {
         // Lucene IW makes a clone internally but since we hold on to this instance
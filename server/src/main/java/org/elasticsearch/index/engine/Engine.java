@@ -332,6 +332,14 @@ public abstract class Engine implements Closeable {
      */
     public abstract boolean isThrottled();
 
+    /**
+     * Returns the number of times looking up a document by id skipped seeking the terms dictionary of a segment because the
+     * segment certainly did not contain the id.
+     */
+    public long getAvoidedIdSeekCount() {
+        return 0;
+    }
+
     /**
      * Trims translog for terms below <code>belowTerm</code> and seq# above <code>aboveSeqNo</code>
      * @see Translog#trimOperations(long, long)
@@ -40,6 +40,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.indices.IndexingMemoryController;
+import org.elasticsearch.indices.MergeBudget;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -94,6 +95,8 @@ public final class EngineConfig {
 
     private final LongSupplier primaryTermSupplier;
     private final TombstoneDocSupplier tombstoneDocSupplier;
+    @Nullable
+    private final MergeBudget mergeBudget;
 
     /**
      * Index setting to change the low level lucene codec used for writing new segments.
@@ -105,12 +108,14 @@ public final class EngineConfig {
         switch (s) {
             case "default":
             case "best_compression":
+            case "dictionary_compression":
             case "lucene_default":
                 return s;
             default:
                 if (Codec.availableCodecs().contains(s) == false) { // we don't error message the not officially supported ones
                     throw new IllegalArgumentException(
-                        "unknown value for [index.codec] must be one of [default, best_compression] but was: " + s);
+                        "unknown value for [index.codec] must be one of [default, best_compression, dictionary_compression] but was: "
+                            + s);
                 }
                 return s;
         }
@@ -133,6 +138,28 @@ public final class EngineConfig {
                         Supplier<RetentionLeases> retentionLeasesSupplier,
                         LongSupplier primaryTermSupplier,
                         TombstoneDocSupplier tombstoneDocSupplier) {
+        this(shardId, allocationId, threadPool, indexSettings, warmer, store, mergePolicy, analyzer, similarity, codecService,
+            eventListener, queryCache, queryCachingPolicy, translogConfig, flushMergesAfter, externalRefreshListener,
+            internalRefreshListener, indexSort, circuitBreakerService, globalCheckpointSupplier, retentionLeasesSupplier,
+            primaryTermSupplier, tombstoneDocSupplier, null);
+    }
+
+    /**
+     * Creates a new {@link org.elasticsearch.index.engine.EngineConfig} whose merges are subject to the given node-level merge budget
+     */
+    public EngineConfig(ShardId shardId, String allocationId, ThreadPool threadPool,
+                        IndexSettings indexSettings, Engine.Warmer warmer, Store store,
+                        MergePolicy mergePolicy, Analyzer analyzer,
+                        Similarity similarity, CodecService codecService, Engine.EventListener eventListener,
+                        QueryCache queryCache, QueryCachingPolicy queryCachingPolicy,
+                        TranslogConfig translogConfig, TimeValue flushMergesAfter,
+                        List<ReferenceManager.RefreshListener> externalRefreshListener,
+                        List<ReferenceManager.RefreshListener> internalRefreshListener, Sort indexSort,
+                        CircuitBreakerService circuitBreakerService, LongSupplier globalCheckpointSupplier,
+                        Supplier<RetentionLeases> retentionLeasesSupplier,
+                        LongSupplier primaryTermSupplier,
+                        TombstoneDocSupplier tombstoneDocSupplier,
+                        @Nullable MergeBudget mergeBudget) {
         this.shardId = shardId;
         this.allocationId = allocationId;
         this.indexSettings = indexSettings;
@@ -171,6 +198,7 @@ public final class EngineConfig {
         this.retentionLeasesSupplier = Objects.requireNonNull(retentionLeasesSupplier);
         this.primaryTermSupplier = primaryTermSupplier;
         this.tombstoneDocSupplier = tombstoneDocSupplier;
+        this.mergeBudget = mergeBudget;
     }
 
     /**
@@ -381,4 +409,12 @@ public final class EngineConfig {
     public TombstoneDocSupplier getTombstoneDocSupplier() {
         return tombstoneDocSupplier;
     }
+
+    /**
+     * Returns the node-level budget that the merges of the engine are subject to, or {@code null} if they are only throttled per shard
+     */
+    @Nullable
+    public MergeBudget getMergeBudget() {
+        return mergeBudget;
+    }
 }
@@ -61,10 +61,12 @@ import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.SuppressForbidden;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lucene.LoggerInfoStream;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.lucene.uid.IdExistenceFilters;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver;
 import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver.DocIdAndSeqNo;
@@ -97,6 +99,7 @@ import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogCorruptedException;
 import org.elasticsearch.index.translog.TranslogDeletionPolicy;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.indices.MergeBudget;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
@@ -171,10 +174,17 @@ public class InternalEngine extends Engine {
     private final CounterMetric numDocUpdates = new CounterMetric();
     private final NumericDocValuesField softDeletesField = Lucene.newSoftDeletesField();
     private final boolean softDeleteEnabled;
+    // rule out segments that cannot contain an id when resolving versions, and count the skipped segments
+    private final IdExistenceFilters idExistenceFilters;
     private final SoftDeletesPolicy softDeletesPolicy;
     private final LastRefreshedCheckpointListener lastRefreshedCheckpointListener;
 
     private final AtomicBoolean trackTranslogLocation = new AtomicBoolean(false);
+    private final boolean translogEnabled;
+    // if operations are not written to the translog, the local checkpoint up to which operations are durable in a Lucene commit
+    private final AtomicLong durableLocalCheckpoint = new AtomicLong(SequenceNumbers.NO_OPS_PERFORMED);
+    // if operations are not written to the translog, the estimated bytes of the operations that are not committed yet
+    private final AtomicLong uncommittedOperationBytes = new AtomicLong();
     private final KeyedLock<Long> noOpKeyedLock = new KeyedLock<>();
 
     @Nullable
@@ -192,6 +202,10 @@ public class InternalEngine extends Engine {
                 engineConfig.getIndexSettings().getTranslogRetentionSize().getBytes(),
                 engineConfig.getIndexSettings().getTranslogRetentionAge().getMillis()
         );
+        this.translogEnabled = engineConfig.getIndexSettings().isTranslogEnabled();
+        this.idExistenceFilters = new IdExistenceFilters(engineConfig.getIndexSettings().isIdBloomFilterEnabled(),
+            engineConfig.getCircuitBreakerService().getBreaker(CircuitBreaker.ACCOUNTING),
+            engineConfig.getThreadPool().executor(ThreadPool.Names.WARMER));
         store.incRef();
         IndexWriter writer = null;
         Translog translog = null;
@@ -201,11 +215,12 @@ public class InternalEngine extends Engine {
         boolean success = false;
         try {
             this.lastDeleteVersionPruneTimeMSec = engineConfig.getThreadPool().relativeTimeInMillis();
-            mergeScheduler = scheduler = new EngineMergeScheduler(engineConfig.getShardId(), engineConfig.getIndexSettings());
+            mergeScheduler = scheduler = new EngineMergeScheduler(engineConfig.getShardId(), engineConfig.getIndexSettings(),
+                engineConfig.getMergeBudget());
             throttle = new IndexThrottle();
             try {
                 trimUnsafeCommits(engineConfig);
-                translog = openTranslog(engineConfig, translogDeletionPolicy, engineConfig.getGlobalCheckpointSupplier(),
+                translog = openTranslog(engineConfig, translogDeletionPolicy, persistedGlobalCheckpointSupplier(engineConfig),
                     seqNo -> {
                         final LocalCheckpointTracker tracker = getLocalCheckpointTracker();
                         assert tracker != null || getTranslog().isOpen() == false;
@@ -488,6 +503,38 @@ public class InternalEngine extends Engine {
             engineConfig.getPrimaryTermSupplier(), persistedSequenceNumberConsumer);
     }
 
+    /**
+     * Returns the supplier of the global checkpoint that the translog persists. If operations are not written to the translog, they
+     * are only durable once committed, so the persisted global checkpoint must not go above the local checkpoint of the last commit:
+     * the copies of the shard would otherwise consider operations that were lost on restart as safe.
+     */
+    private LongSupplier persistedGlobalCheckpointSupplier(EngineConfig engineConfig) throws IOException {
+        final LongSupplier globalCheckpointSupplier = engineConfig.getGlobalCheckpointSupplier();
+        if (translogEnabled) {
+            return globalCheckpointSupplier;
+        }
+        final long lastCommittedLocalCheckpoint =
+            Long.parseLong(store.readLastCommittedSegmentsInfo().getUserData().get(SequenceNumbers.LOCAL_CHECKPOINT_KEY));
+        // never go below the global checkpoint that the translog already persisted
+        final long persistedGlobalCheckpoint = Translog.readGlobalCheckpoint(
+            engineConfig.getTranslogConfig().getTranslogPath(), loadTranslogUUIDFromLastCommit());
+        durableLocalCheckpoint.set(Math.max(lastCommittedLocalCheckpoint, persistedGlobalCheckpoint));
+        return () -> Math.min(globalCheckpointSupplier.getAsLong(), durableLocalCheckpoint.get());
+    }
+
+    /**
+     * Adds the given operation to the translog and returns its location, or returns {@code null} if operations are not written to
+     * the translog.
+     */
+    @Nullable
+    private Translog.Location addToTranslog(Operation operation, Translog.Operation translogOperation) throws IOException {
+        if (translogEnabled) {
+            return translog.add(translogOperation);
+        }
+        uncommittedOperationBytes.addAndGet(operation.estimatedSizeInBytes());
+        return null;
+    }
+
     // Package private for testing purposes only
     Translog getTranslog() {
         ensureOpen();
@@ -524,6 +571,10 @@ public class InternalEngine extends Engine {
      */
     @Override
     public Translog.Snapshot readHistoryOperations(String source, MapperService mapperService, long startingSeqNo) throws IOException {
+        if (translogEnabled == false) {
+            // the translog holds no operations, but soft deletes retain their history in Lucene
+            return newChangesSnapshot(source, mapperService, Math.max(0, startingSeqNo), Long.MAX_VALUE, false);
+        }
         return getTranslog().newSnapshotFromMinSeqNo(startingSeqNo);
     }
 
@@ -531,7 +582,17 @@ public class InternalEngine extends Engine {
      * Returns the estimated number of history operations whose seq# at least the provided seq# in this engine.
      */
     @Override
-    public int estimateNumberOfHistoryOperations(String source, MapperService mapperService, long startingSeqNo) {
+    public int estimateNumberOfHistoryOperations(String source, MapperService mapperService, long startingSeqNo) throws IOException {
+        if (translogEnabled == false) {
+            // counts the documents that a changes snapshot would read, without sorting them and loading the first batch like it does
+            ensureOpen();
+            refreshIfNeeded(source, getProcessedLocalCheckpoint());
+            try (Searcher searcher = acquireSearcher(source, SearcherScope.INTERNAL)) {
+                final IndexSearcher indexSearcher = new IndexSearcher(Lucene.wrapAllDocsLive(searcher.getDirectoryReader()));
+                indexSearcher.setQueryCache(null);
+                return indexSearcher.count(LongPoint.newRangeQuery(SeqNoFieldMapper.NAME, Math.max(0, startingSeqNo), Long.MAX_VALUE));
+            }
+        }
         return getTranslog().estimateTotalOperationsFromMinSeq(startingSeqNo);
     }
 
@@ -713,7 +774,8 @@ public class InternalEngine extends Engine {
             // load from index
             assert incrementIndexVersionLookup();
             try (Searcher searcher = acquireSearcher("load_seq_no", SearcherScope.INTERNAL)) {
-                final DocIdAndSeqNo docAndSeqNo = VersionsAndSeqNoResolver.loadDocIdAndSeqNo(searcher.reader(), op.uid());
+                final DocIdAndSeqNo docAndSeqNo = VersionsAndSeqNoResolver.loadDocIdAndSeqNo(searcher.reader(), op.uid(),
+                    idExistenceFilters);
                 if (docAndSeqNo == null) {
                     status = OpVsLuceneDocStatus.LUCENE_DOC_NOT_FOUND;
                 } else if (op.seqNo() > docAndSeqNo.seqNo) {
@@ -738,7 +800,8 @@ public class InternalEngine extends Engine {
             assert incrementIndexVersionLookup(); // used for asserting in tests
             final VersionsAndSeqNoResolver.DocIdAndVersion docIdAndVersion;
             try (Searcher searcher = acquireSearcher("load_version", SearcherScope.INTERNAL)) {
-                 docIdAndVersion = VersionsAndSeqNoResolver.loadDocIdAndVersion(searcher.reader(), op.uid(), loadSeqNo);
+                docIdAndVersion = VersionsAndSeqNoResolver.loadDocIdAndVersion(searcher.reader(), op.uid(), loadSeqNo,
+                    idExistenceFilters);
             }
             if (docIdAndVersion != null) {
                 versionValue = new IndexVersionValue(null, docIdAndVersion.version, docIdAndVersion.seqNo, docIdAndVersion.primaryTerm);
@@ -906,7 +969,7 @@ public class InternalEngine extends Engine {
                 if (index.origin().isFromTranslog() == false) {
                     final Translog.Location location;
                     if (indexResult.getResultType() == Result.Type.SUCCESS) {
-                        location = translog.add(new Translog.Index(index, indexResult));
+                        location = addToTranslog(index, new Translog.Index(index, indexResult));
                     } else if (indexResult.getSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO) {
                         // if we have document failure, record it as a no-op in the translog and Lucene with the generated seq_no
                         final NoOp noOp = new NoOp(indexResult.getSeqNo(), index.primaryTerm(), index.origin(),
@@ -924,8 +987,10 @@ public class InternalEngine extends Engine {
                 }
                 localCheckpointTracker.markSeqNoAsProcessed(indexResult.getSeqNo());
                 if (indexResult.getTranslogLocation() == null) {
-                    // the op is coming from the translog (and is hence persisted already) or it does not have a sequence number
-                    assert index.origin().isFromTranslog() || indexResult.getSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO;
+                    // the op is coming from the translog (and is hence persisted already), it does not have a sequence number or
+                    // operations are not written to the translog
+                    assert index.origin().isFromTranslog() || indexResult.getSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO
+                        || translogEnabled == false;
                     localCheckpointTracker.markSeqNoAsPersisted(indexResult.getSeqNo());
                 }
                 indexResult.setTook(System.nanoTime() - index.startTime());
@@ -1277,13 +1342,15 @@ public class InternalEngine extends Engine {
                 }
             }
             if (delete.origin().isFromTranslog() == false && deleteResult.getResultType() == Result.Type.SUCCESS) {
-                final Translog.Location location = translog.add(new Translog.Delete(delete, deleteResult));
+                final Translog.Location location = addToTranslog(delete, new Translog.Delete(delete, deleteResult));
                 deleteResult.setTranslogLocation(location);
             }
             localCheckpointTracker.markSeqNoAsProcessed(deleteResult.getSeqNo());
             if (deleteResult.getTranslogLocation() == null) {
-                // the op is coming from the translog (and is hence persisted already) or does not have a sequence number (version conflict)
-                assert delete.origin().isFromTranslog() || deleteResult.getSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO;
+                // the op is coming from the translog (and is hence persisted already), does not have a sequence number (version conflict)
+                // or operations are not written to the translog
+                assert delete.origin().isFromTranslog() || deleteResult.getSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO
+                    || translogEnabled == false;
                 localCheckpointTracker.markSeqNoAsPersisted(deleteResult.getSeqNo());
             }
             deleteResult.setTook(System.nanoTime() - delete.startTime());
@@ -1519,14 +1586,17 @@ public class InternalEngine extends Engine {
                 }
                 noOpResult = new NoOpResult(getPrimaryTerm(), noOp.seqNo());
                 if (noOp.origin().isFromTranslog() == false && noOpResult.getResultType() == Result.Type.SUCCESS) {
-                    final Translog.Location location = translog.add(new Translog.NoOp(noOp.seqNo(), noOp.primaryTerm(), noOp.reason()));
+                    final Translog.Location location =
+                        addToTranslog(noOp, new Translog.NoOp(noOp.seqNo(), noOp.primaryTerm(), noOp.reason()));
                     noOpResult.setTranslogLocation(location);
                 }
             }
             localCheckpointTracker.markSeqNoAsProcessed(noOpResult.getSeqNo());
             if (noOpResult.getTranslogLocation() == null) {
-                // the op is coming from the translog (and is hence persisted already) or it does not have a sequence number
-                assert noOp.origin().isFromTranslog() || noOpResult.getSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO;
+                // the op is coming from the translog (and is hence persisted already), it does not have a sequence number or
+                // operations are not written to the translog
+                assert noOp.origin().isFromTranslog() || noOpResult.getSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO
+                    || translogEnabled == false;
                 localCheckpointTracker.markSeqNoAsPersisted(noOpResult.getSeqNo());
             }
             noOpResult.setTook(System.nanoTime() - noOp.startTime());
@@ -1607,9 +1677,32 @@ public class InternalEngine extends Engine {
 
     @Override
     public void writeIndexingBuffer() throws EngineException {
-        // we obtain a read lock here, since we don't want a flush to happen while we are writing
-        // since it flushes the index as well (though, in terms of concurrency, we are allowed to do it)
-        refresh("write indexing buffer", SearcherScope.INTERNAL, true);
+        final long versionMapBytesUsed = versionMap.ramBytesUsedForRefresh();
+        // only count the bytes that are not being written to disk already, this may be negative if both values change concurrently
+        final long indexWriterBytesUsed = indexWriter.ramBytesUsed() - indexWriter.getFlushingBytes();
+        if (versionMapBytesUsed >= indexWriterBytesUsed) {
+            // the version map is only freed by a refresh
+            // we obtain a read lock here, since we don't want a flush to happen while we are writing
+            // since it flushes the index as well (though, in terms of concurrency, we are allowed to do it)
+            refresh("write indexing buffer", SearcherScope.INTERNAL, true);
+        } else {
+            // most of the heap is held by the indexing buffer: write the largest pending segment to disk without opening a new
+            // reader, which frees memory without producing a small segment for every thread that indexes into this shard
+            try (ReleasableLock lock = readLock.acquire()) {
+                ensureOpen();
+                indexWriter.flushNextBuffer();
+            } catch (AlreadyClosedException e) {
+                failOnTragicEvent(e);
+                throw e;
+            } catch (Exception e) {
+                try {
+                    failEngine("writing indexing buffer failed", e);
+                } catch (Exception inner) {
+                    e.addSuppressed(inner);
+                }
+                throw new RefreshFailedEngineException(shardId, e);
+            }
+        }
     }
 
     @Override
@@ -1681,6 +1774,10 @@ public class InternalEngine extends Engine {
         final long translogGenerationOfLastCommit =
             Long.parseLong(lastCommittedSegmentInfos.userData.get(Translog.TRANSLOG_GENERATION_KEY));
         final long flushThreshold = config().getIndexSettings().getFlushThresholdSize().getBytes();
+        if (translogEnabled == false) {
+            // operations are only durable once committed, so commit as often as the translog would have been
+            return uncommittedOperationBytes.get() >= flushThreshold;
+        }
         if (translog.sizeInBytesByMinGen(translogGenerationOfLastCommit) < flushThreshold) {
             return false;
         }
@@ -1746,6 +1843,12 @@ public class InternalEngine extends Engine {
                         logger.trace("starting commit for flush; commitTranslog=true");
                         commitIndexWriter(indexWriter, translog, null);
                         logger.trace("finished commit for flush");
+                        if (translogEnabled == false) {
+                            // the operations of the commit are durable now, so the global checkpoint can be persisted up to them,
+                            // which may make the new commit safe
+                            translog.sync();
+                            revisitIndexDeletionPolicyOnTranslogSynced();
+                        }
 
                         // a temporary debugging to investigate test failure - issue#32827. Remove when the issue is resolved
                         logger.debug("new commit on flush, hasUncommittedChanges:{}, force:{}, shouldPeriodicallyFlush:{}",
@@ -2130,6 +2233,8 @@ public class InternalEngine extends Engine {
                 logger.warn("failed to rollback writer on close", e);
             } finally {
                 try {
+                    // the id bloom filters that are being built hold on to the readers of their segments
+                    idExistenceFilters.close();
                     store.decRef();
                     logger.debug("engine closed [{}]", reason);
                 } finally {
@@ -2280,6 +2385,11 @@ public class InternalEngine extends Engine {
         return throttle.getThrottleTimeInMillis();
     }
 
+    @Override
+    public long getAvoidedIdSeekCount() {
+        return idExistenceFilters.getSkippedSegmentCount();
+    }
+
     long getGcDeletesInMillis() {
         return engineConfig.getIndexSettings().getGcDeletesInMillis();
     }
@@ -2292,8 +2402,8 @@ public class InternalEngine extends Engine {
         private final AtomicInteger numMergesInFlight = new AtomicInteger(0);
         private final AtomicBoolean isThrottling = new AtomicBoolean();
 
-        EngineMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
-            super(shardId, indexSettings);
+        EngineMergeScheduler(ShardId shardId, IndexSettings indexSettings, @Nullable MergeBudget mergeBudget) {
+            super(shardId, indexSettings, mergeBudget);
         }
 
         @Override
@@ -2379,6 +2489,7 @@ public class InternalEngine extends Engine {
         ensureCanFlush();
         try {
             final long localCheckpoint = localCheckpointTracker.getProcessedCheckpoint();
+            final long committedOperationBytes = uncommittedOperationBytes.get();
             final Translog.TranslogGeneration translogGeneration = translog.getMinGenerationForSeqNo(localCheckpoint + 1);
             final String translogFileGeneration = Long.toString(translogGeneration.translogFileGeneration);
             final String translogUUID = translogGeneration.translogUUID;
@@ -2412,6 +2523,10 @@ public class InternalEngine extends Engine {
             });
 
             writer.commit();
+            if (translogEnabled == false) {
+                uncommittedOperationBytes.addAndGet(-committedOperationBytes);
+                durableLocalCheckpoint.accumulateAndGet(localCheckpoint, Math::max);
+            }
         } catch (final Exception ex) {
             try {
                 failEngine("lucene commit failed", ex);
@@ -2591,6 +2706,9 @@ public class InternalEngine extends Engine {
 
     @Override
     public boolean hasCompleteOperationHistory(String source, MapperService mapperService, long startingSeqNo) throws IOException {
+        if (translogEnabled == false) {
+            return getMinRetainedSeqNo() <= startingSeqNo;
+        }
         final long currentLocalCheckpoint = localCheckpointTracker.getProcessedCheckpoint();
         // avoid scanning translog if not necessary
         if (startingSeqNo > currentLocalCheckpoint) {
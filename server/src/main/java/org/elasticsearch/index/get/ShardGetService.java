@@ -37,6 +37,7 @@ import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.fieldvisitor.CustomFieldsVisitor;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
 import org.elasticsearch.index.mapper.DocumentMapper;
@@ -45,9 +46,11 @@ import org.elasticsearch.index.mapper.Mapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.RoutingFieldMapper;
 import org.elasticsearch.index.mapper.SourceFieldMapper;
+import org.elasticsearch.index.mapper.SyntheticSourceLoader;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
 import java.io.IOException;
@@ -216,6 +219,14 @@ public final class ShardGetService extends AbstractIndexShardComponent {
 
         DocumentMapper docMapper = mapperService.documentMapper();
 
+        if (source == null && fetchSourceContext.fetchSource() && docMapper.sourceMapper().isSynthetic()) {
+            try {
+                source = syntheticSource(docMapper, docIdAndVersion);
+            } catch (IOException e) {
+                throw new ElasticsearchException("Failed to synthesize the source of type [" + type + "] and id [" + id + "]", e);
+            }
+        }
+
         if (gFields != null && gFields.length > 0) {
             for (String field : gFields) {
                 Mapper fieldMapper = docMapper.mappers().getMapper(field);
@@ -249,6 +260,14 @@ public final class ShardGetService extends AbstractIndexShardComponent {
             get.version(), get.exists(), source, documentFields, metaDataFields);
     }
 
+    private BytesReference syntheticSource(DocumentMapper docMapper, DocIdAndVersion docIdAndVersion) throws IOException {
+        // gets read a single document, so the field data of the doc values are neither cached nor accounted for
+        final SyntheticSourceLoader loader = new SyntheticSourceLoader(docMapper, fieldType -> fieldType
+            .fielddataBuilder(shardId.getIndexName())
+            .build(indexSettings, fieldType, new IndexFieldDataCache.None(), new NoneCircuitBreakerService(), mapperService));
+        return loader.leaf(docIdAndVersion.reader.getContext()).source(docIdAndVersion.docId);
+    }
+
     private static FieldsVisitor buildFieldsVisitors(String[] fields, FetchSourceContext fetchSourceContext) {
         if (fields == null || fields.length == 0) {
             return fetchSourceContext.fetchSource() ? new FieldsVisitor(true) : null;
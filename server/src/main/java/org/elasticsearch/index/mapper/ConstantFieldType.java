@@ -0,0 +1,135 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.automaton.CharacterRunAutomaton;
+import org.apache.lucene.util.automaton.RegExp;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.geo.ShapeRelation;
+import org.elasticsearch.common.lucene.BytesRefs;
+import org.elasticsearch.common.lucene.search.Queries;
+import org.elasticsearch.common.time.DateMathParser;
+import org.elasticsearch.index.query.QueryShardContext;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * A {@link MappedFieldType} whose value is defined in the mapping and is the same for all the documents of an index. Queries on
+ * such a field match either all or none of the documents, so they are returned as a {@link MatchAllDocsQuery} or a
+ * {@link org.apache.lucene.search.MatchNoDocsQuery} that don't read the index, and the query builders that target such a field
+ * rewrite to a {@code match_all} or a {@code match_none} query, which the can_match phase uses to skip shards.
+ * <p>
+ * The queries of this field type never use their {@link QueryShardContext}, which is {@code null} when they are built on the
+ * coordinating node.
+ */
+public abstract class ConstantFieldType extends MappedFieldType {
+
+    protected ConstantFieldType() {
+    }
+
+    protected ConstantFieldType(ConstantFieldType ref) {
+        super(ref);
+    }
+
+    /**
+     * Returns the value of this field in all the documents, or {@code null} if it is not set yet, in which case no document has a
+     * value for this field.
+     */
+    @Nullable
+    public abstract String value();
+
+    @Override
+    public boolean isSearchable() {
+        return true;
+    }
+
+    private Query query(boolean matches, String description) {
+        if (matches) {
+            return Queries.newMatchAllQuery();
+        }
+        return Queries.newMatchNoDocsQuery(value() == null
+            ? "The value of field [" + name() + "] is not set"
+            : "The value [" + value() + "] of field [" + name() + "] doesn't match " + description);
+    }
+
+    @Override
+    public Query existsQuery(QueryShardContext context) {
+        return query(value() != null, "the exists query");
+    }
+
+    @Override
+    public Query termQuery(Object value, @Nullable QueryShardContext context) {
+        final String term = BytesRefs.toString(value);
+        return query(term.equals(value()), "the term [" + term + "]");
+    }
+
+    @Override
+    public Query termsQuery(List<?> values, @Nullable QueryShardContext context) {
+        boolean matches = false;
+        for (Object value : values) {
+            if (BytesRefs.toString(value).equals(value())) {
+                matches = true;
+                break;
+            }
+        }
+        return query(matches, "any of the terms " + values);
+    }
+
+    @Override
+    public Query prefixQuery(String prefix, @Nullable MultiTermQuery.RewriteMethod method, @Nullable QueryShardContext context) {
+        return query(value() != null && value().startsWith(prefix), "the prefix [" + prefix + "]");
+    }
+
+    @Override
+    public Query wildcardQuery(String pattern, @Nullable MultiTermQuery.RewriteMethod method, @Nullable QueryShardContext context) {
+        final boolean matches = value() != null
+            && new CharacterRunAutomaton(WildcardQuery.toAutomaton(new Term(name(), pattern))).run(value());
+        return query(matches, "the pattern [" + pattern + "]");
+    }
+
+    @Override
+    public Query regexpQuery(String regexp, int flags, int maxDeterminizedStates, @Nullable MultiTermQuery.RewriteMethod method,
+                             @Nullable QueryShardContext context) {
+        final boolean matches = value() != null
+            && new CharacterRunAutomaton(new RegExp(regexp, flags).toAutomaton(maxDeterminizedStates)).run(value());
+        return query(matches, "the regular expression [" + regexp + "]");
+    }
+
+    @Override
+    public Query rangeQuery(Object lowerTerm, Object upperTerm, boolean includeLower, boolean includeUpper, ShapeRelation relation,
+                            ZoneId timeZone, DateMathParser parser, @Nullable QueryShardContext context) {
+        boolean matches = value() != null;
+        if (matches && lowerTerm != null) {
+            final int cmp = value().compareTo(BytesRefs.toString(lowerTerm));
+            matches = includeLower ? cmp >= 0 : cmp > 0;
+        }
+        if (matches && upperTerm != null) {
+            final int cmp = value().compareTo(BytesRefs.toString(upperTerm));
+            matches = includeUpper ? cmp <= 0 : cmp < 0;
+        }
+        return query(matches, "the range");
+    }
+}
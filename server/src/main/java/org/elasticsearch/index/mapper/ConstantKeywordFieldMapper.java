@@ -0,0 +1,244 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.plain.ConstantIndexFieldData;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link FieldMapper} for keywords whose value is the same for all the documents of an index. The value is only stored in the
+ * mapping and nothing is indexed, so all queries on this field match either all or none of the documents, see
+ * {@link ConstantFieldType}.
+ * <p>
+ * If the mapping doesn't define the value, the first document that has a value for this field sets it with a mapping update.
+ * Documents must either have no value for this field or the value of the mapping.
+ */
+public class ConstantKeywordFieldMapper extends FieldMapper {
+
+    public static final String CONTENT_TYPE = "constant_keyword";
+
+    public static class Defaults {
+        public static final MappedFieldType FIELD_TYPE = new ConstantKeywordFieldType();
+
+        static {
+            FIELD_TYPE.setIndexOptions(IndexOptions.NONE);
+            FIELD_TYPE.setHasDocValues(false);
+            FIELD_TYPE.freeze();
+        }
+    }
+
+    public static class Builder extends FieldMapper.Builder<Builder, ConstantKeywordFieldMapper> {
+
+        public Builder(String name) {
+            super(name, Defaults.FIELD_TYPE, Defaults.FIELD_TYPE);
+            builder = this;
+        }
+
+        @Override
+        public ConstantKeywordFieldType fieldType() {
+            return (ConstantKeywordFieldType) super.fieldType();
+        }
+
+        public Builder value(String value) {
+            fieldType().setValue(value);
+            return builder;
+        }
+
+        @Override
+        protected boolean defaultDocValues(Version indexCreated) {
+            return false;
+        }
+
+        @Override
+        public ConstantKeywordFieldMapper build(BuilderContext context) {
+            setupFieldType(context);
+            return new ConstantKeywordFieldMapper(name, fieldType, defaultFieldType, context.indexSettings());
+        }
+    }
+
+    public static class TypeParser implements Mapper.TypeParser {
+        @Override
+        public Mapper.Builder<?,?> parse(String name, Map<String, Object> node, ParserContext parserContext) throws MapperParsingException {
+            ConstantKeywordFieldMapper.Builder builder = new ConstantKeywordFieldMapper.Builder(name);
+            // the field is neither indexed nor stored, so none of the common field parameters apply
+            for (Iterator<Map.Entry<String, Object>> iterator = node.entrySet().iterator(); iterator.hasNext();) {
+                Map.Entry<String, Object> entry = iterator.next();
+                String propName = entry.getKey();
+                Object propNode = entry.getValue();
+                if (propName.equals("value")) {
+                    if (propNode == null) {
+                        throw new MapperParsingException("Property [value] cannot be null.");
+                    }
+                    if (propNode instanceof Map || propNode instanceof List) {
+                        throw new MapperParsingException("Property [value] of field [" + name + "] must be a string, got ["
+                            + propNode + "]");
+                    }
+                    builder.value(propNode.toString());
+                    iterator.remove();
+                }
+            }
+            return builder;
+        }
+    }
+
+    public static final class ConstantKeywordFieldType extends ConstantFieldType {
+
+        private String value;
+
+        public ConstantKeywordFieldType() {
+        }
+
+        private ConstantKeywordFieldType(ConstantKeywordFieldType ref) {
+            super(ref);
+            this.value = ref.value;
+        }
+
+        @Override
+        public ConstantKeywordFieldType clone() {
+            return new ConstantKeywordFieldType(this);
+        }
+
+        @Override
+        public String typeName() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        @Nullable
+        public String value() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            checkIfFrozen();
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (super.equals(o) == false) {
+                return false;
+            }
+            return Objects.equals(value, ((ConstantKeywordFieldType) o).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + Objects.hashCode(value);
+        }
+
+        @Override
+        public void checkCompatibility(MappedFieldType other, List<String> conflicts) {
+            super.checkCompatibility(other, conflicts);
+            // the value can be set once, after which the documents of the index are assumed to have it
+            String otherValue = ((ConstantKeywordFieldType) other).value;
+            if (value != null && Objects.equals(value, otherValue) == false) {
+                conflicts.add("mapper [" + name() + "] has different [value] values, cannot change from [" + value + "] to ["
+                    + otherValue + "]");
+            }
+        }
+
+        @Override
+        public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName) {
+            final String value = this.value;
+            return new ConstantIndexFieldData.Builder(mapperService -> value);
+        }
+
+        @Override
+        public Object valueForDisplay(Object value) {
+            if (value == null) {
+                return null;
+            }
+            // the field data returns the value as bytes
+            BytesRef binaryValue = (BytesRef) value;
+            return binaryValue.utf8ToString();
+        }
+    }
+
+    protected ConstantKeywordFieldMapper(String simpleName, MappedFieldType fieldType, MappedFieldType defaultFieldType,
+                                         Settings indexSettings) {
+        super(simpleName, fieldType, defaultFieldType, indexSettings, MultiFields.empty(), CopyTo.empty());
+    }
+
+    @Override
+    protected ConstantKeywordFieldMapper clone() {
+        return (ConstantKeywordFieldMapper) super.clone();
+    }
+
+    @Override
+    public ConstantKeywordFieldType fieldType() {
+        return (ConstantKeywordFieldType) super.fieldType();
+    }
+
+    @Override
+    protected void parseCreateField(ParseContext context, List<IndexableField> fields) throws IOException {
+        final String value;
+        if (context.externalValueSet()) {
+            value = context.externalValue().toString();
+        } else {
+            XContentParser parser = context.parser();
+            if (parser.currentToken() == XContentParser.Token.VALUE_NULL) {
+                return;
+            }
+            value = parser.text();
+        }
+
+        if (fieldType().value() == null) {
+            // the first value sets the value of the field in the mapping
+            ConstantKeywordFieldType newFieldType = fieldType().clone();
+            newFieldType.setValue(value);
+            newFieldType.freeze();
+            Mapper update = new ConstantKeywordFieldMapper(simpleName(), newFieldType, defaultFieldType,
+                context.indexSettings().getSettings());
+            context.addDynamicMapper(update);
+        } else if (fieldType().value().equals(value) == false) {
+            throw new IllegalArgumentException("[" + CONTENT_TYPE + "] field [" + name() + "] only accepts the value [" +
+                fieldType().value() + "] of its mapping, but got [" + value + "]");
+        }
+    }
+
+    @Override
+    protected String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    protected void doXContentBody(XContentBuilder builder, boolean includeDefaults, Params params) throws IOException {
+        // the field is neither indexed nor stored, so only its value needs to be rendered
+        builder.field("type", contentType());
+        if (fieldType().value() != null) {
+            builder.field("value", fieldType().value());
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.elasticsearch.common.Explicit;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.geo.ShapeRelation;
+import org.elasticsearch.common.lucene.search.IndexSortSortedNumericDocValuesRangeQuery;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.time.DateFormatters;
@@ -381,6 +382,10 @@ public final class DateFieldMapper extends FieldMapper {
             if (hasDocValues()) {
                 Query dvQuery = SortedNumericDocValuesField.newSlowRangeQuery(name(), l, u);
                 query = new IndexOrDocValuesQuery(query, dvQuery);
+                if (context != null && context.getIndexSettings().getIndexSortConfig().hasPrimarySortOnField(name())) {
+                    // the matching documents of the segments that are sorted by this field form a range of doc ids
+                    query = new IndexSortSortedNumericDocValuesRangeQuery(name(), l, u, query);
+                }
             }
             return query;
         }
@@ -398,7 +403,8 @@ public final class DateFieldMapper extends FieldMapper {
             } else {
                 strValue = value.toString();
             }
-            Instant instant = dateParser.parse(strValue, context::nowInMillis, roundUp, zone);
+            // only resolve the context if the value uses date math relative to now, absolute dates can be parsed without a context
+            Instant instant = dateParser.parse(strValue, () -> context.nowInMillis(), roundUp, zone);
             return resolution.convert(instant);
         }
 
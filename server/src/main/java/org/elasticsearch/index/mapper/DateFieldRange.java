@@ -0,0 +1,225 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.time.DateFormatter;
+import org.elasticsearch.common.time.DateMathParser;
+import org.elasticsearch.common.util.LocaleUtils;
+import org.elasticsearch.index.mapper.MappedFieldType.Relation;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * The minimum and maximum values of a {@code date} or {@code date_nanos} field in a shard, together with the format and
+ * resolution of the field. This allows to evaluate range queries against the values of the shard on nodes that do not hold
+ * the shard nor its mapping, such as the coordinating node of a search request.
+ */
+public final class DateFieldRange implements Writeable {
+
+    private static final DateFieldRange EMPTY = new DateFieldRange(false, Long.MAX_VALUE, Long.MIN_VALUE, null, null, null);
+
+    private final boolean hasValues;
+    private final long minValue;
+    private final long maxValue;
+    @Nullable
+    private final String format;
+    @Nullable
+    private final Locale locale;
+    @Nullable
+    private final DateFieldMapper.Resolution resolution;
+
+    private DateFieldRange(boolean hasValues, long minValue, long maxValue, @Nullable String format, @Nullable Locale locale,
+                           @Nullable DateFieldMapper.Resolution resolution) {
+        this.hasValues = hasValues;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.format = format;
+        this.locale = locale;
+        this.resolution = resolution;
+    }
+
+    public DateFieldRange(StreamInput in) throws IOException {
+        this.hasValues = in.readBoolean();
+        this.minValue = in.readLong();
+        this.maxValue = in.readLong();
+        this.format = in.readOptionalString();
+        final String localeString = in.readOptionalString();
+        this.locale = localeString == null ? null : LocaleUtils.parse(localeString);
+        this.resolution = in.readBoolean() ? DateFieldMapper.Resolution.ofOrdinal(in.readVInt()) : null;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeBoolean(hasValues);
+        out.writeLong(minValue);
+        out.writeLong(maxValue);
+        out.writeOptionalString(format);
+        out.writeOptionalString(locale == null ? null : locale.toString());
+        if (resolution == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            out.writeVInt(resolution.ordinal());
+        }
+    }
+
+    /**
+     * Returns the range of a field that has no values in the shard, for instance because it is not mapped.
+     */
+    public static DateFieldRange empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the range of the values of the given date field in the given reader, or {@code null} if the range cannot be
+     * computed because the field is not a date field or is not indexed.
+     */
+    @Nullable
+    public static DateFieldRange fromReader(IndexReader reader, @Nullable MappedFieldType fieldType) throws IOException {
+        if (fieldType == null) {
+            return empty();
+        }
+        if (fieldType instanceof DateFieldMapper.DateFieldType == false || fieldType.indexOptions() == IndexOptions.NONE) {
+            return null;
+        }
+        final DateFieldMapper.DateFieldType dateFieldType = (DateFieldMapper.DateFieldType) fieldType;
+        final DateFormatter formatter = dateFieldType.dateTimeFormatter();
+        if (PointValues.size(reader, fieldType.name()) == 0) {
+            return new DateFieldRange(false, Long.MAX_VALUE, Long.MIN_VALUE, formatter.pattern(), formatter.locale(),
+                dateFieldType.resolution());
+        }
+        final long minValue = LongPoint.decodeDimension(PointValues.getMinPackedValue(reader, fieldType.name()), 0);
+        final long maxValue = LongPoint.decodeDimension(PointValues.getMaxPackedValue(reader, fieldType.name()), 0);
+        return new DateFieldRange(true, minValue, maxValue, formatter.pattern(), formatter.locale(), dateFieldType.resolution());
+    }
+
+    public boolean hasValues() {
+        return hasValues;
+    }
+
+    public long getMinValue() {
+        return minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Returns the relation of the given range to the values of the field, using the same semantics as
+     * {@link DateFieldMapper.DateFieldType#isFieldWithinQuery}.
+     */
+    public Relation relation(@Nullable Object from, @Nullable Object to, boolean includeLower, boolean includeUpper,
+                             @Nullable ZoneId timeZone, @Nullable DateMathParser forcedDateParser, LongSupplier nowInMillis) {
+        if (format == null) {
+            // the field is not mapped so it has no values
+            return Relation.DISJOINT;
+        }
+        final DateMathParser dateParser = forcedDateParser != null
+            ? forcedDateParser : DateFormatter.forPattern(format).withLocale(locale).toDateMathParser();
+
+        long fromInclusive = Long.MIN_VALUE;
+        if (from != null) {
+            fromInclusive = parseToLong(from, includeLower == false, timeZone, dateParser, nowInMillis);
+            if (includeLower == false) {
+                if (fromInclusive == Long.MAX_VALUE) {
+                    return Relation.DISJOINT;
+                }
+                ++fromInclusive;
+            }
+        }
+
+        long toInclusive = Long.MAX_VALUE;
+        if (to != null) {
+            toInclusive = parseToLong(to, includeUpper, timeZone, dateParser, nowInMillis);
+            if (includeUpper == false) {
+                if (toInclusive == Long.MIN_VALUE) {
+                    return Relation.DISJOINT;
+                }
+                --toInclusive;
+            }
+        }
+
+        if (hasValues == false) {
+            return Relation.DISJOINT;
+        }
+        if (minValue >= fromInclusive && maxValue <= toInclusive) {
+            return Relation.WITHIN;
+        } else if (maxValue < fromInclusive || minValue > toInclusive) {
+            return Relation.DISJOINT;
+        } else {
+            return Relation.INTERSECTS;
+        }
+    }
+
+    private long parseToLong(Object value, boolean roundUp, @Nullable ZoneId timeZone, DateMathParser dateParser,
+                             LongSupplier nowInMillis) {
+        final String strValue = value instanceof BytesRef ? ((BytesRef) value).utf8ToString() : value.toString();
+        final Instant instant = dateParser.parse(strValue, nowInMillis, roundUp, timeZone);
+        return resolution.convert(instant);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DateFieldRange that = (DateFieldRange) o;
+        return hasValues == that.hasValues &&
+            minValue == that.minValue &&
+            maxValue == that.maxValue &&
+            Objects.equals(format, that.format) &&
+            Objects.equals(locale, that.locale) &&
+            resolution == that.resolution;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hasValues, minValue, maxValue, format, locale, resolution);
+    }
+
+    @Override
+    public String toString() {
+        return "DateFieldRange{" +
+            "hasValues=" + hasValues +
+            ", min=" + minValue +
+            ", max=" + maxValue +
+            ", format=" + format +
+            ", resolution=" + resolution +
+            '}';
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.elasticsearch.common.settings.Settings;
+
+/**
+ * A field mapper that indexes the values of arbitrary keys under a single field. {@link FieldTypeLookup} resolves the field
+ * {@code name.key} to the field type that {@link #keyedFieldType(String)} returns for {@code key}, so that the keys don't need to be
+ * added to the mappings.
+ */
+public abstract class DynamicKeyFieldMapper extends FieldMapper {
+
+    public DynamicKeyFieldMapper(String simpleName, MappedFieldType fieldType, MappedFieldType defaultFieldType,
+                                 Settings indexSettings, CopyTo copyTo) {
+        super(simpleName, fieldType, defaultFieldType, indexSettings, MultiFields.empty(), copyTo);
+    }
+
+    /**
+     * Returns the field type of the values of the given key.
+     */
+    public abstract MappedFieldType keyedFieldType(String key);
+}
@@ -35,16 +35,28 @@ class FieldTypeLookup implements Iterable<MappedFieldType> {
 
     final CopyOnWriteHashMap<String, MappedFieldType> fullNameToFieldType;
     private final CopyOnWriteHashMap<String, String> aliasToConcreteName;
+    private final CopyOnWriteHashMap<String, DynamicKeyFieldMapper> dynamicKeyMappers;
+    /**
+     * The maximum number of path elements of the name of a field with dynamic keys, which bounds the number of prefixes of a field
+     * name that need to be checked in order to find its keyed field type.
+     */
+    private final int maxDynamicKeyDepth;
 
     FieldTypeLookup() {
         fullNameToFieldType = new CopyOnWriteHashMap<>();
         aliasToConcreteName = new CopyOnWriteHashMap<>();
+        dynamicKeyMappers = new CopyOnWriteHashMap<>();
+        maxDynamicKeyDepth = 0;
     }
 
     private FieldTypeLookup(CopyOnWriteHashMap<String, MappedFieldType> fullNameToFieldType,
-                            CopyOnWriteHashMap<String, String> aliasToConcreteName) {
+                            CopyOnWriteHashMap<String, String> aliasToConcreteName,
+                            CopyOnWriteHashMap<String, DynamicKeyFieldMapper> dynamicKeyMappers,
+                            int maxDynamicKeyDepth) {
         this.fullNameToFieldType = fullNameToFieldType;
         this.aliasToConcreteName = aliasToConcreteName;
+        this.dynamicKeyMappers = dynamicKeyMappers;
+        this.maxDynamicKeyDepth = maxDynamicKeyDepth;
     }
 
     /**
@@ -63,6 +75,8 @@ class FieldTypeLookup implements Iterable<MappedFieldType> {
 
         CopyOnWriteHashMap<String, MappedFieldType> fullName = this.fullNameToFieldType;
         CopyOnWriteHashMap<String, String> aliases = this.aliasToConcreteName;
+        CopyOnWriteHashMap<String, DynamicKeyFieldMapper> dynamicKeyMappers = this.dynamicKeyMappers;
+        int maxDynamicKeyDepth = this.maxDynamicKeyDepth;
 
         for (FieldMapper fieldMapper : fieldMappers) {
             MappedFieldType fieldType = fieldMapper.fieldType();
@@ -71,6 +85,11 @@ class FieldTypeLookup implements Iterable<MappedFieldType> {
             if (Objects.equals(fieldType, fullNameFieldType) == false) {
                 fullName = fullName.copyAndPut(fieldType.name(), fieldType);
             }
+
+            if (fieldMapper instanceof DynamicKeyFieldMapper) {
+                dynamicKeyMappers = dynamicKeyMappers.copyAndPut(fieldType.name(), (DynamicKeyFieldMapper) fieldMapper);
+                maxDynamicKeyDepth = Math.max(maxDynamicKeyDepth, fieldType.name().split("\\.").length);
+            }
         }
 
         for (FieldAliasMapper fieldAliasMapper : fieldAliasMappers) {
@@ -83,13 +102,39 @@ class FieldTypeLookup implements Iterable<MappedFieldType> {
             }
         }
 
-        return new FieldTypeLookup(fullName, aliases);
+        return new FieldTypeLookup(fullName, aliases, dynamicKeyMappers, maxDynamicKeyDepth);
     }
 
     /** Returns the field for the given field */
     public MappedFieldType get(String field) {
         String concreteField = aliasToConcreteName.getOrDefault(field, field);
-        return fullNameToFieldType.get(concreteField);
+        MappedFieldType fieldType = fullNameToFieldType.get(concreteField);
+        if (fieldType != null) {
+            return fieldType;
+        }
+        return getKeyedFieldType(field);
+    }
+
+    /**
+     * Returns the keyed field type of the given field if one of its prefixes is the name of a field with dynamic keys, and
+     * {@code null} otherwise.
+     */
+    private MappedFieldType getKeyedFieldType(String field) {
+        if (dynamicKeyMappers.isEmpty()) {
+            return null;
+        }
+        int dotIndex = -1;
+        for (int depth = 0; depth < maxDynamicKeyDepth; depth++) {
+            dotIndex = field.indexOf('.', dotIndex + 1);
+            if (dotIndex < 0) {
+                return null;
+            }
+            DynamicKeyFieldMapper mapper = dynamicKeyMappers.get(field.substring(0, dotIndex));
+            if (mapper != null) {
+                return mapper.keyedFieldType(field.substring(dotIndex + 1));
+            }
+        }
+        return null;
     }
 
     /**
@@ -107,6 +152,10 @@ class FieldTypeLookup implements Iterable<MappedFieldType> {
                 fields.add(aliasName);
             }
         }
+        if (fields.isEmpty() && Regex.isSimpleMatchPattern(pattern) == false && getKeyedFieldType(pattern) != null) {
+            // the keys of fields with dynamic keys can't be enumerated, but they can be looked up
+            fields.add(pattern);
+        }
         return fields;
     }
 
@@ -0,0 +1,604 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lucene.BytesRefs;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.Fuzziness;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.fielddata.AbstractSortedSetDocValues;
+import org.elasticsearch.index.fielddata.AtomicOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.fieldcomparator.BytesRefFieldComparatorSource;
+import org.elasticsearch.index.fielddata.plain.AbstractAtomicOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.plain.DocValuesIndexFieldData;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.query.QueryShardException;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.search.MultiValueMode;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.elasticsearch.index.mapper.TypeParsers.parseField;
+
+/**
+ * A field mapper that indexes all the leaf values of an object into a single field, so that objects with arbitrary keys, like labels
+ * or headers, don't add a field to the mappings for each of their keys.
+ * <p>
+ * Each value is indexed like a keyword twice: into the root field {@code name}, which matches the values regardless of their key,
+ * and into the keyed field {@code name._keyed} prefixed by its key, which is the dotted path of the value within the object. Queries
+ * on {@code name.key} are resolved by {@link FieldTypeLookup} to a {@link KeyedFlattenedFieldType} that only matches the values of
+ * that key.
+ */
+public final class FlattenedFieldMapper extends DynamicKeyFieldMapper {
+
+    public static final String CONTENT_TYPE = "flattened";
+    public static final String KEYED_FIELD_SUFFIX = "._keyed";
+
+    public static class Defaults {
+        public static final MappedFieldType FIELD_TYPE = new RootFlattenedFieldType();
+
+        static {
+            FIELD_TYPE.setTokenized(false);
+            FIELD_TYPE.setOmitNorms(true);
+            FIELD_TYPE.setIndexOptions(IndexOptions.DOCS);
+            FIELD_TYPE.freeze();
+        }
+
+        public static final int DEPTH_LIMIT = 20;
+        public static final int IGNORE_ABOVE = Integer.MAX_VALUE;
+    }
+
+    public static class Builder extends FieldMapper.Builder<Builder, FlattenedFieldMapper> {
+
+        private int depthLimit = Defaults.DEPTH_LIMIT;
+        private int ignoreAbove = Defaults.IGNORE_ABOVE;
+
+        public Builder(String name) {
+            super(name, Defaults.FIELD_TYPE, Defaults.FIELD_TYPE);
+            builder = this;
+        }
+
+        @Override
+        public RootFlattenedFieldType fieldType() {
+            return (RootFlattenedFieldType) super.fieldType();
+        }
+
+        public Builder depthLimit(int depthLimit) {
+            if (depthLimit < 0) {
+                throw new IllegalArgumentException("[depth_limit] must be positive, got " + depthLimit);
+            }
+            this.depthLimit = depthLimit;
+            return this;
+        }
+
+        public Builder ignoreAbove(int ignoreAbove) {
+            if (ignoreAbove < 0) {
+                throw new IllegalArgumentException("[ignore_above] must be positive, got " + ignoreAbove);
+            }
+            this.ignoreAbove = ignoreAbove;
+            return this;
+        }
+
+        public Builder eagerGlobalOrdinals(boolean eagerGlobalOrdinals) {
+            fieldType().setEagerGlobalOrdinals(eagerGlobalOrdinals);
+            return builder;
+        }
+
+        @Override
+        public Builder indexOptions(IndexOptions indexOptions) {
+            if (indexOptions.compareTo(IndexOptions.DOCS_AND_FREQS) > 0) {
+                throw new IllegalArgumentException("The [" + CONTENT_TYPE + "] field does not support positions, got [index_options]="
+                    + indexOptionToString(indexOptions));
+            }
+            return super.indexOptions(indexOptions);
+        }
+
+        @Override
+        public Builder store(boolean store) {
+            throw new MapperParsingException("[store] is not supported for [" + CONTENT_TYPE + "] fields");
+        }
+
+        @Override
+        public Builder addMultiField(Mapper.Builder mapperBuilder) {
+            throw new MapperParsingException("[fields] is not supported for [" + CONTENT_TYPE + "] fields");
+        }
+
+        @Override
+        public Builder copyTo(CopyTo copyTo) {
+            throw new MapperParsingException("[copy_to] is not supported for [" + CONTENT_TYPE + "] fields");
+        }
+
+        @Override
+        public FlattenedFieldMapper build(BuilderContext context) {
+            setupFieldType(context);
+            return new FlattenedFieldMapper(name, fieldType, defaultFieldType, depthLimit, ignoreAbove, context.indexSettings());
+        }
+    }
+
+    public static class TypeParser implements Mapper.TypeParser {
+        @Override
+        public Mapper.Builder<?,?> parse(String name, Map<String, Object> node, ParserContext parserContext) throws MapperParsingException {
+            FlattenedFieldMapper.Builder builder = new FlattenedFieldMapper.Builder(name);
+            parseField(builder, name, node, parserContext);
+            for (Iterator<Map.Entry<String, Object>> iterator = node.entrySet().iterator(); iterator.hasNext();) {
+                Map.Entry<String, Object> entry = iterator.next();
+                String propName = entry.getKey();
+                Object propNode = entry.getValue();
+                if (propName.equals("null_value")) {
+                    if (propNode == null) {
+                        throw new MapperParsingException("Property [null_value] cannot be null.");
+                    }
+                    builder.nullValue(propNode.toString());
+                    iterator.remove();
+                } else if (propName.equals("ignore_above")) {
+                    builder.ignoreAbove(XContentMapValues.nodeIntegerValue(propNode, -1));
+                    iterator.remove();
+                } else if (propName.equals("depth_limit")) {
+                    builder.depthLimit(XContentMapValues.nodeIntegerValue(propNode, -1));
+                    iterator.remove();
+                } else if (propName.equals("eager_global_ordinals")) {
+                    builder.eagerGlobalOrdinals(XContentMapValues.nodeBooleanValue(propNode, "eager_global_ordinals"));
+                    iterator.remove();
+                }
+            }
+            return builder;
+        }
+    }
+
+    /**
+     * The field type of the root field, which contains the values of all the keys.
+     */
+    public static final class RootFlattenedFieldType extends StringFieldType {
+
+        public RootFlattenedFieldType() {
+            setIndexAnalyzer(Lucene.KEYWORD_ANALYZER);
+            setSearchAnalyzer(Lucene.KEYWORD_ANALYZER);
+        }
+
+        private RootFlattenedFieldType(RootFlattenedFieldType ref) {
+            super(ref);
+        }
+
+        @Override
+        public RootFlattenedFieldType clone() {
+            return new RootFlattenedFieldType(this);
+        }
+
+        @Override
+        public String typeName() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public Query existsQuery(QueryShardContext context) {
+            if (hasDocValues()) {
+                return new DocValuesFieldExistsQuery(name());
+            } else {
+                return new TermQuery(new Term(FieldNamesFieldMapper.NAME, name()));
+            }
+        }
+
+        @Override
+        public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName) {
+            failIfNoDocValues();
+            return new DocValuesIndexFieldData.Builder();
+        }
+
+        @Override
+        public Object valueForDisplay(Object value) {
+            if (value == null) {
+                return null;
+            }
+            return ((BytesRef) value).utf8ToString();
+        }
+    }
+
+    /**
+     * The field type of the values of a single key, which are indexed into the keyed field prefixed by the key.
+     */
+    public static final class KeyedFlattenedFieldType extends StringFieldType {
+
+        private final String key;
+
+        KeyedFlattenedFieldType(String key, RootFlattenedFieldType ref) {
+            super(ref);
+            setName(ref.name() + KEYED_FIELD_SUFFIX);
+            this.key = key;
+        }
+
+        private KeyedFlattenedFieldType(KeyedFlattenedFieldType ref) {
+            super(ref);
+            this.key = ref.key;
+        }
+
+        @Override
+        public KeyedFlattenedFieldType clone() {
+            return new KeyedFlattenedFieldType(this);
+        }
+
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (super.equals(o) == false) {
+                return false;
+            }
+            return key.equals(((KeyedFlattenedFieldType) o).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public String typeName() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        protected BytesRef indexedValueForSearch(Object value) {
+            if (value == null) {
+                return null;
+            }
+            return FlattenedFieldParser.createKeyedValue(key, BytesRefs.toString(value));
+        }
+
+        @Override
+        public Query existsQuery(QueryShardContext context) {
+            failIfNotIndexed();
+            return new PrefixQuery(new Term(name(), FlattenedFieldParser.createKeyedValue(key, "")));
+        }
+
+        @Override
+        public Query rangeQuery(Object lowerTerm, Object upperTerm, boolean includeLower, boolean includeUpper,
+                                QueryShardContext context) {
+            failIfNotIndexed();
+            // open bounds are bounded by the values of the key
+            BytesRef lower = lowerTerm == null ? FlattenedFieldParser.createKeyedValue(key, "") : indexedValueForSearch(lowerTerm);
+            BytesRef upper = upperTerm == null ? new BytesRef(key + (char) (FlattenedFieldParser.SEPARATOR + 1))
+                : indexedValueForSearch(upperTerm);
+            return new TermRangeQuery(name(), lower, upper, lowerTerm == null || includeLower, upperTerm != null && includeUpper);
+        }
+
+        @Override
+        public Query fuzzyQuery(Object value, Fuzziness fuzziness, int prefixLength, int maxExpansions, boolean transpositions) {
+            throw new IllegalArgumentException("Can't use fuzzy queries on the keys of [" + CONTENT_TYPE + "] fields, got ["
+                + key + "] of [" + rootName() + "]");
+        }
+
+        @Override
+        public Query regexpQuery(String value, int flags, int maxDeterminizedStates, MultiTermQuery.RewriteMethod method,
+                                 QueryShardContext context) {
+            throw new QueryShardException(context, "Can't use regexp queries on the keys of [" + CONTENT_TYPE + "] fields, got ["
+                + key + "] of [" + rootName() + "]");
+        }
+
+        @Override
+        public Query wildcardQuery(String value, MultiTermQuery.RewriteMethod method, QueryShardContext context) {
+            throw new QueryShardException(context, "Can't use wildcard queries on the keys of [" + CONTENT_TYPE + "] fields, got ["
+                + key + "] of [" + rootName() + "]");
+        }
+
+        private String rootName() {
+            return name().substring(0, name().length() - KEYED_FIELD_SUFFIX.length());
+        }
+
+        @Override
+        public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName) {
+            failIfNoDocValues();
+            return new KeyedFlattenedFieldData.Builder(key);
+        }
+
+        @Override
+        public Object valueForDisplay(Object value) {
+            if (value == null) {
+                return null;
+            }
+            return ((BytesRef) value).utf8ToString();
+        }
+    }
+
+    /**
+     * The field data of the values of a single key. It reads the doc values of the keyed field, and only returns the values of the
+     * key without their prefix.
+     * <p>
+     * The ordinals of a key are only contiguous within a segment, so the values of a key aren't exposed with global ordinals and are
+     * aggregated like binary values instead.
+     */
+    public static final class KeyedFlattenedFieldData implements IndexFieldData<AtomicOrdinalsFieldData> {
+
+        private final String key;
+        private final IndexOrdinalsFieldData delegate;
+
+        private KeyedFlattenedFieldData(String key, IndexOrdinalsFieldData delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public Index index() {
+            return delegate.index();
+        }
+
+        @Override
+        public String getFieldName() {
+            return delegate.getFieldName();
+        }
+
+        @Override
+        public AtomicOrdinalsFieldData load(LeafReaderContext context) {
+            final AtomicOrdinalsFieldData fieldData = delegate.load(context);
+            final BytesRef prefix = FlattenedFieldParser.createKeyedValue(key, "");
+            return new AbstractAtomicOrdinalsFieldData(AbstractAtomicOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION) {
+                @Override
+                public SortedSetDocValues getOrdinalsValues() {
+                    try {
+                        return KeyedSortedSetDocValues.create(prefix, fieldData.getOrdinalsValues());
+                    } catch (IOException e) {
+                        throw new IllegalStateException("cannot load docvalues", e);
+                    }
+                }
+
+                @Override
+                public long ramBytesUsed() {
+                    return fieldData.ramBytesUsed();
+                }
+
+                @Override
+                public Collection<Accountable> getChildResources() {
+                    return Collections.emptyList();
+                }
+
+                @Override
+                public void close() {
+                    fieldData.close();
+                }
+            };
+        }
+
+        @Override
+        public AtomicOrdinalsFieldData loadDirect(LeafReaderContext context) {
+            return load(context);
+        }
+
+        @Override
+        public SortField sortField(@Nullable Object missingValue, MultiValueMode sortMode, XFieldComparatorSource.Nested nested,
+                                   boolean reverse) {
+            XFieldComparatorSource source = new BytesRefFieldComparatorSource(this, missingValue, sortMode, nested);
+            return new SortField(getFieldName(), source, reverse);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        public static class Builder implements IndexFieldData.Builder {
+
+            private final String key;
+
+            Builder(String key) {
+                this.key = key;
+            }
+
+            @Override
+            public IndexFieldData<?> build(IndexSettings indexSettings, MappedFieldType fieldType, IndexFieldDataCache cache,
+                                           CircuitBreakerService breakerService, MapperService mapperService) {
+                IndexOrdinalsFieldData delegate = (IndexOrdinalsFieldData) new DocValuesIndexFieldData.Builder()
+                    .build(indexSettings, fieldType, cache, breakerService, mapperService);
+                return new KeyedFlattenedFieldData(key, delegate);
+            }
+        }
+    }
+
+    /**
+     * The doc values of the keyed field restricted to the values of a single key: the values of the key are the ones between its
+     * prefix and the next prefix, so their ordinals are contiguous and can be shifted to start at zero.
+     */
+    static final class KeyedSortedSetDocValues extends AbstractSortedSetDocValues {
+
+        private final SortedSetDocValues delegate;
+        private final int prefixLength;
+        private final long minOrd;
+        private final long maxOrd;
+        private final BytesRef value = new BytesRef();
+        private long nextOrd;
+
+        private KeyedSortedSetDocValues(SortedSetDocValues delegate, int prefixLength, long minOrd, long maxOrd) {
+            this.delegate = delegate;
+            this.prefixLength = prefixLength;
+            this.minOrd = minOrd;
+            this.maxOrd = maxOrd;
+        }
+
+        static SortedSetDocValues create(BytesRef prefix, SortedSetDocValues delegate) throws IOException {
+            long minOrd = delegate.lookupTerm(prefix);
+            if (minOrd < 0) {
+                minOrd = -1 - minOrd;
+            }
+            // the separator is the last byte of the prefix, and no value of the key sorts after the same prefix with the next byte
+            BytesRef nextPrefix = BytesRef.deepCopyOf(prefix);
+            nextPrefix.bytes[nextPrefix.offset + nextPrefix.length - 1]++;
+            long maxOrd = delegate.lookupTerm(nextPrefix);
+            maxOrd = maxOrd < 0 ? -2 - maxOrd : maxOrd - 1;
+            if (minOrd > maxOrd) {
+                return DocValues.emptySortedSet();
+            }
+            return new KeyedSortedSetDocValues(delegate, prefix.length, minOrd, maxOrd);
+        }
+
+        @Override
+        public boolean advanceExact(int target) throws IOException {
+            if (delegate.advanceExact(target) == false) {
+                return false;
+            }
+            // ordinals are returned in increasing order, skip the ones of the keys that sort before this one
+            for (long ord = delegate.nextOrd(); ord != NO_MORE_ORDS && ord <= maxOrd; ord = delegate.nextOrd()) {
+                if (ord >= minOrd) {
+                    nextOrd = ord;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long nextOrd() throws IOException {
+            if (nextOrd == NO_MORE_ORDS) {
+                return NO_MORE_ORDS;
+            }
+            long ord = nextOrd;
+            nextOrd = delegate.nextOrd();
+            if (nextOrd > maxOrd) {
+                nextOrd = NO_MORE_ORDS;
+            }
+            return ord - minOrd;
+        }
+
+        @Override
+        public BytesRef lookupOrd(long ord) throws IOException {
+            BytesRef keyedValue = delegate.lookupOrd(ord + minOrd);
+            value.bytes = keyedValue.bytes;
+            value.offset = keyedValue.offset + prefixLength;
+            value.length = keyedValue.length - prefixLength;
+            return value;
+        }
+
+        @Override
+        public long getValueCount() {
+            return maxOrd - minOrd + 1;
+        }
+    }
+
+    private int depthLimit;
+    private int ignoreAbove;
+
+    private FlattenedFieldMapper(String simpleName, MappedFieldType fieldType, MappedFieldType defaultFieldType,
+                                 int depthLimit, int ignoreAbove, Settings indexSettings) {
+        super(simpleName, fieldType, defaultFieldType, indexSettings, CopyTo.empty());
+        assert fieldType.indexOptions().compareTo(IndexOptions.DOCS_AND_FREQS) <= 0;
+        this.depthLimit = depthLimit;
+        this.ignoreAbove = ignoreAbove;
+    }
+
+    @Override
+    protected FlattenedFieldMapper clone() {
+        return (FlattenedFieldMapper) super.clone();
+    }
+
+    @Override
+    public RootFlattenedFieldType fieldType() {
+        return (RootFlattenedFieldType) super.fieldType();
+    }
+
+    @Override
+    public KeyedFlattenedFieldType keyedFieldType(String key) {
+        return new KeyedFlattenedFieldType(key, fieldType());
+    }
+
+    // pkg-private for testing
+    int depthLimit() {
+        return depthLimit;
+    }
+
+    @Override
+    protected void parseCreateField(ParseContext context, List<IndexableField> fields) throws IOException {
+        XContentParser parser = context.parser();
+        if (parser.currentToken() == XContentParser.Token.VALUE_NULL) {
+            return;
+        }
+        if (fieldType().indexOptions() == IndexOptions.NONE && fieldType().hasDocValues() == false) {
+            parser.skipChildren();
+            return;
+        }
+        FlattenedFieldParser fieldParser = new FlattenedFieldParser(fieldType().name(), fieldType().name() + KEYED_FIELD_SUFFIX,
+            fieldType(), depthLimit, ignoreAbove);
+        fields.addAll(fieldParser.parse(parser));
+        if (fieldType().hasDocValues() == false) {
+            createFieldNamesField(context, fields);
+        }
+    }
+
+    @Override
+    protected String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    protected void doMerge(Mapper mergeWith) {
+        super.doMerge(mergeWith);
+        this.depthLimit = ((FlattenedFieldMapper) mergeWith).depthLimit;
+        this.ignoreAbove = ((FlattenedFieldMapper) mergeWith).ignoreAbove;
+    }
+
+    @Override
+    protected void doXContentBody(XContentBuilder builder, boolean includeDefaults, Params params) throws IOException {
+        super.doXContentBody(builder, includeDefaults, params);
+
+        if (includeDefaults || depthLimit != Defaults.DEPTH_LIMIT) {
+            builder.field("depth_limit", depthLimit);
+        }
+
+        if (includeDefaults || ignoreAbove != Defaults.IGNORE_ABOVE) {
+            builder.field("ignore_above", ignoreAbove);
+        }
+
+        if (includeDefaults || fieldType().nullValue() != null) {
+            builder.field("null_value", fieldType().nullValue());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentParserUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the object of a {@link FlattenedFieldMapper flattened} field into the Lucene fields of its leaf values. Each value is indexed
+ * into the root field as-is, and into the keyed field prefixed by its key, which is the dotted path of the value within the object.
+ */
+class FlattenedFieldParser {
+
+    static final char SEPARATOR = '\0';
+
+    private final String rootFieldName;
+    private final String keyedFieldName;
+    private final MappedFieldType fieldType;
+    private final int depthLimit;
+    private final int ignoreAbove;
+
+    FlattenedFieldParser(String rootFieldName, String keyedFieldName, MappedFieldType fieldType, int depthLimit, int ignoreAbove) {
+        this.rootFieldName = rootFieldName;
+        this.keyedFieldName = keyedFieldName;
+        this.fieldType = fieldType;
+        this.depthLimit = depthLimit;
+        this.ignoreAbove = ignoreAbove;
+    }
+
+    /**
+     * Returns the value of the keyed field for the given key and value.
+     */
+    static BytesRef createKeyedValue(String key, String value) {
+        return new BytesRef(key + SEPARATOR + value);
+    }
+
+    List<IndexableField> parse(XContentParser parser) throws IOException {
+        XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.currentToken(), parser::getTokenLocation);
+        List<IndexableField> fields = new ArrayList<>();
+        parseObject(parser, null, 1, fields);
+        return fields;
+    }
+
+    private void parseObject(XContentParser parser, String path, int depth, List<IndexableField> fields) throws IOException {
+        if (depth > depthLimit) {
+            throw new IllegalArgumentException("the object of [" + FlattenedFieldMapper.CONTENT_TYPE + "] field [" + rootFieldName
+                + "] exceeds the maximum depth limit of [" + depthLimit + "]");
+        }
+        String key = null;
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                String name = parser.currentName();
+                if (name.indexOf(SEPARATOR) >= 0) {
+                    throw new IllegalArgumentException("keys of [" + FlattenedFieldMapper.CONTENT_TYPE + "] field [" + rootFieldName
+                        + "] can't contain the reserved character \\0, got [" + name + "]");
+                }
+                key = path == null ? name : path + "." + name;
+            } else {
+                parseValue(parser, token, key, depth, fields);
+            }
+        }
+    }
+
+    private void parseValue(XContentParser parser, XContentParser.Token token, String key, int depth,
+                            List<IndexableField> fields) throws IOException {
+        if (token == XContentParser.Token.START_OBJECT) {
+            parseObject(parser, key, depth + 1, fields);
+        } else if (token == XContentParser.Token.START_ARRAY) {
+            while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                parseValue(parser, token, key, depth, fields);
+            }
+        } else if (token == XContentParser.Token.VALUE_NULL) {
+            String nullValue = fieldType.nullValueAsString();
+            if (nullValue != null) {
+                addField(key, nullValue, fields);
+            }
+        } else {
+            addField(key, parser.text(), fields);
+        }
+    }
+
+    private void addField(String key, String value, List<IndexableField> fields) {
+        if (value.length() > ignoreAbove) {
+            return;
+        }
+        final BytesRef binaryValue = new BytesRef(value);
+        final BytesRef keyedValue = createKeyedValue(key, value);
+        if (fieldType.indexOptions() != IndexOptions.NONE) {
+            fields.add(new Field(rootFieldName, binaryValue, fieldType));
+            fields.add(new Field(keyedFieldName, keyedValue, fieldType));
+        }
+        if (fieldType.hasDocValues()) {
+            fields.add(new SortedSetDocValuesField(rootFieldName, binaryValue));
+            fields.add(new SortedSetDocValuesField(keyedFieldName, keyedValue));
+        }
+    }
+}
@@ -27,10 +27,17 @@ import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.DocValuesRewriteMethod;
+import org.apache.lucene.search.DocValuesTermsQuery;
+import org.apache.lucene.search.MultiTermQuery;
 import org.apache.lucene.search.NormsFieldExistsQuery;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.RegexpQuery;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.settings.Settings;
@@ -265,6 +272,91 @@ public final class KeywordFieldMapper extends FieldMapper {
             }
         }
 
+        /**
+         * Fields that are not indexed can still be searched through their doc values, which is slower since all of the values of
+         * the field have to be checked, but allows to save the cost of indexing fields that are rarely queried.
+         */
+        @Override
+        public boolean isSearchable() {
+            return indexOptions() != IndexOptions.NONE || hasDocValues();
+        }
+
+        @Override
+        public Query termQuery(Object value, QueryShardContext context) {
+            failIfNotIndexedAndNoDocValues();
+            if (indexOptions() != IndexOptions.NONE) {
+                return super.termQuery(value, context);
+            }
+            Query query = SortedSetDocValuesField.newSlowExactQuery(name(), indexedValueForSearch(value));
+            if (boost() != 1f) {
+                query = new BoostQuery(query, boost());
+            }
+            return query;
+        }
+
+        @Override
+        public Query termsQuery(List<?> values, QueryShardContext context) {
+            failIfNotIndexedAndNoDocValues();
+            if (indexOptions() != IndexOptions.NONE) {
+                return super.termsQuery(values, context);
+            }
+            BytesRef[] bytesRefs = new BytesRef[values.size()];
+            for (int i = 0; i < bytesRefs.length; i++) {
+                bytesRefs[i] = indexedValueForSearch(values.get(i));
+            }
+            return new DocValuesTermsQuery(name(), bytesRefs);
+        }
+
+        @Override
+        public Query rangeQuery(Object lowerTerm, Object upperTerm, boolean includeLower, boolean includeUpper,
+                                QueryShardContext context) {
+            failIfNotIndexedAndNoDocValues();
+            if (indexOptions() != IndexOptions.NONE) {
+                return super.rangeQuery(lowerTerm, upperTerm, includeLower, includeUpper, context);
+            }
+            return SortedSetDocValuesField.newSlowRangeQuery(name(),
+                lowerTerm == null ? null : indexedValueForSearch(lowerTerm),
+                upperTerm == null ? null : indexedValueForSearch(upperTerm),
+                includeLower, includeUpper);
+        }
+
+        @Override
+        public Query prefixQuery(String value, MultiTermQuery.RewriteMethod method, QueryShardContext context) {
+            failIfNotIndexedAndNoDocValues();
+            if (indexOptions() != IndexOptions.NONE) {
+                return super.prefixQuery(value, method, context);
+            }
+            return withDocValuesRewrite(new PrefixQuery(new Term(name(), indexedValueForSearch(value))));
+        }
+
+        @Override
+        public Query wildcardQuery(String value, MultiTermQuery.RewriteMethod method, QueryShardContext context) {
+            failIfNotIndexedAndNoDocValues();
+            if (indexOptions() != IndexOptions.NONE) {
+                return super.wildcardQuery(value, method, context);
+            }
+            return withDocValuesRewrite(new WildcardQuery(new Term(name(), indexedValueForSearch(value))));
+        }
+
+        @Override
+        public Query regexpQuery(String value, int flags, int maxDeterminizedStates, MultiTermQuery.RewriteMethod method,
+                                 QueryShardContext context) {
+            failIfNotIndexedAndNoDocValues();
+            if (indexOptions() != IndexOptions.NONE) {
+                return super.regexpQuery(value, flags, maxDeterminizedStates, method, context);
+            }
+            return withDocValuesRewrite(new RegexpQuery(new Term(name(), indexedValueForSearch(value)), flags, maxDeterminizedStates));
+        }
+
+        /**
+         * Matches the terms of the given query against the terms of the doc values of the field, regardless of the rewrite method
+         * that was requested, since the field has no terms in the index.
+         */
+        private static Query withDocValuesRewrite(MultiTermQuery query) {
+            query.setRewriteMethod(new DocValuesRewriteMethod());
+            return query;
+        }
+
         @Override
         public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName) {
             failIfNoDocValues();
@@ -437,6 +437,17 @@ public abstract class MappedFieldType extends FieldType {
         }
     }
 
+    /**
+     * Fails if the field can be searched neither through its index nor through its doc values, for field types that fall back to
+     * slower doc values based queries when they are not indexed.
+     */
+    protected final void failIfNotIndexedAndNoDocValues() {
+        if (indexOptions() == IndexOptions.NONE && pointDataDimensionCount() == 0 && hasDocValues() == false) {
+            // we throw an IAE rather than an ISE so that it translates to a 4xx code rather than 5xx code on the http layer
+            throw new IllegalArgumentException("Cannot search on field [" + name() + "] since it is not indexed and has no doc values.");
+        }
+    }
+
     public boolean eagerGlobalOrdinals() {
         return eagerGlobalOrdinals;
     }
@@ -481,6 +481,9 @@ public class MapperService extends AbstractIndexComponent implements Closeable {
 
             MapperMergeValidator.validateNewMappers(objectMappers, fieldMappers, fieldAliasMappers, fieldTypes);
             checkPartitionedIndexConstraints(newMapper);
+            if (newMapper.sourceMapper().isSynthetic()) {
+                SyntheticSourceLoader.validate(newMapper);
+            }
 
             // update lookup data-structures
             fieldTypes = fieldTypes.copyAndAddAll(newMapper.type(), fieldMappers, fieldAliasMappers);
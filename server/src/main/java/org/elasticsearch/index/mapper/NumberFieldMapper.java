@@ -218,7 +218,7 @@ public class NumberFieldMapper extends FieldMapper {
             @Override
             public Query rangeQuery(String field, Object lowerTerm, Object upperTerm,
                              boolean includeLower, boolean includeUpper,
-                             boolean hasDocValues) {
+                             boolean hasDocValues, boolean isIndexed) {
                 float l = Float.NEGATIVE_INFINITY;
                 float u = Float.POSITIVE_INFINITY;
                 if (lowerTerm != null) {
@@ -235,12 +235,12 @@ public class NumberFieldMapper extends FieldMapper {
                     }
                     u = HalfFloatPoint.nextDown(u);
                 }
-                Query query = HalfFloatPoint.newRangeQuery(field, l, u);
+                Query query = isIndexed ? HalfFloatPoint.newRangeQuery(field, l, u) : null;
                 if (hasDocValues) {
                     Query dvQuery = SortedNumericDocValuesField.newSlowRangeQuery(field,
                             HalfFloatPoint.halfFloatToSortableShort(l),
                             HalfFloatPoint.halfFloatToSortableShort(u));
-                    query = new IndexOrDocValuesQuery(query, dvQuery);
+                    query = isIndexed ? new IndexOrDocValuesQuery(query, dvQuery) : dvQuery;
                 }
                 return query;
             }
@@ -315,7 +315,7 @@ public class NumberFieldMapper extends FieldMapper {
             @Override
             public Query rangeQuery(String field, Object lowerTerm, Object upperTerm,
                              boolean includeLower, boolean includeUpper,
-                             boolean hasDocValues) {
+                             boolean hasDocValues, boolean isIndexed) {
                 float l = Float.NEGATIVE_INFINITY;
                 float u = Float.POSITIVE_INFINITY;
                 if (lowerTerm != null) {
@@ -330,12 +330,12 @@ public class NumberFieldMapper extends FieldMapper {
                         u = FloatPoint.nextDown(u);
                     }
                 }
-                Query query = FloatPoint.newRangeQuery(field, l, u);
+                Query query = isIndexed ? FloatPoint.newRangeQuery(field, l, u) : null;
                 if (hasDocValues) {
                     Query dvQuery = SortedNumericDocValuesField.newSlowRangeQuery(field,
                             NumericUtils.floatToSortableInt(l),
                             NumericUtils.floatToSortableInt(u));
-                    query = new IndexOrDocValuesQuery(query, dvQuery);
+                    query = isIndexed ? new IndexOrDocValuesQuery(query, dvQuery) : dvQuery;
                 }
                 return query;
             }
@@ -401,7 +401,7 @@ public class NumberFieldMapper extends FieldMapper {
             @Override
             public Query rangeQuery(String field, Object lowerTerm, Object upperTerm,
                              boolean includeLower, boolean includeUpper,
-                             boolean hasDocValues) {
+                             boolean hasDocValues, boolean isIndexed) {
                 double l = Double.NEGATIVE_INFINITY;
                 double u = Double.POSITIVE_INFINITY;
                 if (lowerTerm != null) {
@@ -416,12 +416,12 @@ public class NumberFieldMapper extends FieldMapper {
                         u = DoublePoint.nextDown(u);
                     }
                 }
-                Query query = DoublePoint.newRangeQuery(field, l, u);
+                Query query = isIndexed ? DoublePoint.newRangeQuery(field, l, u) : null;
                 if (hasDocValues) {
                     Query dvQuery = SortedNumericDocValuesField.newSlowRangeQuery(field,
                             NumericUtils.doubleToSortableLong(l),
                             NumericUtils.doubleToSortableLong(u));
-                    query = new IndexOrDocValuesQuery(query, dvQuery);
+                    query = isIndexed ? new IndexOrDocValuesQuery(query, dvQuery) : dvQuery;
                 }
                 return query;
             }
@@ -495,8 +495,8 @@ public class NumberFieldMapper extends FieldMapper {
             @Override
             public Query rangeQuery(String field, Object lowerTerm, Object upperTerm,
                              boolean includeLower, boolean includeUpper,
-                             boolean hasDocValues) {
-                return INTEGER.rangeQuery(field, lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues);
+                             boolean hasDocValues, boolean isIndexed) {
+                return INTEGER.rangeQuery(field, lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues, isIndexed);
             }
 
             @Override
@@ -552,8 +552,8 @@ public class NumberFieldMapper extends FieldMapper {
             @Override
             public Query rangeQuery(String field, Object lowerTerm, Object upperTerm,
                              boolean includeLower, boolean includeUpper,
-                             boolean hasDocValues) {
-                return INTEGER.rangeQuery(field, lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues);
+                             boolean hasDocValues, boolean isIndexed) {
+                return INTEGER.rangeQuery(field, lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues, isIndexed);
             }
 
             @Override
@@ -629,7 +629,7 @@ public class NumberFieldMapper extends FieldMapper {
             @Override
             public Query rangeQuery(String field, Object lowerTerm, Object upperTerm,
                              boolean includeLower, boolean includeUpper,
-                             boolean hasDocValues) {
+                             boolean hasDocValues, boolean isIndexed) {
                 int l = Integer.MIN_VALUE;
                 int u = Integer.MAX_VALUE;
                 if (lowerTerm != null) {
@@ -659,10 +659,10 @@ public class NumberFieldMapper extends FieldMapper {
                         --u;
                     }
                 }
-                Query query = IntPoint.newRangeQuery(field, l, u);
+                Query query = isIndexed ? IntPoint.newRangeQuery(field, l, u) : null;
                 if (hasDocValues) {
                     Query dvQuery = SortedNumericDocValuesField.newSlowRangeQuery(field, l, u);
-                    query = new IndexOrDocValuesQuery(query, dvQuery);
+                    query = isIndexed ? new IndexOrDocValuesQuery(query, dvQuery) : dvQuery;
                 }
                 return query;
             }
@@ -748,7 +748,7 @@ public class NumberFieldMapper extends FieldMapper {
             @Override
             public Query rangeQuery(String field, Object lowerTerm, Object upperTerm,
                              boolean includeLower, boolean includeUpper,
-                             boolean hasDocValues) {
+                             boolean hasDocValues, boolean isIndexed) {
                 long l = Long.MIN_VALUE;
                 long u = Long.MAX_VALUE;
                 if (lowerTerm != null) {
@@ -778,10 +778,10 @@ public class NumberFieldMapper extends FieldMapper {
                         --u;
                     }
                 }
-                Query query = LongPoint.newRangeQuery(field, l, u);
+                Query query = isIndexed ? LongPoint.newRangeQuery(field, l, u) : null;
                 if (hasDocValues) {
                     Query dvQuery = SortedNumericDocValuesField.newSlowRangeQuery(field, l, u);
-                    query = new IndexOrDocValuesQuery(query, dvQuery);
+                    query = isIndexed ? new IndexOrDocValuesQuery(query, dvQuery) : dvQuery;
                 }
                 return query;
             }
@@ -821,9 +821,13 @@ public class NumberFieldMapper extends FieldMapper {
         }
         public abstract Query termQuery(String field, Object value);
         public abstract Query termsQuery(String field, List<Object> values);
+        /**
+         * Returns a query that matches the values of the given field within the given range. Fields that have doc values are also
+         * searched through their doc values when that is cheaper, and fields that are not indexed only through their doc values.
+         */
         public abstract Query rangeQuery(String field, Object lowerTerm, Object upperTerm,
                                   boolean includeLower, boolean includeUpper,
-                                  boolean hasDocValues);
+                                  boolean hasDocValues, boolean isIndexed);
         public abstract Number parse(XContentParser parser, boolean coerce) throws IOException;
         public abstract Number parse(Object value, boolean coerce);
         public abstract Number parsePoint(byte[] value);
@@ -918,10 +922,25 @@ public class NumberFieldMapper extends FieldMapper {
             }
         }
 
+        /**
+         * Fields that are not indexed can still be searched through their doc values, which is slower since all of the values of
+         * the field have to be checked, but allows to save the cost of indexing fields that are rarely queried.
+         */
+        @Override
+        public boolean isSearchable() {
+            return indexOptions() != IndexOptions.NONE || hasDocValues();
+        }
+
         @Override
         public Query termQuery(Object value, QueryShardContext context) {
-            failIfNotIndexed();
-            Query query = type.termQuery(name(), value);
+            failIfNotIndexedAndNoDocValues();
+            Query query;
+            if (indexOptions() != IndexOptions.NONE) {
+                query = type.termQuery(name(), value);
+            } else {
+                // the doc values query of a range that only contains the value, which parses and rounds it like the range bounds
+                query = type.rangeQuery(name(), value, value, true, true, true, false);
+            }
             if (boost() != 1f) {
                 query = new BoostQuery(query, boost());
             }
@@ -930,7 +949,11 @@ public class NumberFieldMapper extends FieldMapper {
 
         @Override
         public Query termsQuery(List values, QueryShardContext context) {
-            failIfNotIndexed();
+            failIfNotIndexedAndNoDocValues();
+            if (indexOptions() == IndexOptions.NONE) {
+                // a disjunction of doc values term queries
+                return super.termsQuery(values, context);
+            }
             Query query = type.termsQuery(name(), values);
             if (boost() != 1f) {
                 query = new BoostQuery(query, boost());
@@ -940,8 +963,9 @@ public class NumberFieldMapper extends FieldMapper {
 
         @Override
         public Query rangeQuery(Object lowerTerm, Object upperTerm, boolean includeLower, boolean includeUpper, QueryShardContext context) {
-            failIfNotIndexed();
-            Query query = type.rangeQuery(name(), lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues());
+            failIfNotIndexedAndNoDocValues();
+            Query query = type.rangeQuery(name(), lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues(),
+                indexOptions() != IndexOptions.NONE);
             if (boost() != 1f) {
                 query = new BoostQuery(query, boost());
             }
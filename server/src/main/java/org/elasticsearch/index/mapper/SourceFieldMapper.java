@@ -58,6 +58,7 @@ public class SourceFieldMapper extends MetadataFieldMapper {
     public static class Defaults {
         public static final String NAME = SourceFieldMapper.NAME;
         public static final boolean ENABLED = true;
+        public static final boolean SYNTHETIC = false;
 
         public static final MappedFieldType FIELD_TYPE = new SourceFieldType();
 
@@ -77,6 +78,8 @@ public class SourceFieldMapper extends MetadataFieldMapper {
 
         private boolean enabled = Defaults.ENABLED;
 
+        private boolean synthetic = Defaults.SYNTHETIC;
+
         private String[] includes = null;
         private String[] excludes = null;
 
@@ -89,6 +92,11 @@ public class SourceFieldMapper extends MetadataFieldMapper {
             return this;
         }
 
+        public Builder synthetic(boolean synthetic) {
+            this.synthetic = synthetic;
+            return this;
+        }
+
         public Builder includes(String[] includes) {
             this.includes = includes;
             return this;
@@ -101,7 +109,7 @@ public class SourceFieldMapper extends MetadataFieldMapper {
 
         @Override
         public SourceFieldMapper build(BuilderContext context) {
-            return new SourceFieldMapper(enabled, includes, excludes, context.indexSettings());
+            return new SourceFieldMapper(enabled, synthetic, includes, excludes, context.indexSettings());
         }
     }
 
@@ -118,6 +126,9 @@ public class SourceFieldMapper extends MetadataFieldMapper {
                 if (fieldName.equals("enabled")) {
                     builder.enabled(XContentMapValues.nodeBooleanValue(fieldNode, name + ".enabled"));
                     iterator.remove();
+                } else if (fieldName.equals("synthetic")) {
+                    builder.synthetic(XContentMapValues.nodeBooleanValue(fieldNode, name + ".synthetic"));
+                    iterator.remove();
                 } else if (fieldName.equals("includes")) {
                     List<Object> values = (List<Object>) fieldNode;
                     String[] includes = new String[values.size()];
@@ -136,6 +147,10 @@ public class SourceFieldMapper extends MetadataFieldMapper {
                     iterator.remove();
                 }
             }
+            if (builder.synthetic && (builder.enabled == false || builder.includes != null || builder.excludes != null)) {
+                throw new MapperParsingException("[" + name + ".synthetic] can't be combined with [" + name + ".enabled], ["
+                    + name + ".includes] or [" + name + ".excludes]");
+            }
             return builder;
         }
 
@@ -177,6 +192,9 @@ public class SourceFieldMapper extends MetadataFieldMapper {
 
     private final boolean enabled;
 
+    /** indicates whether the source is not stored but synthesized from doc values, see {@link SyntheticSourceLoader} */
+    private final boolean synthetic;
+
     /** indicates whether the source will always exist and be complete, for use by features like the update API */
     private final boolean complete;
 
@@ -184,12 +202,13 @@ public class SourceFieldMapper extends MetadataFieldMapper {
     private final String[] excludes;
 
     private SourceFieldMapper(Settings indexSettings) {
-        this(Defaults.ENABLED, null, null, indexSettings);
+        this(Defaults.ENABLED, Defaults.SYNTHETIC, null, null, indexSettings);
     }
 
-    private SourceFieldMapper(boolean enabled, String[] includes, String[] excludes, Settings indexSettings) {
+    private SourceFieldMapper(boolean enabled, boolean synthetic, String[] includes, String[] excludes, Settings indexSettings) {
         super(NAME, Defaults.FIELD_TYPE.clone(), Defaults.FIELD_TYPE, indexSettings); // Only stored.
         this.enabled = enabled;
+        this.synthetic = synthetic;
         this.includes = includes;
         this.excludes = excludes;
         final boolean filtered = (includes != null && includes.length > 0) || (excludes != null && excludes.length > 0);
@@ -201,6 +220,13 @@ public class SourceFieldMapper extends MetadataFieldMapper {
         return enabled;
     }
 
+    /**
+     * Returns whether the source is synthesized from doc values at fetch time instead of being stored.
+     */
+    public boolean isSynthetic() {
+        return synthetic;
+    }
+
     public String[] excludes() {
         return this.excludes != null ? this.excludes : Strings.EMPTY_ARRAY;
 
@@ -228,7 +254,7 @@ public class SourceFieldMapper extends MetadataFieldMapper {
     protected void parseCreateField(ParseContext context, List<IndexableField> fields) throws IOException {
         BytesReference originalSource = context.sourceToParse().source();
         BytesReference source = originalSource;
-        if (enabled && fieldType().stored() && source != null) {
+        if (enabled && synthetic == false && fieldType().stored() && source != null) {
             // Percolate and tv APIs may not set the source and that is ok, because these APIs will not index any data
             if (filter != null) {
                 // we don't update the context source if we filter, we want to keep it as is...
@@ -265,13 +291,16 @@ public class SourceFieldMapper extends MetadataFieldMapper {
         boolean includeDefaults = params.paramAsBoolean("include_defaults", false);
 
         // all are defaults, no need to write it at all
-        if (!includeDefaults && enabled == Defaults.ENABLED && includes == null && excludes == null) {
+        if (!includeDefaults && enabled == Defaults.ENABLED && synthetic == Defaults.SYNTHETIC && includes == null && excludes == null) {
             return builder;
         }
         builder.startObject(contentType());
         if (includeDefaults || enabled != Defaults.ENABLED) {
             builder.field("enabled", enabled);
         }
+        if (includeDefaults || synthetic != Defaults.SYNTHETIC) {
+            builder.field("synthetic", synthetic);
+        }
 
         if (includes != null) {
             builder.array("includes", includes);
@@ -296,6 +325,9 @@ public class SourceFieldMapper extends MetadataFieldMapper {
         if (this.enabled != sourceMergeWith.enabled) {
             conflicts.add("Cannot update enabled setting for [_source]");
         }
+        if (this.synthetic != sourceMergeWith.synthetic) {
+            conflicts.add("Cannot update synthetic setting for [_source]");
+        }
         if (Arrays.equals(includes(), sourceMergeWith.includes()) == false) {
             conflicts.add("Cannot update includes setting for [_source]");
         }
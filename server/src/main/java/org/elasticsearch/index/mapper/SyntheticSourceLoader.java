@@ -0,0 +1,314 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.fielddata.AtomicNumericFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData.NumericType;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Synthesizes the {@code _source} of the documents of an index whose {@link SourceFieldMapper#isSynthetic() _source is synthetic} from
+ * the doc values of their fields, since such indices don't store the {@code _source}.
+ * <p>
+ * The synthetic source only contains the fields of the mapping, and follows these rules:
+ * <ul>
+ *     <li>the fields of each object are sorted by name, and objects without any values are left out</li>
+ *     <li>a field with a single value is rendered as that value, and a field with several values as an array that is sorted in
+ *     the order of the doc values: numerically for numbers, dates and booleans and by their bytes for keywords and ips, which
+ *     are also deduplicated</li>
+ *     <li>arrays of objects are rendered as a single object with arrays of the values of its fields</li>
+ *     <li>dates are rendered with the first format of their field, and numbers as a value of the type of their field</li>
+ *     <li>field names that contain dots are rendered as objects</li>
+ * </ul>
+ */
+public final class SyntheticSourceLoader {
+
+    private final ObjectNode root;
+
+    public SyntheticSourceLoader(DocumentMapper mapper, Function<MappedFieldType, IndexFieldData<?>> fieldDataLookup) {
+        this.root = buildObjectNode(mapper.root(), fieldDataLookup);
+    }
+
+    /**
+     * Checks that the source of the documents of the given mapping can be synthesized from doc values, which requires that all of its
+     * fields are keyword, numeric, date, boolean or ip fields with doc values.
+     */
+    static void validate(DocumentMapper mapper) {
+        validate(mapper.root());
+    }
+
+    private static void validate(ObjectMapper objectMapper) {
+        if (objectMapper.isEnabled() == false) {
+            throw new IllegalArgumentException("object [" + objectMapper.fullPath() + "] must be enabled because the [_source] is "
+                + "synthetic");
+        }
+        if (objectMapper.nested().isNested()) {
+            throw new IllegalArgumentException("field [" + objectMapper.fullPath() + "] of type [nested] is not supported because the "
+                + "[_source] is synthetic");
+        }
+        for (Mapper mapper : objectMapper) {
+            if (mapper instanceof ObjectMapper) {
+                validate((ObjectMapper) mapper);
+            } else if (mapper instanceof FieldMapper) {
+                validate((FieldMapper) mapper);
+            }
+            // field aliases have no values of their own
+        }
+    }
+
+    private static void validate(FieldMapper fieldMapper) {
+        final MappedFieldType fieldType = fieldMapper.fieldType();
+        if (isSupported(fieldType) == false) {
+            throw new IllegalArgumentException("field [" + fieldType.name() + "] of type [" + fieldType.typeName() + "] is not supported "
+                + "because the [_source] is synthetic, only [keyword], numeric, [date], [boolean] and [ip] fields are");
+        }
+        if (fieldType.hasDocValues() == false) {
+            throw new IllegalArgumentException("field [" + fieldType.name() + "] must have doc values because the [_source] is synthetic");
+        }
+        if (fieldMapper instanceof KeywordFieldMapper && ((KeywordFieldMapper) fieldMapper).ignoreAbove() != Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("field [" + fieldType.name() + "] can't set [ignore_above] because the [_source] is "
+                + "synthetic");
+        }
+        if (fieldMapper.copyTo() != null && fieldMapper.copyTo().copyToFields().isEmpty() == false) {
+            throw new IllegalArgumentException("field [" + fieldType.name() + "] can't set [copy_to] because the [_source] is synthetic");
+        }
+        // the values of multi-fields are copies of the values of their parent field, so they don't need to be checked
+    }
+
+    private static boolean isSupported(MappedFieldType fieldType) {
+        return fieldType instanceof KeywordFieldMapper.KeywordFieldType
+            || fieldType instanceof NumberFieldMapper.NumberFieldType
+            || fieldType instanceof DateFieldMapper.DateFieldType
+            || fieldType instanceof BooleanFieldMapper.BooleanFieldType
+            || fieldType instanceof IpFieldMapper.IpFieldType;
+    }
+
+    private static ObjectNode buildObjectNode(ObjectMapper objectMapper, Function<MappedFieldType, IndexFieldData<?>> fieldDataLookup) {
+        final List<Node> children = new ArrayList<>();
+        for (Mapper mapper : objectMapper) {
+            if (mapper instanceof ObjectMapper) {
+                children.add(buildObjectNode((ObjectMapper) mapper, fieldDataLookup));
+            } else if (mapper instanceof FieldMapper) {
+                final MappedFieldType fieldType = ((FieldMapper) mapper).fieldType();
+                children.add(new FieldNode(mapper.simpleName(), fieldType, fieldDataLookup.apply(fieldType)));
+            }
+        }
+        children.sort(Comparator.comparing(node -> node.name));
+        return new ObjectNode(objectMapper.simpleName(), children);
+    }
+
+    /**
+     * Returns a loader of the synthetic source of the documents of the given segment.
+     */
+    public Leaf leaf(LeafReaderContext context) throws IOException {
+        return new Leaf(context);
+    }
+
+    /**
+     * Loads the synthetic source of the documents of a segment. Doc values can only be read forward, so it is the most efficient to
+     * load the documents in increasing order of their ids.
+     */
+    public final class Leaf {
+
+        private final LeafReaderContext context;
+        private final List<FieldValues> fieldValues = new ArrayList<>();
+        private int lastDocId = -1;
+
+        private Leaf(LeafReaderContext context) throws IOException {
+            this.context = context;
+            reset();
+        }
+
+        private void reset() throws IOException {
+            fieldValues.clear();
+            root.load(context, fieldValues);
+        }
+
+        /**
+         * Returns the synthetic source of the given document as JSON.
+         */
+        public BytesReference source(int docId) throws IOException {
+            if (docId <= lastDocId) {
+                reset();
+            }
+            lastDocId = docId;
+            final Map<String, Object> source = root.values(docId, fieldValues.iterator());
+            try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
+                builder.map(source == null ? Map.of() : source);
+                return BytesReference.bytes(builder);
+            }
+        }
+    }
+
+    private abstract static class Node {
+
+        final String name;
+
+        Node(String name) {
+            this.name = name;
+        }
+
+        abstract void load(LeafReaderContext context, List<FieldValues> fieldValues) throws IOException;
+
+        /**
+         * Returns the values of this node for the given document, taking the values of its fields from the given iterator, which
+         * returns them in the order in which {@link #load} added them.
+         */
+        abstract Object values(int docId, Iterator<FieldValues> fieldValues) throws IOException;
+    }
+
+    private static final class ObjectNode extends Node {
+
+        private final List<Node> children;
+
+        ObjectNode(String name, List<Node> children) {
+            super(name);
+            this.children = children;
+        }
+
+        @Override
+        void load(LeafReaderContext context, List<FieldValues> fieldValues) throws IOException {
+            for (Node child : children) {
+                child.load(context, fieldValues);
+            }
+        }
+
+        @Override
+        Map<String, Object> values(int docId, Iterator<FieldValues> fieldValues) throws IOException {
+            Map<String, Object> values = null;
+            for (Node child : children) {
+                final Object childValues = child.values(docId, fieldValues);
+                if (childValues != null) {
+                    if (values == null) {
+                        values = new LinkedHashMap<>();
+                    }
+                    values.put(child.name, childValues);
+                }
+            }
+            return values;
+        }
+    }
+
+    private static final class FieldNode extends Node {
+
+        private final MappedFieldType fieldType;
+        private final IndexFieldData<?> fieldData;
+
+        FieldNode(String name, MappedFieldType fieldType, IndexFieldData<?> fieldData) {
+            super(name);
+            this.fieldType = fieldType;
+            this.fieldData = fieldData;
+        }
+
+        @Override
+        void load(LeafReaderContext context, List<FieldValues> fieldValues) {
+            fieldValues.add(FieldValues.load(fieldType, fieldData, context));
+        }
+
+        @Override
+        Object values(int docId, Iterator<FieldValues> fieldValues) throws IOException {
+            final List<Object> values = fieldValues.next().values(docId);
+            if (values.isEmpty()) {
+                return null;
+            }
+            return values.size() == 1 ? values.get(0) : values;
+        }
+    }
+
+    /**
+     * Reads the values of a field of a segment from its doc values.
+     */
+    private abstract static class FieldValues {
+
+        abstract List<Object> values(int docId) throws IOException;
+
+        static FieldValues load(MappedFieldType fieldType, IndexFieldData<?> fieldData, LeafReaderContext context) {
+            if (fieldData instanceof IndexNumericFieldData) {
+                final NumericType numericType = ((IndexNumericFieldData) fieldData).getNumericType();
+                final AtomicNumericFieldData data = (AtomicNumericFieldData) fieldData.load(context);
+                if (numericType.isFloatingPoint()) {
+                    final SortedNumericDoubleValues docValues = data.getDoubleValues();
+                    final boolean isDouble = numericType == NumericType.DOUBLE;
+                    return new FieldValues() {
+                        @Override
+                        List<Object> values(int docId) throws IOException {
+                            if (docValues.advanceExact(docId) == false) {
+                                return List.of();
+                            }
+                            final List<Object> values = new ArrayList<>(docValues.docValueCount());
+                            for (int i = 0; i < docValues.docValueCount(); i++) {
+                                final double value = docValues.nextValue();
+                                // floats are widened to doubles by doc values, render them as they were indexed
+                                values.add(isDouble ? value : (Object) (float) value);
+                            }
+                            return values;
+                        }
+                    };
+                }
+                final SortedNumericDocValues docValues = data.getLongValues();
+                final Function<Long, Object> format = numericType == NumericType.BOOLEAN ? value -> value != 0 : fieldType::valueForDisplay;
+                return new FieldValues() {
+                    @Override
+                    List<Object> values(int docId) throws IOException {
+                        if (docValues.advanceExact(docId) == false) {
+                            return List.of();
+                        }
+                        final List<Object> values = new ArrayList<>(docValues.docValueCount());
+                        for (int i = 0; i < docValues.docValueCount(); i++) {
+                            values.add(format.apply(docValues.nextValue()));
+                        }
+                        return values;
+                    }
+                };
+            }
+            final SortedBinaryDocValues docValues = fieldData.load(context).getBytesValues();
+            return new FieldValues() {
+                @Override
+                List<Object> values(int docId) throws IOException {
+                    if (docValues.advanceExact(docId) == false) {
+                        return List.of();
+                    }
+                    final List<Object> values = new ArrayList<>(docValues.docValueCount());
+                    for (int i = 0; i < docValues.docValueCount(); i++) {
+                        values.add(fieldType.valueForDisplay(docValues.nextValue()));
+                    }
+                    return values;
+                }
+            };
+        }
+    }
+}
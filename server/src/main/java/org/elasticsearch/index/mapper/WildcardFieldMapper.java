@@ -0,0 +1,412 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.automaton.Automata;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.Operations;
+import org.apache.lucene.util.automaton.RegExp;
+import org.elasticsearch.common.lucene.BytesRefs;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.search.AutomatonOnBinaryDocValuesQuery;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.index.mapper.BinaryFieldMapper.CustomBinaryDocValuesField;
+import org.elasticsearch.index.query.QueryShardContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A field mapper for strings, like log messages, that are searched with wildcard and regular expression queries whose patterns don't
+ * start with a literal prefix. Such queries need to enumerate the whole terms dictionary of a {@code keyword} field, while this field
+ * indexes the n-grams of its values so that the literal parts of the pattern can be looked up in the index.
+ * <p>
+ * The values of the field are also stored in binary doc values. Queries on this field are {@link AutomatonOnBinaryDocValuesQuery}s: a
+ * conjunction of the n-grams of the literal parts of the pattern finds the candidate documents, whose values are then checked against
+ * the automaton of the pattern. Patterns that have no literal part of at least {@link #NGRAM_SIZE} characters need to check the values
+ * of all of the documents that have a value for this field.
+ */
+public class WildcardFieldMapper extends FieldMapper {
+
+    public static final String CONTENT_TYPE = "wildcard";
+
+    /**
+     * The number of code points of the n-grams that are indexed for each value.
+     */
+    static final int NGRAM_SIZE = 3;
+
+    public static class Defaults {
+        public static final MappedFieldType FIELD_TYPE = new WildcardFieldType();
+
+        static {
+            FIELD_TYPE.setTokenized(false);
+            FIELD_TYPE.setOmitNorms(true);
+            FIELD_TYPE.setIndexOptions(IndexOptions.DOCS);
+            FIELD_TYPE.setHasDocValues(true);
+            FIELD_TYPE.freeze();
+        }
+
+        public static final int IGNORE_ABOVE = Integer.MAX_VALUE;
+    }
+
+    public static class Builder extends FieldMapper.Builder<Builder, WildcardFieldMapper> {
+
+        private int ignoreAbove = Defaults.IGNORE_ABOVE;
+
+        public Builder(String name) {
+            super(name, Defaults.FIELD_TYPE, Defaults.FIELD_TYPE);
+            builder = this;
+        }
+
+        public Builder ignoreAbove(int ignoreAbove) {
+            if (ignoreAbove < 0) {
+                throw new IllegalArgumentException("[ignore_above] must be positive, got " + ignoreAbove);
+            }
+            this.ignoreAbove = ignoreAbove;
+            return this;
+        }
+
+        @Override
+        public WildcardFieldMapper build(BuilderContext context) {
+            setupFieldType(context);
+            return new WildcardFieldMapper(name, fieldType, defaultFieldType, ignoreAbove, context.indexSettings());
+        }
+    }
+
+    public static class TypeParser implements Mapper.TypeParser {
+        @Override
+        public Mapper.Builder<?,?> parse(String name, Map<String, Object> node, ParserContext parserContext) throws MapperParsingException {
+            WildcardFieldMapper.Builder builder = new WildcardFieldMapper.Builder(name);
+            // queries need both the n-grams and the doc values, so the common field parameters that disable them don't apply
+            for (Iterator<Map.Entry<String, Object>> iterator = node.entrySet().iterator(); iterator.hasNext();) {
+                Map.Entry<String, Object> entry = iterator.next();
+                String propName = entry.getKey();
+                Object propNode = entry.getValue();
+                if (propName.equals("ignore_above")) {
+                    builder.ignoreAbove(XContentMapValues.nodeIntegerValue(propNode, -1));
+                    iterator.remove();
+                }
+            }
+            return builder;
+        }
+    }
+
+    public static final class WildcardFieldType extends MappedFieldType {
+
+        public WildcardFieldType() {
+            setIndexAnalyzer(Lucene.KEYWORD_ANALYZER);
+            setSearchAnalyzer(Lucene.KEYWORD_ANALYZER);
+        }
+
+        private WildcardFieldType(WildcardFieldType ref) {
+            super(ref);
+        }
+
+        @Override
+        public WildcardFieldType clone() {
+            return new WildcardFieldType(this);
+        }
+
+        @Override
+        public String typeName() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public Query existsQuery(QueryShardContext context) {
+            return new DocValuesFieldExistsQuery(name());
+        }
+
+        @Override
+        public Query termQuery(Object value, QueryShardContext context) {
+            String term = BytesRefs.toString(value);
+            Query query = new AutomatonOnBinaryDocValuesQuery(approximation(List.of(term)), name(), term, Automata.makeString(term));
+            if (boost() != 1f) {
+                query = new BoostQuery(query, boost());
+            }
+            return query;
+        }
+
+        @Override
+        public Query prefixQuery(String value, MultiTermQuery.RewriteMethod method, QueryShardContext context) {
+            Automaton automaton = Operations.concatenate(Automata.makeString(value), Automata.makeAnyString());
+            return new AutomatonOnBinaryDocValuesQuery(approximation(List.of(value)), name(), value + "*", automaton);
+        }
+
+        @Override
+        public Query wildcardQuery(String value, MultiTermQuery.RewriteMethod method, QueryShardContext context) {
+            Automaton automaton = WildcardQuery.toAutomaton(new Term(name(), value));
+            return new AutomatonOnBinaryDocValuesQuery(approximation(wildcardLiterals(value)), name(), value, automaton);
+        }
+
+        @Override
+        public Query regexpQuery(String value, int flags, int maxDeterminizedStates, MultiTermQuery.RewriteMethod method,
+                                 QueryShardContext context) {
+            Automaton automaton = new RegExp(value, flags).toAutomaton(maxDeterminizedStates);
+            List<String> literals = regexpLiterals(value);
+            if (literals == null) {
+                literals = List.of();
+            }
+            return new AutomatonOnBinaryDocValuesQuery(approximation(literals), name(), "/" + value + "/", automaton);
+        }
+
+        /**
+         * Returns a conjunction of the n-grams of the given literals, which are parts of the pattern that all the values that match
+         * it contain, or a query on the doc values of the field if the literals are too short to have any n-grams.
+         */
+        private Query approximation(List<String> literals) {
+            Set<BytesRef> ngrams = new LinkedHashSet<>();
+            for (String literal : literals) {
+                addQueryNGrams(literal, ngrams);
+            }
+            if (ngrams.isEmpty()) {
+                return new DocValuesFieldExistsQuery(name());
+            }
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            for (BytesRef ngram : ngrams) {
+                builder.add(new TermQuery(new Term(name(), ngram)), BooleanClause.Occur.FILTER);
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Returns the literal parts of a wildcard pattern, which are separated by the {@code *} and {@code ?} wildcards.
+     */
+    static List<String> wildcardLiterals(String pattern) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < pattern.length();) {
+            int c = pattern.codePointAt(i);
+            int length = Character.charCount(c);
+            if (c == WildcardQuery.WILDCARD_ESCAPE && i + length < pattern.length()) {
+                // the escaped character is a literal
+                i += length;
+                c = pattern.codePointAt(i);
+                length = Character.charCount(c);
+                current.appendCodePoint(c);
+            } else if (c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR) {
+                addLiteral(current, literals);
+            } else {
+                current.appendCodePoint(c);
+            }
+            i += length;
+        }
+        addLiteral(current, literals);
+        return literals;
+    }
+
+    /**
+     * Returns the literal parts of a regular expression that all the values that match it contain, or {@code null} if the regular
+     * expression uses an operator, like an alternation or a group, that would require to analyze its structure to find them.
+     */
+    static List<String> regexpLiterals(String pattern) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean lastWasLiteral = false;
+        for (int i = 0; i < pattern.length();) {
+            int c = pattern.codePointAt(i);
+            int length = Character.charCount(c);
+            if (c == '\\' && i + length < pattern.length()) {
+                i += length;
+                c = pattern.codePointAt(i);
+                length = Character.charCount(c);
+                current.appendCodePoint(c);
+                lastWasLiteral = true;
+            } else if ("|&~(){}\"#<>".indexOf(c) >= 0) {
+                return null;
+            } else if (c == '[') {
+                // a character class is not a literal, skip to its end
+                int end = i + 1;
+                while (end < pattern.length() && pattern.charAt(end) != ']') {
+                    end += pattern.charAt(end) == '\\' ? 2 : 1;
+                }
+                if (end >= pattern.length()) {
+                    return null;
+                }
+                length = end + 1 - i;
+                addLiteral(current, literals);
+                lastWasLiteral = false;
+            } else if (c == '?' || c == '*') {
+                if (lastWasLiteral) {
+                    // the previous character is optional
+                    current.setLength(current.offsetByCodePoints(current.length(), -1));
+                }
+                addLiteral(current, literals);
+                lastWasLiteral = false;
+            } else if (c == '.' || c == '@' || c == '+') {
+                addLiteral(current, literals);
+                lastWasLiteral = false;
+            } else {
+                current.appendCodePoint(c);
+                lastWasLiteral = true;
+            }
+            i += length;
+        }
+        addLiteral(current, literals);
+        return literals;
+    }
+
+    private static void addLiteral(StringBuilder current, List<String> literals) {
+        if (current.length() > 0) {
+            literals.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    /**
+     * Adds the n-grams that are indexed for the given value to the given set.
+     */
+    static void addIndexNGrams(String value, Set<BytesRef> ngrams) {
+        final int[] offsets = codePointOffsets(value);
+        for (int i = 0; i + NGRAM_SIZE < offsets.length; i++) {
+            ngrams.add(ngram(value, offsets, i));
+        }
+    }
+
+    /**
+     * Adds the n-grams that need to be looked up to find the values that contain the given literal to the given set. Since all the
+     * n-grams of the values are indexed, the n-grams of the literal don't need to overlap.
+     */
+    static void addQueryNGrams(String literal, Set<BytesRef> ngrams) {
+        final int[] offsets = codePointOffsets(literal);
+        final int numCodePoints = offsets.length - 1;
+        if (numCodePoints < NGRAM_SIZE) {
+            return;
+        }
+        for (int i = 0; i + NGRAM_SIZE <= numCodePoints; i += NGRAM_SIZE) {
+            ngrams.add(ngram(literal, offsets, i));
+        }
+        if (numCodePoints % NGRAM_SIZE != 0) {
+            // the last characters are not covered by the non overlapping n-grams
+            ngrams.add(ngram(literal, offsets, numCodePoints - NGRAM_SIZE));
+        }
+    }
+
+    private static int[] codePointOffsets(String value) {
+        final int[] offsets = new int[value.codePointCount(0, value.length()) + 1];
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] = value.offsetByCodePoints(offsets[i - 1], 1);
+        }
+        return offsets;
+    }
+
+    private static BytesRef ngram(String value, int[] offsets, int start) {
+        return new BytesRef(value.substring(offsets[start], offsets[start + NGRAM_SIZE]));
+    }
+
+    private int ignoreAbove;
+
+    protected WildcardFieldMapper(String simpleName, MappedFieldType fieldType, MappedFieldType defaultFieldType, int ignoreAbove,
+                                  Settings indexSettings) {
+        super(simpleName, fieldType, defaultFieldType, indexSettings, MultiFields.empty(), CopyTo.empty());
+        assert ignoreAbove >= 0;
+        this.ignoreAbove = ignoreAbove;
+    }
+
+    @Override
+    protected WildcardFieldMapper clone() {
+        return (WildcardFieldMapper) super.clone();
+    }
+
+    @Override
+    public WildcardFieldType fieldType() {
+        return (WildcardFieldType) super.fieldType();
+    }
+
+    /** Values that have more chars than the return value of this method will
+     *  be skipped at parsing time. */
+    public int ignoreAbove() {
+        return ignoreAbove;
+    }
+
+    @Override
+    protected void parseCreateField(ParseContext context, List<IndexableField> fields) throws IOException {
+        final String value;
+        if (context.externalValueSet()) {
+            value = context.externalValue().toString();
+        } else {
+            XContentParser parser = context.parser();
+            value = parser.textOrNull();
+        }
+
+        if (value == null || value.length() > ignoreAbove) {
+            return;
+        }
+
+        Set<BytesRef> ngrams = new LinkedHashSet<>();
+        addIndexNGrams(value, ngrams);
+        for (BytesRef ngram : ngrams) {
+            fields.add(new Field(fieldType().name(), ngram, fieldType()));
+        }
+
+        // all the values of a document are verified together, so they are stored in a single binary doc value
+        CustomBinaryDocValuesField field = (CustomBinaryDocValuesField) context.doc().getByKey(fieldType().name());
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (field == null) {
+            field = new CustomBinaryDocValuesField(fieldType().name(), bytes);
+            context.doc().addWithKey(fieldType().name(), field);
+        } else {
+            field.add(bytes);
+        }
+    }
+
+    @Override
+    protected String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    protected void doMerge(Mapper mergeWith) {
+        super.doMerge(mergeWith);
+        this.ignoreAbove = ((WildcardFieldMapper) mergeWith).ignoreAbove;
+    }
+
+    @Override
+    protected void doXContentBody(XContentBuilder builder, boolean includeDefaults, Params params) throws IOException {
+        // the field is always indexed and has doc values, so only the parameters of this mapper need to be rendered
+        builder.field("type", contentType());
+        if (includeDefaults || ignoreAbove != Defaults.IGNORE_ABOVE) {
+            builder.field("ignore_above", ignoreAbove);
+        }
+    }
+}
@@ -20,6 +20,8 @@
 package org.elasticsearch.index.query;
 
 import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.spans.SpanBoostQuery;
 import org.apache.lucene.search.spans.SpanQuery;
@@ -35,6 +37,7 @@ import org.elasticsearch.common.xcontent.NamedObjectNotFoundException;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentLocation;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.mapper.ConstantFieldType;
 
 import java.io.IOException;
 import java.nio.CharBuffer;
@@ -279,6 +282,18 @@ public abstract class AbstractQueryBuilder<QB extends AbstractQueryBuilder<QB>>
         return this;
     }
 
+    /**
+     * Converts the query that a {@link ConstantFieldType} built for a query builder, which matches either all or none of the
+     * documents, into the equivalent query builder.
+     */
+    static QueryBuilder toConstantQueryBuilder(Query query) {
+        if (query instanceof MatchAllDocsQuery) {
+            return new MatchAllQueryBuilder();
+        }
+        assert query instanceof MatchNoDocsQuery : query;
+        return new MatchNoneQueryBuilder();
+    }
+
     /**
      * For internal usage only!
      *
@@ -0,0 +1,67 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.query;
+
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.mapper.ConstantFieldType;
+import org.elasticsearch.index.mapper.DateFieldRange;
+
+import java.util.Map;
+
+/**
+ * A {@link QueryRewriteContext} used on the coordinating node to rewrite a query against the known ranges of the values
+ * of some fields in a given shard and the constant fields of its index. Queries that can be proven not to match any document
+ * of the shard rewrite to a {@link MatchNoneQueryBuilder}, which allows the coordinating node to skip the shard without
+ * sending it a request.
+ */
+public class CoordinatorRewriteContext extends QueryRewriteContext {
+
+    private final Map<String, DateFieldRange> fieldRanges;
+    private final Map<String, ConstantFieldType> constantFieldTypes;
+
+    public CoordinatorRewriteContext(QueryRewriteContext context, Map<String, DateFieldRange> fieldRanges,
+                                     Map<String, ConstantFieldType> constantFieldTypes) {
+        super(context.getXContentRegistry(), context.getWriteableRegistry(), context.client, context.nowInMillis);
+        this.fieldRanges = fieldRanges;
+        this.constantFieldTypes = constantFieldTypes;
+    }
+
+    /**
+     * Returns the range of values of the given field in the shard, or {@code null} if it is unknown.
+     */
+    @Nullable
+    public DateFieldRange getFieldRange(String fieldName) {
+        return fieldRanges.get(fieldName);
+    }
+
+    /**
+     * Returns the type of the given field if it is a constant field of the index of the shard, as defined by the mapping of the
+     * index in the cluster state.
+     */
+    @Override
+    public ConstantFieldType getConstantFieldType(String fieldName) {
+        return constantFieldTypes.get(fieldName);
+    }
+
+    @Override
+    public CoordinatorRewriteContext convertToCoordinatorRewriteContext() {
+        return this;
+    }
+}
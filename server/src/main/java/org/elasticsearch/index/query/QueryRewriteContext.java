@@ -20,10 +20,12 @@ package org.elasticsearch.index.query;
 
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.mapper.ConstantFieldType;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -75,6 +77,23 @@ public class QueryRewriteContext {
         return null;
     }
 
+    /**
+     * Returns an instance of {@link CoordinatorRewriteContext} if available or null otherwise
+     */
+    public CoordinatorRewriteContext convertToCoordinatorRewriteContext() {
+        return null;
+    }
+
+    /**
+     * Returns the type of the given field if its value is the same for all the documents that the query is rewritten against, or
+     * {@code null} if it is not or is unknown. Queries on such a field can be rewritten to a {@link MatchAllQueryBuilder} or a
+     * {@link MatchNoneQueryBuilder}.
+     */
+    @Nullable
+    public ConstantFieldType getConstantFieldType(String fieldName) {
+        return null;
+    }
+
     /**
      * Registers an async action that must be executed before the next rewrite round in order to make progress.
      * This should be used if a rewriteabel needs to fetch some external resources in order to be executed ie. a document
@@ -43,6 +43,7 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.analysis.IndexAnalyzers;
 import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
 import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.mapper.ConstantFieldType;
 import org.elasticsearch.index.mapper.ContentPath;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -379,6 +380,16 @@ public class QueryShardContext extends QueryRewriteContext {
         return this;
     }
 
+    @Override
+    public ConstantFieldType getConstantFieldType(String fieldName) {
+        if (mapperService == null) {
+            // some contexts that are only used to parse queries don't have mappings
+            return null;
+        }
+        final MappedFieldType fieldType = mapperService.fullName(fieldName);
+        return fieldType instanceof ConstantFieldType ? (ConstantFieldType) fieldType : null;
+    }
+
     /**
      * Returns the index settings for this context. This might return null if the
      * context has not index scope.
@@ -34,6 +34,7 @@ import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.time.DateMathParser;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.mapper.DateFieldRange;
 import org.elasticsearch.index.mapper.FieldNamesFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
@@ -435,6 +436,13 @@ public class RangeQueryBuilder extends AbstractQueryBuilder<RangeQueryBuilder> i
         // If the context is null we are not on the shard and cannot
         // rewrite so just pretend there is an intersection so that the rewrite is a noop
         if (shardContext == null || shardContext.getIndexReader() == null) {
+            // unless the coordinating node knows the range of values of the field in the shard
+            final CoordinatorRewriteContext coordinatorContext = queryRewriteContext.convertToCoordinatorRewriteContext();
+            final DateFieldRange fieldRange = coordinatorContext == null ? null : coordinatorContext.getFieldRange(fieldName);
+            if (fieldRange != null) {
+                return fieldRange.relation(from, to, includeLower, includeUpper, timeZone, getForceDateParser(),
+                    queryRewriteContext::nowInMillis);
+            }
             return MappedFieldType.Relation.INTERSECTS;
         }
         final MapperService mapperService = shardContext.getMapperService();
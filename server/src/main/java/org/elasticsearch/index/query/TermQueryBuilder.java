@@ -27,6 +27,7 @@ import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.lucene.BytesRefs;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.mapper.ConstantFieldType;
 import org.elasticsearch.index.mapper.MappedFieldType;
 
 import java.io.IOException;
@@ -130,6 +131,15 @@ public class TermQueryBuilder extends BaseTermQueryBuilder<TermQueryBuilder> {
         return termQuery;
     }
 
+    @Override
+    protected QueryBuilder doRewrite(QueryRewriteContext queryRewriteContext) throws IOException {
+        final ConstantFieldType fieldType = queryRewriteContext.getConstantFieldType(fieldName);
+        if (fieldType != null) {
+            return toConstantQueryBuilder(fieldType.termQuery(value, null));
+        }
+        return super.doRewrite(queryRewriteContext);
+    }
+
     @Override
     protected Query doToQuery(QueryShardContext context) throws IOException {
         Query query = null;
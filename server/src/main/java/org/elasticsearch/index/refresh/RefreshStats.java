@@ -41,6 +41,12 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
 
     private long externalTotalTimeInMillis;
 
+    private long searchIdleSkippedTotal;
+
+    private long throttledTotal;
+
+    private long onDemandTotal;
+
     /**
      * Number of waiting refresh listeners.
      */
@@ -56,6 +62,11 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
             externalTotal = in.readVLong();
             externalTotalTimeInMillis = in.readVLong();
         }
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            searchIdleSkippedTotal = in.readVLong();
+            throttledTotal = in.readVLong();
+            onDemandTotal = in.readVLong();
+        }
         listeners = in.readVInt();
     }
 
@@ -67,14 +78,23 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
             out.writeVLong(externalTotal);
             out.writeVLong(externalTotalTimeInMillis);
         }
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(searchIdleSkippedTotal);
+            out.writeVLong(throttledTotal);
+            out.writeVLong(onDemandTotal);
+        }
         out.writeVInt(listeners);
     }
 
-    public RefreshStats(long total, long totalTimeInMillis, long externalTotal, long externalTotalTimeInMillis, int listeners) {
+    public RefreshStats(long total, long totalTimeInMillis, long externalTotal, long externalTotalTimeInMillis,
+                        long searchIdleSkippedTotal, long throttledTotal, long onDemandTotal, int listeners) {
         this.total = total;
         this.totalTimeInMillis = totalTimeInMillis;
         this.externalTotal = externalTotal;
         this.externalTotalTimeInMillis = externalTotalTimeInMillis;
+        this.searchIdleSkippedTotal = searchIdleSkippedTotal;
+        this.throttledTotal = throttledTotal;
+        this.onDemandTotal = onDemandTotal;
         this.listeners = listeners;
     }
 
@@ -90,6 +110,9 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
         this.totalTimeInMillis += refreshStats.totalTimeInMillis;
         this.externalTotal += refreshStats.externalTotal;
         this.externalTotalTimeInMillis += refreshStats.externalTotalTimeInMillis;
+        this.searchIdleSkippedTotal += refreshStats.searchIdleSkippedTotal;
+        this.throttledTotal += refreshStats.throttledTotal;
+        this.onDemandTotal += refreshStats.onDemandTotal;
         this.listeners += refreshStats.listeners;
     }
 
@@ -132,6 +155,28 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
     public TimeValue getExternalTotalTime() {
         return new TimeValue(externalTotalTimeInMillis);
     }
+
+    /**
+     * The number of scheduled refreshes that were skipped because the shard was search idle.
+     */
+    public long getSearchIdleSkippedTotal() {
+        return searchIdleSkippedTotal;
+    }
+
+    /**
+     * The number of scheduled refreshes that were skipped because the node had too many scheduled refreshes running already.
+     */
+    public long getThrottledTotal() {
+        return throttledTotal;
+    }
+
+    /**
+     * The number of searches that hit a search idle shard with pending changes and waited for a refresh to make them visible.
+     */
+    public long getOnDemandTotal() {
+        return onDemandTotal;
+    }
+
     /**
      * The number of waiting refresh listeners.
      */
@@ -146,6 +191,9 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
         builder.humanReadableField("total_time_in_millis", "total_time", getTotalTime());
         builder.field("external_total", externalTotal);
         builder.humanReadableField("external_total_time_in_millis", "external_total_time", getExternalTotalTime());
+        builder.field("search_idle_skipped_total", searchIdleSkippedTotal);
+        builder.field("throttled_total", throttledTotal);
+        builder.field("on_demand_total", onDemandTotal);
         builder.field("listeners", listeners);
         builder.endObject();
         return builder;
@@ -166,11 +214,15 @@ public class RefreshStats implements Streamable, Writeable, ToXContentFragment {
                 && totalTimeInMillis == rhs.totalTimeInMillis
                 && externalTotal == rhs.externalTotal
                 && externalTotalTimeInMillis == rhs.externalTotalTimeInMillis
+                && searchIdleSkippedTotal == rhs.searchIdleSkippedTotal
+                && throttledTotal == rhs.throttledTotal
+                && onDemandTotal == rhs.onDemandTotal
                 && listeners == rhs.listeners;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, listeners);
+        return Objects.hash(total, totalTimeInMillis, externalTotal, externalTotalTimeInMillis, searchIdleSkippedTotal, throttledTotal,
+            onDemandTotal, listeners);
     }
 }
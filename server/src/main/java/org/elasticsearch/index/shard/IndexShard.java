@@ -51,6 +51,7 @@ import org.elasticsearch.cluster.routing.RecoverySource.SnapshotRecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Booleans;
 import org.elasticsearch.common.CheckedRunnable;
+import org.elasticsearch.common.CheckedConsumer;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
@@ -129,6 +130,9 @@ import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.MergeBudget;
+import org.elasticsearch.indices.ScheduledRefreshBudget;
+import org.elasticsearch.indices.TranslogSyncScheduler;
 import org.elasticsearch.indices.TypeMissingException;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
@@ -168,6 +172,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.seqno.RetentionLeaseActions.RETAIN_ALL;
@@ -211,6 +216,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
 
     private final IndexingOperationListener indexingOperationListeners;
     private final Runnable globalCheckpointSyncer;
+    @Nullable
+    private final TranslogSyncScheduler translogSyncScheduler;
+    private final MergeBudget mergeBudget;
 
     Runnable getGlobalCheckpointSyncer() {
         return globalCheckpointSyncer;
@@ -224,6 +232,11 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final RecoveryStats recoveryStats = new RecoveryStats();
     private final MeanMetric refreshMetric = new MeanMetric();
     private final MeanMetric externalRefreshMetric = new MeanMetric();
+    private final CounterMetric searchIdleSkippedRefreshes = new CounterMetric();
+    private final CounterMetric throttledRefreshes = new CounterMetric();
+    private final CounterMetric onDemandRefreshes = new CounterMetric();
+    // whether the last scheduled refresh was skipped because the node exhausted its scheduled refresh budget
+    private volatile boolean lastScheduledRefreshThrottled;
     private final MeanMetric flushMetric = new MeanMetric();
     private final CounterMetric periodicFlushMetric = new CounterMetric();
 
@@ -277,7 +290,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             final List<IndexingOperationListener> listeners,
             final Runnable globalCheckpointSyncer,
             final RetentionLeaseSyncer retentionLeaseSyncer,
-            final CircuitBreakerService circuitBreakerService) throws IOException {
+            final CircuitBreakerService circuitBreakerService,
+            final @Nullable TranslogSyncScheduler translogSyncScheduler,
+            final @Nullable MergeBudget mergeBudget) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
@@ -298,6 +313,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         listenersList.add(internalIndexingStats);
         this.indexingOperationListeners = new IndexingOperationListener.CompositeListener(listenersList, logger);
         this.globalCheckpointSyncer = globalCheckpointSyncer;
+        this.translogSyncScheduler = translogSyncScheduler;
+        this.mergeBudget = mergeBudget;
         this.retentionLeaseSyncer = Objects.requireNonNull(retentionLeaseSyncer);
         final List<SearchOperationListener> searchListenersList = new ArrayList<>(searchOperationListener);
         searchListenersList.add(searchStats);
@@ -345,6 +362,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                     return true;
                 }
             };
+        } else if (indexCache != null) {
+            cachingPolicy = indexCache.query().newQueryCachingPolicy();
         } else {
             cachingPolicy = new UsageTrackingQueryCachingPolicy();
         }
@@ -710,22 +729,36 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                                                            long ifSeqNo, long ifPrimaryTerm, long autoGeneratedTimestamp,
                                                            boolean isRetry)
         throws IOException {
+        return applyIndexOperationOnPrimary(version, versionType, sourceToParse, null, ifSeqNo, ifPrimaryTerm, autoGeneratedTimestamp,
+            isRetry);
+    }
+
+    /**
+     * Same as {@link #applyIndexOperationOnPrimary(long, VersionType, SourceToParse, long, long, long, boolean)}, but reuses the
+     * given document that was parsed ahead of time with {@link #preParseDocument(SourceToParse)} if the mapping it was parsed
+     * with is still current.
+     */
+    public Engine.IndexResult applyIndexOperationOnPrimary(long version, VersionType versionType, SourceToParse sourceToParse,
+                                                           @Nullable PreParsedDocument preParsedDocument, long ifSeqNo,
+                                                           long ifPrimaryTerm, long autoGeneratedTimestamp, boolean isRetry)
+        throws IOException {
         assert versionType.validateVersionForWrites(version);
         return applyIndexOperation(getEngine(), UNASSIGNED_SEQ_NO, getOperationPrimaryTerm(), version, versionType, ifSeqNo,
-            ifPrimaryTerm, autoGeneratedTimestamp, isRetry, Engine.Operation.Origin.PRIMARY, sourceToParse);
+            ifPrimaryTerm, autoGeneratedTimestamp, isRetry, Engine.Operation.Origin.PRIMARY, sourceToParse, preParsedDocument);
     }
 
     public Engine.IndexResult applyIndexOperationOnReplica(long seqNo, long version, long autoGeneratedTimeStamp,
                                                            boolean isRetry, SourceToParse sourceToParse)
         throws IOException {
         return applyIndexOperation(getEngine(), seqNo, getOperationPrimaryTerm(), version, null, UNASSIGNED_SEQ_NO, 0,
-            autoGeneratedTimeStamp, isRetry, Engine.Operation.Origin.REPLICA, sourceToParse);
+            autoGeneratedTimeStamp, isRetry, Engine.Operation.Origin.REPLICA, sourceToParse, null);
     }
 
     private Engine.IndexResult applyIndexOperation(Engine engine, long seqNo, long opPrimaryTerm, long version,
                                                    @Nullable VersionType versionType, long ifSeqNo, long ifPrimaryTerm,
                                                    long autoGeneratedTimeStamp, boolean isRetry, Engine.Operation.Origin origin,
-                                                   SourceToParse sourceToParse) throws IOException {
+                                                   SourceToParse sourceToParse, @Nullable PreParsedDocument preParsedDocument)
+        throws IOException {
         assert opPrimaryTerm <= getOperationPrimaryTerm()
                 : "op term [ " + opPrimaryTerm + " ] > shard term [" + getOperationPrimaryTerm() + "]";
         ensureWriteAllowed(origin);
@@ -739,8 +772,18 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 sourceWithResolvedType = new SourceToParse(sourceToParse.index(), resolvedType, sourceToParse.id(),
                     sourceToParse.source(), sourceToParse.getXContentType(), sourceToParse.routing());
             }
-            operation = prepareIndex(docMapper(resolvedType), indexSettings.getIndexVersionCreated(), sourceWithResolvedType,
-                seqNo, opPrimaryTerm, version, versionType, origin, autoGeneratedTimeStamp, isRetry, ifSeqNo, ifPrimaryTerm);
+            final DocumentMapperForType docMapper = docMapper(resolvedType);
+            if (preParsedDocument != null && preParsedDocument.documentMapper == docMapper.getDocumentMapper()) {
+                assert preParsedDocument.document.id().equals(sourceToParse.id());
+                // account for the time spent parsing ahead of time, so that indexing stats look the same either way
+                final long startTime = System.nanoTime() - preParsedDocument.parseTimeInNanos;
+                operation = new Engine.Index(new Term(IdFieldMapper.NAME, Uid.encodeId(preParsedDocument.document.id())),
+                    preParsedDocument.document, seqNo, opPrimaryTerm, version, versionType, origin, startTime, autoGeneratedTimeStamp,
+                    isRetry, ifSeqNo, ifPrimaryTerm);
+            } else {
+                operation = prepareIndex(docMapper, indexSettings.getIndexVersionCreated(), sourceWithResolvedType,
+                    seqNo, opPrimaryTerm, version, versionType, origin, autoGeneratedTimeStamp, isRetry, ifSeqNo, ifPrimaryTerm);
+            }
             Mapping update = operation.parsedDoc().dynamicMappingsUpdate();
             if (update != null) {
                 return new Engine.IndexResult(update);
@@ -771,6 +814,53 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             ifSeqNo, ifPrimaryTerm);
     }
 
+    /**
+     * Parses the given source with the current mapping without indexing it, so that documents can be parsed concurrently ahead of
+     * being indexed in order by {@link #applyIndexOperationOnPrimary(long, VersionType, SourceToParse, PreParsedDocument, long, long,
+     * long, boolean)}. Returns {@code null} if the document fails to parse or requires a mapping update, in which case it is parsed
+     * again when it is indexed so that the failure or the mapping update is handled there.
+     */
+    @Nullable
+    public PreParsedDocument preParseDocument(SourceToParse sourceToParse) {
+        final long startTime = System.nanoTime();
+        try {
+            final String resolvedType = mapperService.resolveDocumentType(sourceToParse.type());
+            final DocumentMapper documentMapper = mapperService.documentMapper(resolvedType);
+            if (documentMapper == null) {
+                return null;
+            }
+            final ParsedDocument document = documentMapper.parse(resolvedType.equals(sourceToParse.type()) ? sourceToParse
+                : new SourceToParse(sourceToParse.index(), resolvedType, sourceToParse.id(), sourceToParse.source(),
+                    sourceToParse.getXContentType(), sourceToParse.routing()));
+            if (document.dynamicMappingsUpdate() != null) {
+                return null;
+            }
+            return new PreParsedDocument(documentMapper, document, System.nanoTime() - startTime);
+        } catch (Exception e) {
+            logger.trace(() -> new ParameterizedMessage("failed to parse document [{}] ahead of indexing it", sourceToParse.id()), e);
+            return null;
+        }
+    }
+
+    /**
+     * A document that was parsed ahead of indexing it, see {@link #preParseDocument(SourceToParse)}.
+     */
+    public static final class PreParsedDocument {
+        private final DocumentMapper documentMapper;
+        private final ParsedDocument document;
+        private final long parseTimeInNanos;
+
+        private PreParsedDocument(DocumentMapper documentMapper, ParsedDocument document, long parseTimeInNanos) {
+            this.documentMapper = documentMapper;
+            this.document = document;
+            this.parseTimeInNanos = parseTimeInNanos;
+        }
+
+        public ParsedDocument parsedDocument() {
+            return document;
+        }
+    }
+
     private Engine.IndexResult index(Engine engine, Engine.Index index) throws IOException {
         active.set(true);
         final Engine.IndexResult result;
@@ -946,6 +1036,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             TimeUnit.NANOSECONDS.toMillis(refreshMetric.sum()),
             externalRefreshMetric.count(),
             TimeUnit.NANOSECONDS.toMillis(externalRefreshMetric.sum()),
+            searchIdleSkippedRefreshes.count(),
+            throttledRefreshes.count(),
+            onDemandRefreshes.count(),
             listeners);
     }
 
@@ -978,14 +1071,17 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         Engine engine = getEngineOrNull();
         final boolean throttled;
         final long throttleTimeInMillis;
+        final long avoidedIdSeekCount;
         if (engine == null) {
             throttled = false;
             throttleTimeInMillis = 0;
+            avoidedIdSeekCount = 0;
         } else {
             throttled = engine.isThrottled();
             throttleTimeInMillis = engine.getIndexThrottleTimeInMillis();
+            avoidedIdSeekCount = engine.getAvoidedIdSeekCount();
         }
-        return internalIndexingStats.stats(throttled, throttleTimeInMillis, types);
+        return internalIndexingStats.stats(throttled, throttleTimeInMillis, avoidedIdSeekCount, types);
     }
 
     public SearchStats searchStats(String... groups) {
@@ -1184,6 +1280,10 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * @throws java.nio.file.NoSuchFileException                  if one or more files referenced by a commit are not present.
      */
     public Store.MetadataSnapshot snapshotStoreMetadata() throws IOException {
+        return snapshotStoreMetadata(true);
+    }
+
+    private Store.MetadataSnapshot snapshotStoreMetadata(boolean useCache) throws IOException {
         Engine.IndexCommitRef indexCommit = null;
         store.incRef();
         try {
@@ -1194,11 +1294,12 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 // That can be done out of mutex, since the engine can be closed half way.
                 engine = getEngineOrNull();
                 if (engine == null) {
-                    return store.getMetadata(null, true);
+                    return useCache ? store.getMetadata(null, true) : store.getUncachedMetadata(null, true);
                 }
             }
             indexCommit = engine.acquireLastIndexCommit(false);
-            return store.getMetadata(indexCommit.getIndexCommit());
+            final IndexCommit commit = indexCommit.getIndexCommit();
+            return useCache ? store.getMetadata(commit) : store.getUncachedMetadata(commit, false);
         } finally {
             store.decRef();
             IOUtils.close(indexCommit);
@@ -1337,7 +1438,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 result = applyIndexOperation(engine, index.seqNo(), index.primaryTerm(), index.version(),
                     versionType, UNASSIGNED_SEQ_NO, 0, index.getAutoGeneratedIdTimestamp(), true, origin,
                     new SourceToParse(shardId.getIndexName(), index.type(), index.id(), index.source(),
-                        XContentHelper.xContentType(index.source()), index.routing()));
+                        XContentHelper.xContentType(index.source()), index.routing()), null);
                 break;
             case DELETE:
                 final Translog.Delete delete = (Translog.Delete) operation;
@@ -2250,7 +2351,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         if ("checksum".equals(checkIndexOnStartup)) {
             // physical verification only: verify all checksums for the latest commit
             IOException corrupt = null;
-            MetadataSnapshot metadata = snapshotStoreMetadata();
+            MetadataSnapshot metadata = snapshotStoreMetadata(false);
             for (Map.Entry<String, StoreFileMetaData> entry : metadata.asMap().entrySet()) {
                 try {
                     Store.checkIntegrity(entry.getValue(), store.directory());
@@ -2488,7 +2589,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 Collections.singletonList(refreshListeners),
                 Collections.singletonList(new RefreshMetricUpdater(refreshMetric)),
                 indexSort, circuitBreakerService, replicationTracker, replicationTracker::getRetentionLeases,
-                () -> getOperationPrimaryTerm(), tombstoneDocSupplier());
+                () -> getOperationPrimaryTerm(), tombstoneDocSupplier(), mergeBudget);
     }
 
     /**
@@ -2789,17 +2890,25 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return indexShardOperationPermits.getActiveOperations();
     }
 
+    private final CheckedConsumer<Stream<Translog.Location>, IOException> translogSyncer = locations -> {
+        try {
+            getEngine().ensureTranslogSynced(locations);
+        } catch (AlreadyClosedException ex) {
+            // that's fine since we already synced everything on engine close - this also is conform with the methods
+            // documentation
+        } catch (IOException ex) { // if this fails we are in deep shit - fail the request
+            logger.debug("failed to sync translog", ex);
+            throw ex;
+        }
+    };
+
     private final AsyncIOProcessor<Translog.Location> translogSyncProcessor = new AsyncIOProcessor<Translog.Location>(logger, 1024) {
         @Override
         protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) throws IOException {
-            try {
-                getEngine().ensureTranslogSynced(candidates.stream().map(Tuple::v1));
-            } catch (AlreadyClosedException ex) {
-                // that's fine since we already synced everything on engine close - this also is conform with the methods
-                // documentation
-            } catch (IOException ex) { // if this fails we are in deep shit - fail the request
-                logger.debug("failed to sync translog", ex);
-                throw ex;
+            final long startNanos = System.nanoTime();
+            translogSyncer.accept(candidates.stream().map(Tuple::v1));
+            if (translogSyncScheduler != null) {
+                translogSyncScheduler.onFsync(candidates.size(), System.nanoTime() - startNanos);
             }
         }
     };
@@ -2810,12 +2919,26 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * the transaction log the caller thread will be hijacked to run the fsync for all pending fsync operations.
      * This method allows indexing threads to continue indexing without blocking on fsync calls. We ensure that there is only
      * one thread blocking on the sync an all others can continue indexing.
+     * If the node batches translog syncs across shards, the location is synced by the next sync round of the node instead.
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
      */
     public final void sync(Translog.Location location, Consumer<Exception> syncListener) {
         verifyNotClosed();
-        translogSyncProcessor.put(location, syncListener);
+        if (translogSyncScheduler == null) {
+            translogSyncProcessor.put(location, syncListener);
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        final Consumer<Exception> listener = e -> {
+            translogSyncScheduler.onSyncCompleted(System.nanoTime() - startNanos);
+            syncListener.accept(e);
+        };
+        if (translogSyncScheduler.isEnabled()) {
+            translogSyncScheduler.sync(path.getRootDataPath(), translogSyncer, location, listener);
+        } else {
+            translogSyncProcessor.put(location, listener);
+        }
     }
 
     public void sync() throws IOException {
@@ -2952,6 +3075,15 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * @return <code>true</code> iff the engine got refreshed otherwise <code>false</code>
      */
     public boolean scheduledRefresh() {
+        return scheduledRefresh(null);
+    }
+
+    /**
+     * Executes a scheduled refresh if necessary, within the given budget of scheduled refreshes of the node.
+     *
+     * @return <code>true</code> iff the engine got refreshed otherwise <code>false</code>
+     */
+    public boolean scheduledRefresh(@Nullable ScheduledRefreshBudget budget) {
         verifyNotClosed();
         boolean listenerNeedsRefresh = refreshListeners.refreshNeeded();
         if (isReadAllowed() && (listenerNeedsRefresh || getEngine().refreshNeeded())) {
@@ -2965,12 +3097,28 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 final Engine engine = getEngine();
                 engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
                 setRefreshPending(engine);
+                searchIdleSkippedRefreshes.inc();
                 return false;
             } else {
-                if (logger.isTraceEnabled()) {
-                    logger.trace("refresh with source [schedule]");
+                // refreshes that listeners wait for must not be delayed, and skipping twice in a row could starve this shard
+                final boolean mayThrottle = listenerNeedsRefresh == false && lastScheduledRefreshThrottled == false;
+                if (budget != null && budget.tryAcquire(mayThrottle) == false) {
+                    // other shards are refreshing already, the changes will be picked up by the next scheduled refresh
+                    lastScheduledRefreshThrottled = true;
+                    throttledRefreshes.inc();
+                    return false;
+                }
+                lastScheduledRefreshThrottled = false;
+                try {
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("refresh with source [schedule]");
+                    }
+                    return getEngine().maybeRefresh("schedule");
+                } finally {
+                    if (budget != null) {
+                        budget.release();
+                    }
                 }
-                return getEngine().maybeRefresh("schedule");
             }
         }
         final Engine engine = getEngine();
@@ -3014,6 +3162,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         markSearcherAccessed(); // move the shard into non-search idle
         final Translog.Location location = pendingRefreshLocation.get();
         if (location != null) {
+            onDemandRefreshes.inc();
             addRefreshListener(location, (b) -> {
                 pendingRefreshLocation.compareAndSet(location, null);
                 listener.accept(true);
@@ -3100,7 +3249,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     /**
-     * Rollback the current engine to the safe commit, then replay local translog up to the global checkpoint.
+     * Rollback the current engine to the safe commit, then replay local translog up to the global checkpoint. Shards that do not
+     * write to the translog replay the operations that soft deletes retain in Lucene instead.
      */
     void resetEngineToGlobalCheckpoint() throws IOException {
         assert getActiveOperationsCount() == OPERATIONS_BLOCKED
@@ -3111,9 +3261,42 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         // flush to make sure the latest commit, which will be opened by the read-only engine, includes all operations.
         flush(new FlushRequest().waitIfOngoing(true));
 
-        SetOnce<Engine> newEngineReference = new SetOnce<>();
         final long globalCheckpoint = getLastKnownGlobalCheckpoint();
         assert globalCheckpoint == getLastSyncedGlobalCheckpoint();
+        // without a translog, the history is read from the current engine, so it must be read before that engine is closed
+        final Translog.Snapshot luceneHistory =
+            indexSettings.isTranslogEnabled() ? null : newHistorySnapshotAboveSafeCommit(globalCheckpoint);
+        try {
+            resetEngine(globalCheckpoint, seqNoStats, translogStats, luceneHistory);
+        } finally {
+            IOUtils.close(luceneHistory);
+        }
+        // time elapses after the engine is created above (pulling the config settings) until we set the engine reference, during
+        // which settings changes could possibly have happened, so here we forcefully push any config changes to the new engine.
+        onSettingsChanged();
+    }
+
+    /**
+     * Reads the operations between the local checkpoint of the safe commit and the given global checkpoint from the history that
+     * soft deletes retain in Lucene. These are the operations that a reset replays from the translog if the shard writes to it.
+     */
+    @Nullable
+    private Translog.Snapshot newHistorySnapshotAboveSafeCommit(long globalCheckpoint) throws IOException {
+        final Engine engine = getEngine();
+        final long localCheckpointOfSafeCommit;
+        try (Engine.IndexCommitRef safeCommit = engine.acquireSafeIndexCommit()) {
+            localCheckpointOfSafeCommit = SequenceNumbers.loadSeqNoInfoFromLuceneCommit(
+                safeCommit.getIndexCommit().getUserData().entrySet()).localCheckpoint;
+        }
+        if (localCheckpointOfSafeCommit >= globalCheckpoint) {
+            return null;
+        }
+        return engine.newChangesSnapshot("reset_engine", mapperService, localCheckpointOfSafeCommit + 1, globalCheckpoint, true);
+    }
+
+    private void resetEngine(long globalCheckpoint, SeqNoStats seqNoStats, TranslogStats translogStats,
+                             @Nullable Translog.Snapshot luceneHistory) throws IOException {
+        SetOnce<Engine> newEngineReference = new SetOnce<>();
         synchronized (mutex) {
             verifyNotClosed();
             // we must create both new read-only engine and new read-write engine under mutex to ensure snapshotStoreMetadata,
@@ -3149,10 +3332,15 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 };
             IOUtils.close(currentEngineReference.getAndSet(readOnlyEngine));
             newEngineReference.set(engineFactory.newReadWriteEngine(newEngineConfig()));
+            if (luceneHistory != null) {
+                // the new engine can only learn the max_seq_no of the operations that it replays from the translog
+                newEngineReference.get().advanceMaxSeqNoOfUpdatesOrDeletes(seqNoStats.getMaxSeqNo());
+            }
             onNewEngine(newEngineReference.get());
         }
         final Engine.TranslogRecoveryRunner translogRunner = (engine, snapshot) -> runTranslogRecovery(
-            engine, snapshot, Engine.Operation.Origin.LOCAL_RESET, () -> {
+            engine, indexSettings.isTranslogEnabled() || luceneHistory == null ? snapshot : luceneHistory,
+            Engine.Operation.Origin.LOCAL_RESET, () -> {
                 // TODO: add a dedicate recovery stats for the reset translog
             });
         newEngineReference.get().recoverFromTranslog(translogRunner, globalCheckpoint);
@@ -3163,9 +3351,6 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             // if we go idle after some time and become inactive, we still give sync'd flush a chance to run.
             active.set(true);
         }
-        // time elapses after the engine is created above (pulling the config settings) until we set the engine reference, during
-        // which settings changes could possibly have happened, so here we forcefully push any config changes to the new engine.
-        onSettingsChanged();
     }
 
     /**
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.shard;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -47,6 +48,7 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
         private long noopUpdateCount;
         private long throttleTimeInMillis;
         private boolean isThrottled;
+        private long avoidedIdSeekCount;
 
         Stats() {}
 
@@ -61,10 +63,14 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             noopUpdateCount = in.readVLong();
             isThrottled = in.readBoolean();
             throttleTimeInMillis = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                avoidedIdSeekCount = in.readVLong();
+            }
         }
 
         public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long indexFailedCount, long deleteCount,
-                        long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled, long throttleTimeInMillis) {
+                        long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled, long throttleTimeInMillis,
+                        long avoidedIdSeekCount) {
             this.indexCount = indexCount;
             this.indexTimeInMillis = indexTimeInMillis;
             this.indexCurrent = indexCurrent;
@@ -75,6 +81,7 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             this.noopUpdateCount = noopUpdateCount;
             this.isThrottled = isThrottled;
             this.throttleTimeInMillis = throttleTimeInMillis;
+            this.avoidedIdSeekCount = avoidedIdSeekCount;
         }
 
         public void add(Stats stats) {
@@ -92,6 +99,7 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             if (isThrottled != stats.isThrottled) {
                 isThrottled = true; //When combining if one is throttled set result to throttled.
             }
+            avoidedIdSeekCount += stats.avoidedIdSeekCount;
         }
 
         /**
@@ -147,6 +155,14 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             return noopUpdateCount;
         }
 
+        /**
+         * Returns the number of times looking up a document by id skipped a segment without seeking its terms dictionary,
+         * because the segment certainly did not contain the id
+         */
+        public long getAvoidedIdSeekCount() {
+            return avoidedIdSeekCount;
+        }
+
         @Override
         public void readFrom(StreamInput in) throws IOException {
             throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
@@ -164,7 +180,9 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
             out.writeVLong(noopUpdateCount);
             out.writeBoolean(isThrottled);
             out.writeLong(throttleTimeInMillis);
-
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(avoidedIdSeekCount);
+            }
         }
 
         @Override
@@ -182,6 +200,7 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
 
             builder.field(Fields.IS_THROTTLED, isThrottled);
             builder.humanReadableField(Fields.THROTTLED_TIME_IN_MILLIS, Fields.THROTTLED_TIME, getThrottleTime());
+            builder.field(Fields.AVOIDED_ID_SEEK_TOTAL, avoidedIdSeekCount);
             return builder;
         }
     }
@@ -280,6 +299,7 @@ public class IndexingStats implements Streamable, Writeable, ToXContentFragment
         static final String IS_THROTTLED = "is_throttled";
         static final String THROTTLED_TIME_IN_MILLIS = "throttle_time_in_millis";
         static final String THROTTLED_TIME = "throttle_time";
+        static final String AVOIDED_ID_SEEK_TOTAL = "avoided_id_seek_total";
     }
 
     @Override
@@ -87,7 +87,8 @@ public class PrimaryReplicaSyncer {
             final long startingSeqNo = indexShard.getLastKnownGlobalCheckpoint() + 1;
             final long maxSeqNo = indexShard.seqNoStats().getMaxSeqNo();
             final ShardId shardId = indexShard.shardId();
-            // Wrap translog snapshot to make it synchronized as it is accessed by different threads through SnapshotSender.
+            // Wrap the history snapshot, which is read from Lucene rather than the translog if the index does not write to the translog,
+            // to make it synchronized as it is accessed by different threads through SnapshotSender.
             // Even though those calls are not concurrent, snapshot.next() uses non-synchronized state and is not multi-thread-compatible
             // Also fail the resync early if the shard is shutting down
             snapshot = indexShard.getHistoryOperations("resync", startingSeqNo);
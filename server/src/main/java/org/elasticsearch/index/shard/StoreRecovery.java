@@ -45,6 +45,8 @@ import org.elasticsearch.index.engine.EngineException;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.snapshots.IndexShardRestoreFailedException;
+import org.elasticsearch.index.store.SearchableSnapshotDirectory;
+import org.elasticsearch.index.store.SearchableSnapshotDirectoryFactory;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.indices.recovery.RecoveryState;
@@ -360,6 +362,10 @@ final class StoreRecovery {
         store.incRef();
         try {
             try {
+                if (SearchableSnapshotDirectoryFactory.isSearchableSnapshotStore(indexShard.indexSettings().getSettings())) {
+                    // the index was mounted from a snapshot before, for instance before it was closed or before the node restarted
+                    loadMountedSnapshot(indexShard);
+                }
                 store.failIfCorrupted();
                 try {
                     si = store.readLastCommittedSegmentsInfo();
@@ -433,6 +439,22 @@ final class StoreRecovery {
         }
     }
 
+    /**
+     * Lists the files of the snapshot that the shard of an index mounted from a snapshot reads from, and creates an empty translog that
+     * matches the commit of the snapshot. The directory of the shard only knows the files of the snapshot once they are listed, and the
+     * node that the shard is allocated to may not have its translog yet, so this is done on every recovery of the shard.
+     */
+    private static void loadMountedSnapshot(IndexShard indexShard) throws IOException {
+        final Store store = indexShard.store();
+        final SearchableSnapshotDirectory directory = SearchableSnapshotDirectory.unwrap(store.directory());
+        assert directory != null : "store type is [snapshot] but directory is " + store.directory();
+        directory.loadSnapshot();
+        final SegmentInfos segmentInfos = store.readLastCommittedSegmentsInfo();
+        final long maxSeqNo = Long.parseLong(segmentInfos.userData.get(SequenceNumbers.MAX_SEQ_NO));
+        Translog.createEmptyTranslog(indexShard.shardPath().resolveTranslog(), maxSeqNo, indexShard.shardId(),
+            segmentInfos.userData.get(Translog.TRANSLOG_UUID_KEY), indexShard.getPendingPrimaryTerm());
+    }
+
     private static void writeEmptyRetentionLeasesFile(IndexShard indexShard) throws IOException {
         assert indexShard.getRetentionLeases().leases().isEmpty() : indexShard.getRetentionLeases(); // not loaded yet
         indexShard.persistRetentionLeases();
@@ -467,17 +489,22 @@ final class StoreRecovery {
             if (!shardId.getIndexName().equals(indexName)) {
                 snapshotShardId = new ShardId(indexName, IndexMetaData.INDEX_UUID_NA_VALUE, shardId.id());
             }
-            final IndexId indexId = repository.getRepositoryData().resolveIndexId(indexName);
             assert indexShard.getEngineOrNull() == null;
-            repository.restoreShard(indexShard.store(), restoreSource.snapshot().getSnapshotId(),
-                restoreSource.version(), indexId, snapshotShardId, indexShard.recoveryState());
             final Store store = indexShard.store();
-            store.bootstrapNewHistory();
-            final SegmentInfos segmentInfos = store.readLastCommittedSegmentsInfo();
-            final long localCheckpoint = Long.parseLong(segmentInfos.userData.get(SequenceNumbers.LOCAL_CHECKPOINT_KEY));
-            final String translogUUID = Translog.createEmptyTranslog(
-                indexShard.shardPath().resolveTranslog(), localCheckpoint, shardId, indexShard.getPendingPrimaryTerm());
-            store.associateIndexWithNewTranslog(translogUUID);
+            if (SearchableSnapshotDirectoryFactory.isSearchableSnapshotStore(indexShard.indexSettings().getSettings())) {
+                // the files are read from the snapshot as they are, so the commit can't be changed and the shard stays read-only
+                loadMountedSnapshot(indexShard);
+            } else {
+                final IndexId indexId = repository.getRepositoryData().resolveIndexId(indexName);
+                repository.restoreShard(store, restoreSource.snapshot().getSnapshotId(),
+                    restoreSource.version(), indexId, snapshotShardId, indexShard.recoveryState());
+                store.bootstrapNewHistory();
+                final SegmentInfos segmentInfos = store.readLastCommittedSegmentsInfo();
+                final long localCheckpoint = Long.parseLong(segmentInfos.userData.get(SequenceNumbers.LOCAL_CHECKPOINT_KEY));
+                final String translogUUID = Translog.createEmptyTranslog(
+                    indexShard.shardPath().resolveTranslog(), localCheckpoint, shardId, indexShard.getPendingPrimaryTerm());
+                store.associateIndexWithNewTranslog(translogUUID);
+            }
             assert indexShard.shardRouting.primary() : "only primary shards can recover from store";
             writeEmptyRetentionLeasesFile(indexShard);
             indexShard.openEngineAndRecoverFromTranslog();
@@ -0,0 +1,286 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.lucene.store.BaseDirectory;
+import org.apache.lucene.store.BufferedIndexInput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.SingleInstanceLockFactory;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A read-only {@link Directory} that reads the files of a shard snapshot from the blobs of a
+ * {@link BlobStoreRepository} on demand, instead of restoring them to local disk first. Reads go through the node's
+ * {@link SnapshotBlockCache}, so that only the parts of the files that are actually read use local disk.
+ * <p>
+ * The directory is empty until {@link #loadSnapshot()} lists the files of the snapshot, so that creating it does not read from the
+ * repository.
+ */
+public class SearchableSnapshotDirectory extends BaseDirectory {
+
+    private final Supplier<BlobStoreRepository> repository;
+    private final SnapshotId snapshotId;
+    private final IndexId indexId;
+    private final ShardId shardId;
+    private final SnapshotBlockCache cache;
+
+    private volatile BlobContainer blobContainer;
+    private volatile Map<String, FileInfo> files = Collections.emptyMap();
+
+    public SearchableSnapshotDirectory(Supplier<BlobStoreRepository> repository, SnapshotId snapshotId, IndexId indexId,
+                                       ShardId shardId, SnapshotBlockCache cache) {
+        super(new SingleInstanceLockFactory());
+        this.repository = repository;
+        this.snapshotId = snapshotId;
+        this.indexId = indexId;
+        this.shardId = shardId;
+        this.cache = cache;
+    }
+
+    /**
+     * Loads the list of the files of the shard snapshot from the repository. The directory is empty until then. This reads from the
+     * repository, so it must be called on a thread that may block on it, which is why every recovery of the shard does it
+     * rather than lazily on first access.
+     */
+    public synchronized void loadSnapshot() throws IOException {
+        ensureOpen();
+        if (blobContainer != null) {
+            return;
+        }
+        final BlobStoreRepository blobStoreRepository = repository.get();
+        final BlobContainer container = blobStoreRepository.shardContainer(indexId, shardId.id());
+        final BlobStoreIndexShardSnapshot snapshot = blobStoreRepository.loadShardSnapshot(container, snapshotId);
+        final Map<String, FileInfo> snapshotFiles = new HashMap<>();
+        for (FileInfo fileInfo : snapshot.indexFiles()) {
+            snapshotFiles.put(fileInfo.physicalName(), fileInfo);
+        }
+        this.blobContainer = container;
+        this.files = Collections.unmodifiableMap(snapshotFiles);
+    }
+
+    /**
+     * Returns the {@link SearchableSnapshotDirectory} that the given directory wraps, or {@code null} if it does not wrap one.
+     */
+    @Nullable
+    public static SearchableSnapshotDirectory unwrap(Directory directory) {
+        final Directory unwrapped = FilterDirectory.unwrap(directory);
+        return unwrapped instanceof SearchableSnapshotDirectory ? (SearchableSnapshotDirectory) unwrapped : null;
+    }
+
+    private FileInfo fileInfo(String name) throws NoSuchFileException {
+        final FileInfo fileInfo = files.get(name);
+        if (fileInfo == null) {
+            throw new NoSuchFileException("file [" + name + "] is not part of snapshot [" + snapshotId + "] of shard " + shardId);
+        }
+        return fileInfo;
+    }
+
+    @Override
+    public String[] listAll() throws IOException {
+        ensureOpen();
+        return files.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public long fileLength(String name) throws IOException {
+        ensureOpen();
+        return fileInfo(name).length();
+    }
+
+    @Override
+    public IndexInput openInput(String name, IOContext context) throws IOException {
+        ensureOpen();
+        final FileInfo fileInfo = fileInfo(name);
+        return new SnapshotIndexInput("SnapshotIndexInput(" + name + ")", fileInfo, 0L, fileInfo.length(),
+            BufferedIndexInput.bufferSize(context));
+    }
+
+    @Override
+    public Set<String> getPendingDeletions() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void deleteFile(String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public IndexOutput createOutput(String name, IOContext context) {
+        throw readOnly();
+    }
+
+    @Override
+    public IndexOutput createTempOutput(String prefix, String suffix, IOContext context) {
+        throw readOnly();
+    }
+
+    @Override
+    public void sync(Collection<String> names) {
+        throw readOnly();
+    }
+
+    @Override
+    public void syncMetaData() {
+        throw readOnly();
+    }
+
+    @Override
+    public void rename(String source, String dest) {
+        throw readOnly();
+    }
+
+    private UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("shard " + shardId + " is a read-only snapshot [" + snapshotId + "]");
+    }
+
+    @Override
+    public void close() {
+        isOpen = false;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchableSnapshotDirectory(" + snapshotId + ", " + indexId + ", " + shardId + ")";
+    }
+
+    /**
+     * Reads {@code length} bytes of the given file, starting at {@code position}, from the blobs of the file in the repository.
+     */
+    private void readFromBlobs(FileInfo fileInfo, long position, byte[] buffer, int offset, int length) throws IOException {
+        // all parts but the last one have the same size
+        final long partSize = fileInfo.numberOfParts() == 1 ? Long.MAX_VALUE : fileInfo.partBytes(0);
+        while (length > 0) {
+            final int part = Math.toIntExact(position / partSize);
+            final long positionInPart = position % partSize;
+            final int toRead = Math.toIntExact(Math.min(length, fileInfo.partBytes(part) - positionInPart));
+            try (InputStream inputStream = blobContainer.readBlob(fileInfo.partName(part))) {
+                long toSkip = positionInPart;
+                while (toSkip > 0) {
+                    final long skipped = inputStream.skip(toSkip);
+                    if (skipped <= 0) {
+                        throw new EOFException("unexpected end of blob [" + fileInfo.partName(part) + "] of file [" +
+                            fileInfo.physicalName() + "]");
+                    }
+                    toSkip -= skipped;
+                }
+                if (Streams.readFully(inputStream, buffer, offset, toRead) != toRead) {
+                    throw new EOFException("unexpected end of blob [" + fileInfo.partName(part) + "] of file [" +
+                        fileInfo.physicalName() + "]");
+                }
+            }
+            position += toRead;
+            offset += toRead;
+            length -= toRead;
+        }
+    }
+
+    private final class SnapshotIndexInput extends BufferedIndexInput {
+
+        private final FileInfo fileInfo;
+        private final String cacheKey;
+        private final long offset;
+        private final long length;
+
+        SnapshotIndexInput(String resourceDescription, FileInfo fileInfo, long offset, long length, int bufferSize) {
+            super(resourceDescription, bufferSize);
+            this.fileInfo = fileInfo;
+            this.cacheKey = indexId.getId() + "/" + shardId.id() + "/" + fileInfo.name();
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        protected void readInternal(byte[] b, int off, int len) throws IOException {
+            final long position = getFilePointer();
+            if (position + len > length) {
+                throw new EOFException("read past EOF: " + this + " position [" + position + "] length [" + len + "] file length ["
+                    + length + "]");
+            }
+            long filePosition = offset + position;
+            if (cache.isEnabled() == false) {
+                readFromBlobs(fileInfo, filePosition, b, off, len);
+                return;
+            }
+            final int blockSize = cache.blockSize();
+            while (len > 0) {
+                final long blockIndex = filePosition / blockSize;
+                final long blockStart = blockIndex * blockSize;
+                final int blockLength = Math.toIntExact(Math.min(blockSize, fileInfo.length() - blockStart));
+                final int positionInBlock = Math.toIntExact(filePosition - blockStart);
+                final int toRead = Math.min(len, blockLength - positionInBlock);
+                cache.read(cacheKey, blockIndex, blockLength, positionInBlock, b, off, toRead,
+                    (buffer, bufferLength) -> readFromBlobs(fileInfo, blockStart, buffer, 0, bufferLength));
+                filePosition += toRead;
+                off += toRead;
+                len -= toRead;
+            }
+        }
+
+        @Override
+        protected void seekInternal(long pos) throws IOException {
+            if (pos > length) {
+                throw new EOFException("seek past EOF: " + this + " position [" + pos + "] file length [" + length + "]");
+            }
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public IndexInput slice(String sliceDescription, long offset, long length) throws IOException {
+            if (offset < 0 || length < 0 || offset + length > this.length) {
+                throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: offset=" + offset + ",length="
+                    + length + ",fileLength=" + this.length + ": " + this);
+            }
+            return new SnapshotIndexInput(getFullSliceDescription(sliceDescription), fileInfo, this.offset + offset, length,
+                getBufferSize());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
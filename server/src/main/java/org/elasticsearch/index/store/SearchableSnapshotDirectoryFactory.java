@@ -0,0 +1,92 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.shard.ShardPath;
+import org.elasticsearch.plugins.IndexStorePlugin;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+
+import java.util.function.Supplier;
+
+/**
+ * Creates the {@link SearchableSnapshotDirectory} of the shards of indices that are mounted from a snapshot, which are indices with
+ * the {@link #STORE_TYPE} store type. These indices are restored with that store type, and the restore sets the settings that
+ * identify the snapshot to read the files of the shards from.
+ */
+public class SearchableSnapshotDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
+
+    public static final String STORE_TYPE = "snapshot";
+
+    public static final Setting<String> SNAPSHOT_REPOSITORY_SETTING = Setting.simpleString("index.store.snapshot.repository",
+        Property.IndexScope, Property.PrivateIndex, Property.Final);
+
+    public static final Setting<String> SNAPSHOT_NAME_SETTING = Setting.simpleString("index.store.snapshot.snapshot_name",
+        Property.IndexScope, Property.PrivateIndex, Property.Final);
+
+    public static final Setting<String> SNAPSHOT_UUID_SETTING = Setting.simpleString("index.store.snapshot.snapshot_uuid",
+        Property.IndexScope, Property.PrivateIndex, Property.Final);
+
+    public static final Setting<String> SNAPSHOT_INDEX_ID_SETTING = Setting.simpleString("index.store.snapshot.index_id",
+        Property.IndexScope, Property.PrivateIndex, Property.Final);
+
+    private final Supplier<RepositoriesService> repositoriesService;
+    private final SnapshotBlockCache cache;
+
+    public SearchableSnapshotDirectoryFactory(Supplier<RepositoriesService> repositoriesService, SnapshotBlockCache cache) {
+        this.repositoriesService = repositoriesService;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns whether the index with the given settings is mounted from a snapshot.
+     */
+    public static boolean isSearchableSnapshotStore(Settings indexSettings) {
+        return STORE_TYPE.equals(IndexModule.INDEX_STORE_TYPE_SETTING.get(indexSettings));
+    }
+
+    @Override
+    public Directory newDirectory(IndexSettings indexSettings, ShardPath shardPath) {
+        final Settings settings = indexSettings.getSettings();
+        final String repositoryName = SNAPSHOT_REPOSITORY_SETTING.get(settings);
+        final SnapshotId snapshotId = new SnapshotId(SNAPSHOT_NAME_SETTING.get(settings), SNAPSHOT_UUID_SETTING.get(settings));
+        final IndexId indexId = new IndexId(indexSettings.getIndex().getName(), SNAPSHOT_INDEX_ID_SETTING.get(settings));
+        if (repositoryName.isEmpty() || snapshotId.getUUID().isEmpty() || indexId.getId().isEmpty()) {
+            throw new IllegalArgumentException("index " + indexSettings.getIndex() + " with store type [" + STORE_TYPE
+                + "] must be mounted by restoring it from a snapshot");
+        }
+        return new SearchableSnapshotDirectory(() -> {
+            final Repository repository = repositoriesService.get().repository(repositoryName);
+            if (repository instanceof BlobStoreRepository == false) {
+                throw new IllegalArgumentException("repository [" + repositoryName + "] is not a blob store repository");
+            }
+            return (BlobStoreRepository) repository;
+        }, snapshotId, indexId, shardPath.getShardId(), cache);
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.internal.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * A node-level cache on local disk for the blocks of the files of {@link SearchableSnapshotDirectory}, so that the parts of
+ * snapshotted files that are searched repeatedly are not read from the repository again and again.
+ * <p>
+ * The cache is a single sparse file that is divided in slots of {@link #BLOCK_SIZE_SETTING}, each holding one block of a file. When
+ * all slots are used, the least recently used block that is not being read is evicted. Blocks only live as long as the node: the
+ * cache file is deleted when the node starts.
+ */
+public final class SnapshotBlockCache implements Closeable {
+
+    /**
+     * The disk space that the cache may use. {@code 0} disables the cache, so that all reads go to the repository.
+     */
+    public static final Setting<ByteSizeValue> SIZE_SETTING = Setting.byteSizeSetting("indices.snapshot_cache.size",
+        new ByteSizeValue(1, ByteSizeUnit.GB), Property.NodeScope);
+
+    /**
+     * The size of the blocks that are read from the repository and cached.
+     */
+    public static final Setting<ByteSizeValue> BLOCK_SIZE_SETTING = Setting.byteSizeSetting("indices.snapshot_cache.block_size",
+        new ByteSizeValue(128, ByteSizeUnit.KB), new ByteSizeValue(4, ByteSizeUnit.KB), new ByteSizeValue(64, ByteSizeUnit.MB),
+        Property.NodeScope);
+
+    static final String CACHE_FILE_NAME = "snapshot_cache.bin";
+
+    /**
+     * Loads a block of a file from the repository.
+     */
+    @FunctionalInterface
+    public interface BlockLoader {
+        /**
+         * Reads the {@code length} bytes of the block into {@code buffer}, starting at offset {@code 0}.
+         */
+        void load(byte[] buffer, int length) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ChannelOperation {
+        void run(FileChannel channel) throws IOException;
+    }
+
+    private final int blockSize;
+    private final int numSlots;
+    @Nullable
+    private final Path cacheFile;
+
+    private final LinkedHashMap<BlockKey, Block> blocks = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot;
+    private FileChannel channel;
+    private boolean closed;
+
+    private final CounterMetric hits = new CounterMetric();
+    private final CounterMetric misses = new CounterMetric();
+    private final CounterMetric evictions = new CounterMetric();
+
+    /**
+     * @param cacheDirectory the directory to put the cache file in, or {@code null} if the node has no local storage
+     */
+    public SnapshotBlockCache(Settings settings, @Nullable Path cacheDirectory) throws IOException {
+        this.blockSize = Math.toIntExact(BLOCK_SIZE_SETTING.get(settings).getBytes());
+        final long size = SIZE_SETTING.get(settings).getBytes();
+        if (cacheDirectory == null || size < blockSize) {
+            this.numSlots = 0;
+            this.cacheFile = null;
+        } else {
+            this.numSlots = Math.toIntExact(Math.min(size / blockSize, Integer.MAX_VALUE));
+            this.cacheFile = cacheDirectory.resolve(CACHE_FILE_NAME);
+            // the blocks of a previous run are unknown
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns whether blocks are cached at all.
+     */
+    public boolean isEnabled() {
+        return numSlots > 0;
+    }
+
+    /**
+     * Copies {@code length} bytes of the given block, starting at {@code positionInBlock}, into {@code dest}. The block is loaded
+     * with the given loader and cached if it is not cached yet.
+     *
+     * @param fileKey     a key that uniquely identifies the file the block belongs to across all the files of the node
+     * @param blockIndex  the index of the block in its file
+     * @param blockLength the length of the block, which is only shorter than the block size for the last block of a file
+     */
+    public void read(String fileKey, long blockIndex, int blockLength, int positionInBlock, byte[] dest, int destOffset, int length,
+                     BlockLoader loader) throws IOException {
+        assert blockLength <= blockSize : blockLength + " > " + blockSize;
+        assert positionInBlock + length <= blockLength : positionInBlock + " + " + length + " > " + blockLength;
+        final BlockKey key = new BlockKey(fileKey, blockIndex);
+        final Block block;
+        final boolean mustLoad;
+        synchronized (this) {
+            ensureOpen();
+            Block existing = blocks.get(key);
+            if (existing != null) {
+                block = existing;
+                mustLoad = false;
+            } else {
+                final int slot = acquireSlot();
+                if (slot == -1) {
+                    block = null;
+                } else {
+                    block = new Block(slot);
+                    blocks.put(key, block);
+                }
+                mustLoad = true;
+            }
+            if (block != null) {
+                block.refCount++;
+            }
+        }
+        if (block == null) {
+            // every slot holds a block that is being read, so this one can't be cached
+            misses.inc();
+            final byte[] buffer = new byte[blockLength];
+            loader.load(buffer, blockLength);
+            System.arraycopy(buffer, positionInBlock, dest, destOffset, length);
+            return;
+        }
+        try {
+            if (mustLoad) {
+                misses.inc();
+                load(key, block, blockLength, loader, positionInBlock, dest, destOffset, length);
+            } else {
+                hits.inc();
+                waitUntilLoaded(block);
+                withChannel(channel -> readFully(channel, slotPosition(block.slot) + positionInBlock, dest, destOffset, length));
+            }
+        } finally {
+            synchronized (this) {
+                block.refCount--;
+                assert block.refCount >= 0 : "block released more often than acquired";
+            }
+        }
+    }
+
+    private void load(BlockKey key, Block block, int blockLength, BlockLoader loader, int positionInBlock, byte[] dest, int destOffset,
+                      int length) throws IOException {
+        final byte[] buffer = new byte[blockLength];
+        try {
+            loader.load(buffer, blockLength);
+            withChannel(channel -> {
+                final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+                long position = slotPosition(block.slot);
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                if (blocks.get(key) == block) {
+                    blocks.remove(key);
+                    freeSlots.push(block.slot);
+                }
+                block.failure = e;
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            block.loaded = true;
+            notifyAll();
+        }
+        System.arraycopy(buffer, positionInBlock, dest, destOffset, length);
+    }
+
+    private synchronized void waitUntilLoaded(Block block) throws IOException {
+        while (block.loaded == false && block.failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new ThreadInterruptedException(e);
+            }
+        }
+        if (block.failure != null) {
+            throw new IOException("failed to load block", block.failure);
+        }
+    }
+
+    /**
+     * Returns a free slot, evicting the least recently used block that is not being read if needed, or {@code -1} if every slot
+     * holds a block that is being read.
+     */
+    private int acquireSlot() {
+        if (freeSlots.isEmpty() == false) {
+            return freeSlots.pop();
+        }
+        if (nextSlot < numSlots) {
+            return nextSlot++;
+        }
+        for (Iterator<Block> iterator = blocks.values().iterator(); iterator.hasNext(); ) {
+            final Block block = iterator.next();
+            if (block.refCount == 0 && block.loaded) {
+                iterator.remove();
+                evictions.inc();
+                return block.slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the given operation on the channel of the cache file. A thread that is interrupted while it reads from or writes to the
+     * channel closes it, so the operations of the other threads that were using it at that time are retried on a new channel rather
+     * than failing. The cached blocks are still in the cache file, so they remain valid.
+     */
+    private void withChannel(ChannelOperation operation) throws IOException {
+        while (true) {
+            final FileChannel channel = channel();
+            try {
+                operation.run(channel);
+                return;
+            } catch (ClosedByInterruptException e) {
+                // this thread was interrupted and closed the channel, which the next operation opens again
+                releaseClosedChannel(channel);
+                throw e;
+            } catch (ClosedChannelException e) {
+                // another thread was interrupted and closed the channel while this thread was using it, so try again
+                releaseClosedChannel(channel);
+            }
+        }
+    }
+
+    /**
+     * Returns the channel of the cache file, opening it if it is not open yet or if an interrupted thread closed it.
+     */
+    private synchronized FileChannel channel() throws IOException {
+        ensureOpen();
+        if (channel == null) {
+            channel = FileChannel.open(cacheFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+
+    private void releaseClosedChannel(FileChannel closedChannel) {
+        synchronized (this) {
+            if (channel != closedChannel) {
+                // another thread already released it
+                return;
+            }
+            channel = null;
+        }
+        IOUtils.closeWhileHandlingException(closedChannel);
+    }
+
+    private long slotPosition(int slot) {
+        return (long) slot * blockSize;
+    }
+
+    private static void readFully(FileChannel channel, long position, byte[] dest, int offset, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(dest, offset, length);
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("unexpected end of cache file at position [" + position + "]");
+            }
+            position += read;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("snapshot block cache is closed");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        final FileChannel channel;
+        synchronized (this) {
+            closed = true;
+            blocks.clear();
+            channel = this.channel;
+            this.channel = null;
+        }
+        IOUtils.close(channel);
+        if (cacheFile != null) {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    // for tests
+    long hits() {
+        return hits.count();
+    }
+
+    // for tests
+    long misses() {
+        return misses.count();
+    }
+
+    // for tests
+    long evictions() {
+        return evictions.count();
+    }
+
+    // for tests
+    synchronized int cachedBlocks() {
+        return blocks.size();
+    }
+
+    private static final class BlockKey {
+        private final String fileKey;
+        private final long blockIndex;
+
+        BlockKey(String fileKey, long blockIndex) {
+            this.fileKey = fileKey;
+            this.blockIndex = blockIndex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final BlockKey other = (BlockKey) o;
+            return blockIndex == other.blockIndex && fileKey.equals(other.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileKey, blockIndex);
+        }
+    }
+
+    private static final class Block {
+        private final int slot;
+        private int refCount;
+        private boolean loaded;
+        private Exception failure;
+
+        Block(int slot) {
+            this.slot = slot;
+        }
+    }
+}
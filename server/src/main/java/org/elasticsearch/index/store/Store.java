@@ -62,6 +62,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.store.ByteArrayIndexInput;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.unit.TimeValue;
@@ -148,6 +149,7 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
     private final StoreDirectory directory;
     private final ReentrantReadWriteLock metadataLock = new ReentrantReadWriteLock();
+    private final MetadataSnapshotCache metadataCache = new MetadataSnapshotCache();
     private final ShardLock shardLock;
     private final OnClose onClose;
 
@@ -169,7 +171,8 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
         final TimeValue refreshInterval = indexSettings.getValue(INDEX_STORE_STATS_REFRESH_INTERVAL_SETTING);
         logger.debug("store stats are refreshed with refresh_interval [{}]", refreshInterval);
         ByteSizeCachingDirectory sizeCachingDir = new ByteSizeCachingDirectory(directory, refreshInterval);
-        this.directory = new StoreDirectory(sizeCachingDir, Loggers.getLogger("index.store.deletes", shardId));
+        this.directory = new StoreDirectory(sizeCachingDir, Loggers.getLogger("index.store.deletes", shardId),
+            metadataCache::invalidate);
         this.shardLock = shardLock;
         this.onClose = onClose;
 
@@ -238,7 +241,8 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
 
     /**
      * Returns a new MetadataSnapshot for the given commit. If the given commit is <code>null</code>
-     * the latest commit point is used.
+     * the latest commit point is used. The snapshots of the most recently read commits are cached until
+     * one of their files is deleted or replaced, so reading the snapshot of the same commit again is cheap.
      *
      * Note that this method requires the caller verify it has the right to access the store and
      * no concurrent file changes are happening. If in doubt, you probably want to use one of the following:
@@ -262,7 +266,8 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
 
     /**
      * Returns a new MetadataSnapshot for the given commit. If the given commit is <code>null</code>
-     * the latest commit point is used.
+     * the latest commit point is used. The snapshots of the most recently read commits are cached until
+     * one of their files is deleted or replaced, so reading the snapshot of the same commit again is cheap.
      *
      * Note that this method requires the caller verify it has the right to access the store and
      * no concurrent file changes are happening. If in doubt, you probably want to use one of the following:
@@ -284,6 +289,19 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
      * @throws IndexNotFoundException     if the commit point can't be found in this store
      */
     public MetadataSnapshot getMetadata(IndexCommit commit, boolean lockDirectory) throws IOException {
+        return getMetadata(commit, lockDirectory, true);
+    }
+
+    /**
+     * Same as {@link #getMetadata(IndexCommit, boolean)} but always reads the snapshot from the files of the store instead of
+     * returning a cached snapshot. Callers that verify the integrity of the files of the store must use this method so that
+     * corruptions that happened after the commit was first read are detected.
+     */
+    public MetadataSnapshot getUncachedMetadata(IndexCommit commit, boolean lockDirectory) throws IOException {
+        return getMetadata(commit, lockDirectory, false);
+    }
+
+    private MetadataSnapshot getMetadata(IndexCommit commit, boolean lockDirectory, boolean useCache) throws IOException {
         ensureOpen();
         failIfCorrupted();
         assert lockDirectory ? commit == null : true : "IW lock should not be obtained if there is a commit point available";
@@ -292,7 +310,7 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
         java.util.concurrent.locks.Lock lock = lockDirectory ? metadataLock.writeLock() : metadataLock.readLock();
         lock.lock();
         try (Closeable ignored = lockDirectory ? directory.obtainLock(IndexWriter.WRITE_LOCK_NAME) : () -> {} ) {
-            return new MetadataSnapshot(commit, directory, logger);
+            return useCache ? metadataCache.getOrLoad(commit, directory, logger) : new MetadataSnapshot(commit, directory, logger);
         } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException ex) {
             markStoreCorrupted(ex);
             throw ex;
@@ -364,7 +382,7 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
 
     public StoreStats stats() throws IOException {
         ensureOpen();
-        return new StoreStats(directory.estimateSize());
+        return new StoreStats(directory.estimateSize(), metadataCache.hits.count(), metadataCache.misses.count());
     }
 
     /**
@@ -513,7 +531,12 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
     }
 
     public boolean checkIntegrityNoException(StoreFileMetaData md) {
-        return checkIntegrityNoException(md, directory());
+        if (checkIntegrityNoException(md, directory())) {
+            return true;
+        }
+        // the cached snapshots may reference the corrupted file
+        metadataCache.clear();
+        return false;
     }
 
     public static boolean checkIntegrityNoException(StoreFileMetaData md, Directory directory) {
@@ -663,7 +686,7 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
                 }
             }
             directory.syncMetaData();
-            final Store.MetadataSnapshot metadataOrEmpty = getMetadata(null);
+            final Store.MetadataSnapshot metadataOrEmpty = getUncachedMetadata(null, false);
             verifyAfterCleanup(sourceMetaData, metadataOrEmpty);
         } finally {
             metadataLock.writeLock().unlock();
@@ -708,10 +731,12 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
     static final class StoreDirectory extends FilterDirectory {
 
         private final Logger deletesLogger;
+        private final Consumer<String> onFileChange;
 
-        StoreDirectory(ByteSizeCachingDirectory delegateDirectory, Logger deletesLogger) {
+        StoreDirectory(ByteSizeCachingDirectory delegateDirectory, Logger deletesLogger, Consumer<String> onFileChange) {
             super(delegateDirectory);
             this.deletesLogger = deletesLogger;
+            this.onFileChange = onFileChange;
         }
 
         /** Estimate the cumulative size of all files in this directory in bytes. */
@@ -726,7 +751,11 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
 
         public void deleteFile(String msg, String name) throws IOException {
             deletesLogger.trace("{}: delete file {}", msg, name);
-            super.deleteFile(name);
+            try {
+                super.deleteFile(name);
+            } finally {
+                onFileChange.accept(name);
+            }
         }
 
         @Override
@@ -734,6 +763,16 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
             deleteFile("StoreDirectory.deleteFile", name);
         }
 
+        @Override
+        public void rename(String source, String dest) throws IOException {
+            try {
+                super.rename(source, dest);
+            } finally {
+                onFileChange.accept(source);
+                onFileChange.accept(dest);
+            }
+        }
+
         private void innerClose() throws IOException {
             super.close();
         }
@@ -744,6 +783,66 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
         }
     }
 
+    /**
+     * Caches the {@link MetadataSnapshot}s of the most recently read commits of a store, keyed by the name of their segments file.
+     * The files of a commit never change once it is written, so its snapshot stays valid until one of its files is deleted or
+     * replaced, which happens when Lucene drops the commit or when a recovery overwrites the files of the store.
+     */
+    private static final class MetadataSnapshotCache {
+
+        private static final int MAX_SIZE = 4;
+
+        private final Map<String, MetadataSnapshot> snapshots = new HashMap<>();
+        private final CounterMetric hits = new CounterMetric();
+        private final CounterMetric misses = new CounterMetric();
+        // incremented on every invalidation so that snapshots that were read concurrently are not cached
+        private long generation;
+
+        MetadataSnapshot getOrLoad(IndexCommit commit, Directory directory, Logger logger) throws IOException {
+            final long loadGeneration;
+            synchronized (this) {
+                loadGeneration = generation;
+            }
+            final String segmentsFileName = commit == null
+                ? SegmentInfos.getLastCommitSegmentsFileName(directory) : commit.getSegmentsFileName();
+            if (segmentsFileName == null) {
+                // there is no commit to cache the snapshot of, let it fail the way it always did
+                return new MetadataSnapshot(commit, directory, logger);
+            }
+            synchronized (this) {
+                final MetadataSnapshot snapshot = snapshots.get(segmentsFileName);
+                if (snapshot != null) {
+                    hits.inc();
+                    return snapshot;
+                }
+            }
+            misses.inc();
+            final MetadataSnapshot snapshot = new MetadataSnapshot(commit, directory, logger);
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    if (snapshots.size() >= MAX_SIZE) {
+                        snapshots.clear();
+                    }
+                    snapshots.put(segmentsFileName, snapshot);
+                }
+            }
+            return snapshot;
+        }
+
+        /**
+         * Drops the snapshots of the commits that reference the given file.
+         */
+        synchronized void invalidate(String fileName) {
+            generation++;
+            snapshots.entrySet().removeIf(entry -> entry.getKey().equals(fileName) || entry.getValue().get(fileName) != null);
+        }
+
+        synchronized void clear() {
+            generation++;
+            snapshots.clear();
+        }
+    }
+
     /**
      * Represents a snapshot of the current directory build from the latest Lucene commit.
      * Only files that are part of the last commit are considered in this datastructure.
@@ -1376,6 +1475,7 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
      */
     public void markStoreCorrupted(IOException exception) throws IOException {
         ensureOpen();
+        metadataCache.clear();
         if (!isMarkedCorrupted()) {
             String uuid = CORRUPTED + UUIDs.randomBase64UUID();
             try (IndexOutput output = this.directory().createOutput(uuid, IOContext.DEFAULT)) {
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.store;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -32,6 +33,8 @@ import java.io.IOException;
 public class StoreStats implements Streamable, Writeable, ToXContentFragment {
 
     private long sizeInBytes;
+    private long metadataCacheHits;
+    private long metadataCacheMisses;
 
     public StoreStats() {
 
@@ -39,10 +42,20 @@ public class StoreStats implements Streamable, Writeable, ToXContentFragment {
 
     public StoreStats(StreamInput in) throws IOException {
         sizeInBytes = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            metadataCacheHits = in.readVLong();
+            metadataCacheMisses = in.readVLong();
+        }
     }
 
     public StoreStats(long sizeInBytes) {
+        this(sizeInBytes, 0, 0);
+    }
+
+    public StoreStats(long sizeInBytes, long metadataCacheHits, long metadataCacheMisses) {
         this.sizeInBytes = sizeInBytes;
+        this.metadataCacheHits = metadataCacheHits;
+        this.metadataCacheMisses = metadataCacheMisses;
     }
 
     public void add(StoreStats stats) {
@@ -50,6 +63,8 @@ public class StoreStats implements Streamable, Writeable, ToXContentFragment {
             return;
         }
         sizeInBytes += stats.sizeInBytes;
+        metadataCacheHits += stats.metadataCacheHits;
+        metadataCacheMisses += stats.metadataCacheMisses;
     }
 
 
@@ -69,6 +84,20 @@ public class StoreStats implements Streamable, Writeable, ToXContentFragment {
         return size();
     }
 
+    /**
+     * The number of times the metadata snapshot of a commit was served from the cache of the store.
+     */
+    public long getMetadataCacheHits() {
+        return metadataCacheHits;
+    }
+
+    /**
+     * The number of times the metadata snapshot of a commit had to be read from the files of the store.
+     */
+    public long getMetadataCacheMisses() {
+        return metadataCacheMisses;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
@@ -77,12 +106,18 @@ public class StoreStats implements Streamable, Writeable, ToXContentFragment {
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(sizeInBytes);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(metadataCacheHits);
+            out.writeVLong(metadataCacheMisses);
+        }
     }
 
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.STORE);
         builder.humanReadableField(Fields.SIZE_IN_BYTES, Fields.SIZE, size());
+        builder.field(Fields.METADATA_CACHE_HITS, metadataCacheHits);
+        builder.field(Fields.METADATA_CACHE_MISSES, metadataCacheMisses);
         builder.endObject();
         return builder;
     }
@@ -91,5 +126,7 @@ public class StoreStats implements Streamable, Writeable, ToXContentFragment {
         static final String STORE = "store";
         static final String SIZE = "size";
         static final String SIZE_IN_BYTES = "size_in_bytes";
+        static final String METADATA_CACHE_HITS = "metadata_cache_hits";
+        static final String METADATA_CACHE_MISSES = "metadata_cache_misses";
     }
 }
@@ -1860,12 +1860,25 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
 
     public static String createEmptyTranslog(final Path location, final long initialGlobalCheckpoint,
                                              final ShardId shardId, final long primaryTerm) throws IOException {
+        return createEmptyTranslog(location, initialGlobalCheckpoint, shardId, UUIDs.randomBase64UUID(), primaryTerm);
+    }
+
+    /**
+     * Creates an empty translog with the given UUID, for an index commit that already refers to a translog with that UUID.
+     */
+    public static String createEmptyTranslog(final Path location, final long initialGlobalCheckpoint, final ShardId shardId,
+                                             final String translogUUID, final long primaryTerm) throws IOException {
         final ChannelFactory channelFactory = FileChannel::open;
-        return createEmptyTranslog(location, initialGlobalCheckpoint, shardId, channelFactory, primaryTerm);
+        return createEmptyTranslog(location, initialGlobalCheckpoint, shardId, channelFactory, translogUUID, primaryTerm);
     }
 
     static String createEmptyTranslog(Path location, long initialGlobalCheckpoint, ShardId shardId,
                                       ChannelFactory channelFactory, long primaryTerm) throws IOException {
+        return createEmptyTranslog(location, initialGlobalCheckpoint, shardId, channelFactory, UUIDs.randomBase64UUID(), primaryTerm);
+    }
+
+    private static String createEmptyTranslog(Path location, long initialGlobalCheckpoint, ShardId shardId,
+                                              ChannelFactory channelFactory, String translogUUID, long primaryTerm) throws IOException {
         IOUtils.rm(location);
         Files.createDirectories(location);
         final Checkpoint checkpoint =
@@ -1873,7 +1886,6 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         final Path checkpointFile = location.resolve(CHECKPOINT_FILE_NAME);
         Checkpoint.write(channelFactory, checkpointFile, checkpoint, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
         IOUtils.fsync(checkpointFile, false);
-        final String translogUUID = UUIDs.randomBase64UUID();
         TranslogWriter writer = TranslogWriter.create(shardId, translogUUID, 1,
             location.resolve(getFilename(1)), channelFactory,
             new ByteSizeValue(10), 1, initialGlobalCheckpoint,
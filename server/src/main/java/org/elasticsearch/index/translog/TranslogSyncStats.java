@@ -0,0 +1,160 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node-level statistics about the translog syncs performed on behalf of write requests.
+ */
+public class TranslogSyncStats implements Writeable, ToXContentFragment {
+
+    /**
+     * The upper bounds, in milliseconds, of the buckets of the sync latency histogram. The last bucket of the histogram
+     * counts the syncs that took longer than the last bound.
+     */
+    public static final long[] LATENCY_BUCKETS_MILLIS = new long[] {1, 5, 10, 50, 100, 500, 1000};
+
+    private final long fsyncs;
+    private final long syncedLocations;
+    private final long rounds;
+    private final long fsyncTimeInNanos;
+    private final long[] latencyHistogram;
+
+    public TranslogSyncStats(long fsyncs, long syncedLocations, long rounds, long fsyncTimeInNanos, long[] latencyHistogram) {
+        assert latencyHistogram.length == LATENCY_BUCKETS_MILLIS.length + 1 : Arrays.toString(latencyHistogram);
+        this.fsyncs = fsyncs;
+        this.syncedLocations = syncedLocations;
+        this.rounds = rounds;
+        this.fsyncTimeInNanos = fsyncTimeInNanos;
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    public TranslogSyncStats(StreamInput in) throws IOException {
+        fsyncs = in.readVLong();
+        syncedLocations = in.readVLong();
+        rounds = in.readVLong();
+        fsyncTimeInNanos = in.readVLong();
+        latencyHistogram = in.readVLongArray();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(fsyncs);
+        out.writeVLong(syncedLocations);
+        out.writeVLong(rounds);
+        out.writeVLong(fsyncTimeInNanos);
+        out.writeVLongArray(latencyHistogram);
+    }
+
+    /**
+     * Returns the index of the bucket of the latency histogram that the given latency falls into.
+     */
+    public static int latencyBucket(long latencyInNanos) {
+        final long latencyInMillis = TimeUnit.NANOSECONDS.toMillis(latencyInNanos);
+        for (int i = 0; i < LATENCY_BUCKETS_MILLIS.length; i++) {
+            if (latencyInMillis < LATENCY_BUCKETS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKETS_MILLIS.length;
+    }
+
+    /**
+     * The number of times a translog was fsynced on behalf of write requests
+     */
+    public long getFsyncs() {
+        return fsyncs;
+    }
+
+    /**
+     * The number of translog locations that write requests asked to sync, which is higher than the number of fsyncs when
+     * syncs are batched
+     */
+    public long getSyncedLocations() {
+        return syncedLocations;
+    }
+
+    /**
+     * The number of node-level sync rounds, each of which syncs the translogs of all the shards that had pending syncs
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * The total time spent fsyncing translogs
+     */
+    public TimeValue getFsyncTime() {
+        return new TimeValue(fsyncTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of write requests whose sync completed within each bucket of {@link #LATENCY_BUCKETS_MILLIS}
+     */
+    public long[] getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.TRANSLOG_SYNC);
+        builder.field(Fields.FSYNCS, fsyncs);
+        builder.field(Fields.SYNCED_LOCATIONS, syncedLocations);
+        builder.field(Fields.ROUNDS, rounds);
+        builder.humanReadableField(Fields.FSYNC_TIME_IN_MILLIS, Fields.FSYNC_TIME, getFsyncTime());
+        builder.startArray(Fields.LATENCY_HISTOGRAM);
+        for (int i = 0; i < latencyHistogram.length; i++) {
+            builder.startObject();
+            if (i < LATENCY_BUCKETS_MILLIS.length) {
+                builder.field(Fields.LT_MILLIS, LATENCY_BUCKETS_MILLIS[i]);
+            } else {
+                builder.field(Fields.GE_MILLIS, LATENCY_BUCKETS_MILLIS[LATENCY_BUCKETS_MILLIS.length - 1]);
+            }
+            builder.field(Fields.COUNT, latencyHistogram[i]);
+            builder.endObject();
+        }
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    static final class Fields {
+        static final String TRANSLOG_SYNC = "translog_sync";
+        static final String FSYNCS = "fsyncs";
+        static final String SYNCED_LOCATIONS = "synced_locations";
+        static final String ROUNDS = "rounds";
+        static final String FSYNC_TIME = "fsync_time";
+        static final String FSYNC_TIME_IN_MILLIS = "fsync_time_in_millis";
+        static final String LATENCY_HISTOGRAM = "latency_histogram";
+        static final String LT_MILLIS = "lt_millis";
+        static final String GE_MILLIS = "ge_millis";
+        static final String COUNT = "count";
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link UsageTrackingQueryCachingPolicy} that adjusts the number of times a filter needs to be used before it gets cached
+ * depending on how much caching filters of the same type paid off so far. The node-level {@link CostTracker} measures how
+ * long it takes to build the cached doc id sets of each type of query, how much memory they use and how often they are
+ * reused. Filters whose type saves more time per cached byte than the average of the node get cached earlier, and filters
+ * whose type saves less get cached later. Types that have not been measured yet use the admission rules of the
+ * {@link UsageTrackingQueryCachingPolicy}.
+ */
+public class CostAwareQueryCachingPolicy extends UsageTrackingQueryCachingPolicy {
+
+    /**
+     * The minimum number of times doc id sets of a type of query need to be built before their measured cost is used.
+     */
+    static final int MIN_SAMPLES = 16;
+
+    private final CostTracker costTracker;
+
+    public CostAwareQueryCachingPolicy(CostTracker costTracker) {
+        this.costTracker = costTracker;
+    }
+
+    @Override
+    protected int minFrequencyToCache(Query query) {
+        final int minFrequency = super.minFrequencyToCache(query);
+        final double relativeValue = costTracker.relativeValue(query);
+        if (Double.isNaN(relativeValue)) {
+            return minFrequency;
+        }
+        final long adjusted = relativeValue == 0 ? Long.MAX_VALUE : Math.round(minFrequency / relativeValue);
+        // never cache on first use and never require more than four times the usual number of uses
+        return (int) Math.max(2, Math.min(adjusted, 4L * minFrequency));
+    }
+
+    /**
+     * Keeps track of the cost of the doc id sets built by the query cache of the node and of how often they get reused, per
+     * type of query.
+     */
+    public static final class CostTracker {
+
+        private final ConcurrentMap<String, Costs> costs = ConcurrentCollections.newConcurrentMap();
+        private final Costs total = new Costs();
+
+        /**
+         * Records that building the doc id set of the given query on a segment took <code>nanos</code> nanoseconds and that
+         * the doc id set uses <code>ramBytesUsed</code> bytes.
+         */
+        void onBuild(Query query, long nanos, long ramBytesUsed) {
+            final Costs typeCosts = costs.computeIfAbsent(queryType(query), k -> new Costs());
+            typeCosts.onBuild(nanos, ramBytesUsed);
+            total.onBuild(nanos, ramBytesUsed);
+        }
+
+        /**
+         * Records that the cached doc id set of the given query was reused.
+         */
+        void onHit(Query query) {
+            final Costs typeCosts = costs.get(queryType(query));
+            if (typeCosts != null) {
+                typeCosts.hits.increment();
+                total.hits.increment();
+            }
+        }
+
+        /**
+         * Returns how much time the doc id sets of the type of the given query save per cached byte compared to the average
+         * doc id set of the node, or {@link Double#NaN} if there are not enough measurements to tell.
+         */
+        double relativeValue(Query query) {
+            final Costs typeCosts = costs.get(queryType(query));
+            if (typeCosts == null || typeCosts.builds.sum() < MIN_SAMPLES) {
+                return Double.NaN;
+            }
+            final double totalValue = total.value();
+            if (totalValue == 0 || Double.isNaN(totalValue)) {
+                return Double.NaN;
+            }
+            return typeCosts.value() / totalValue;
+        }
+    }
+
+    private static final class Costs {
+
+        final LongAdder builds = new LongAdder();
+        final LongAdder buildNanos = new LongAdder();
+        final LongAdder ramBytesUsed = new LongAdder();
+        final LongAdder hits = new LongAdder();
+
+        void onBuild(long nanos, long ramBytesUsed) {
+            builds.increment();
+            buildNanos.add(nanos);
+            this.ramBytesUsed.add(ramBytesUsed);
+        }
+
+        /**
+         * The time it takes to build a cached byte, multiplied by the number of times a cached doc id set is reused, which
+         * estimates the time saved per cached byte.
+         */
+        double value() {
+            final long builds = this.builds.sum();
+            final long ramBytesUsed = this.ramBytesUsed.sum();
+            if (builds == 0 || ramBytesUsed == 0) {
+                return Double.NaN;
+            }
+            return ((double) buildNanos.sum() / ramBytesUsed) * ((double) hits.sum() / builds);
+        }
+    }
+
+    /**
+     * Returns the name that is used to group the statistics of the given query.
+     */
+    static String queryType(Query query) {
+        final String name = query.getClass().getSimpleName();
+        return name.isEmpty() ? query.getClass().getName() : name;
+    }
+}
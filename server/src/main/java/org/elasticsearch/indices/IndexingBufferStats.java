@@ -0,0 +1,219 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Node-level statistics about the indexing buffers of the shards of the node, see {@link IndexingMemoryController}.
+ */
+public class IndexingBufferStats implements Writeable, ToXContentFragment {
+
+    private final long limitInBytes;
+    private final long bufferWrites;
+    private final List<ShardStats> shards;
+
+    public IndexingBufferStats(long limitInBytes, long bufferWrites, List<ShardStats> shards) {
+        this.limitInBytes = limitInBytes;
+        this.bufferWrites = bufferWrites;
+        this.shards = shards;
+    }
+
+    public IndexingBufferStats(StreamInput in) throws IOException {
+        limitInBytes = in.readVLong();
+        bufferWrites = in.readVLong();
+        shards = in.readList(ShardStats::new);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(limitInBytes);
+        out.writeVLong(bufferWrites);
+        out.writeList(shards);
+    }
+
+    /**
+     * The heap that the indexing buffers of all shards of the node may use
+     */
+    public ByteSizeValue getLimit() {
+        return new ByteSizeValue(limitInBytes);
+    }
+
+    /**
+     * The heap that the indexing buffers of all shards of the node use, including the bytes being written to disk
+     */
+    public ByteSizeValue getUsed() {
+        return new ByteSizeValue(shards.stream().mapToLong(s -> s.usedInBytes).sum());
+    }
+
+    /**
+     * The number of times the node asked a shard to write its indexing buffer to disk because the node went over its limit
+     */
+    public long getBufferWrites() {
+        return bufferWrites;
+    }
+
+    /**
+     * The statistics of the shards of the node that currently use heap for their indexing buffer or are throttled
+     */
+    public List<ShardStats> getShards() {
+        return shards;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.INDEXING_BUFFER);
+        builder.humanReadableField(Fields.LIMIT_IN_BYTES, Fields.LIMIT, getLimit());
+        builder.humanReadableField(Fields.USED_IN_BYTES, Fields.USED, getUsed());
+        builder.field(Fields.BUFFER_WRITES, bufferWrites);
+        builder.startArray(Fields.SHARDS);
+        for (ShardStats shard : shards) {
+            shard.toXContent(builder, params);
+        }
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    /**
+     * The indexing buffer statistics of a single shard.
+     */
+    public static class ShardStats implements Writeable, ToXContentObject {
+
+        private final ShardId shardId;
+        private final long usedInBytes;
+        private final long writingInBytes;
+        private final long shareInBytes;
+        private final boolean throttled;
+        private final long throttleTimeInMillis;
+
+        public ShardStats(ShardId shardId, long usedInBytes, long writingInBytes, long shareInBytes, boolean throttled,
+                          long throttleTimeInMillis) {
+            this.shardId = shardId;
+            this.usedInBytes = usedInBytes;
+            this.writingInBytes = writingInBytes;
+            this.shareInBytes = shareInBytes;
+            this.throttled = throttled;
+            this.throttleTimeInMillis = throttleTimeInMillis;
+        }
+
+        public ShardStats(StreamInput in) throws IOException {
+            shardId = new ShardId(in);
+            usedInBytes = in.readVLong();
+            writingInBytes = in.readVLong();
+            shareInBytes = in.readVLong();
+            throttled = in.readBoolean();
+            throttleTimeInMillis = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            shardId.writeTo(out);
+            out.writeVLong(usedInBytes);
+            out.writeVLong(writingInBytes);
+            out.writeVLong(shareInBytes);
+            out.writeBoolean(throttled);
+            out.writeVLong(throttleTimeInMillis);
+        }
+
+        public ShardId getShardId() {
+            return shardId;
+        }
+
+        /**
+         * The heap used by the indexing buffer of the shard, including the bytes being written to disk
+         */
+        public ByteSizeValue getUsed() {
+            return new ByteSizeValue(usedInBytes);
+        }
+
+        /**
+         * The bytes of the indexing buffer of the shard that are being written to disk
+         */
+        public ByteSizeValue getWriting() {
+            return new ByteSizeValue(writingInBytes);
+        }
+
+        /**
+         * The share of the node's indexing buffer that the shard gets based on its recent indexing rate
+         */
+        public ByteSizeValue getShare() {
+            return new ByteSizeValue(shareInBytes);
+        }
+
+        /**
+         * Whether indexing into the shard is throttled because segment writing can't keep up
+         */
+        public boolean isThrottled() {
+            return throttled;
+        }
+
+        /**
+         * The total time indexing into the shard was throttled
+         */
+        public TimeValue getThrottleTime() {
+            return new TimeValue(throttleTimeInMillis);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field(Fields.INDEX, shardId.getIndexName());
+            builder.field(Fields.SHARD, shardId.id());
+            builder.humanReadableField(Fields.USED_IN_BYTES, Fields.USED, getUsed());
+            builder.humanReadableField(Fields.WRITING_IN_BYTES, Fields.WRITING, getWriting());
+            builder.humanReadableField(Fields.SHARE_IN_BYTES, Fields.SHARE, getShare());
+            builder.field(Fields.THROTTLED, throttled);
+            builder.humanReadableField(Fields.THROTTLE_TIME_IN_MILLIS, Fields.THROTTLE_TIME, getThrottleTime());
+            builder.endObject();
+            return builder;
+        }
+    }
+
+    static final class Fields {
+        static final String INDEXING_BUFFER = "indexing_buffer";
+        static final String LIMIT = "limit";
+        static final String LIMIT_IN_BYTES = "limit_in_bytes";
+        static final String USED = "used";
+        static final String USED_IN_BYTES = "used_in_bytes";
+        static final String BUFFER_WRITES = "buffer_writes";
+        static final String SHARDS = "shards";
+        static final String INDEX = "index";
+        static final String SHARD = "shard";
+        static final String WRITING = "writing";
+        static final String WRITING_IN_BYTES = "writing_in_bytes";
+        static final String SHARE = "share";
+        static final String SHARE_IN_BYTES = "share_in_bytes";
+        static final String THROTTLED = "throttled";
+        static final String THROTTLE_TIME = "throttle_time";
+        static final String THROTTLE_TIME_IN_MILLIS = "throttle_time_in_millis";
+    }
+}
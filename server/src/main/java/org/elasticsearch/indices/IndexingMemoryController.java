@@ -23,6 +23,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
@@ -30,6 +31,7 @@ import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardState;
@@ -41,12 +43,16 @@ import org.elasticsearch.threadpool.ThreadPool.Names;
 
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class IndexingMemoryController implements IndexingOperationListener, Closeable {
@@ -89,6 +95,9 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
         TimeValue.timeValueSeconds(5),
         Property.NodeScope);
 
+    /** The number of check intervals over which the indexing rates that the indexing buffer is shared by are averaged */
+    static final int RATE_WINDOW_INTERVALS = 6;
+
     private final ThreadPool threadPool;
 
     private final Iterable<IndexShard> indexShards;
@@ -101,6 +110,12 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
     /** Contains shards currently being throttled because we can't write segments quickly enough */
     private final Set<IndexShard> throttled = new HashSet<>();
 
+    /** The bytes indexed into each shard since the last check, to compute how the indexing buffer is shared across shards */
+    private final Map<ShardId, LongAdder> bytesWrittenSinceCheckByShard = ConcurrentCollections.newConcurrentMap();
+
+    /** The number of times we asked a shard to write its indexing buffer to disk */
+    private final CounterMetric bufferWrites = new CounterMetric();
+
     private final Cancellable scheduler;
 
     private static final EnumSet<IndexShardState> CAN_WRITE_INDEX_BUFFER_STATES = EnumSet.of(
@@ -212,36 +227,79 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
         shard.deactivateThrottling();
     }
 
+    /** returns the total time indexing into this shard was throttled */
+    protected long getIndexThrottleTimeInMillis(IndexShard shard) {
+        return shard.indexingStats().getTotal().getThrottleTime().millis();
+    }
+
+    /** returns the current relative time in nanoseconds, to compute indexing rates */
+    protected long relativeTimeInNanos() {
+        return System.nanoTime();
+    }
+
     @Override
     public void postIndex(ShardId shardId, Engine.Index index, Engine.IndexResult result) {
-        recordOperationBytes(index, result);
+        recordOperationBytes(shardId, index, result);
     }
 
     @Override
     public void postDelete(ShardId shardId, Engine.Delete delete, Engine.DeleteResult result) {
-        recordOperationBytes(delete, result);
+        recordOperationBytes(shardId, delete, result);
     }
 
     /** called by IndexShard to record estimated bytes written to translog for the operation */
-    private void recordOperationBytes(Engine.Operation operation, Engine.Result result) {
+    private void recordOperationBytes(ShardId shardId, Engine.Operation operation, Engine.Result result) {
         if (result.getResultType() == Engine.Result.Type.SUCCESS) {
-            statusChecker.bytesWritten(operation.estimatedSizeInBytes());
+            bytesWritten(shardId, operation.estimatedSizeInBytes());
+        }
+    }
+
+    void bytesWritten(ShardId shardId, int bytes) {
+        bytesWrittenSinceCheckByShard.computeIfAbsent(shardId, k -> new LongAdder()).add(bytes);
+        statusChecker.bytesWritten(bytes);
+    }
+
+    /**
+     * Returns the statistics of the indexing buffers of the shards of this node.
+     */
+    public IndexingBufferStats stats() {
+        final List<IndexingBufferStats.ShardStats> shardStats = new ArrayList<>();
+        statusChecker.runLock.lock();
+        try {
+            for (IndexShard shard : availableShards()) {
+                try {
+                    final long bytesUsed = getIndexBufferRAMBytesUsed(shard);
+                    final boolean isThrottled = throttled.contains(shard);
+                    if (bytesUsed > 0 || isThrottled) {
+                        shardStats.add(new IndexingBufferStats.ShardStats(shard.shardId(), bytesUsed,
+                            Math.min(bytesUsed, getShardWritingBytes(shard)), statusChecker.shares.getOrDefault(shard.shardId(), 0L),
+                            isThrottled, getIndexThrottleTimeInMillis(shard)));
+                    }
+                } catch (AlreadyClosedException e) {
+                    // the shard is closing, it doesn't use any indexing buffer anymore
+                }
+            }
+        } finally {
+            statusChecker.runLock.unlock();
         }
+        return new IndexingBufferStats(indexingBuffer.getBytes(), bufferWrites.count(), shardStats);
     }
 
     private static final class ShardAndBytesUsed implements Comparable<ShardAndBytesUsed> {
         final long bytesUsed;
+        final long bytesOverShare;
         final IndexShard shard;
 
-        ShardAndBytesUsed(long bytesUsed, IndexShard shard) {
+        ShardAndBytesUsed(long bytesUsed, long share, IndexShard shard) {
             this.bytesUsed = bytesUsed;
+            this.bytesOverShare = bytesUsed - share;
             this.shard = shard;
         }
 
         @Override
         public int compareTo(ShardAndBytesUsed other) {
-            // Sort larger shards first:
-            return Long.compare(other.bytesUsed, bytesUsed);
+            // Sort shards that use the most heap beyond their share first:
+            return Long.compare(other.bytesOverShare, bytesOverShare);
         }
     }
 
@@ -251,6 +309,13 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
         final AtomicLong bytesWrittenSinceCheck = new AtomicLong();
         final ReentrantLock runLock = new ReentrantLock();
 
+        /** The bytes recently indexed into each shard, decaying exponentially over {@link #RATE_WINDOW_INTERVALS} intervals */
+        private final Map<ShardId, Double> recentBytesWritten = new HashMap<>();
+        private long lastRateUpdateNanos = -1;
+
+        /** The share of the indexing buffer of each shard as of the last check */
+        Map<ShardId, Long> shares = Collections.emptyMap();
+
         /** Shard calls this on each indexing/delete op */
         public void bytesWritten(int bytes) {
             long totalBytes = bytesWrittenSinceCheck.addAndGet(bytes);
@@ -297,11 +362,14 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
             // NOTE: even if we hit an errant exc here, our ThreadPool.scheduledWithFixedDelay will log the exception and re-invoke us
             // again, on schedule
 
+            final List<IndexShard> availableShards = availableShards();
+            updateShares(availableShards);
+
             // First pass to sum up how much heap all shards' indexing buffers are using now, and how many bytes they are currently moving
             // to disk:
             long totalBytesUsed = 0;
             long totalBytesWriting = 0;
-            for (IndexShard shard : availableShards()) {
+            for (IndexShard shard : availableShards) {
 
                 // Give shard a chance to transition to inactive so sync'd flush can happen:
                 checkIdle(shard, inactiveTime.nanos());
@@ -335,10 +403,12 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
             boolean doThrottle = (totalBytesWriting + totalBytesUsed) > 1.5 * indexingBuffer.getBytes();
 
             if (totalBytesUsed > indexingBuffer.getBytes()) {
-                // OK we are now over-budget; fill the priority queue and ask largest shard(s) to refresh:
+                // OK we are now over-budget; fill the priority queue and ask the shard(s) that use the most heap beyond their share,
+                // based on their recent indexing rate, to write their indexing buffer to disk. This lets shards that index a lot build
+                // larger segments while shards that hold on to a small buffer for a long time free it:
                 PriorityQueue<ShardAndBytesUsed> queue = new PriorityQueue<>();
 
-                for (IndexShard shard : availableShards()) {
+                for (IndexShard shard : availableShards) {
                     // How many bytes this shard is currently (async'd) moving from heap to disk:
                     long shardWritingBytes = getShardWritingBytes(shard);
 
@@ -363,7 +433,7 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
                                 logger.trace("shard [{}] is using [{}] heap, not writing any bytes", shard.shardId(), shardBytesUsed);
                             }
                         }
-                        queue.add(new ShardAndBytesUsed(shardBytesUsed, shard));
+                        queue.add(new ShardAndBytesUsed(shardBytesUsed, shares.getOrDefault(shard.shardId(), 0L), shard));
                     }
                 }
 
@@ -376,6 +446,7 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
                     logger.debug("write indexing buffer to disk for shard [{}] to free up its [{}] indexing buffer",
                         largest.shard.shardId(), new ByteSizeValue(largest.bytesUsed));
                     writeIndexingBufferAsync(largest.shard);
+                    bufferWrites.inc();
                     totalBytesUsed -= largest.bytesUsed;
                     if (doThrottle && throttled.contains(largest.shard) == false) {
                         logger.info("now throttling indexing for shard [{}]: segment writing can't keep up", largest.shard.shardId());
@@ -393,6 +464,37 @@ public class IndexingMemoryController implements IndexingOperationListener, Clos
                 throttled.clear();
             }
         }
+
+        /**
+         * Updates the recent indexing rate of the given shards and shares the indexing buffer across them accordingly. Shards that
+         * did not index anything recently get an equal share of the buffer if no shard did.
+         */
+        private void updateShares(List<IndexShard> availableShards) {
+            final long now = relativeTimeInNanos();
+            final double decay = lastRateUpdateNanos == -1 ? 0 :
+                Math.exp(-(double) (now - lastRateUpdateNanos) / (interval.nanos() * RATE_WINDOW_INTERVALS));
+            lastRateUpdateNanos = now;
+
+            final Map<ShardId, Double> previous = new HashMap<>(recentBytesWritten);
+            recentBytesWritten.clear();
+            double totalRecentBytes = 0;
+            for (IndexShard shard : availableShards) {
+                final ShardId shardId = shard.shardId();
+                final LongAdder written = bytesWrittenSinceCheckByShard.get(shardId);
+                final double recentBytes = previous.getOrDefault(shardId, 0d) * decay + (written == null ? 0 : written.sumThenReset());
+                recentBytesWritten.put(shardId, recentBytes);
+                totalRecentBytes += recentBytes;
+            }
+            // forget about shards that are gone
+            bytesWrittenSinceCheckByShard.keySet().retainAll(recentBytesWritten.keySet());
+
+            final Map<ShardId, Long> newShares = new HashMap<>();
+            for (Map.Entry<ShardId, Double> entry : recentBytesWritten.entrySet()) {
+                final double fraction = totalRecentBytes > 0 ? entry.getValue() / totalRecentBytes : 1.0 / recentBytesWritten.size();
+                newShares.put(entry.getKey(), (long) (indexingBuffer.getBytes() * fraction));
+            }
+            shares = Collections.unmodifiableMap(newShares);
+        }
     }
 
     /**
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.LRUQueryCache;
 import org.apache.lucene.search.Query;
@@ -31,6 +32,7 @@ import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.apache.lucene.search.Weight;
 import org.elasticsearch.common.lucene.ShardCoreKeyMap;
 import org.elasticsearch.common.settings.Setting;
@@ -38,6 +40,7 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
+import org.elasticsearch.index.cache.query.QueryTypeStats;
 import org.elasticsearch.index.shard.ShardId;
 
 import java.io.Closeable;
@@ -63,11 +66,20 @@ public class IndicesQueryCache implements QueryCache, Closeable {
     // enables caching on all segments instead of only the larger ones, for testing only
     public static final Setting<Boolean> INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING = 
             Setting.boolSetting("indices.queries.cache.all_segments", false, Property.NodeScope);
+    // whether shards decide which filters to cache based on the measured cost of caching filters of the same type
+    public static final Setting<Boolean> INDICES_QUERIES_CACHE_COST_AWARE_SETTING =
+            Setting.boolSetting("indices.queries.cache.cost_aware", true, Property.NodeScope);
 
     private final LRUQueryCache cache;
     private final ShardCoreKeyMap shardKeyMap = new ShardCoreKeyMap();
     private final Map<ShardId, Stats> shardStats = new ConcurrentHashMap<>();
     private volatile long sharedRamBytesUsed;
+    private final boolean costAware;
+    private final CostAwareQueryCachingPolicy.CostTracker costTracker = new CostAwareQueryCachingPolicy.CostTracker();
+    // the query whose weight is being used on the current thread, so that the cache knows which query it builds doc id sets for
+    private final ThreadLocal<Query> currentQuery = new ThreadLocal<>();
+    // the query that is being evicted on the current thread, so that the eviction of its doc id sets can be attributed to it
+    private final ThreadLocal<Query> evictingQuery = new ThreadLocal<>();
 
     // This is a hack for the fact that the close listener for the
     // ShardCoreKeyMap will be called before onDocIdSetEviction
@@ -85,6 +97,18 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             cache = new ElasticsearchLRUQueryCache(count, size.getBytes());
         }
         sharedRamBytesUsed = 0;
+        costAware = INDICES_QUERIES_CACHE_COST_AWARE_SETTING.get(settings);
+    }
+
+    /**
+     * Creates the policy that a shard uses to decide which of its filters should be cached. Each shard has its own policy
+     * so that the most popular filters are computed on a per-shard basis.
+     */
+    public QueryCachingPolicy newQueryCachingPolicy() {
+        if (costAware) {
+            return new CostAwareQueryCachingPolicy(costTracker);
+        }
+        return new UsageTrackingQueryCachingPolicy();
     }
 
     /** Get usage statistics for the given shard. */
@@ -148,19 +172,37 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         @Override
         public Scorer scorer(LeafReaderContext context) throws IOException {
             shardKeyMap.add(context.reader());
-            return in.scorer(context);
+            final Query previous = currentQuery.get();
+            currentQuery.set(getQuery());
+            try {
+                return in.scorer(context);
+            } finally {
+                restoreCurrentQuery(previous);
+            }
         }
 
         @Override
         public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
             shardKeyMap.add(context.reader());
-            return in.scorerSupplier(context);
+            final Query previous = currentQuery.get();
+            currentQuery.set(getQuery());
+            try {
+                return in.scorerSupplier(context);
+            } finally {
+                restoreCurrentQuery(previous);
+            }
         }
 
         @Override
         public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
             shardKeyMap.add(context.reader());
-            return in.bulkScorer(context);
+            final Query previous = currentQuery.get();
+            currentQuery.set(getQuery());
+            try {
+                return in.bulkScorer(context);
+            } finally {
+                restoreCurrentQuery(previous);
+            }
         }
 
         @Override
@@ -169,6 +211,14 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         }
     }
 
+    private void restoreCurrentQuery(Query previous) {
+        currentQuery.set(previous);
+        if (previous == null) {
+            // don't hold on to evicted queries once the outermost cached weight is done
+            evictingQuery.remove();
+        }
+    }
+
     /** Clear all entries that belong to the given index. */
     public void clearIndex(String index) {
         final Set<Object> coreCacheKeys = shardKeyMap.getCoreKeysForIndex(index);
@@ -205,13 +255,24 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         volatile long missCount;
         volatile long cacheCount;
         volatile long cacheSize;
+        final Map<String, TypeStats> typeStats = new ConcurrentHashMap<>();
 
         Stats(ShardId shardId) {
             this.shardId = shardId;
         }
 
+        TypeStats getOrCreateTypeStats(Query query) {
+            return typeStats.computeIfAbsent(CostAwareQueryCachingPolicy.queryType(query), k -> new TypeStats());
+        }
+
         QueryCacheStats toQueryCacheStats() {
-            return new QueryCacheStats(ramBytesUsed, hitCount, missCount, cacheCount, cacheSize);
+            final Map<String, QueryTypeStats> queryTypeStats = new HashMap<>();
+            for (Map.Entry<String, TypeStats> entry : typeStats.entrySet()) {
+                final TypeStats stats = entry.getValue();
+                queryTypeStats.put(entry.getKey(), new QueryTypeStats(stats.hitCount, stats.missCount, stats.cacheCount,
+                    stats.evictions));
+            }
+            return new QueryCacheStats(ramBytesUsed, hitCount, missCount, cacheCount, cacheSize, queryTypeStats);
         }
 
         @Override
@@ -221,6 +282,13 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         }
     }
 
+    private static class TypeStats {
+        volatile long hitCount;
+        volatile long missCount;
+        volatile long cacheCount;
+        volatile long evictions;
+    }
+
     private static class StatsAndCount {
         volatile int count;
         final Stats stats;
@@ -300,6 +368,26 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         protected void onQueryEviction(Query filter, long ramBytesUsed) {
             super.onQueryEviction(filter, ramBytesUsed);
             sharedRamBytesUsed -= ramBytesUsed;
+            // LRUQueryCache removes the doc id sets of the query one by one right after this callback
+            evictingQuery.set(filter);
+        }
+
+        @Override
+        public void clearCoreCacheKey(Object coreKey) {
+            // doc id sets that are removed because their segment is closed aren't evictions of a query
+            evictingQuery.remove();
+            super.clearCoreCacheKey(coreKey);
+        }
+
+        @Override
+        protected DocIdSet cacheImpl(BulkScorer scorer, int maxDoc) throws IOException {
+            final long startNanos = System.nanoTime();
+            final DocIdSet docIdSet = super.cacheImpl(scorer, maxDoc);
+            final Query query = currentQuery.get();
+            if (query != null) {
+                costTracker.onBuild(query, System.nanoTime() - startNanos, docIdSet.ramBytesUsed());
+            }
+            return docIdSet;
         }
 
         @Override
@@ -309,6 +397,10 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             shardStats.cacheSize += 1;
             shardStats.cacheCount += 1;
             shardStats.ramBytesUsed += ramBytesUsed;
+            final Query query = currentQuery.get();
+            if (query != null) {
+                shardStats.getOrCreateTypeStats(query).cacheCount += 1;
+            }
 
             StatsAndCount statsAndCount = stats2.get(readerCoreKey);
             if (statsAndCount == null) {
@@ -334,6 +426,10 @@ public class IndicesQueryCache implements QueryCache, Closeable {
                 final Stats shardStats = statsAndCount.stats;
                 shardStats.cacheSize -= numEntries;
                 shardStats.ramBytesUsed -= sumRamBytesUsed;
+                final Query query = evictingQuery.get();
+                if (query != null && numEntries == 1) {
+                    shardStats.getOrCreateTypeStats(query).evictions += 1;
+                }
                 statsAndCount.count -= numEntries;
                 if (statsAndCount.count == 0) {
                     stats2.remove(readerCoreKey);
@@ -346,6 +442,8 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             super.onHit(readerCoreKey, filter);
             final Stats shardStats = getStats(readerCoreKey);
             shardStats.hitCount += 1;
+            shardStats.getOrCreateTypeStats(filter).hitCount += 1;
+            costTracker.onHit(filter);
         }
 
         @Override
@@ -353,6 +451,7 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             super.onMiss(readerCoreKey, filter);
             final Stats shardStats = getOrCreateStats(readerCoreKey);
             shardStats.missCount += 1;
+            shardStats.getOrCreateTypeStats(filter).missCount += 1;
         }
     }
 }
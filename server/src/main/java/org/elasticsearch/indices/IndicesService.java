@@ -89,6 +89,7 @@ import org.elasticsearch.index.engine.CommitStats;
 import org.elasticsearch.index.engine.EngineFactory;
 import org.elasticsearch.index.engine.InternalEngineFactory;
 import org.elasticsearch.index.engine.NoOpEngine;
+import org.elasticsearch.index.engine.ReadOnlyEngine;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.flush.FlushStats;
 import org.elasticsearch.index.get.GetStats;
@@ -109,6 +110,8 @@ import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.SearchableSnapshotDirectoryFactory;
+import org.elasticsearch.index.translog.TranslogStats;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -194,6 +197,9 @@ public class IndicesService extends AbstractLifecycleComponent
     private final MapperRegistry mapperRegistry;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final IndexingMemoryController indexingMemoryController;
+    private final TranslogSyncScheduler translogSyncScheduler;
+    private final ScheduledRefreshBudget scheduledRefreshBudget;
+    private final MergeBudget mergeBudget;
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
@@ -231,6 +237,9 @@ public class IndicesService extends AbstractLifecycleComponent
         indexingMemoryController = new IndexingMemoryController(settings, threadPool,
                                                                 // ensure we pull an iter with new shards - flatten makes a copy
                                                                 () -> Iterables.flatten(this).iterator());
+        this.translogSyncScheduler = new TranslogSyncScheduler(settings, threadPool);
+        this.scheduledRefreshBudget = new ScheduledRefreshBudget(settings);
+        this.mergeBudget = new MergeBudget(settings);
         this.indexScopedSettings = indexScopedSettings;
         this.circuitBreakerService = circuitBreakerService;
         this.bigArrays = bigArrays;
@@ -567,7 +576,10 @@ public class IndicesService extends AbstractLifecycleComponent
                 indicesQueryCache,
                 mapperRegistry,
                 indicesFieldDataCache,
-                namedWriteableRegistry
+                namedWriteableRegistry,
+                translogSyncScheduler,
+                scheduledRefreshBudget,
+                mergeBudget
         );
     }
 
@@ -577,6 +589,10 @@ public class IndicesService extends AbstractLifecycleComponent
             // NoOpEngine takes precedence as long as the index is closed
             return NoOpEngine::new;
         }
+        if (SearchableSnapshotDirectoryFactory.isSearchableSnapshotStore(idxSettings.getSettings())) {
+            // the shards of indices mounted from a snapshot can't be written to
+            return config -> new ReadOnlyEngine(config, null, new TranslogStats(), false, Function.identity());
+        }
 
         final List<Optional<EngineFactory>> engineFactories =
                 engineFactoryProviders
@@ -715,6 +731,10 @@ public class IndicesService extends AbstractLifecycleComponent
         return circuitBreakerService;
     }
 
+    public TranslogSyncScheduler getTranslogSyncScheduler() {
+        return translogSyncScheduler;
+    }
+
     public IndicesQueryCache getIndicesQueryCache() {
         return indicesQueryCache;
     }
@@ -1325,6 +1345,14 @@ public class IndicesService extends AbstractLifecycleComponent
         return indexingMemoryController.indexingBufferSize();
     }
 
+    public IndexingBufferStats getIndexingBufferStats() {
+        return indexingMemoryController.stats();
+    }
+
+    public MergeBudget getMergeBudget() {
+        return mergeBudget;
+    }
+
     /**
      * Cache something calculated at the shard level.
      * @param shard the shard this item is part of
@@ -0,0 +1,273 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimiter;
+import org.apache.lucene.store.RateLimiter.SimpleRateLimiter;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An I/O budget for merges that is shared by the merge schedulers of all the shards of the node. Every shard throttles its own
+ * merges, so a node with many shards that merge at the same time may saturate its disks and starve searches of I/O.
+ * <p>
+ * When {@link #MAX_CONCURRENT_SETTING} is set, a merge waits for a slot before it starts. Waiting merges get a slot in the order of
+ * their size, smallest first, unless the merge that waits the longest has been waiting for more than
+ * {@link #MAX_QUEUE_TIME_SETTING}, in which case it gets the next slot so that a large merge cannot be starved by a steady flow of
+ * smaller ones. When {@link #MAX_BYTES_PER_SEC_SETTING} is set, the bytes that all merges of the node write are rate
+ * limited together. Merges smaller than {@link #SMALL_MERGE_SIZE_SETTING} neither wait for a slot nor are rate limited, like Lucene
+ * does not throttle small merges, as they are cheap and keep the number of segments down. Force merges are not subject to the budget
+ * either: they are requested explicitly, and would never get a slot on a node whose shards keep merging.
+ */
+public final class MergeBudget {
+
+    /**
+     * The maximum number of merges that run concurrently on the node, not counting small merges. {@code 0} does not limit them.
+     */
+    public static final Setting<Integer> MAX_CONCURRENT_SETTING = Setting.intSetting("indices.merge.max_concurrent",
+        0, 0, Property.NodeScope);
+
+    /**
+     * The maximum number of bytes per second that the merges of the node write, not counting small merges. {@code 0} does not
+     * limit them.
+     */
+    public static final Setting<ByteSizeValue> MAX_BYTES_PER_SEC_SETTING = Setting.byteSizeSetting("indices.merge.max_bytes_per_sec",
+        new ByteSizeValue(0), Property.NodeScope);
+
+    /**
+     * Merges whose estimated size is below this size are not subject to the budget.
+     */
+    public static final Setting<ByteSizeValue> SMALL_MERGE_SIZE_SETTING = Setting.byteSizeSetting("indices.merge.small_merge_size",
+        new ByteSizeValue(50, ByteSizeUnit.MB), Property.NodeScope);
+
+    /**
+     * How long a merge may wait for a slot before it gets the next slot regardless of its size. {@code 0} gives slots to the waiting
+     * merges in the order in which they started waiting.
+     */
+    public static final Setting<TimeValue> MAX_QUEUE_TIME_SETTING = Setting.timeSetting("indices.merge.max_queue_time",
+        TimeValue.timeValueMinutes(5), TimeValue.ZERO, Property.NodeScope);
+
+    /**
+     * How often merges that wait for a slot check whether they were aborted, for instance because their shard is closing.
+     */
+    static final long ABORT_CHECK_INTERVAL_MILLIS = 1000;
+
+    private static final Comparator<Waiter> WAITER_ORDER = Comparator.<Waiter>comparingLong(w -> w.estimatedBytes)
+        .thenComparingLong(w -> w.sequence);
+
+    private final int maxConcurrent;
+    private final long smallMergeSizeInBytes;
+    private final long maxQueueTimeInNanos;
+    private final SimpleRateLimiter rateLimiter;
+
+    // in the order in which the merges started waiting
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private long nextSequence;
+    private int running;
+
+    private final CounterMetric queuedMerges = new CounterMetric();
+    private final CounterMetric queueTimeInNanos = new CounterMetric();
+    private final CounterMetric throttledTimeInNanos = new CounterMetric();
+
+    public MergeBudget(Settings settings) {
+        this.maxConcurrent = MAX_CONCURRENT_SETTING.get(settings);
+        this.smallMergeSizeInBytes = SMALL_MERGE_SIZE_SETTING.get(settings).getBytes();
+        this.maxQueueTimeInNanos = MAX_QUEUE_TIME_SETTING.get(settings).nanos();
+        final ByteSizeValue maxBytesPerSec = MAX_BYTES_PER_SEC_SETTING.get(settings);
+        this.rateLimiter = maxBytesPerSec.getBytes() > 0 ? new SimpleRateLimiter(maxBytesPerSec.getMbFrac()) : null;
+    }
+
+    private boolean isExempt(MergePolicy.OneMerge merge) {
+        return merge.estimatedMergeBytes < smallMergeSizeInBytes || merge.getStoreMergeInfo().mergeMaxNumSegments != -1;
+    }
+
+    /**
+     * Waits for a slot for the given merge and returns a {@link Releasable} that gives the slot back once the merge completed. A
+     * merge that is aborted while it waits gets a slot right away, so that it can complete its abort.
+     */
+    public Releasable acquire(MergePolicy.OneMerge merge) {
+        final boolean mustWait = maxConcurrent > 0 && isExempt(merge) == false;
+        synchronized (this) {
+            if (mustWait && (running >= maxConcurrent || waiters.isEmpty() == false)) {
+                final long startNanos = System.nanoTime();
+                final Waiter waiter = new Waiter(merge.estimatedMergeBytes, nextSequence++, startNanos);
+                waiters.addLast(waiter);
+                try {
+                    while ((running >= maxConcurrent || nextWaiter() != waiter) && merge.isAborted() == false) {
+                        wait(ABORT_CHECK_INTERVAL_MILLIS);
+                    }
+                } catch (InterruptedException e) {
+                    throw new ThreadInterruptedException(e);
+                } finally {
+                    waiters.remove(waiter);
+                    // the next waiter may be able to run as well
+                    notifyAll();
+                }
+                queuedMerges.inc();
+                queueTimeInNanos.inc(System.nanoTime() - startNanos);
+            }
+            running++;
+        }
+        final AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        };
+    }
+
+    /**
+     * Returns the waiter that gets the next slot: the one that waits the longest if it has been waiting for more than the maximum
+     * queue time, the smallest one otherwise.
+     */
+    private Waiter nextWaiter() {
+        assert Thread.holdsLock(this);
+        final Waiter oldest = waiters.peekFirst();
+        if (oldest == null || System.nanoTime() - oldest.startNanos >= maxQueueTimeInNanos) {
+            return oldest;
+        }
+        return Collections.min(waiters, WAITER_ORDER);
+    }
+
+    private synchronized void release() {
+        running--;
+        assert running >= 0 : "released more merges than acquired";
+        notifyAll();
+    }
+
+    /**
+     * Wraps the directory that the given merge writes to so that the bytes it writes count against the rate limit of the node.
+     */
+    public Directory wrapForMerge(MergePolicy.OneMerge merge, Directory in) {
+        if (rateLimiter == null || isExempt(merge)) {
+            return in;
+        }
+        return new FilterDirectory(in) {
+            @Override
+            public IndexOutput createOutput(String name, IOContext context) throws IOException {
+                return new RateLimitedOutput(in.createOutput(name, context));
+            }
+        };
+    }
+
+    public MergeBudgetStats stats() {
+        final int running;
+        final int queued;
+        synchronized (this) {
+            running = this.running;
+            queued = this.waiters.size();
+        }
+        return new MergeBudgetStats(running, queued, queuedMerges.count(), queueTimeInNanos.count(), throttledTimeInNanos.count());
+    }
+
+    private static final class Waiter {
+        private final long estimatedBytes;
+        private final long sequence;
+        private final long startNanos;
+
+        Waiter(long estimatedBytes, long sequence, long startNanos) {
+            this.estimatedBytes = estimatedBytes;
+            this.sequence = sequence;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * Pauses the merge every {@link RateLimiter#getMinPauseCheckBytes()} written bytes to stay within the rate limit of the node,
+     * like {@link org.apache.lucene.store.RateLimitedIndexOutput} does, and records how long it paused.
+     */
+    private final class RateLimitedOutput extends IndexOutput {
+
+        private final IndexOutput delegate;
+        private long bytesSinceLastPause;
+
+        RateLimitedOutput(IndexOutput delegate) {
+            super("MergeBudget(" + delegate + ")", delegate.getName());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public long getFilePointer() {
+            return delegate.getFilePointer();
+        }
+
+        @Override
+        public long getChecksum() throws IOException {
+            return delegate.getChecksum();
+        }
+
+        @Override
+        public void writeByte(byte b) throws IOException {
+            bytesSinceLastPause++;
+            checkRate();
+            delegate.writeByte(b);
+        }
+
+        @Override
+        public void writeBytes(byte[] b, int offset, int length) throws IOException {
+            bytesSinceLastPause += length;
+            checkRate();
+            delegate.writeBytes(b, offset, length);
+        }
+
+        private void checkRate() throws IOException {
+            if (bytesSinceLastPause > rateLimiter.getMinPauseCheckBytes()) {
+                final long pausedNanos = rateLimiter.pause(bytesSinceLastPause);
+                bytesSinceLastPause = 0;
+                if (pausedNanos > 0) {
+                    throttledTimeInNanos.inc(pausedNanos);
+                }
+            }
+        }
+    }
+
+    // for tests
+    synchronized int running() {
+        return running;
+    }
+
+    // for tests
+    synchronized int queued() {
+        return waiters.size();
+    }
+}
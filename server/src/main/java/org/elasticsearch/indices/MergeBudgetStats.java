@@ -0,0 +1,127 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node-level statistics about the merges of the shards of the node, see {@link MergeBudget}.
+ */
+public class MergeBudgetStats implements Writeable, ToXContentFragment {
+
+    private final int running;
+    private final int queued;
+    private final long totalQueued;
+    private final long totalQueueTimeInNanos;
+    private final long totalThrottledTimeInNanos;
+
+    public MergeBudgetStats(int running, int queued, long totalQueued, long totalQueueTimeInNanos, long totalThrottledTimeInNanos) {
+        this.running = running;
+        this.queued = queued;
+        this.totalQueued = totalQueued;
+        this.totalQueueTimeInNanos = totalQueueTimeInNanos;
+        this.totalThrottledTimeInNanos = totalThrottledTimeInNanos;
+    }
+
+    public MergeBudgetStats(StreamInput in) throws IOException {
+        running = in.readVInt();
+        queued = in.readVInt();
+        totalQueued = in.readVLong();
+        totalQueueTimeInNanos = in.readVLong();
+        totalThrottledTimeInNanos = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(running);
+        out.writeVInt(queued);
+        out.writeVLong(totalQueued);
+        out.writeVLong(totalQueueTimeInNanos);
+        out.writeVLong(totalThrottledTimeInNanos);
+    }
+
+    /**
+     * The number of merges that currently run on the node
+     */
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     * The number of merges that currently wait for a slot to run
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    /**
+     * The total number of merges that had to wait for a slot to run
+     */
+    public long getTotalQueued() {
+        return totalQueued;
+    }
+
+    /**
+     * The total time merges waited for a slot to run
+     */
+    public TimeValue getTotalQueueTime() {
+        return new TimeValue(totalQueueTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The total time merges were paused to stay within the rate limit of the node
+     */
+    public TimeValue getTotalThrottledTime() {
+        return new TimeValue(totalThrottledTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.MERGE_BUDGET);
+        builder.field(Fields.RUNNING, running);
+        builder.field(Fields.QUEUED, queued);
+        builder.field(Fields.TOTAL_QUEUED, totalQueued);
+        builder.humanReadableField(Fields.TOTAL_QUEUE_TIME_IN_MILLIS, Fields.TOTAL_QUEUE_TIME,
+            new TimeValue(getTotalQueueTime().millis()));
+        builder.humanReadableField(Fields.TOTAL_THROTTLED_TIME_IN_MILLIS, Fields.TOTAL_THROTTLED_TIME,
+            new TimeValue(getTotalThrottledTime().millis()));
+        builder.endObject();
+        return builder;
+    }
+
+    static final class Fields {
+        static final String MERGE_BUDGET = "merge_budget";
+        static final String RUNNING = "running";
+        static final String QUEUED = "queued";
+        static final String TOTAL_QUEUED = "total_queued";
+        static final String TOTAL_QUEUE_TIME = "total_queue_time";
+        static final String TOTAL_QUEUE_TIME_IN_MILLIS = "total_queue_time_in_millis";
+        static final String TOTAL_THROTTLED_TIME = "total_throttled_time";
+        static final String TOTAL_THROTTLED_TIME_IN_MILLIS = "total_throttled_time_in_millis";
+    }
+}
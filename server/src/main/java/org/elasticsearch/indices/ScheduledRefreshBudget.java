@@ -0,0 +1,89 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of scheduled refreshes that run concurrently across all the shards of the node. Every index refreshes its
+ * shards on its own schedule, so a node with many actively written shards may refresh a lot of them at the same time, each
+ * producing a small segment. When {@link #MAX_CONCURRENT_SETTING} is set, a shard whose scheduled refresh finds the budget
+ * exhausted skips it, so that its changes are refreshed together with those of its next scheduled refresh. A shard never skips
+ * two scheduled refreshes in a row and refreshes that refresh listeners wait for are never skipped, but they still count against
+ * the budget.
+ */
+public final class ScheduledRefreshBudget {
+
+    /**
+     * The maximum number of scheduled refreshes that run concurrently on the node. {@code 0} does not limit them.
+     */
+    public static final Setting<Integer> MAX_CONCURRENT_SETTING = Setting.intSetting("indices.refresh.max_concurrent_scheduled",
+        0, 0, Property.NodeScope);
+
+    private final int maxConcurrent;
+    private final AtomicInteger running = new AtomicInteger();
+
+    public ScheduledRefreshBudget(Settings settings) {
+        this.maxConcurrent = MAX_CONCURRENT_SETTING.get(settings);
+    }
+
+    /**
+     * Tries to reserve a slot for a scheduled refresh, which must be released with {@link #release()} once the refresh completed.
+     *
+     * @param mayThrottle whether the refresh may be skipped; if {@code false} the slot is reserved even if the budget is exhausted
+     * @return {@code false} if the refresh should be skipped, {@code true} if a slot was reserved
+     */
+    public boolean tryAcquire(boolean mayThrottle) {
+        if (maxConcurrent == 0) {
+            return true;
+        }
+        if (mayThrottle == false) {
+            running.incrementAndGet();
+            return true;
+        }
+        int current;
+        do {
+            current = running.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+        } while (running.compareAndSet(current, current + 1) == false);
+        return true;
+    }
+
+    /**
+     * Releases a slot reserved by {@link #tryAcquire(boolean)}.
+     */
+    public void release() {
+        if (maxConcurrent > 0) {
+            final int remaining = running.decrementAndGet();
+            assert remaining >= 0 : "released more scheduled refreshes than acquired";
+        }
+    }
+
+    // for tests
+    int running() {
+        return running.get();
+    }
+}
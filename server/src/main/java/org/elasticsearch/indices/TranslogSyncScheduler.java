@@ -0,0 +1,238 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.CheckedConsumer;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogSyncStats;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Batches the translog syncs that write requests need across all the shards of the node that live on the same data path.
+ * By default every shard syncs its translog as soon as a write request asks for it, so a node with many actively written
+ * shards using the {@code request} durability fsyncs many times per second. When {@link #MAX_WAIT_SETTING} is set, the
+ * first sync request of a data path schedules a sync round that runs after at most this delay and syncs, once, the
+ * translog of every shard that asked for a sync in the meantime. Sync requests that arrive while a round is running are
+ * handled by the next round, which is forked as soon as the current one completes so that a data path that keeps receiving
+ * sync requests does not hold on to a thread forever. The listeners of the sync requests are notified in the thread context
+ * of the request they belong to.
+ * <p>
+ * This class also keeps the statistics of all the translog syncs of the node, including those that shards run on their own.
+ */
+public final class TranslogSyncScheduler {
+
+    private static final Logger logger = LogManager.getLogger(TranslogSyncScheduler.class);
+
+    /**
+     * The maximum time a translog sync request waits for other sync requests to be batched with. {@code 0} disables
+     * batching across shards.
+     */
+    public static final Setting<TimeValue> MAX_WAIT_SETTING = Setting.timeSetting("indices.translog.sync.max_wait",
+        TimeValue.ZERO, TimeValue.ZERO, Property.NodeScope);
+
+    private final ThreadPool threadPool;
+    private final TimeValue maxWait;
+    private final ConcurrentMap<Path, Group> groups = ConcurrentCollections.newConcurrentMap();
+
+    private final LongAdder fsyncs = new LongAdder();
+    private final LongAdder syncedLocations = new LongAdder();
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder fsyncTimeInNanos = new LongAdder();
+    private final LongAdder[] latencyHistogram = new LongAdder[TranslogSyncStats.LATENCY_BUCKETS_MILLIS.length + 1];
+
+    public TranslogSyncScheduler(Settings settings, ThreadPool threadPool) {
+        this.threadPool = threadPool;
+        this.maxWait = MAX_WAIT_SETTING.get(settings);
+        for (int i = 0; i < latencyHistogram.length; i++) {
+            latencyHistogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if translog syncs should go through {@link #sync} in order to be batched across shards.
+     */
+    public boolean isEnabled() {
+        return maxWait.nanos() > 0;
+    }
+
+    /**
+     * Schedules a sync of the given translog location. The given syncer must be the same object for all the locations of a
+     * shard, since it is used to batch the locations of the same shard into a single sync.
+     *
+     * @param dataPath the data path of the shard, sync rounds are run per data path
+     * @param syncer syncs the translog of the shard up to the maximum of the given locations
+     * @param location the location to sync
+     * @param listener notified once the location is synced, or with the failure of the sync
+     */
+    public void sync(Path dataPath, CheckedConsumer<Stream<Translog.Location>, IOException> syncer, Translog.Location location,
+                     Consumer<Exception> listener) {
+        final Group group = groups.computeIfAbsent(dataPath, p -> new Group());
+        final Supplier<ThreadContext.StoredContext> context = threadPool.getThreadContext().newRestorableContext(false);
+        if (group.add(new PendingSync(syncer, location, listener, context))) {
+            try {
+                threadPool.schedule(group::run, maxWait, ThreadPool.Names.GENERIC);
+            } catch (EsRejectedExecutionException e) {
+                // the node is shutting down, don't leave the write requests hanging
+                group.run();
+            }
+        }
+    }
+
+    /**
+     * Records that a translog was fsynced on behalf of the given number of locations.
+     */
+    public void onFsync(int locations, long tookInNanos) {
+        fsyncs.increment();
+        syncedLocations.add(locations);
+        fsyncTimeInNanos.add(tookInNanos);
+    }
+
+    /**
+     * Records that a write request waited for the given time until its translog location was synced.
+     */
+    public void onSyncCompleted(long latencyInNanos) {
+        latencyHistogram[TranslogSyncStats.latencyBucket(latencyInNanos)].increment();
+    }
+
+    public TranslogSyncStats stats() {
+        final long[] histogram = new long[latencyHistogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = latencyHistogram[i].sum();
+        }
+        return new TranslogSyncStats(fsyncs.sum(), syncedLocations.sum(), rounds.sum(), fsyncTimeInNanos.sum(), histogram);
+    }
+
+    private static final class PendingSync {
+        final CheckedConsumer<Stream<Translog.Location>, IOException> syncer;
+        final Translog.Location location;
+        final Consumer<Exception> listener;
+        final Supplier<ThreadContext.StoredContext> context;
+
+        PendingSync(CheckedConsumer<Stream<Translog.Location>, IOException> syncer, Translog.Location location,
+                    Consumer<Exception> listener, Supplier<ThreadContext.StoredContext> context) {
+            this.syncer = syncer;
+            this.location = location;
+            this.listener = listener;
+            this.context = context;
+        }
+    }
+
+    private final class Group {
+
+        private List<PendingSync> pending = new ArrayList<>();
+        private boolean scheduled;
+
+        /**
+         * Adds a pending sync and returns <code>true</code> if the caller must schedule a round to process it.
+         */
+        synchronized boolean add(PendingSync pendingSync) {
+            pending.add(pendingSync);
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        private synchronized List<PendingSync> takePending() {
+            assert scheduled && pending.isEmpty() == false;
+            final List<PendingSync> taken = pending;
+            pending = new ArrayList<>();
+            return taken;
+        }
+
+        /**
+         * Returns <code>true</code> if sync requests arrived while the last round ran, in which case the caller must run another round.
+         */
+        private synchronized boolean onRoundCompleted() {
+            if (pending.isEmpty()) {
+                scheduled = false;
+                return false;
+            }
+            return true;
+        }
+
+        void run() {
+            do {
+                // the round runs on behalf of all its sync requests, not of the one that scheduled it
+                try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+                    runRound(takePending());
+                }
+                if (onRoundCompleted() == false) {
+                    return;
+                }
+                try {
+                    threadPool.generic().execute(this::run);
+                    return;
+                } catch (EsRejectedExecutionException e) {
+                    // the node is shutting down, run the next round on this thread rather than leaving the write requests hanging
+                }
+            } while (true);
+        }
+
+        private void runRound(List<PendingSync> round) {
+            rounds.increment();
+            final Map<CheckedConsumer<Stream<Translog.Location>, IOException>, List<PendingSync>> byShard = new IdentityHashMap<>();
+            for (PendingSync pendingSync : round) {
+                byShard.computeIfAbsent(pendingSync.syncer, s -> new ArrayList<>()).add(pendingSync);
+            }
+            for (Map.Entry<CheckedConsumer<Stream<Translog.Location>, IOException>, List<PendingSync>> entry : byShard.entrySet()) {
+                final List<PendingSync> shardSyncs = entry.getValue();
+                Exception failure = null;
+                final long startNanos = System.nanoTime();
+                try {
+                    entry.getKey().accept(shardSyncs.stream().map(p -> p.location));
+                    onFsync(shardSyncs.size(), System.nanoTime() - startNanos);
+                } catch (Exception e) {
+                    logger.debug("failed to sync translog", e);
+                    failure = e;
+                }
+                for (PendingSync pendingSync : shardSyncs) {
+                    try (ThreadContext.StoredContext ignored = pendingSync.context.get()) {
+                        pendingSync.listener.accept(failure);
+                    } catch (Exception e) {
+                        logger.warn("failed to notify callback", e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -86,6 +86,13 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
     public static final Setting<CircuitBreaker.Type> ACCOUNTING_CIRCUIT_BREAKER_TYPE_SETTING =
         new Setting<>("indices.breaker.accounting.type", "memory", CircuitBreaker.Type::parseValue, Property.NodeScope);
 
+    public static final Setting<ByteSizeValue> FROZEN_READERS_CIRCUIT_BREAKER_LIMIT_SETTING =
+        Setting.memorySizeSetting("indices.breaker.frozen_readers.limit", "5%", Property.Dynamic, Property.NodeScope);
+    public static final Setting<Double> FROZEN_READERS_CIRCUIT_BREAKER_OVERHEAD_SETTING =
+        Setting.doubleSetting("indices.breaker.frozen_readers.overhead", 1.0d, 0.0d, Property.Dynamic, Property.NodeScope);
+    public static final Setting<CircuitBreaker.Type> FROZEN_READERS_CIRCUIT_BREAKER_TYPE_SETTING =
+        new Setting<>("indices.breaker.frozen_readers.type", "memory", CircuitBreaker.Type::parseValue, Property.NodeScope);
+
     public static final Setting<ByteSizeValue> IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_LIMIT_SETTING =
         Setting.memorySizeSetting("network.breaker.inflight_requests.limit", "100%", Property.Dynamic, Property.NodeScope);
     public static final Setting<Double> IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_OVERHEAD_SETTING =
@@ -99,6 +106,7 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
     private volatile BreakerSettings inFlightRequestsSettings;
     private volatile BreakerSettings requestSettings;
     private volatile BreakerSettings accountingSettings;
+    private volatile BreakerSettings frozenReadersSettings;
 
     // Tripped count for when redistribution was attempted but wasn't successful
     private final AtomicLong parentTripCount = new AtomicLong(0);
@@ -133,6 +141,13 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
                 CircuitBreaker.Durability.PERMANENT
         );
 
+        this.frozenReadersSettings = new BreakerSettings(CircuitBreaker.FROZEN_READERS,
+                FROZEN_READERS_CIRCUIT_BREAKER_LIMIT_SETTING.get(settings).getBytes(),
+                FROZEN_READERS_CIRCUIT_BREAKER_OVERHEAD_SETTING.get(settings),
+                FROZEN_READERS_CIRCUIT_BREAKER_TYPE_SETTING.get(settings),
+                CircuitBreaker.Durability.PERMANENT
+        );
+
         this.parentSettings = new BreakerSettings(CircuitBreaker.PARENT,
                 TOTAL_CIRCUIT_BREAKER_LIMIT_SETTING.get(settings).getBytes(), 1.0,
                 CircuitBreaker.Type.PARENT, null);
@@ -147,6 +162,7 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
         registerBreaker(this.fielddataSettings);
         registerBreaker(this.inFlightRequestsSettings);
         registerBreaker(this.accountingSettings);
+        registerBreaker(this.frozenReadersSettings);
 
         clusterSettings.addSettingsUpdateConsumer(TOTAL_CIRCUIT_BREAKER_LIMIT_SETTING, this::setTotalCircuitBreakerLimit,
             this::validateTotalCircuitBreakerLimit);
@@ -158,6 +174,8 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
             this::setRequestBreakerLimit);
         clusterSettings.addSettingsUpdateConsumer(ACCOUNTING_CIRCUIT_BREAKER_LIMIT_SETTING, ACCOUNTING_CIRCUIT_BREAKER_OVERHEAD_SETTING,
             this::setAccountingBreakerLimit);
+        clusterSettings.addSettingsUpdateConsumer(FROZEN_READERS_CIRCUIT_BREAKER_LIMIT_SETTING,
+            FROZEN_READERS_CIRCUIT_BREAKER_OVERHEAD_SETTING, this::setFrozenReadersBreakerLimit);
     }
 
     private void setRequestBreakerLimit(ByteSizeValue newRequestMax, Double newRequestOverhead) {
@@ -198,6 +216,14 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
         logger.info("Updated breaker settings for accounting requests: {}", newAccountingSettings);
     }
 
+    private void setFrozenReadersBreakerLimit(ByteSizeValue newFrozenReadersMax, Double newFrozenReadersOverhead) {
+        BreakerSettings newFrozenReadersSettings = new BreakerSettings(CircuitBreaker.FROZEN_READERS, newFrozenReadersMax.getBytes(),
+            newFrozenReadersOverhead, this.frozenReadersSettings.getType(), this.frozenReadersSettings.getDurability());
+        registerBreaker(newFrozenReadersSettings);
+        this.frozenReadersSettings = newFrozenReadersSettings;
+        logger.info("Updated breaker settings for frozen readers: {}", newFrozenReadersSettings);
+    }
+
     private boolean validateTotalCircuitBreakerLimit(ByteSizeValue byteSizeValue) {
         BreakerSettings newParentSettings = new BreakerSettings(CircuitBreaker.PARENT, byteSizeValue.getBytes(), 1.0,
             CircuitBreaker.Type.PARENT, null);
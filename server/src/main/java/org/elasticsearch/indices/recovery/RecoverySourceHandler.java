@@ -170,10 +170,17 @@ public class RecoverySourceHandler {
                 } catch (final Exception e) {
                     throw new RecoveryEngineException(shard.shardId(), 1, "snapshot failed", e);
                 }
-                // We need to set this to 0 to create a translog roughly according to the retention policy on the target. Note that it will
-                // still filter out legacy operations without seqNo.
-                startingSeqNo = 0;
                 try {
+                    if (shard.indexSettings().isTranslogEnabled()) {
+                        // We need to set this to 0 to create a translog roughly according to the retention policy on the target. Note that
+                        // it will still filter out legacy operations without seqNo.
+                        startingSeqNo = 0;
+                    } else {
+                        // The target does not write a translog, it only needs the operations above the local checkpoint of the commit,
+                        // which the retention lock keeps in the history retained by soft deletes.
+                        startingSeqNo = Long.parseLong(
+                            phase1Snapshot.getIndexCommit().getUserData().get(SequenceNumbers.LOCAL_CHECKPOINT_KEY)) + 1;
+                    }
                     final int estimateNumOps = shard.estimateNumberOfHistoryOperations("peer-recovery", startingSeqNo);
                     sendFileResult = phase1(phase1Snapshot.getIndexCommit(), shard.getLastKnownGlobalCheckpoint(), () -> estimateNumOps);
                 } catch (final Exception e) {
@@ -414,7 +421,7 @@ public class RecoverySourceHandler {
                     //   - maybe due to old segments without checksums or length only checks
                     if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(targetException)) != null) {
                         try {
-                            final Store.MetadataSnapshot recoverySourceMetadata1 = store.getMetadata(snapshot);
+                            final Store.MetadataSnapshot recoverySourceMetadata1 = store.getUncachedMetadata(snapshot, false);
                             StoreFileMetaData[] metadata =
                                     StreamSupport.stream(recoverySourceMetadata1.spliterator(), false).toArray(StoreFileMetaData[]::new);
                             ArrayUtil.timSort(metadata, Comparator.comparingLong(StoreFileMetaData::length)); // check small files first
@@ -19,35 +19,72 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.Index;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * Collects statistics about queue size, response time, and service time of
  * tasks executed on each node, making the EWMA of the values available to the
  * coordinating node.
+ *
+ * It also keeps an EWMA of the response time of shard-level requests per index,
+ * which is used to estimate the relative cost of a request, and tracks the number
+ * and estimated cost of the search, get and multi get requests that are currently
+ * outstanding to each node. This allows the adaptive replica selection to weight
+ * the outstanding requests to a node by how expensive they are rather than only
+ * by their number. The relative costs of the indices are recomputed whenever a
+ * new cluster state is applied and at most once per {@link #COST_FACTORS_UPDATE_INTERVAL_NANOS}
+ * as new response times are collected, so that routing a request does not need to
+ * look at the statistics of all indices.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
     private static final double ALPHA = 0.3;
 
+    // bounds for the relative cost of a request, so that a single very slow or
+    // very fast index cannot completely dominate the ranking of the nodes
+    static final double MIN_COST_FACTOR = 0.1;
+    static final double MAX_COST_FACTOR = 10.0;
+
+    // minimum time between two updates of the relative costs of the indices triggered by collected response times
+    static final long COST_FACTORS_UPDATE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
     private final ConcurrentMap<String, NodeStatistics> nodeIdToStats = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<String, ExponentiallyWeightedMovingAverage> indexToResponseTime =
+        ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<String, OutstandingRequests> nodeIdToOutstanding = ConcurrentCollections.newConcurrentMap();
+    private volatile Map<String, Double> indexCostFactors = Collections.emptyMap();
+    private final LongSupplier relativeTimeInNanos;
+    private final AtomicLong lastCostFactorsUpdateNanos;
 
     public ResponseCollectorService(ClusterService clusterService) {
+        this(clusterService, System::nanoTime);
+    }
+
+    ResponseCollectorService(ClusterService clusterService, LongSupplier relativeTimeInNanos) {
+        this.relativeTimeInNanos = relativeTimeInNanos;
+        this.lastCostFactorsUpdateNanos = new AtomicLong(relativeTimeInNanos.getAsLong());
         clusterService.addListener(this);
     }
 
@@ -58,10 +95,22 @@ public final class ResponseCollectorService implements ClusterStateListener {
                 removeNode(removedNode.getId());
             }
         }
+        for (Index deletedIndex : event.indicesDeleted()) {
+            removeIndex(deletedIndex.getName());
+        }
+        updateIndexCostFactors();
     }
 
     void removeNode(String nodeId) {
         nodeIdToStats.remove(nodeId);
+        nodeIdToOutstanding.remove(nodeId);
+    }
+
+    /**
+     * Removes the response time statistics of the given index, for instance because it has been deleted
+     */
+    public void removeIndex(String index) {
+        indexToResponseTime.remove(index);
     }
 
     public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos) {
@@ -79,18 +128,132 @@ public final class ResponseCollectorService implements ClusterStateListener {
         });
     }
 
+    /**
+     * Adds a sample of the time it took for a shard-level request on the given index to be answered
+     */
+    public void addIndexStatistics(String index, long responseTimeNanos) {
+        indexToResponseTime.compute(index, (i, ewma) -> {
+            if (ewma == null) {
+                return new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos);
+            } else {
+                ewma.addValue((double) responseTimeNanos);
+                return ewma;
+            }
+        });
+        maybeUpdateIndexCostFactors();
+    }
+
+    /**
+     * Recomputes the estimated cost of requests on each index if they have not been updated for
+     * {@link #COST_FACTORS_UPDATE_INTERVAL_NANOS}, so that they follow the collected response times
+     * even if no new cluster state is applied. Only one of the threads that race to do so updates them.
+     */
+    private void maybeUpdateIndexCostFactors() {
+        final long now = relativeTimeInNanos.getAsLong();
+        final long lastUpdate = lastCostFactorsUpdateNanos.get();
+        if (now - lastUpdate >= COST_FACTORS_UPDATE_INTERVAL_NANOS && lastCostFactorsUpdateNanos.compareAndSet(lastUpdate, now)) {
+            updateIndexCostFactors();
+        }
+    }
+
+    /**
+     * Adds a sample of the time it took for the given node to answer a request that does not report the
+     * queue size and service time of the node, like get requests. The sample is ignored if no search
+     * request reported them yet, since the node cannot be ranked without them.
+     */
+    public void addResponseTime(String nodeId, long responseTimeNanos) {
+        nodeIdToStats.computeIfPresent(nodeId, (id, ns) -> {
+            ns.responseTime.addValue((double) responseTimeNanos);
+            return ns;
+        });
+    }
+
+    /**
+     * Recomputes the estimated cost of requests on each index, relative to the average response time
+     * of all indices that we have seen responses for.
+     */
+    void updateIndexCostFactors() {
+        double total = 0;
+        int count = 0;
+        for (ExponentiallyWeightedMovingAverage responseTime : indexToResponseTime.values()) {
+            total += responseTime.getAverage();
+            count++;
+        }
+        if (count == 0 || total <= 0) {
+            indexCostFactors = Collections.emptyMap();
+            return;
+        }
+        final double average = total / count;
+        final Map<String, Double> costFactors = new HashMap<>(indexToResponseTime.size());
+        indexToResponseTime.forEach((index, responseTime) ->
+            costFactors.put(index, Math.min(MAX_COST_FACTOR, Math.max(MIN_COST_FACTOR, responseTime.getAverage() / average))));
+        indexCostFactors = Collections.unmodifiableMap(costFactors);
+    }
+
+    /**
+     * Returns the estimated cost of a shard-level request on the given index, relative to the
+     * average cost of requests on all indices, as of the last update of the relative costs.
+     * Returns {@code 1.0} if nothing is known about the index yet.
+     */
+    public double getIndexCostFactor(@Nullable String index) {
+        return index == null ? 1.0 : indexCostFactors.getOrDefault(index, 1.0);
+    }
+
+    /**
+     * Records that a shard-level request on the given index has been sent to the given node.
+     *
+     * @param index the index the request targets, or {@code null} if its cost cannot be estimated from the index
+     * @return the estimated cost of the request, which must be passed to {@link #onRequestCompleted(String, double)}
+     */
+    public double onRequestSent(String nodeId, @Nullable String index) {
+        final double cost = getIndexCostFactor(index);
+        nodeIdToOutstanding.compute(nodeId, (id, outstanding) -> outstanding == null
+            ? new OutstandingRequests(1, cost) : new OutstandingRequests(outstanding.count + 1, outstanding.cost + cost));
+        return cost;
+    }
+
+    /**
+     * Records that a shard-level request with the given estimated cost sent to the given node has completed.
+     */
+    public void onRequestCompleted(String nodeId, double cost) {
+        nodeIdToOutstanding.computeIfPresent(nodeId, (id, outstanding) -> outstanding.count <= 1
+            ? null : new OutstandingRequests(outstanding.count - 1, Math.max(0, outstanding.cost - cost)));
+    }
+
+    /**
+     * Returns a map of node id to the number of shard-level requests that are currently outstanding to that node.
+     * This is a snapshot of the current outstanding requests and not a live map.
+     */
+    public Map<String, Long> getOutstandingRequests() {
+        Map<String, Long> outstandingRequests = new HashMap<>(nodeIdToOutstanding.size());
+        nodeIdToOutstanding.forEach((k, v) -> outstandingRequests.put(k, v.count));
+        return outstandingRequests;
+    }
+
+    /**
+     * Returns the average estimated cost of the requests currently outstanding to the given node,
+     * or {@code 1.0} if there are none.
+     */
+    double getOutstandingCostFactor(String nodeId) {
+        final OutstandingRequests outstanding = nodeIdToOutstanding.get(nodeId);
+        if (outstanding == null) {
+            return 1.0;
+        }
+        return outstanding.count > 0 ? outstanding.cost / outstanding.count : 1.0;
+    }
+
     public Map<String, ComputedNodeStats> getAllNodeStatistics() {
         final int clientNum = nodeIdToStats.size();
         // Transform the mutable object internally used for accounting into the computed version
         Map<String, ComputedNodeStats> nodeStats = new HashMap<>(nodeIdToStats.size());
         nodeIdToStats.forEach((k, v) -> {
-            nodeStats.put(k, new ComputedNodeStats(clientNum, v));
+            nodeStats.put(k, new ComputedNodeStats(clientNum, v, getOutstandingCostFactor(k)));
         });
         return nodeStats;
     }
 
-    public AdaptiveSelectionStats getAdaptiveStats(Map<String, Long> clientSearchConnections) {
-        return new AdaptiveSelectionStats(clientSearchConnections, getAllNodeStatistics());
+    public AdaptiveSelectionStats getAdaptiveStats() {
+        return new AdaptiveSelectionStats(getOutstandingRequests(), getAllNodeStatistics());
     }
 
     /**
@@ -100,13 +263,15 @@ public final class ResponseCollectorService implements ClusterStateListener {
      */
     public Optional<ComputedNodeStats> getNodeStatistics(final String nodeId) {
         final int clientNum = nodeIdToStats.size();
-        return Optional.ofNullable(nodeIdToStats.get(nodeId)).map(ns -> new ComputedNodeStats(clientNum, ns));
+        return Optional.ofNullable(nodeIdToStats.get(nodeId))
+            .map(ns -> new ComputedNodeStats(clientNum, ns, getOutstandingCostFactor(nodeId)));
     }
 
     /**
      * Struct-like class encapsulating a point-in-time snapshot of a particular
      * node's statistics. This includes the EWMA of queue size, response time,
-     * and service time.
+     * and service time, as well as the average relative cost of the requests
+     * that are outstanding to the node.
      */
     public static class ComputedNodeStats implements Writeable {
         // We store timestamps with nanosecond precision, however, the
@@ -121,18 +286,25 @@ public final class ResponseCollectorService implements ClusterStateListener {
         public final int queueSize;
         public final double responseTime;
         public final double serviceTime;
+        public final double outstandingCostFactor;
 
         public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime) {
+            this(nodeId, clientNum, queueSize, responseTime, serviceTime, 1.0);
+        }
+
+        public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime,
+                                 double outstandingCostFactor) {
             this.nodeId = nodeId;
             this.clientNum = clientNum;
             this.queueSize = queueSize;
             this.responseTime = responseTime;
             this.serviceTime = serviceTime;
+            this.outstandingCostFactor = outstandingCostFactor;
         }
 
-        ComputedNodeStats(int clientNum, NodeStatistics nodeStats) {
-            this(nodeStats.nodeId, clientNum,
-                    (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(), nodeStats.serviceTime);
+        ComputedNodeStats(int clientNum, NodeStatistics nodeStats, double outstandingCostFactor) {
+            this(nodeStats.nodeId, clientNum, (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(),
+                nodeStats.serviceTime, outstandingCostFactor);
         }
 
         ComputedNodeStats(StreamInput in) throws IOException {
@@ -141,6 +313,11 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.queueSize = in.readInt();
             this.responseTime = in.readDouble();
             this.serviceTime = in.readDouble();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                this.outstandingCostFactor = in.readDouble();
+            } else {
+                this.outstandingCostFactor = 1.0;
+            }
         }
 
         @Override
@@ -150,6 +327,9 @@ public final class ResponseCollectorService implements ClusterStateListener {
             out.writeInt(this.queueSize);
             out.writeDouble(this.responseTime);
             out.writeDouble(this.serviceTime);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeDouble(this.outstandingCostFactor);
+            }
         }
 
         /**
@@ -159,8 +339,10 @@ public final class ResponseCollectorService implements ClusterStateListener {
         private double innerRank(long outstandingRequests) {
             // the concurrency compensation is defined as the number of
             // outstanding requests from the client to the node times the number
-            // of clients in the system
-            double concurrencyCompensation = outstandingRequests * clientNum;
+            // of clients in the system. Outstanding requests are weighted by
+            // their estimated relative cost, so that a node busy with expensive
+            // requests is considered more loaded than one busy with cheap ones
+            double concurrencyCompensation = outstandingRequests * outstandingCostFactor * clientNum;
 
             // Cubic queue adjustment factor. The paper chose 3 though we could
             // potentially make this configurable if desired.
@@ -195,6 +377,7 @@ public final class ResponseCollectorService implements ClusterStateListener {
             sb.append(", queue: ").append(queueSize);
             sb.append(", response time: ").append(String.format(Locale.ROOT, "%.1f", responseTime));
             sb.append(", service time: ").append(String.format(Locale.ROOT, "%.1f", serviceTime));
+            sb.append(", outstanding cost: ").append(String.format(Locale.ROOT, "%.2f", outstandingCostFactor));
             sb.append(", rank: ").append(String.format(Locale.ROOT, "%.1f", rank(1)));
             sb.append(")");
             return sb.toString();
@@ -222,4 +405,17 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.serviceTime = serviceTimeEWMA;
         }
     }
+
+    /**
+     * Immutable pair of the number and total estimated cost of the requests that are currently outstanding to a node.
+     */
+    private static class OutstandingRequests {
+        final long count;
+        final double cost;
+
+        OutstandingRequests(long count, double cost) {
+            this.count = count;
+            this.cost = cost;
+        }
+    }
 }
@@ -69,7 +69,12 @@ public class RestNodesStatsAction extends BaseRestHandler {
             entry("script", r -> r.script(true)),
             entry("discovery", r -> r.discovery(true)),
             entry("ingest", r -> r.ingest(true)),
-            entry("adaptive_selection", r -> r.adaptiveSelection(true)));
+            entry("adaptive_selection", r -> r.adaptiveSelection(true)),
+            entry("coordinator_can_match", r -> r.coordinatorCanMatch(true)),
+            entry("translog_sync", r -> r.translogSync(true)),
+            entry("indexing_pressure", r -> r.indexingPressure(true)),
+            entry("indexing_buffer", r -> r.indexingBuffer(true)),
+            entry("merge_budget", r -> r.mergeBudget(true)));
 
     static final Map<String, Consumer<CommonStatsFlags>> FLAGS;
 
@@ -0,0 +1,212 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search;
+
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.mapper.ConstantFieldType;
+import org.elasticsearch.index.mapper.ConstantKeywordFieldMapper;
+import org.elasticsearch.index.mapper.DateFieldRange;
+import org.elasticsearch.index.query.CoordinatorRewriteContext;
+import org.elasticsearch.index.query.MatchNoneQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryRewriteContext;
+import org.elasticsearch.index.query.Rewriteable;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A node level cache of the ranges of the fields listed in {@link IndexSettings#COORDINATOR_CAN_MATCH_FIELDS_SETTING}, as
+ * reported by the shards of write-blocked indices in their can_match responses. The coordinating node uses these ranges
+ * to skip shards that cannot match a query without sending them a can_match request.
+ *
+ * Cached ranges are only valid as long as the index remains write-blocked and its settings do not change, which is
+ * verified against the cluster state on every lookup.
+ *
+ * The cache also holds the {@link ConstantFieldType}s of the {@code constant_keyword} fields of each index, whose value is
+ * defined in the mapping, so that the coordinating node can skip all the shards of an index whose constant fields don't match
+ * a query. These don't require the index to be write-blocked since the value of a constant field can't change once it is set,
+ * and are extracted again whenever the mapping of the index changes.
+ */
+public final class CanMatchFieldRangeCache {
+
+    public static final Setting<Integer> CACHE_SIZE_SETTING =
+        Setting.intSetting("search.coordinator_can_match.cache_size", 100_000, 0, Property.NodeScope);
+
+    private final Cache<ShardId, CacheEntry> cache;
+    private final Cache<Index, ConstantFieldsEntry> constantFieldsCache;
+    private final CounterMetric skippedShards = new CounterMetric();
+
+    public CanMatchFieldRangeCache(Settings settings) {
+        this.cache = CacheBuilder.<ShardId, CacheEntry>builder()
+            .setMaximumWeight(CACHE_SIZE_SETTING.get(settings))
+            .build();
+        this.constantFieldsCache = CacheBuilder.<Index, ConstantFieldsEntry>builder()
+            .setMaximumWeight(CACHE_SIZE_SETTING.get(settings))
+            .build();
+    }
+
+    /**
+     * Caches the field ranges reported by the given shard, if its index is write-blocked in the given cluster state.
+     */
+    public void put(ClusterState state, ShardId shardId, Map<String, DateFieldRange> fieldRanges) {
+        final IndexMetaData indexMetaData = writeBlockedIndexMetaData(state, shardId);
+        if (indexMetaData != null) {
+            cache.put(shardId, new CacheEntry(indexMetaData.getSettingsVersion(), fieldRanges));
+        }
+    }
+
+    /**
+     * Returns the cached field ranges of the given shard, or {@code null} if there are none or if they are no longer valid.
+     */
+    @Nullable
+    public Map<String, DateFieldRange> get(ClusterState state, ShardId shardId) {
+        final CacheEntry entry = cache.get(shardId);
+        if (entry == null) {
+            return null;
+        }
+        final IndexMetaData indexMetaData = writeBlockedIndexMetaData(state, shardId);
+        if (indexMetaData == null || indexMetaData.getSettingsVersion() != entry.settingsVersion) {
+            cache.invalidate(shardId, entry);
+            return null;
+        }
+        return entry.fieldRanges;
+    }
+
+    /**
+     * Returns the types of the constant fields that have a value in the mapping of the given index, by full name.
+     */
+    Map<String, ConstantFieldType> getConstantFieldTypes(ClusterState state, Index index) {
+        final IndexMetaData indexMetaData = state.metaData().index(index);
+        if (indexMetaData == null || indexMetaData.mapping() == null) {
+            return Map.of();
+        }
+        ConstantFieldsEntry entry = constantFieldsCache.get(index);
+        if (entry == null || entry.mappingVersion != indexMetaData.getMappingVersion()) {
+            final Map<String, ConstantFieldType> fieldTypes = new HashMap<>();
+            collectConstantFieldTypes(null, indexMetaData.mapping().sourceAsMap(), fieldTypes);
+            entry = new ConstantFieldsEntry(indexMetaData.getMappingVersion(), fieldTypes);
+            constantFieldsCache.put(index, entry);
+        }
+        return entry.fieldTypes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectConstantFieldTypes(@Nullable String path, Map<String, Object> mapping,
+                                                  Map<String, ConstantFieldType> fieldTypes) {
+        final Object properties = mapping.get("properties");
+        if (properties instanceof Map == false) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) properties).entrySet()) {
+            if (entry.getValue() instanceof Map == false) {
+                continue;
+            }
+            final String name = path == null ? entry.getKey() : path + "." + entry.getKey();
+            final Map<String, Object> fieldMapping = (Map<String, Object>) entry.getValue();
+            if (ConstantKeywordFieldMapper.CONTENT_TYPE.equals(fieldMapping.get("type"))) {
+                final Object value = fieldMapping.get("value");
+                if (value != null) {
+                    final ConstantKeywordFieldMapper.ConstantKeywordFieldType fieldType =
+                        new ConstantKeywordFieldMapper.ConstantKeywordFieldType();
+                    fieldType.setName(name);
+                    fieldType.setValue(value.toString());
+                    fieldType.freeze();
+                    fieldTypes.put(name, fieldType);
+                }
+            } else {
+                collectConstantFieldTypes(name, fieldMapping, fieldTypes);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code false} if the cached field ranges of the given shard or the constant fields of its index prove that the
+     * given query cannot match any of its documents, and {@code true} otherwise.
+     */
+    public boolean canMatch(ClusterState state, ShardId shardId, @Nullable QueryBuilder query, QueryRewriteContext context) {
+        if (query == null) {
+            return true;
+        }
+        final Map<String, DateFieldRange> fieldRanges = get(state, shardId);
+        final Map<String, ConstantFieldType> constantFieldTypes = getConstantFieldTypes(state, shardId.getIndex());
+        if ((fieldRanges == null || fieldRanges.isEmpty()) && constantFieldTypes.isEmpty()) {
+            return true;
+        }
+        final QueryBuilder rewritten;
+        try {
+            rewritten = Rewriteable.rewrite(query, new CoordinatorRewriteContext(context, fieldRanges == null ? Map.of() : fieldRanges,
+                constantFieldTypes));
+        } catch (Exception e) {
+            // let the shard report the failure, if any
+            return true;
+        }
+        if (rewritten instanceof MatchNoneQueryBuilder) {
+            skippedShards.inc();
+            return false;
+        }
+        return true;
+    }
+
+    public CoordinatorCanMatchStats stats() {
+        return new CoordinatorCanMatchStats(skippedShards.count(), cache.count());
+    }
+
+    @Nullable
+    private static IndexMetaData writeBlockedIndexMetaData(ClusterState state, ShardId shardId) {
+        final IndexMetaData indexMetaData = state.metaData().index(shardId.getIndex());
+        if (indexMetaData == null || state.blocks().indexBlocked(ClusterBlockLevel.WRITE, shardId.getIndexName()) == false) {
+            return null;
+        }
+        return indexMetaData;
+    }
+
+    private static final class ConstantFieldsEntry {
+        final long mappingVersion;
+        final Map<String, ConstantFieldType> fieldTypes;
+
+        ConstantFieldsEntry(long mappingVersion, Map<String, ConstantFieldType> fieldTypes) {
+            this.mappingVersion = mappingVersion;
+            this.fieldTypes = fieldTypes;
+        }
+    }
+
+    private static final class CacheEntry {
+        final long settingsVersion;
+        final Map<String, DateFieldRange> fieldRanges;
+
+        CacheEntry(long settingsVersion, Map<String, DateFieldRange> fieldRanges) {
+            this.settingsVersion = settingsVersion;
+            this.fieldRanges = fieldRanges;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Statistics about the shards that the coordinating node skipped without sending them a can_match request, based on the
+ * field ranges held in the {@link CanMatchFieldRangeCache}.
+ */
+public class CoordinatorCanMatchStats implements Writeable, ToXContentFragment {
+    private final long skippedShards;
+    private final long cachedShards;
+
+    public CoordinatorCanMatchStats(long skippedShards, long cachedShards) {
+        this.skippedShards = skippedShards;
+        this.cachedShards = cachedShards;
+    }
+
+    public CoordinatorCanMatchStats(StreamInput in) throws IOException {
+        skippedShards = in.readVLong();
+        cachedShards = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(skippedShards);
+        out.writeVLong(cachedShards);
+    }
+
+    /**
+     * The number of shards that were skipped by the coordinating node without any round trip
+     */
+    public long getSkippedShards() {
+        return skippedShards;
+    }
+
+    /**
+     * The number of shards whose field ranges are currently cached
+     */
+    public long getCachedShards() {
+        return cachedShards;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.COORDINATOR_CAN_MATCH);
+        builder.field(Fields.SKIPPED_SHARDS, skippedShards);
+        builder.field(Fields.CACHED_SHARDS, cachedShards);
+        builder.endObject();
+        return builder;
+    }
+
+    static final class Fields {
+        static final String COORDINATOR_CAN_MATCH = "coordinator_can_match";
+        static final String SKIPPED_SHARDS = "skipped_shards";
+        static final String CACHED_SHARDS = "cached_shards";
+    }
+}
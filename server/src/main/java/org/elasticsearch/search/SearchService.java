@@ -24,13 +24,16 @@ import org.apache.logging.log4j.Logger;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.TopDocs;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -47,6 +50,7 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.mapper.DateFieldRange;
 import org.elasticsearch.index.query.InnerHitContextBuilder;
 import org.elasticsearch.index.query.MatchAllQueryBuilder;
 import org.elasticsearch.index.query.MatchNoneQueryBuilder;
@@ -192,6 +196,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private final AtomicInteger openScrollContexts = new AtomicInteger();
 
+    private final CanMatchFieldRangeCache canMatchFieldRangeCache;
+
     public SearchService(ClusterService clusterService, IndicesService indicesService,
                          ThreadPool threadPool, ScriptService scriptService, BigArrays bigArrays, FetchPhase fetchPhase,
                          ResponseCollectorService responseCollectorService) {
@@ -205,6 +211,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         this.queryPhase = new QueryPhase();
         this.fetchPhase = fetchPhase;
         this.multiBucketConsumerService = new MultiBucketConsumerService(clusterService, settings);
+        this.canMatchFieldRangeCache = new CanMatchFieldRangeCache(settings);
 
         TimeValue keepAliveInterval = KEEPALIVE_INTERVAL_SETTING.get(settings);
         setKeepAlives(DEFAULT_KEEPALIVE_SETTING.get(settings), MAX_KEEPALIVE_SETTING.get(settings));
@@ -365,7 +372,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 }
                 afterQueryTime = executor.success();
             }
-            if (request.numberOfShards() == 1) {
+            if (request.numberOfShards() == 1 || (request.speculativeFetch() && request.scroll() == null)) {
                 return executeFetchPhase(context, afterQueryTime);
             }
             return context.queryResult();
@@ -1003,21 +1010,53 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
      * shard.
      */
     public boolean canMatch(ShardSearchRequest request) throws IOException {
+        return canMatchAndCollectFieldRanges(request).canMatch();
+    }
+
+    private CanMatchResponse canMatchAndCollectFieldRanges(ShardSearchRequest request) throws IOException {
         assert request.searchType() == SearchType.QUERY_THEN_FETCH : "unexpected search type: " + request.searchType();
         try (DefaultSearchContext context = createSearchContext(request, defaultSearchTimeout, false, "can_match")) {
+            final boolean canMatch;
             SearchSourceBuilder source = context.request().source();
             if (canRewriteToMatchNone(source)) {
                 QueryBuilder queryBuilder = source.query();
-                return queryBuilder instanceof MatchNoneQueryBuilder == false;
+                canMatch = queryBuilder instanceof MatchNoneQueryBuilder == false;
+            } else {
+                canMatch = true; // null query means match_all
             }
-            return true; // null query means match_all
+            return new CanMatchResponse(canMatch, collectFieldRanges(context));
         }
     }
 
+    /**
+     * Returns the ranges of the fields listed in {@link IndexSettings#COORDINATOR_CAN_MATCH_FIELDS_SETTING} so that the
+     * coordinating node can cache them, or {@code null} if the shard might still receive writes or has changes that are
+     * not visible to the searcher yet.
+     */
+    @Nullable
+    private Map<String, DateFieldRange> collectFieldRanges(SearchContext context) throws IOException {
+        final IndexShard indexShard = context.indexShard();
+        final List<String> fields = indexShard.indexSettings().getValue(IndexSettings.COORDINATOR_CAN_MATCH_FIELDS_SETTING);
+        if (fields.isEmpty()
+            || clusterService.state().blocks().indexBlocked(ClusterBlockLevel.WRITE, indexShard.shardId().getIndexName()) == false
+            || indexShard.getActiveOperationsCount() > 0
+            || context.searcher().getDirectoryReader().isCurrent() == false) {
+            return null;
+        }
+        final Map<String, DateFieldRange> fieldRanges = new HashMap<>(fields.size());
+        for (String field : fields) {
+            final DateFieldRange fieldRange =
+                DateFieldRange.fromReader(context.searcher().getIndexReader(), context.mapperService().fullName(field));
+            if (fieldRange != null) {
+                fieldRanges.put(field, fieldRange);
+            }
+        }
+        return fieldRanges;
+    }
 
     public void canMatch(ShardSearchRequest request, ActionListener<CanMatchResponse> listener) {
         try {
-            listener.onResponse(new CanMatchResponse(canMatch(request)));
+            listener.onResponse(canMatchAndCollectFieldRanges(request));
         } catch (IOException e) {
             listener.onFailure(e);
         }
@@ -1070,6 +1109,13 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         return indicesService;
     }
 
+    /**
+     * Returns the cache of the field ranges reported by shards, used on the coordinating node to skip shards that cannot match
+     */
+    public CanMatchFieldRangeCache getCanMatchFieldRangeCache() {
+        return canMatchFieldRangeCache;
+    }
+
     public InternalAggregation.ReduceContext createReduceContext(boolean finalReduce) {
         return new InternalAggregation.ReduceContext(bigArrays, scriptService,
             finalReduce ? multiBucketConsumerService.create() : bucketCount -> {}, finalReduce);
@@ -1077,25 +1123,54 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     public static final class CanMatchResponse extends SearchPhaseResult {
         private final boolean canMatch;
+        @Nullable
+        private final Map<String, DateFieldRange> fieldRanges;
 
         public CanMatchResponse(StreamInput in) throws IOException {
             super(in);
             this.canMatch = in.readBoolean();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0) && in.readBoolean()) {
+                this.fieldRanges = in.readMap(StreamInput::readString, DateFieldRange::new);
+            } else {
+                this.fieldRanges = null;
+            }
         }
 
         public CanMatchResponse(boolean canMatch) {
+            this(canMatch, null);
+        }
+
+        public CanMatchResponse(boolean canMatch, @Nullable Map<String, DateFieldRange> fieldRanges) {
             this.canMatch = canMatch;
+            this.fieldRanges = fieldRanges;
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             super.writeTo(out);
             out.writeBoolean(canMatch);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                if (fieldRanges == null) {
+                    out.writeBoolean(false);
+                } else {
+                    out.writeBoolean(true);
+                    out.writeMap(fieldRanges, StreamOutput::writeString, (o, range) -> range.writeTo(o));
+                }
+            }
         }
 
         public boolean canMatch() {
             return canMatch;
         }
+
+        /**
+         * Returns the ranges of the fields that the index is configured to report to the coordinating node, or {@code null}
+         * if the shard did not report them.
+         */
+        @Nullable
+        public Map<String, DateFieldRange> getFieldRanges() {
+            return fieldRanges;
+        }
     }
 
     /**
@@ -72,6 +72,8 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
     //these are the only two mutable fields, as they are subject to rewriting
     private AliasFilter aliasFilter;
     private SearchSourceBuilder source;
+    // set by the coordinating node depending on the number of shards it searches
+    private boolean speculativeFetch;
 
     public ShardSearchLocalRequest(SearchRequest searchRequest, ShardId shardId, int numberOfShards, AliasFilter aliasFilter,
                                    float indexBoost, long nowInMillis, @Nullable String clusterAlias, String[] indexRoutings) {
@@ -128,6 +130,9 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         allowPartialSearchResults = in.readBoolean();
         indexRoutings = in.readStringArray();
         preference = in.readOptionalString();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            speculativeFetch = in.readBoolean();
+        }
     }
 
     protected final void innerWriteTo(StreamOutput out, boolean asKey) throws IOException {
@@ -153,6 +158,9 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         if (asKey == false) {
             out.writeStringArray(indexRoutings);
             out.writeOptionalString(preference);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeBoolean(speculativeFetch);
+            }
         }
     }
 
@@ -226,6 +234,15 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         return preference;
     }
 
+    @Override
+    public boolean speculativeFetch() {
+        return speculativeFetch;
+    }
+
+    void speculativeFetch(boolean speculativeFetch) {
+        this.speculativeFetch = speculativeFetch;
+    }
+
     @Override
     public BytesReference cacheKey() throws IOException {
         BytesStreamOutput out = new BytesStreamOutput();
@@ -81,6 +81,12 @@ public interface ShardSearchRequest {
      */
     String preference();
 
+    /**
+     * Returns <code>true</code> if the coordinating node asked the shard to fetch its top hits together with the query
+     * results, so that it doesn't need to send a separate fetch request to this shard.
+     */
+    boolean speculativeFetch();
+
     /**
      * Returns the cache key for this shard search request, based on its content
      */
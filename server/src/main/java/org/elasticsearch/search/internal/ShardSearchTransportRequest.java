@@ -158,6 +158,18 @@ public class ShardSearchTransportRequest extends TransportRequest implements Sha
         return shardSearchLocalRequest.preference();
     }
 
+    @Override
+    public boolean speculativeFetch() {
+        return shardSearchLocalRequest.speculativeFetch();
+    }
+
+    /**
+     * Sets whether the shard should fetch its top hits together with the query results.
+     */
+    public void speculativeFetch(boolean speculativeFetch) {
+        shardSearchLocalRequest.speculativeFetch(speculativeFetch);
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
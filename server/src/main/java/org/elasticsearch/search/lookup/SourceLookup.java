@@ -21,14 +21,17 @@ package org.elasticsearch.search.lookup;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.ElasticsearchParseException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+import org.elasticsearch.index.mapper.SyntheticSourceLoader;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +41,11 @@ import static java.util.Collections.emptyMap;
 
 public class SourceLookup implements Map {
 
+    @Nullable
+    private final SyntheticSourceLoader syntheticSourceLoader;
+    private SyntheticSourceLoader.Leaf syntheticSourceLeaf;
+
+    private LeafReaderContext context;
     private LeafReader reader;
 
     private int docId = -1;
@@ -46,6 +54,17 @@ public class SourceLookup implements Map {
     private Map<String, Object> source;
     private XContentType sourceContentType;
 
+    public SourceLookup() {
+        this(null);
+    }
+
+    /**
+     * Creates a source lookup that synthesizes the source of documents that don't store it with the given loader, if any.
+     */
+    public SourceLookup(@Nullable SyntheticSourceLoader syntheticSourceLoader) {
+        this.syntheticSourceLoader = syntheticSourceLoader;
+    }
+
     public Map<String, Object> source() {
         return source;
     }
@@ -58,7 +77,7 @@ public class SourceLookup implements Map {
         if (source != null) {
             return source;
         }
-        if (sourceAsBytes != null) {
+        if (internalSourceRef() != null) {
             Tuple<XContentType, Map<String, Object>> tuple = sourceAsMapAndType(sourceAsBytes);
             sourceContentType = tuple.v1();
             source = tuple.v2();
@@ -95,6 +114,10 @@ public class SourceLookup implements Map {
             // if we are called with the same document, don't invalidate source
             return;
         }
+        if (this.reader != context.reader()) {
+            this.syntheticSourceLeaf = null;
+        }
+        this.context = context;
         this.reader = context.reader();
         this.source = null;
         this.sourceAsBytes = null;
@@ -117,6 +140,16 @@ public class SourceLookup implements Map {
      * Internal source representation, might be compressed....
      */
     public BytesReference internalSourceRef() {
+        if (sourceAsBytes == null && source == null && syntheticSourceLoader != null && reader != null) {
+            try {
+                if (syntheticSourceLeaf == null) {
+                    syntheticSourceLeaf = syntheticSourceLoader.leaf(context);
+                }
+                sourceAsBytes = syntheticSourceLeaf.source(docId);
+            } catch (IOException e) {
+                throw new ElasticsearchParseException("failed to synthesize source", e);
+            }
+        }
         return sourceAsBytes;
     }
 
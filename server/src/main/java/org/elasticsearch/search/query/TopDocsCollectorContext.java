@@ -56,6 +56,7 @@ import org.apache.lucene.search.spans.SpanQuery;
 import org.elasticsearch.action.search.MaxScoreCollector;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.search.IndexSortSortedNumericDocValuesRangeQuery;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.lucene.search.function.FunctionScoreQuery;
 import org.elasticsearch.common.lucene.search.function.ScriptScoreQuery;
@@ -418,6 +419,17 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                 }
             }
             return count;
+        } else if (query.getClass() == IndexSortSortedNumericDocValuesRangeQuery.class && reader.hasDeletions() == false) {
+            final IndexSortSortedNumericDocValuesRangeQuery rangeQuery = (IndexSortSortedNumericDocValuesRangeQuery) query;
+            int count = 0;
+            for (LeafReaderContext context : reader.leaves()) {
+                final int leafCount = rangeQuery.count(context.reader());
+                if (leafCount == -1) {
+                    return -1; // no shortcut possible for segments that are not sorted by the field
+                }
+                count += leafCount;
+            }
+            return count;
         } else {
             return -1;
         }
@@ -67,6 +67,7 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.SearchableSnapshotDirectoryFactory;
 import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
@@ -255,6 +256,11 @@ public class RestoreService implements ClusterStateApplier {
                             IndexMetaData snapshotIndexMetaData = metaData.index(index);
                             snapshotIndexMetaData = updateIndexSettings(snapshotIndexMetaData,
                                                                         request.indexSettings(), request.ignoreIndexSettings());
+                            final boolean mount = SearchableSnapshotDirectoryFactory.isSearchableSnapshotStore(
+                                snapshotIndexMetaData.getSettings());
+                            if (mount) {
+                                snapshotIndexMetaData = mountedIndexSettings(snapshotIndexMetaData, repositoryData.resolveIndexId(index));
+                            }
                             try {
                                 snapshotIndexMetaData = metaDataIndexUpgradeService.upgradeIndexMetaData(snapshotIndexMetaData,
                                     minIndexCompatibilityVersion);
@@ -297,6 +303,10 @@ public class RestoreService implements ClusterStateApplier {
                                 mdBuilder.put(updatedIndexMetaData, true);
                                 renamedIndex = updatedIndexMetaData.getIndex();
                             } else {
+                                if (mount) {
+                                    throw new SnapshotRestoreException(snapshot, "cannot mount index [" + renamedIndexName + "] because an "
+                                        + "index with same name already exists in the cluster");
+                                }
                                 validateExistingIndex(currentIndexMetaData, snapshotIndexMetaData, renamedIndexName, partial);
                                 // Index exists and it's closed - open it in metadata and start recovery
                                 IndexMetaData.Builder indexMdBuilder =
@@ -465,6 +475,24 @@ public class RestoreService implements ClusterStateApplier {
                     }
                 }
 
+                /**
+                 * Adds the settings that make an index with the {@link SearchableSnapshotDirectoryFactory#STORE_TYPE} store type read its
+                 * files from the snapshot. Such an index can't be written to and has no replicas, as its shards can't be recovered from
+                 * one another.
+                 */
+                private IndexMetaData mountedIndexSettings(IndexMetaData indexMetaData, IndexId indexId) {
+                    return IndexMetaData.builder(indexMetaData).settings(Settings.builder()
+                        .put(indexMetaData.getSettings())
+                        .put(SearchableSnapshotDirectoryFactory.SNAPSHOT_REPOSITORY_SETTING.getKey(), snapshot.getRepository())
+                        .put(SearchableSnapshotDirectoryFactory.SNAPSHOT_NAME_SETTING.getKey(), snapshot.getSnapshotId().getName())
+                        .put(SearchableSnapshotDirectoryFactory.SNAPSHOT_UUID_SETTING.getKey(), snapshot.getSnapshotId().getUUID())
+                        .put(SearchableSnapshotDirectoryFactory.SNAPSHOT_INDEX_ID_SETTING.getKey(), indexId.getId())
+                        .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+                        .put(IndexMetaData.SETTING_AUTO_EXPAND_REPLICAS, false)
+                        .put(IndexMetaData.SETTING_BLOCKS_WRITE, true))
+                        .build();
+                }
+
                 /**
                  * Optionally updates index settings in indexMetaData by removing settings listed in ignoreSettings and
                  * merging them with settings in changeSettings.
@@ -63,6 +63,7 @@ import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
+import org.elasticsearch.index.store.SearchableSnapshotDirectoryFactory;
 import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
@@ -1157,6 +1158,18 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
                         throw new ConcurrentSnapshotExecutionException(snapshot, "cannot delete snapshot during a restore");
                     }
                 }
+                // the indices that are mounted from the snapshot read their files from it
+                for (ObjectCursor<IndexMetaData> cursor : currentState.metaData().indices().values()) {
+                    final Settings indexSettings = cursor.value.getSettings();
+                    if (SearchableSnapshotDirectoryFactory.isSearchableSnapshotStore(indexSettings)) {
+                        final String repository = SearchableSnapshotDirectoryFactory.SNAPSHOT_REPOSITORY_SETTING.get(indexSettings);
+                        final String snapshotUUID = SearchableSnapshotDirectoryFactory.SNAPSHOT_UUID_SETTING.get(indexSettings);
+                        if (snapshot.getRepository().equals(repository) && snapshot.getSnapshotId().getUUID().equals(snapshotUUID)) {
+                            throw new SnapshotException(snapshot, "cannot delete snapshot because index " + cursor.value.getIndex()
+                                + " is mounted from it");
+                        }
+                    }
+                }
                 ClusterState.Builder clusterStateBuilder = ClusterState.builder(currentState);
                 SnapshotsInProgress snapshots = currentState.custom(SnapshotsInProgress.TYPE);
                 SnapshotsInProgress.Entry snapshotEntry = snapshots != null ? snapshots.snapshot(snapshot) : null;
@@ -26,6 +26,11 @@ import org.elasticsearch.discovery.DiscoveryStats;
 import org.elasticsearch.cluster.coordination.PendingClusterStateStats;
 import org.elasticsearch.cluster.coordination.PublishClusterStateStats;
 import org.elasticsearch.http.HttpStats;
+import org.elasticsearch.index.IndexingPressureStats;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.TranslogSyncStats;
+import org.elasticsearch.indices.IndexingBufferStats;
+import org.elasticsearch.indices.MergeBudgetStats;
 import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
 import org.elasticsearch.indices.breaker.CircuitBreakerStats;
 import org.elasticsearch.ingest.IngestStats;
@@ -36,6 +41,7 @@ import org.elasticsearch.monitor.process.ProcessStats;
 import org.elasticsearch.node.AdaptiveSelectionStats;
 import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.script.ScriptStats;
+import org.elasticsearch.search.CoordinatorCanMatchStats;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.VersionUtils;
 import org.elasticsearch.threadpool.ThreadPoolStats;
@@ -309,8 +315,84 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.queueSize, bStats.queueSize, 0.01);
                         assertEquals(aStats.serviceTime, bStats.serviceTime, 0.01);
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
+                        assertEquals(aStats.outstandingCostFactor, bStats.outstandingCostFactor, 0.01);
                     });
                 }
+                CoordinatorCanMatchStats canMatchStats = nodeStats.getCoordinatorCanMatchStats();
+                CoordinatorCanMatchStats deserializedCanMatchStats = deserializedNodeStats.getCoordinatorCanMatchStats();
+                if (canMatchStats == null) {
+                    assertNull(deserializedCanMatchStats);
+                } else {
+                    assertEquals(canMatchStats.getSkippedShards(), deserializedCanMatchStats.getSkippedShards());
+                    assertEquals(canMatchStats.getCachedShards(), deserializedCanMatchStats.getCachedShards());
+                }
+                TranslogSyncStats translogSyncStats = nodeStats.getTranslogSyncStats();
+                TranslogSyncStats deserializedTranslogSyncStats = deserializedNodeStats.getTranslogSyncStats();
+                if (translogSyncStats == null) {
+                    assertNull(deserializedTranslogSyncStats);
+                } else {
+                    assertEquals(translogSyncStats.getFsyncs(), deserializedTranslogSyncStats.getFsyncs());
+                    assertEquals(translogSyncStats.getSyncedLocations(), deserializedTranslogSyncStats.getSyncedLocations());
+                    assertEquals(translogSyncStats.getRounds(), deserializedTranslogSyncStats.getRounds());
+                    assertEquals(translogSyncStats.getFsyncTime(), deserializedTranslogSyncStats.getFsyncTime());
+                    assertArrayEquals(translogSyncStats.getLatencyHistogram(), deserializedTranslogSyncStats.getLatencyHistogram());
+                }
+                IndexingPressureStats indexingPressureStats = nodeStats.getIndexingPressureStats();
+                IndexingPressureStats deserializedIndexingPressureStats = deserializedNodeStats.getIndexingPressureStats();
+                if (indexingPressureStats == null) {
+                    assertNull(deserializedIndexingPressureStats);
+                } else {
+                    assertEquals(indexingPressureStats.getTotalCombinedCoordinatingAndPrimaryBytes(),
+                        deserializedIndexingPressureStats.getTotalCombinedCoordinatingAndPrimaryBytes());
+                    assertEquals(indexingPressureStats.getTotalCoordinatingBytes(),
+                        deserializedIndexingPressureStats.getTotalCoordinatingBytes());
+                    assertEquals(indexingPressureStats.getTotalPrimaryBytes(), deserializedIndexingPressureStats.getTotalPrimaryBytes());
+                    assertEquals(indexingPressureStats.getTotalReplicaBytes(), deserializedIndexingPressureStats.getTotalReplicaBytes());
+                    assertEquals(indexingPressureStats.getCurrentCombinedCoordinatingAndPrimaryBytes(),
+                        deserializedIndexingPressureStats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+                    assertEquals(indexingPressureStats.getCurrentCoordinatingBytes(),
+                        deserializedIndexingPressureStats.getCurrentCoordinatingBytes());
+                    assertEquals(indexingPressureStats.getCurrentPrimaryBytes(),
+                        deserializedIndexingPressureStats.getCurrentPrimaryBytes());
+                    assertEquals(indexingPressureStats.getCurrentReplicaBytes(),
+                        deserializedIndexingPressureStats.getCurrentReplicaBytes());
+                    assertEquals(indexingPressureStats.getCoordinatingRejections(),
+                        deserializedIndexingPressureStats.getCoordinatingRejections());
+                    assertEquals(indexingPressureStats.getPrimaryRejections(), deserializedIndexingPressureStats.getPrimaryRejections());
+                    assertEquals(indexingPressureStats.getReplicaRejections(), deserializedIndexingPressureStats.getReplicaRejections());
+                    assertEquals(indexingPressureStats.getMemoryLimit(), deserializedIndexingPressureStats.getMemoryLimit());
+                }
+                IndexingBufferStats indexingBufferStats = nodeStats.getIndexingBufferStats();
+                IndexingBufferStats deserializedIndexingBufferStats = deserializedNodeStats.getIndexingBufferStats();
+                if (indexingBufferStats == null) {
+                    assertNull(deserializedIndexingBufferStats);
+                } else {
+                    assertEquals(indexingBufferStats.getLimit(), deserializedIndexingBufferStats.getLimit());
+                    assertEquals(indexingBufferStats.getUsed(), deserializedIndexingBufferStats.getUsed());
+                    assertEquals(indexingBufferStats.getBufferWrites(), deserializedIndexingBufferStats.getBufferWrites());
+                    assertEquals(indexingBufferStats.getShards().size(), deserializedIndexingBufferStats.getShards().size());
+                    for (int i = 0; i < indexingBufferStats.getShards().size(); i++) {
+                        IndexingBufferStats.ShardStats shardStats = indexingBufferStats.getShards().get(i);
+                        IndexingBufferStats.ShardStats deserializedShardStats = deserializedIndexingBufferStats.getShards().get(i);
+                        assertEquals(shardStats.getShardId(), deserializedShardStats.getShardId());
+                        assertEquals(shardStats.getUsed(), deserializedShardStats.getUsed());
+                        assertEquals(shardStats.getWriting(), deserializedShardStats.getWriting());
+                        assertEquals(shardStats.getShare(), deserializedShardStats.getShare());
+                        assertEquals(shardStats.isThrottled(), deserializedShardStats.isThrottled());
+                        assertEquals(shardStats.getThrottleTime(), deserializedShardStats.getThrottleTime());
+                    }
+                }
+                MergeBudgetStats mergeBudgetStats = nodeStats.getMergeBudgetStats();
+                MergeBudgetStats deserializedMergeBudgetStats = deserializedNodeStats.getMergeBudgetStats();
+                if (mergeBudgetStats == null) {
+                    assertNull(deserializedMergeBudgetStats);
+                } else {
+                    assertEquals(mergeBudgetStats.getRunning(), deserializedMergeBudgetStats.getRunning());
+                    assertEquals(mergeBudgetStats.getQueued(), deserializedMergeBudgetStats.getQueued());
+                    assertEquals(mergeBudgetStats.getTotalQueued(), deserializedMergeBudgetStats.getTotalQueued());
+                    assertEquals(mergeBudgetStats.getTotalQueueTime(), deserializedMergeBudgetStats.getTotalQueueTime());
+                    assertEquals(mergeBudgetStats.getTotalThrottledTime(), deserializedMergeBudgetStats.getTotalThrottledTime());
+                }
             }
         }
     }
@@ -478,16 +560,46 @@ public class NodeStatsTests extends ESTestCase {
                     ResponseCollectorService.ComputedNodeStats stats = new ResponseCollectorService.ComputedNodeStats(nodeId,
                             randomIntBetween(1,10), randomIntBetween(0, 2000),
                             randomDoubleBetween(1.0, 10000000.0, true),
-                            randomDoubleBetween(1.0, 10000000.0, true));
+                            randomDoubleBetween(1.0, 10000000.0, true),
+                            randomDoubleBetween(0.1, 10.0, true));
                     nodeStats.put(nodeId, stats);
                 }
             }
             adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats);
         }
+        CoordinatorCanMatchStats coordinatorCanMatchStats = frequently() ?
+                new CoordinatorCanMatchStats(randomNonNegativeLong(), randomNonNegativeLong()) : null;
+        TranslogSyncStats translogSyncStats = null;
+        if (frequently()) {
+            long[] latencyHistogram = new long[TranslogSyncStats.LATENCY_BUCKETS_MILLIS.length + 1];
+            for (int i = 0; i < latencyHistogram.length; i++) {
+                latencyHistogram[i] = randomNonNegativeLong();
+            }
+            translogSyncStats = new TranslogSyncStats(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong(), latencyHistogram);
+        }
+        IndexingPressureStats indexingPressureStats = frequently() ? new IndexingPressureStats(randomNonNegativeLong(),
+            randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+            randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+            randomNonNegativeLong()) : null;
+        IndexingBufferStats indexingBufferStats = null;
+        if (frequently()) {
+            List<IndexingBufferStats.ShardStats> shardStats = new ArrayList<>();
+            int numShards = randomIntBetween(0, 5);
+            for (int i = 0; i < numShards; i++) {
+                shardStats.add(new IndexingBufferStats.ShardStats(new ShardId(randomAlphaOfLength(5), randomAlphaOfLength(5), i),
+                    randomLongBetween(0, 1 << 30), randomLongBetween(0, 1 << 30), randomLongBetween(0, 1 << 30), randomBoolean(),
+                    randomNonNegativeLong()));
+            }
+            indexingBufferStats = new IndexingBufferStats(randomNonNegativeLong(), randomNonNegativeLong(), shardStats);
+        }
+        MergeBudgetStats mergeBudgetStats = frequently() ? new MergeBudgetStats(randomIntBetween(0, 100), randomIntBetween(0, 100),
+            randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()) : null;
         //TODO NodeIndicesStats are not tested here, way too complicated to create, also they need to be migrated to Writeable yet
         return new NodeStats(node, randomNonNegativeLong(), null, osStats, processStats, jvmStats, threadPoolStats,
                 fsInfo, transportStats, httpStats, allCircuitBreakerStats, scriptStats, discoveryStats,
-                ingestStats, adaptiveSelectionStats);
+                ingestStats, adaptiveSelectionStats, coordinatorCanMatchStats, translogSyncStats,
+                indexingPressureStats, indexingBufferStats, mergeBudgetStats);
     }
 
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
@@ -28,8 +28,10 @@ import org.elasticsearch.action.ingest.PutPipelineRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.ingest.IngestTestPlugin;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.rest.RestStatus;
@@ -45,6 +47,8 @@ import java.util.concurrent.ExecutionException;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.elasticsearch.test.StreamsUtils.copyToStringFromClasspath;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 
@@ -126,6 +130,22 @@ public class BulkIntegrationIT extends ESIntegTestCase {
         }
     }
 
+    public void testBulkWithTimeSeriesIdFormat() {
+        assertAcked(prepareCreate("metrics").setSettings(Settings.builder()
+            .put(IndexSettings.INDEX_ID_FORMAT_SETTING.getKey(), IndexSettings.TIME_SERIES_ID_FORMAT)
+            .putList(IndexSettings.INDEX_ID_FORMAT_DIMENSIONS_SETTING.getKey(), "host")));
+        final String source = "{\"@timestamp\":\"2019-05-01T10:00:00Z\",\"host\":\"a\",\"value\":1}";
+        BulkResponse first = client().prepareBulk().add(new IndexRequest("metrics", "_doc").source(source, XContentType.JSON)).get();
+        assertFalse(first.hasFailures());
+        // sending the same document again overwrites it rather than adding a duplicate
+        BulkResponse second = client().prepareBulk().add(new IndexRequest("metrics", "_doc").source(source, XContentType.JSON)).get();
+        assertFalse(second.hasFailures());
+        assertThat(second.getItems()[0].getId(), equalTo(first.getItems()[0].getId()));
+        assertThat(second.getItems()[0].getVersion(), equalTo(2L));
+        refresh("metrics");
+        assertHitCount(client().prepareSearch("metrics").get(), 1);
+    }
+
     private void createSamplePipeline(String pipelineId) throws IOException, ExecutionException, InterruptedException {
         XContentBuilder pipeline = jsonBuilder()
             .startObject()
@@ -20,11 +20,15 @@
 package org.elasticsearch.action.bulk;
 
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.rest.action.document.RestBulkAction;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BulkRequestParserTests extends ESTestCase {
@@ -75,6 +79,37 @@ public class BulkRequestParserTests extends ESTestCase {
         assertTrue(parsed.get());
     }
 
+    public void testParseFromArrayAndPages() throws IOException {
+        String body = "{ \"index\":{ \"_id\": \"1\" } }\n{ \"field\": \"value\" }\n"
+            + "{ \"update\":{ \"_id\": \"2\" } }\n{ \"doc\": { \"field\": \"other\" } }\n";
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        // an array-backed slice of a larger buffer, as received over HTTP, and a paged copy of the same body
+        int offset = randomIntBetween(0, 16);
+        byte[] buffer = new byte[offset + bodyBytes.length + randomIntBetween(0, 16)];
+        System.arraycopy(bodyBytes, 0, buffer, offset, bodyBytes.length);
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.writeBytes(bodyBytes);
+        for (BytesReference request : Arrays.asList(new BytesArray(buffer, offset, bodyBytes.length), out.bytes())) {
+            BulkRequestParser parser = new BulkRequestParser(randomBoolean());
+            final AtomicBoolean indexed = new AtomicBoolean();
+            final AtomicBoolean updated = new AtomicBoolean();
+            parser.parse(request, "foo", null, null, null, null, false, XContentType.JSON,
+                    indexRequest -> {
+                        assertFalse(indexed.getAndSet(true));
+                        assertEquals("1", indexRequest.id());
+                        assertEquals("{ \"field\": \"value\" }", indexRequest.source().utf8ToString());
+                    },
+                    updateRequest -> {
+                        assertFalse(updated.getAndSet(true));
+                        assertEquals("2", updateRequest.id());
+                        assertEquals("other", updateRequest.doc().sourceAsMap().get("field"));
+                    },
+                    req -> fail());
+            assertTrue(indexed.get());
+            assertTrue(updated.get());
+        }
+    }
+
     public void testBarfOnLackOfTrailingNewline() throws IOException {
         BytesArray request = new BytesArray("{ \"index\":{ \"_id\": \"bar\" } }\n{}");
         BulkRequestParser parser = new BulkRequestParser(randomBoolean());
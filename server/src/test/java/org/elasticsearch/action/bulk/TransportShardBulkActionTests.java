@@ -40,22 +40,29 @@ import org.elasticsearch.client.Requests;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.mapper.Mapping;
 import org.elasticsearch.index.mapper.MetadataFieldMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
+import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -226,6 +233,129 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         latch.await();
     }
 
+    public void testParseDocumentsAhead() throws Exception {
+        IndexShard shard = newStartedShard(true);
+
+        final int parsingHelpers = randomIntBetween(1, 4);
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(parsingHelpers * BulkItemPreParser.MIN_ITEMS_PER_HELPER, 200)];
+        int expectedDocs = 0;
+        for (int i = 0; i < items.length; i++) {
+            final DocWriteRequest<?> writeRequest;
+            if (i > 0 && items[i - 1].request() instanceof IndexRequest && rarely()) {
+                writeRequest = new DeleteRequest("index", "_doc", "id_" + (i - 1));
+                expectedDocs--;
+            } else {
+                writeRequest = new IndexRequest("index", "_doc", "id_" + i).source(Requests.INDEX_CONTENT_TYPE)
+                    .opType(randomFrom(DocWriteRequest.OpType.INDEX, DocWriteRequest.OpType.CREATE));
+                expectedDocs++;
+            }
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest, shard, null, threadPool::absoluteTimeInMillis, new NoopMappingUpdatePerformer(),
+            listener -> {}, ActionListener.runAfter(
+                ActionTestUtils.assertNoFailureListener(result -> {
+                    BulkItemResponse[] responses = result.finalResponseIfSuccessful.getResponses();
+                    assertThat(responses, arrayWithSize(items.length));
+                    // items are still applied in order, whichever thread parsed them
+                    for (int i = 0; i < responses.length; i++) {
+                        assertFalse(responses[i].isFailed());
+                        assertThat(responses[i].getResponse().getSeqNo(), equalTo((long) i));
+                    }
+                }), latch::countDown), threadPool, parsingHelpers);
+        latch.await();
+
+        assertDocCount(shard, expectedDocs);
+        closeShards(shard);
+    }
+
+    public void testReusePreParsedDocuments() throws Exception {
+        final Map<String, ParsedDocument> indexedDocuments = ConcurrentCollections.newConcurrentMap();
+        IndexShard shard = newShard(shardId, true, new IndexingOperationListener() {
+            @Override
+            public Engine.Index preIndex(ShardId shardId, Engine.Index operation) {
+                indexedDocuments.put(operation.id(), operation.parsedDoc());
+                return operation;
+            }
+        });
+        recoverShardFromStore(shard);
+
+        final int parsingHelpers = randomIntBetween(1, 4);
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(parsingHelpers * BulkItemPreParser.MIN_ITEMS_PER_HELPER, 200)];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BulkItemRequest(i, new IndexRequest("index", "_doc", "id_" + i).source(Requests.INDEX_CONTENT_TYPE));
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        // let the helpers parse all documents before the items are executed
+        final CountDownLatch helpersDone = new CountDownLatch(parsingHelpers);
+        final Executor executor = threadPool.executor(ThreadPool.Names.WRITE);
+        BulkItemPreParser preParser = BulkItemPreParser.start(bulkShardRequest, shard, runnable -> executor.execute(() -> {
+            try {
+                runnable.run();
+            } finally {
+                helpersDone.countDown();
+            }
+        }), parsingHelpers);
+        assertNotNull(preParser);
+        helpersDone.await();
+
+        final Map<String, ParsedDocument> preParsedDocuments = new HashMap<>();
+        BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(bulkShardRequest, shard, preParser) {
+            @Override
+            public IndexShard.PreParsedDocument takePreParsedDocument() {
+                IndexShard.PreParsedDocument document = super.takePreParsedDocument();
+                assertNotNull(document);
+                preParsedDocuments.put(getCurrent().id(), document.parsedDocument());
+                return document;
+            }
+        };
+        while (context.hasMoreOperationsToExecute()) {
+            TransportShardBulkAction.executeBulkItemRequest(context, null, threadPool::absoluteTimeInMillis,
+                new NoopMappingUpdatePerformer(), listener -> {}, ASSERTING_DONE_LISTENER);
+        }
+        preParser.close();
+
+        // the documents parsed ahead of time are indexed as they are rather than parsed again
+        assertThat(preParsedDocuments.size(), equalTo(items.length));
+        for (int i = 0; i < items.length; i++) {
+            assertFalse(items[i].getPrimaryResponse().isFailed());
+            assertSame(preParsedDocuments.get("id_" + i), indexedDocuments.get("id_" + i));
+        }
+        closeShards(shard);
+    }
+
+    public void testPreParsingFailureFallsBackToParsingOnExecution() throws Exception {
+        IndexShard shard = newStartedShard(true);
+
+        BulkItemRequest[] items = new BulkItemRequest[BulkItemPreParser.MIN_ITEMS_PER_HELPER];
+        final int failingItem = randomIntBetween(0, items.length - 1);
+        for (int i = 0; i < items.length; i++) {
+            IndexRequest indexRequest = new IndexRequest("index", "_doc", "id_" + i);
+            if (i != failingItem) {
+                // the request of the failing item has no source, which fails to parse
+                indexRequest.source(Requests.INDEX_CONTENT_TYPE);
+            }
+            items[i] = new BulkItemRequest(i, indexRequest);
+        }
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+
+        // the helper runs on this thread and claims every item before the items are taken
+        BulkItemPreParser preParser = BulkItemPreParser.start(bulkShardRequest, shard, Runnable::run, 1);
+        assertNotNull(preParser);
+        for (int i = 0; i < items.length; i++) {
+            if (i == failingItem) {
+                assertNull(preParser.take(i));
+            } else {
+                assertNotNull(preParser.take(i));
+            }
+        }
+        closeShards(shard);
+    }
+
     public void testExecuteBulkIndexRequestWithMappingUpdates() throws Exception {
 
         BulkItemRequest[] items = new BulkItemRequest[1];
@@ -241,7 +371,7 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         Engine.IndexResult success = new FakeIndexResult(1, 1, 13, true, resultLocation);
 
         IndexShard shard = mock(IndexShard.class);
-        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
+        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
             .thenReturn(mappingUpdate);
 
         randomlySetIgnoredPrimaryResponse(items[0]);
@@ -262,9 +392,9 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         assertThat("mappings were \"updated\" once", updateCalled.get(), equalTo(1));
 
         // Verify that the shard "executed" the operation once
-        verify(shard, times(1)).applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean());
+        verify(shard, times(1)).applyIndexOperationOnPrimary(anyLong(), any(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean());
 
-        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
+        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
             .thenReturn(success);
 
         TransportShardBulkAction.executeBulkItemRequest(context, null, threadPool::absoluteTimeInMillis,
@@ -274,7 +404,7 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
 
         // Verify that the shard "executed" the operation only once (1 for previous invocations plus
         // 1 for this execution)
-        verify(shard, times(2)).applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean());
+        verify(shard, times(2)).applyIndexOperationOnPrimary(anyLong(), any(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean());
 
 
         BulkItemResponse primaryResponse = bulkShardRequest.items()[0].getPrimaryResponse();
@@ -485,7 +615,7 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         Exception err = new ElasticsearchException("I'm dead <(x.x)>");
         Engine.IndexResult indexResult = new Engine.IndexResult(err, 0, 0, 0);
         IndexShard shard = mock(IndexShard.class);
-        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
+        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
             .thenReturn(indexResult);
         when(shard.indexSettings()).thenReturn(indexSettings);
 
@@ -535,7 +665,7 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
             "I'm conflicted <(;_;)>");
         Engine.IndexResult indexResult = new Engine.IndexResult(err, 0, 0, 0);
         IndexShard shard = mock(IndexShard.class);
-        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
+        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
             .thenReturn(indexResult);
         when(shard.indexSettings()).thenReturn(indexSettings);
 
@@ -582,7 +712,7 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         Translog.Location resultLocation = new Translog.Location(42, 42, 42);
         Engine.IndexResult indexResult = new FakeIndexResult(1, 1, 13, created, resultLocation);
         IndexShard shard = mock(IndexShard.class);
-        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
+        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
             .thenReturn(indexResult);
         when(shard.indexSettings()).thenReturn(indexSettings);
 
@@ -774,7 +904,8 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         Engine.IndexResult success = new FakeIndexResult(1, 1, 13, true, resultLocation);
 
         IndexShard shard = mock(IndexShard.class);
-        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean())).thenAnswer(ir -> {
+        when(shard.applyIndexOperationOnPrimary(anyLong(), any(), any(), any(), anyLong(), anyLong(), anyLong(), anyBoolean()))
+            .thenAnswer(ir -> {
             if (randomBoolean()) {
                 return conflictedResult;
             }
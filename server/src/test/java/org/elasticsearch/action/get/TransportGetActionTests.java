@@ -0,0 +1,154 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.get;
+
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.node.ResponseCollectorService;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.transport.CapturingTransport;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_PRIMARY_TERM;
+import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
+import static org.elasticsearch.test.ClusterServiceUtils.createClusterService;
+import static org.elasticsearch.test.ClusterServiceUtils.setState;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+
+public class TransportGetActionTests extends ESTestCase {
+
+    private static ThreadPool THREAD_POOL;
+
+    private ClusterService clusterService;
+    private CapturingTransport transport;
+    private TransportService transportService;
+    private ResponseCollectorService responseCollectorService;
+    private TransportGetAction action;
+
+    @BeforeClass
+    public static void startThreadPool() {
+        THREAD_POOL = new TestThreadPool(TransportGetActionTests.class.getSimpleName());
+    }
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        transport = new CapturingTransport();
+        clusterService = createClusterService(THREAD_POOL);
+        transportService = transport.createTransportService(clusterService.getSettings(), THREAD_POOL,
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR, x -> clusterService.localNode(), null, Collections.emptySet());
+        transportService.start();
+        transportService.acceptIncomingRequests();
+        responseCollectorService = new ResponseCollectorService(clusterService);
+        action = new TransportGetAction(clusterService, transportService, mock(IndicesService.class), THREAD_POOL,
+            new ActionFilters(Collections.emptySet()), new IndexNameExpressionResolver(), responseCollectorService);
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        clusterService.close();
+        transportService.close();
+    }
+
+    @AfterClass
+    public static void destroyThreadPool() {
+        ThreadPool.terminate(THREAD_POOL, 30, TimeUnit.SECONDS);
+        // since static must set to null to be eligible for collection
+        THREAD_POOL = null;
+    }
+
+    public void testGetChangesTheRankOfTheNode() throws Exception {
+        setState(clusterService, ClusterStateCreationUtils.state("test", randomBoolean(), ShardRoutingState.STARTED,
+            ShardRoutingState.STARTED));
+        // both copies look the same and respond slowly to searches
+        for (DiscoveryNode node : clusterService.state().nodes()) {
+            responseCollectorService.addNodeStatistics(node.getId(), 1, TimeValue.timeValueSeconds(1).nanos(),
+                TimeValue.timeValueMillis(50).nanos());
+        }
+        final double initialRank = rank(clusterService.state().nodes().getLocalNodeId());
+
+        final PlainActionFuture<GetResponse> firstGet = new PlainActionFuture<>();
+        action.execute(new GetRequest("test", "1"), firstGet);
+        assertThat(transport.capturedRequests().length, equalTo(1));
+        final CapturingTransport.CapturedRequest firstRequest = transport.capturedRequests()[0];
+        final String nodeId = firstRequest.node.getId();
+
+        // the outstanding get makes the node rank worse, so the next get goes to the other copy
+        assertThat(responseCollectorService.getOutstandingRequests().get(nodeId), equalTo(1L));
+        assertThat(rank(nodeId), greaterThan(initialRank));
+        final PlainActionFuture<GetResponse> secondGet = new PlainActionFuture<>();
+        action.execute(new GetRequest("test", "1"), secondGet);
+        final CapturingTransport.CapturedRequest[] capturedRequests = transport.getCapturedRequestsAndClear();
+        assertThat(capturedRequests.length, equalTo(2));
+        assertThat(capturedRequests[1].node.getId(), not(equalTo(nodeId)));
+
+        // the response time of the get is faster than that of past searches, which improves the rank of the node
+        transport.handleResponse(firstRequest.requestId, newGetResponse());
+        firstGet.get(10, TimeUnit.SECONDS);
+        assertThat(responseCollectorService.getOutstandingRequests().containsKey(nodeId), equalTo(false));
+        assertThat(rank(nodeId), lessThan(initialRank));
+
+        // a failed get is no longer outstanding either, and is retried on the other copy
+        final String otherNodeId = capturedRequests[1].node.getId();
+        transport.handleRemoteError(capturedRequests[1].requestId, new IllegalStateException("test"));
+        assertThat(responseCollectorService.getOutstandingRequests().containsKey(otherNodeId), equalTo(false));
+        final CapturingTransport.CapturedRequest[] retries = transport.getCapturedRequestsAndClear();
+        assertThat(retries.length, equalTo(1));
+        assertThat(retries[0].node.getId(), equalTo(nodeId));
+        assertThat(responseCollectorService.getOutstandingRequests().get(nodeId), equalTo(1L));
+        transport.handleResponse(retries[0].requestId, newGetResponse());
+        secondGet.get(10, TimeUnit.SECONDS);
+        assertThat(responseCollectorService.getOutstandingRequests().isEmpty(), equalTo(true));
+    }
+
+    private double rank(String nodeId) {
+        final long outstandingRequests = responseCollectorService.getOutstandingRequests().getOrDefault(nodeId, 0L);
+        return responseCollectorService.getNodeStatistics(nodeId).get().rank(outstandingRequests);
+    }
+
+    private static GetResponse newGetResponse() {
+        return new GetResponse(new GetResult("test", "_doc", "1", UNASSIGNED_SEQ_NO, UNASSIGNED_PRIMARY_TERM, -1, false,
+            null, null, null));
+    }
+}
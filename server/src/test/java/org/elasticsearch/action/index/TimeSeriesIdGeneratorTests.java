@@ -0,0 +1,90 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.index;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+
+public class TimeSeriesIdGeneratorTests extends ESTestCase {
+
+    private static String generateId(TimeSeriesIdGenerator generator, String source) {
+        return generator.generateId(new BytesArray(source), XContentType.JSON);
+    }
+
+    public void testFromSettings() {
+        assertNull(TimeSeriesIdGenerator.fromSettings(Settings.EMPTY));
+        assertNull(TimeSeriesIdGenerator.fromSettings(Settings.builder()
+            .put(IndexSettings.INDEX_ID_FORMAT_SETTING.getKey(), IndexSettings.DEFAULT_ID_FORMAT).build()));
+        assertNotNull(TimeSeriesIdGenerator.fromSettings(Settings.builder()
+            .put(IndexSettings.INDEX_ID_FORMAT_SETTING.getKey(), IndexSettings.TIME_SERIES_ID_FORMAT)
+            .putList(IndexSettings.INDEX_ID_FORMAT_DIMENSIONS_SETTING.getKey(), "host").build()));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> TimeSeriesIdGenerator.fromSettings(
+            Settings.builder().put(IndexSettings.INDEX_ID_FORMAT_SETTING.getKey(), IndexSettings.TIME_SERIES_ID_FORMAT).build()));
+        assertThat(e.getMessage(), containsString("[index.time_series_id.dimensions] must be set"));
+    }
+
+    public void testSameDocumentSameId() {
+        TimeSeriesIdGenerator generator = new TimeSeriesIdGenerator(Arrays.asList("host", "metric.name"), "@timestamp");
+        String id = generateId(generator, "{\"@timestamp\":\"2019-05-01T10:00:00Z\",\"host\":\"a\",\"metric\":{\"name\":\"cpu\"},\"v\":1}");
+        // values that are not dimensions don't change the id
+        assertEquals(id, generateId(generator,
+            "{\"v\":2,\"metric\":{\"name\":\"cpu\"},\"host\":\"a\",\"@timestamp\":\"2019-05-01T10:00:00Z\"}"));
+        // the same timestamp given in milliseconds
+        assertEquals(id, generateId(generator, "{\"@timestamp\":1556704800000,\"host\":\"a\",\"metric\":{\"name\":\"cpu\"}}"));
+        // other dimensions
+        assertThat(generateId(generator, "{\"@timestamp\":1556704800000,\"host\":\"b\",\"metric\":{\"name\":\"cpu\"}}"), not(equalTo(id)));
+        assertThat(generateId(generator, "{\"@timestamp\":1556704800000,\"host\":\"a\"}"), not(equalTo(id)));
+        // other timestamp
+        assertThat(generateId(generator, "{\"@timestamp\":1556704800001,\"host\":\"a\",\"metric\":{\"name\":\"cpu\"}}"), not(equalTo(id)));
+    }
+
+    public void testIdsSortByTimestamp() {
+        TimeSeriesIdGenerator generator = new TimeSeriesIdGenerator(Arrays.asList("host"), "ts");
+        long timestamp = randomLongBetween(Long.MIN_VALUE, Long.MAX_VALUE - 1);
+        long later = randomLongBetween(timestamp + 1, Long.MAX_VALUE);
+        String id = generateId(generator, "{\"ts\":" + timestamp + ",\"host\":\"" + randomAlphaOfLength(5) + "\"}");
+        String laterId = generateId(generator, "{\"ts\":" + later + ",\"host\":\"" + randomAlphaOfLength(5) + "\"}");
+        BytesRef encodedId = Uid.encodeId(id);
+        assertThat(Uid.encodeId(laterId), greaterThan(encodedId));
+        // ids are stored as their 18 decoded bytes, possibly prefixed by an escape byte
+        assertThat(encodedId.length, lessThan(20));
+        assertEquals(id, Uid.decodeId(Arrays.copyOfRange(encodedId.bytes, encodedId.offset, encodedId.offset + encodedId.length)));
+    }
+
+    public void testMissingTimestamp() {
+        TimeSeriesIdGenerator generator = new TimeSeriesIdGenerator(Arrays.asList("host"), "@timestamp");
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> generateId(generator, "{\"host\":\"a\"}"));
+        assertThat(e.getMessage(), containsString("must have a single date in the [@timestamp] field"));
+        expectThrows(IllegalArgumentException.class, () -> generateId(generator, "{\"@timestamp\":\"not a date\",\"host\":\"a\"}"));
+    }
+}
@@ -18,17 +18,36 @@
  */
 package org.elasticsearch.action.search;
 
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlocks;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.time.DateFormatters;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.DateFieldRange;
+import org.elasticsearch.index.mapper.ParseContext.Document;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.QueryRewriteContext;
+import org.elasticsearch.search.CanMatchFieldRangeCache;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.ShardSearchTransportRequest;
 import org.elasticsearch.test.ESTestCase;
@@ -41,6 +60,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
@@ -58,7 +78,7 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
         final boolean shard1 = randomBoolean();
         final boolean shard2 = randomBoolean();
 
-        SearchTransportService searchTransportService = new SearchTransportService(null, null) {
+        SearchTransportService searchTransportService = new SearchTransportService(null, null, null) {
             @Override
             public void sendCanMatch(Transport.Connection connection, ShardSearchTransportRequest request, SearchTask task,
                                      ActionListener<SearchService.CanMatchResponse> listener) {
@@ -86,7 +106,7 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
                     public void run() throws IOException {
                         result.set(iter);
                         latch.countDown();
-                    }}, SearchResponse.Clusters.EMPTY);
+                    }}, SearchResponse.Clusters.EMPTY, null, ClusterState.EMPTY_STATE, null);
 
         canMatchPhase.start();
         latch.await();
@@ -106,6 +126,96 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
         }
     }
 
+    public void testSkipShardsWithCachedFieldRanges() throws Exception {
+        final TransportSearchAction.SearchTimeProvider timeProvider = new TransportSearchAction.SearchTimeProvider(0, System.nanoTime(),
+            System::nanoTime);
+        Map<String, Transport.Connection> lookup = new ConcurrentHashMap<>();
+        DiscoveryNode primaryNode = new DiscoveryNode("node_1", buildNewFakeTransportAddress(), Version.CURRENT);
+        DiscoveryNode replicaNode = new DiscoveryNode("node_2", buildNewFakeTransportAddress(), Version.CURRENT);
+        lookup.put("node1", new SearchAsyncActionTests.MockConnection(primaryNode));
+        lookup.put("node2", new SearchAsyncActionTests.MockConnection(replicaNode));
+
+        final Map<String, DateFieldRange> fieldRanges = Collections.singletonMap("@timestamp", timestampRange());
+        final AtomicInteger sentRequests = new AtomicInteger();
+        SearchTransportService searchTransportService = new SearchTransportService(null, null, null) {
+            @Override
+            public void sendCanMatch(Transport.Connection connection, ShardSearchTransportRequest request, SearchTask task,
+                                     ActionListener<SearchService.CanMatchResponse> listener) {
+                sentRequests.incrementAndGet();
+                new Thread(() -> listener.onResponse(new SearchService.CanMatchResponse(true, fieldRanges))).start();
+            }
+        };
+
+        IndexMetaData indexMetaData = IndexMetaData.builder("idx")
+            .settings(Settings.builder()
+                .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(IndexMetaData.SETTING_INDEX_UUID, "_na_")
+                .put(IndexMetaData.SETTING_BLOCKS_WRITE, true))
+            .numberOfShards(2)
+            .numberOfReplicas(1)
+            .build();
+        ClusterState clusterState = ClusterState.builder(ClusterName.DEFAULT)
+            .metaData(MetaData.builder().put(indexMetaData, false))
+            .blocks(ClusterBlocks.builder().addBlocks(indexMetaData))
+            .build();
+        CanMatchFieldRangeCache fieldRangeCache = new CanMatchFieldRangeCache(Settings.EMPTY);
+        QueryRewriteContext rewriteContext = new QueryRewriteContext(xContentRegistry(), writableRegistry(), null, () -> 0L);
+        final SearchRequest searchRequest = new SearchRequest();
+        searchRequest.allowPartialSearchResults(true);
+        searchRequest.source(new SearchSourceBuilder().query(QueryBuilders.rangeQuery("@timestamp").gte("2019-01-01")));
+
+        for (int run = 0; run < 2; run++) {
+            AtomicReference<GroupShardsIterator<SearchShardIterator>> result = new AtomicReference<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            GroupShardsIterator<SearchShardIterator> shardsIter = SearchAsyncActionTests.getShardsIter("idx",
+                new OriginalIndices(new String[]{"idx"}, SearchRequest.DEFAULT_INDICES_OPTIONS),
+                2, randomBoolean(), primaryNode, replicaNode);
+            CanMatchPreFilterSearchPhase canMatchPhase = new CanMatchPreFilterSearchPhase(logger,
+                searchTransportService,
+                (clusterAlias, node) -> lookup.get(node),
+                Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY)),
+                Collections.emptyMap(), Collections.emptyMap(), EsExecutors.newDirectExecutorService(),
+                searchRequest, null, shardsIter, timeProvider, 0, null,
+                (iter) -> new SearchPhase("test") {
+                    @Override
+                    public void run() throws IOException {
+                        result.set(iter);
+                        latch.countDown();
+                    }}, SearchResponse.Clusters.EMPTY, fieldRangeCache, clusterState, rewriteContext);
+
+            canMatchPhase.start();
+            latch.await();
+
+            if (run == 0) {
+                // the shards are asked and report the ranges of their fields
+                assertEquals(2, sentRequests.get());
+                assertFalse(result.get().get(0).skip());
+                assertFalse(result.get().get(1).skip());
+                assertEquals(2, fieldRangeCache.stats().getCachedShards());
+            } else {
+                // the ranges are cached so the shards are skipped without sending them any request
+                assertEquals(2, sentRequests.get());
+                assertFalse(result.get().get(0).skip());
+                assertTrue(result.get().get(1).skip());
+                assertEquals(2, fieldRangeCache.stats().getSkippedShards());
+            }
+        }
+    }
+
+    private static DateFieldRange timestampRange() throws IOException {
+        try (Directory dir = newDirectory(); IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(null))) {
+            Document doc = new Document();
+            doc.add(new LongPoint("@timestamp", DateFormatters.from(DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parse("2018-06-01"))
+                .toInstant().toEpochMilli()));
+            w.addDocument(doc);
+            try (DirectoryReader reader = DirectoryReader.open(w)) {
+                DateFieldMapper.DateFieldType fieldType = new DateFieldMapper.Builder("@timestamp").fieldType();
+                fieldType.setName("@timestamp");
+                return DateFieldRange.fromReader(reader, fieldType);
+            }
+        }
+    }
+
     public void testFilterWithFailure() throws InterruptedException {
         final TransportSearchAction.SearchTimeProvider timeProvider = new TransportSearchAction.SearchTimeProvider(0, System.nanoTime(),
             System::nanoTime);
@@ -115,7 +225,7 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
         lookup.put("node1", new SearchAsyncActionTests.MockConnection(primaryNode));
         lookup.put("node2", new SearchAsyncActionTests.MockConnection(replicaNode));
         final boolean shard1 = randomBoolean();
-        SearchTransportService searchTransportService = new SearchTransportService(null, null) {
+        SearchTransportService searchTransportService = new SearchTransportService(null, null, null) {
             @Override
             public void sendCanMatch(Transport.Connection connection, ShardSearchTransportRequest request, SearchTask task,
                                      ActionListener<SearchService.CanMatchResponse> listener) {
@@ -154,7 +264,7 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
                 public void run() throws IOException {
                     result.set(iter);
                     latch.countDown();
-                }}, SearchResponse.Clusters.EMPTY);
+                }}, SearchResponse.Clusters.EMPTY, null, ClusterState.EMPTY_STATE, null);
 
         canMatchPhase.start();
         latch.await();
@@ -181,7 +291,7 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
 
 
         final SearchTransportService searchTransportService =
-                new SearchTransportService(null, null) {
+                new SearchTransportService(null, null, null) {
                     @Override
                     public void sendCanMatch(
                             Transport.Connection connection,
@@ -241,7 +351,7 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
                             listener.onFailure(new Exception("failure"));
                         }
                     }
-                }, SearchResponse.Clusters.EMPTY);
+                }, SearchResponse.Clusters.EMPTY, null, ClusterState.EMPTY_STATE, null);
 
         canMatchPhase.start();
         latch.await();
@@ -62,7 +62,7 @@ public class ClearScrollControllerTests extends ESTestCase {
             }
         }, latch);
         List<DiscoveryNode> nodesInvoked = new CopyOnWriteArrayList<>();
-        SearchTransportService searchTransportService = new SearchTransportService(null, null) {
+        SearchTransportService searchTransportService = new SearchTransportService(null, null, null) {
             @Override
             public void sendClearAllScrollContexts(Transport.Connection connection, ActionListener<TransportResponse> listener) {
                 nodesInvoked.add(connection.getNode());
@@ -118,7 +118,7 @@ public class ClearScrollControllerTests extends ESTestCase {
             }
         }, latch);
         List<DiscoveryNode> nodesInvoked = new CopyOnWriteArrayList<>();
-        SearchTransportService searchTransportService = new SearchTransportService(null, null) {
+        SearchTransportService searchTransportService = new SearchTransportService(null, null, null) {
 
             @Override
             public void sendFreeContext(Transport.Connection connection, long contextId,
@@ -186,7 +186,7 @@ public class ClearScrollControllerTests extends ESTestCase {
             }
         }, latch);
         List<DiscoveryNode> nodesInvoked = new CopyOnWriteArrayList<>();
-        SearchTransportService searchTransportService = new SearchTransportService(null, null) {
+        SearchTransportService searchTransportService = new SearchTransportService(null, null, null) {
 
             @Override
             public void sendFreeContext(Transport.Connection connection, long contextId,
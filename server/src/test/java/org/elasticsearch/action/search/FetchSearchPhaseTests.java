@@ -109,7 +109,7 @@ public class FetchSearchPhaseTests extends ESTestCase {
         queryResult.setShardIndex(1);
         results.consumeResult(queryResult);
 
-        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null) {
+        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null, null) {
             @Override
             public void sendExecuteFetch(Transport.Connection connection, ShardFetchSearchRequest request, SearchTask task,
                                          SearchActionListener<FetchSearchResult> listener) {
@@ -145,6 +145,62 @@ public class FetchSearchPhaseTests extends ESTestCase {
         assertTrue(mockSearchPhaseContext.releasedSearchContexts.isEmpty());
     }
 
+    public void testSpeculativelyFetchedShard() throws IOException {
+        MockSearchPhaseContext mockSearchPhaseContext = new MockSearchPhaseContext(2);
+        SearchPhaseController controller = new SearchPhaseController(
+            (b) -> new InternalAggregation.ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, b));
+        InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> results =
+            controller.newSearchPhaseResults(mockSearchPhaseContext.getRequest(), 2);
+        // the first shard fetched its top two hits along with its query results, but only its best hit makes it to the response
+        SearchShardTarget shardTarget = new SearchShardTarget("node1", new ShardId("test", "na", 0), null, OriginalIndices.NONE);
+        QuerySearchResult queryResult = new QuerySearchResult(123, shardTarget);
+        queryResult.topDocs(new TopDocsAndMaxScore(new TopDocs(new TotalHits(2, TotalHits.Relation.EQUAL_TO),
+                new ScoreDoc[] {new ScoreDoc(42, 3.0F), new ScoreDoc(43, 1.0F)}), 3.0F), new DocValueFormat[0]);
+        queryResult.size(2);
+        FetchSearchResult fetchResult = new FetchSearchResult(123, shardTarget);
+        fetchResult.hits(new SearchHits(new SearchHit[] {new SearchHit(42), new SearchHit(43)},
+            new TotalHits(2, TotalHits.Relation.EQUAL_TO), 3.0F));
+        QueryFetchSearchResult queryFetchResult = new QueryFetchSearchResult(queryResult, fetchResult);
+        queryFetchResult.setShardIndex(0);
+        results.consumeResult(queryFetchResult);
+
+        queryResult = new QuerySearchResult(321, new SearchShardTarget("node2", new ShardId("test", "na", 1), null, OriginalIndices.NONE));
+        queryResult.topDocs(new TopDocsAndMaxScore(new TopDocs(new TotalHits(1, TotalHits.Relation.EQUAL_TO),
+                new ScoreDoc[] {new ScoreDoc(84, 2.0F)}), 2.0F), new DocValueFormat[0]);
+        queryResult.size(2);
+        queryResult.setShardIndex(1);
+        results.consumeResult(queryResult);
+
+        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null, null) {
+            @Override
+            public void sendExecuteFetch(Transport.Connection connection, ShardFetchSearchRequest request, SearchTask task,
+                                         SearchActionListener<FetchSearchResult> listener) {
+                assertEquals(321, request.id());
+                FetchSearchResult fetchResult = new FetchSearchResult();
+                fetchResult.hits(new SearchHits(new SearchHit[] {new SearchHit(84)},
+                    new TotalHits(1, TotalHits.Relation.EQUAL_TO), 2.0F));
+                listener.onResponse(fetchResult);
+            }
+        };
+        FetchSearchPhase phase = new FetchSearchPhase(results, controller, mockSearchPhaseContext,
+            (searchResponse, scrollId) -> new SearchPhase("test") {
+                @Override
+                public void run() {
+                    mockSearchPhaseContext.sendSearchResponse(searchResponse, null);
+                }
+            });
+        phase.run();
+        mockSearchPhaseContext.assertNoFailure();
+        SearchResponse searchResponse = mockSearchPhaseContext.searchResponse.get();
+        assertNotNull(searchResponse);
+        assertEquals(3, searchResponse.getHits().getTotalHits().value);
+        assertEquals(2, searchResponse.getHits().getHits().length);
+        assertEquals(42, searchResponse.getHits().getAt(0).docId());
+        assertEquals(84, searchResponse.getHits().getAt(1).docId());
+        assertEquals(2, searchResponse.getSuccessfulShards());
+        assertTrue(mockSearchPhaseContext.releasedSearchContexts.isEmpty());
+    }
+
     public void testFailFetchOneDoc() throws IOException {
         MockSearchPhaseContext mockSearchPhaseContext = new MockSearchPhaseContext(2);
         SearchPhaseController controller = new SearchPhaseController(
@@ -167,7 +223,7 @@ public class FetchSearchPhaseTests extends ESTestCase {
         queryResult.setShardIndex(1);
         results.consumeResult(queryResult);
 
-        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null) {
+        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null, null) {
             @Override
             public void sendExecuteFetch(Transport.Connection connection, ShardFetchSearchRequest request, SearchTask task,
                                          SearchActionListener<FetchSearchResult> listener) {
@@ -222,7 +278,7 @@ public class FetchSearchPhaseTests extends ESTestCase {
             queryResult.setShardIndex(i);
             results.consumeResult(queryResult);
         }
-        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null) {
+        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null, null) {
             @Override
             public void sendExecuteFetch(Transport.Connection connection, ShardFetchSearchRequest request, SearchTask task,
                                          SearchActionListener<FetchSearchResult> listener) {
@@ -286,7 +342,7 @@ public class FetchSearchPhaseTests extends ESTestCase {
         queryResult.setShardIndex(1);
         results.consumeResult(queryResult);
         AtomicInteger numFetches = new AtomicInteger(0);
-        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null) {
+        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null, null) {
             @Override
             public void sendExecuteFetch(Transport.Connection connection, ShardFetchSearchRequest request, SearchTask task,
                                          SearchActionListener<FetchSearchResult> listener) {
@@ -342,7 +398,7 @@ public class FetchSearchPhaseTests extends ESTestCase {
         queryResult.setShardIndex(1);
         results.consumeResult(queryResult);
 
-        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null) {
+        mockSearchPhaseContext.searchTransport = new SearchTransportService(null, null, null) {
             @Override
             public void sendExecuteFetch(Transport.Connection connection, ShardFetchSearchRequest request, SearchTask task,
                                          SearchActionListener<FetchSearchResult> listener) {
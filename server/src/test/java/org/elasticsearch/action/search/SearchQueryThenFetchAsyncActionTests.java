@@ -0,0 +1,52 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.Scroll;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.collapse.CollapseBuilder;
+import org.elasticsearch.search.suggest.SuggestBuilder;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.elasticsearch.action.search.SearchQueryThenFetchAsyncAction.shouldFetchSpeculatively;
+
+public class SearchQueryThenFetchAsyncActionTests extends ESTestCase {
+
+    public void testShouldFetchSpeculatively() {
+        assertTrue(shouldFetchSpeculatively(new SearchRequest(), 5, 10));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest(), 5, 9));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest(), 5, 0));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest(), 1, 10));
+
+        assertTrue(shouldFetchSpeculatively(new SearchRequest().source(new SearchSourceBuilder()), 5, 10));
+        assertTrue(shouldFetchSpeculatively(new SearchRequest().source(new SearchSourceBuilder().size(3)), 5, 3));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest().source(new SearchSourceBuilder().size(4)), 5, 3));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest().source(new SearchSourceBuilder().size(0)), 5, 3));
+        assertTrue(shouldFetchSpeculatively(new SearchRequest().source(new SearchSourceBuilder().size(3).from(0)), 5, 3));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest().source(new SearchSourceBuilder().size(3).from(3)), 5, 10));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest().source(
+            new SearchSourceBuilder().size(3).collapse(new CollapseBuilder("field"))), 5, 10));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest().source(
+            new SearchSourceBuilder().size(3).suggest(new SuggestBuilder())), 5, 10));
+        assertFalse(shouldFetchSpeculatively(new SearchRequest().source(new SearchSourceBuilder().size(3))
+            .scroll(new Scroll(TimeValue.timeValueMinutes(1))), 5, 10));
+    }
+}
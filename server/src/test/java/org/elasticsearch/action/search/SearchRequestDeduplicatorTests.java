@@ -0,0 +1,145 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class SearchRequestDeduplicatorTests extends ESTestCase {
+
+    private static SearchRequest newRequest(String value) {
+        return new SearchRequest("index").source(new SearchSourceBuilder().query(QueryBuilders.termQuery("field", value)));
+    }
+
+    public void testAttachIdenticalRequests() {
+        SearchRequestDeduplicator deduplicator = new SearchRequestDeduplicator();
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        List<ActionListener<SearchResponse>> searches = new ArrayList<>();
+        int numRequests = randomIntBetween(2, 10);
+        List<AtomicReference<SearchResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < numRequests; i++) {
+            AtomicReference<SearchResponse> response = new AtomicReference<>();
+            responses.add(response);
+            deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(response::set, e -> fail()),
+                searches::add);
+        }
+        assertEquals(1, searches.size());
+        assertEquals(1, deduplicator.size());
+
+        // a different request runs its own search
+        deduplicator.executeOnce(newRequest("other"), threadContext, ActionListener.wrap(r -> {}, e -> fail()), searches::add);
+        assertEquals(2, searches.size());
+        assertEquals(2, deduplicator.size());
+
+        SearchResponse searchResponse = SearchResponse.empty(() -> 1L, SearchResponse.Clusters.EMPTY);
+        searches.get(0).onResponse(searchResponse);
+        for (AtomicReference<SearchResponse> response : responses) {
+            assertThat(response.get(), sameInstance(searchResponse));
+        }
+        assertEquals(1, deduplicator.size());
+
+        // once the search completed, identical requests run a new search
+        deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(r -> {}, e -> fail()), searches::add);
+        assertEquals(3, searches.size());
+    }
+
+    public void testDifferentHeaders() {
+        SearchRequestDeduplicator deduplicator = new SearchRequestDeduplicator();
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        List<ActionListener<SearchResponse>> searches = new ArrayList<>();
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader("Authorization", "user1");
+            deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(r -> {}, e -> fail()), searches::add);
+        }
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader("Authorization", "user2");
+            deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(r -> {}, e -> fail()), searches::add);
+        }
+        assertEquals(2, searches.size());
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader("Authorization", "user1");
+            threadContext.putHeader("X-Opaque-Id", "id");
+            deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(r -> {}, e -> fail()), searches::add);
+        }
+        assertEquals(2, searches.size());
+    }
+
+    public void testRequestsThatAreNotDeduplicated() {
+        SearchRequestDeduplicator deduplicator = new SearchRequestDeduplicator();
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        List<ActionListener<SearchResponse>> searches = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            deduplicator.executeOnce(newRequest("value").scroll(TimeValue.timeValueMinutes(1)), threadContext,
+                ActionListener.wrap(r -> {}, e -> fail()), searches::add);
+            deduplicator.executeOnce(newRequest("value").requestCache(false), threadContext,
+                ActionListener.wrap(r -> {}, e -> fail()), searches::add);
+        }
+        assertEquals(4, searches.size());
+        assertEquals(0, deduplicator.size());
+    }
+
+    public void testFailures() {
+        SearchRequestDeduplicator deduplicator = new SearchRequestDeduplicator();
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        List<ActionListener<SearchResponse>> searches = new ArrayList<>();
+        AtomicReference<Exception> firstFailure = new AtomicReference<>();
+        AtomicReference<Exception> secondFailure = new AtomicReference<>();
+        deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(r -> fail(), firstFailure::set),
+            searches::add);
+        deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(r -> fail(), secondFailure::set),
+            searches::add);
+        assertEquals(1, searches.size());
+        searches.get(0).onFailure(new IllegalArgumentException("boom"));
+        assertThat(firstFailure.get(), instanceOf(IllegalArgumentException.class));
+        assertThat(secondFailure.get(), sameInstance(firstFailure.get()));
+        assertEquals(0, deduplicator.size());
+    }
+
+    public void testAttachedRequestsRunWhenSearchIsCancelled() {
+        SearchRequestDeduplicator deduplicator = new SearchRequestDeduplicator();
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        List<ActionListener<SearchResponse>> searches = new ArrayList<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicReference<SearchResponse> response = new AtomicReference<>();
+        deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(r -> fail(), failure::set), searches::add);
+        deduplicator.executeOnce(newRequest("value"), threadContext, ActionListener.wrap(response::set, e -> fail()),
+            searches::add);
+        assertEquals(1, searches.size());
+        searches.get(0).onFailure(new TaskCancelledException("cancelled"));
+        assertThat(failure.get(), instanceOf(TaskCancelledException.class));
+        assertEquals(2, searches.size());
+        SearchResponse searchResponse = SearchResponse.empty(() -> 1L, SearchResponse.Clusters.EMPTY);
+        searches.get(1).onResponse(searchResponse);
+        assertThat(response.get(), sameInstance(searchResponse));
+    }
+}
@@ -35,8 +35,11 @@ import org.elasticsearch.search.aggregations.bucket.terms.LongTerms;
 import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.elasticsearch.search.aggregations.support.ValueType;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+
 public class TransportSearchActionSingleNodeTests extends ESSingleNodeTestCase {
 
     public void testLocalClusterAlias() {
@@ -235,4 +238,33 @@ public class TransportSearchActionSingleNodeTests extends ESSingleNodeTestCase {
             assertTrue(response.isAcknowledged());
         }
     }
+
+    public void testSpeculativeFetch() {
+        assertAcked(client().admin().indices().prepareCreate("test")
+            .setSettings(Settings.builder().put("index.number_of_shards", 3)).get());
+        for (int i = 0; i < 20; i++) {
+            client().prepareIndex("test", "_doc", Integer.toString(i)).setSource("field", i).get();
+        }
+        client().admin().indices().prepareRefresh("test").get();
+        final SearchSourceBuilder source = new SearchSourceBuilder().size(5).sort("field", SortOrder.DESC);
+        final SearchResponse expected = client().search(new SearchRequest("test").source(source)).actionGet();
+        assertEquals(5, expected.getHits().getHits().length);
+
+        client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+            .put(TransportSearchAction.SPECULATIVE_FETCH_MAX_SIZE_SETTING.getKey(), 10)).get();
+        try {
+            final SearchResponse response = client().search(new SearchRequest("test").source(source)).actionGet();
+            assertEquals(3, response.getSuccessfulShards());
+            assertEquals(expected.getHits().getTotalHits().value, response.getHits().getTotalHits().value);
+            assertEquals(expected.getHits().getHits().length, response.getHits().getHits().length);
+            for (int i = 0; i < expected.getHits().getHits().length; i++) {
+                assertEquals(Integer.toString(19 - i), response.getHits().getAt(i).getId());
+                assertEquals(expected.getHits().getAt(i).getId(), response.getHits().getAt(i).getId());
+                assertEquals(expected.getHits().getAt(i).getSourceAsMap(), response.getHits().getAt(i).getSourceAsMap());
+            }
+        } finally {
+            client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+                .putNull(TransportSearchAction.SPECULATIVE_FETCH_MAX_SIZE_SETTING.getKey())).get();
+        }
+    }
 }
@@ -37,6 +37,7 @@ import org.elasticsearch.cluster.routing.allocation.decider.ReplicaAfterPrimaryA
 import org.elasticsearch.cluster.routing.allocation.decider.ResizeAllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.RestoreInProgressAllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.SameShardAllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.SearchableSnapshotAllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.ShardsLimitAllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.SnapshotInProgressAllocationDecider;
 import org.elasticsearch.cluster.routing.allocation.decider.ThrottlingAllocationDecider;
@@ -175,6 +176,7 @@ public class ClusterModuleTests extends ModuleTestCase {
         List<Class<? extends AllocationDecider>> expectedDeciders = Arrays.asList(
             MaxRetryAllocationDecider.class,
             ResizeAllocationDecider.class,
+            SearchableSnapshotAllocationDecider.class,
             ReplicaAfterPrimaryActiveAllocationDecider.class,
             RebalanceOnlyWhenActiveAllocationDecider.class,
             ClusterRebalanceAllocationDecider.class,
@@ -20,6 +20,7 @@ package org.elasticsearch.cluster.routing;
 
 import org.elasticsearch.Version;
 import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
+import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -48,6 +49,7 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.object.HasToString.hasToString;
 
 public class OperationRoutingTests extends ESTestCase{
@@ -606,4 +608,36 @@ public class OperationRoutingTests extends ESTestCase{
         terminate(threadPool);
     }
 
+    public void testAdaptiveReplicaSelectionWeightsOutstandingCostForGets() throws Exception {
+        final String[] indexNames = new String[] { "test" };
+        ClusterState state = ClusterStateCreationUtils.stateWithAssignedPrimariesAndReplicas(indexNames, 1, 2);
+        OperationRouting opRouting = new OperationRouting(Settings.EMPTY,
+                new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        opRouting.setUseAdaptiveReplicaSelection(true);
+        TestThreadPool threadPool = new TestThreadPool("testAdaptiveReplicaSelectionWeightsOutstandingCostForGets");
+        ClusterService clusterService = ClusterServiceUtils.createClusterService(threadPool);
+        ResponseCollectorService collector = new ResponseCollectorService(clusterService);
+
+        // all nodes look the same, except that node_1 is busy with a request on a much more expensive index
+        collector.addIndexStatistics("cheap", TimeValue.timeValueMillis(10).nanos());
+        collector.addIndexStatistics("expensive", TimeValue.timeValueMillis(190).nanos());
+        // the relative costs of the indices are computed when a cluster state is applied
+        collector.clusterChanged(new ClusterChangedEvent("test", state, state));
+        for (String nodeId : new String[] { "node_0", "node_1", "node_2" }) {
+            collector.addNodeStatistics(nodeId, 1, TimeValue.timeValueMillis(100).nanos(), TimeValue.timeValueMillis(50).nanos());
+        }
+        collector.onRequestSent("node_0", "cheap");
+        collector.onRequestSent("node_1", "expensive");
+        collector.onRequestSent("node_2", "cheap");
+
+        ShardIterator shardIterator = opRouting.getShards(state, "test", 0, null, collector, collector.getOutstandingRequests());
+        assertThat(shardIterator.size(), equalTo(3));
+        assertThat(shardIterator.nextOrNull().currentNodeId(), not(equalTo("node_1")));
+
+        shardIterator = opRouting.getShards(state, "test", "id", null, null, collector, collector.getOutstandingRequests());
+        assertThat(shardIterator.nextOrNull().currentNodeId(), not(equalTo("node_1")));
+
+        IOUtils.close(clusterService);
+        terminate(threadPool);
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ESAllocationTestCase;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.command.AllocationCommands;
+import org.elasticsearch.cluster.routing.allocation.command.MoveAllocationCommand;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.cluster.routing.allocation.decider.SearchableSnapshotAllocationDecider;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.store.SearchableSnapshotDirectoryFactory;
+
+import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
+import static org.hamcrest.Matchers.containsString;
+
+public class SearchableSnapshotAllocationDeciderTests extends ESAllocationTestCase {
+
+    public void testMountedShardsAreNotRecoveredFromAnotherCopy() {
+        final AllocationService strategy = createAllocationService();
+        final MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder("mounted").settings(settings(Version.CURRENT)
+                .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), SearchableSnapshotDirectoryFactory.STORE_TYPE))
+                .numberOfShards(1).numberOfReplicas(1))
+            .put(IndexMetaData.builder("regular").settings(settings(Version.CURRENT)).numberOfShards(1).numberOfReplicas(1))
+            .build();
+        ClusterState clusterState = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metaData(metaData)
+            .routingTable(RoutingTable.builder().addAsNew(metaData.index("mounted")).addAsNew(metaData.index("regular")).build())
+            .nodes(DiscoveryNodes.builder().add(newNode("node1")).add(newNode("node2")))
+            .build();
+
+        clusterState = strategy.reroute(clusterState, "reroute");
+        clusterState = strategy.applyStartedShards(clusterState, clusterState.getRoutingNodes().shardsWithState(INITIALIZING));
+
+        // the replica of the mounted index is never assigned, unlike the replica of the regular index
+        assertTrue(clusterState.routingTable().index("mounted").shard(0).primaryShard().started());
+        assertTrue(clusterState.routingTable().index("mounted").shard(0).replicaShards().get(0).unassigned());
+        assertFalse(clusterState.routingTable().index("regular").shard(0).replicaShards().get(0).unassigned());
+
+        final SearchableSnapshotAllocationDecider decider = new SearchableSnapshotAllocationDecider();
+        final RoutingAllocation allocation = new RoutingAllocation(null, clusterState.getRoutingNodes(), clusterState, null, 0);
+        final ShardRouting primary = clusterState.routingTable().index("mounted").shard(0).primaryShard();
+        final RoutingNode otherNode = clusterState.getRoutingNodes().node(primary.currentNodeId().equals("node1") ? "node2" : "node1");
+        assertEquals(Decision.Type.NO, decider.canAllocate(primary, otherNode, allocation).type());
+        assertEquals(Decision.Type.NO, decider.canRebalance(primary, allocation).type());
+        final ShardRouting regularPrimary = clusterState.routingTable().index("regular").shard(0).primaryShard();
+        assertEquals(Decision.Type.YES, decider.canAllocate(regularPrimary, otherNode, allocation).type());
+        assertEquals(Decision.Type.YES, decider.canRebalance(regularPrimary, allocation).type());
+
+        // the primary of the mounted index can't be relocated either
+        final ClusterState finalState = clusterState;
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> strategy.reroute(finalState,
+            new AllocationCommands(new MoveAllocationCommand("mounted", 0, primary.currentNodeId(), otherNode.nodeId())), false, false));
+        assertThat(e.getMessage(), containsString("a shard mounted from a snapshot can't be recovered from another copy"));
+    }
+}
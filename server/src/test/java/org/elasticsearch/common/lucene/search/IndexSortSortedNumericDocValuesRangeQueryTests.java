@@ -0,0 +1,122 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.search;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class IndexSortSortedNumericDocValuesRangeQueryTests extends ESTestCase {
+
+    private static Query rangeQuery(long lower, long upper) {
+        Query fallback = new IndexOrDocValuesQuery(LongPoint.newRangeQuery("field", lower, upper),
+            SortedNumericDocValuesField.newSlowRangeQuery("field", lower, upper));
+        return new IndexSortSortedNumericDocValuesRangeQuery("field", lower, upper, fallback);
+    }
+
+    public void testSameHitsAsFallbackQuery() throws IOException {
+        final boolean reverse = randomBoolean();
+        final Sort indexSort = new Sort(new SortedNumericSortField("field", SortField.Type.LONG, reverse));
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setIndexSort(indexSort))) {
+            final int numDocs = scaledRandomIntBetween(100, 1000);
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                // some segments have documents without a value or with several values, which can't be searched by their sort
+                final int numValues = rarely() ? randomIntBetween(0, 2) : 1;
+                for (int j = 0; j < numValues; j++) {
+                    final long value = randomLongBetween(-100, 100);
+                    doc.add(new LongPoint("field", value));
+                    doc.add(new SortedNumericDocValuesField("field", value));
+                }
+                writer.addDocument(doc);
+                if (rarely()) {
+                    writer.commit();
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                final IndexSearcher searcher = newSearcher(reader);
+                for (int i = 0; i < 100; i++) {
+                    final long lower = randomLongBetween(-110, 110);
+                    final long upper = randomLongBetween(lower, 110);
+                    final IndexSortSortedNumericDocValuesRangeQuery query =
+                        (IndexSortSortedNumericDocValuesRangeQuery) rangeQuery(lower, upper);
+                    final Query fallback = query.getFallbackQuery();
+                    assertThat(query.toString(), searcher.count(query), equalTo(searcher.count(fallback)));
+                    for (LeafReaderContext context : reader.leaves()) {
+                        final int count = query.count(context.reader());
+                        if (count != -1) {
+                            assertThat(count, equalTo(new IndexSearcher(context.reader()).count(fallback)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void testUnsortedIndex() throws IOException {
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            for (long value = 0; value < 10; value++) {
+                Document doc = new Document();
+                doc.add(new LongPoint("field", value));
+                doc.add(new SortedNumericDocValuesField("field", value));
+                writer.addDocument(doc);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                final IndexSortSortedNumericDocValuesRangeQuery query = (IndexSortSortedNumericDocValuesRangeQuery) rangeQuery(3, 5);
+                assertThat(query.count(reader.leaves().get(0).reader()), equalTo(-1));
+                assertThat(newSearcher(reader).count(query), equalTo(3));
+            }
+        }
+    }
+
+    public void testEmptyRangeRewritesToMatchNoDocs() throws IOException {
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                assertThat(rangeQuery(5, 3).rewrite(reader), instanceOf(MatchNoDocsQuery.class));
+            }
+        }
+    }
+
+    public void testEqualsAndHashCode() {
+        assertEquals(rangeQuery(3, 5), rangeQuery(3, 5));
+        assertEquals(rangeQuery(3, 5).hashCode(), rangeQuery(3, 5).hashCode());
+        assertNotEquals(rangeQuery(3, 5), rangeQuery(3, 6));
+        assertNotEquals(rangeQuery(3, 5), rangeQuery(2, 5));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.uid;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.lessThan;
+
+public class IdExistenceFilterTests extends ESTestCase {
+
+    public void testBloomFilter() throws Exception {
+        final Set<String> ids = new HashSet<>();
+        final int numDocs = randomIntBetween(1, 2000);
+        while (ids.size() < numDocs) {
+            ids.add(randomBoolean() ? UUIDs.randomBase64UUID(random()) : Integer.toString(randomIntBetween(0, 1000000)));
+        }
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(Lucene.STANDARD_ANALYZER))) {
+            for (String id : ids) {
+                Document doc = new Document();
+                doc.add(new Field(IdFieldMapper.NAME, Uid.encodeId(id), IdFieldMapper.Defaults.FIELD_TYPE));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                final LeafReader leaf = reader.leaves().get(0).reader();
+                final Terms terms = leaf.terms(IdFieldMapper.NAME);
+                final IdExistenceFilter filter = IdExistenceFilter.build(terms, terms.size(), () -> false);
+                assertTrue(filter.hasBloomFilter());
+                final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+                for (String id : ids) {
+                    assertTrue(filter.mightContain(Uid.encodeId(id), hash));
+                }
+                int falsePositives = 0;
+                final int numLookups = 10000;
+                for (int i = 0; i < numLookups; i++) {
+                    final String id = UUIDs.randomBase64UUID(random());
+                    if (ids.contains(id) == false && filter.mightContain(Uid.encodeId(id), hash)) {
+                        falsePositives++;
+                    }
+                }
+                // the expected false positive rate is below 1%, leave some room for randomness
+                assertThat(falsePositives, lessThan(numLookups / 20));
+            }
+        }
+    }
+
+    public void testCancelBuild() throws Exception {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(Lucene.STANDARD_ANALYZER))) {
+            for (int i = 0; i < 2000; i++) {
+                Document doc = new Document();
+                doc.add(new Field(IdFieldMapper.NAME, Uid.encodeId(Integer.toString(i)), IdFieldMapper.Defaults.FIELD_TYPE));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                final Terms terms = reader.leaves().get(0).reader().terms(IdFieldMapper.NAME);
+                assertNull(IdExistenceFilter.build(terms, terms.size(), () -> true));
+            }
+        }
+    }
+
+    public void testRange() throws Exception {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(Lucene.STANDARD_ANALYZER))) {
+            for (String id : new String[] {"b", "d", "f"}) {
+                Document doc = new Document();
+                doc.add(new Field(IdFieldMapper.NAME, new BytesRef(id), IdFieldMapper.Defaults.FIELD_TYPE));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                final Terms terms = reader.leaves().get(0).reader().terms(IdFieldMapper.NAME);
+                final IdExistenceFilter filter = IdExistenceFilter.rangeOf(terms);
+                assertFalse(filter.hasBloomFilter());
+                final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+                assertFalse(filter.mightContain(new BytesRef("a"), hash));
+                assertTrue(filter.mightContain(new BytesRef("b"), hash));
+                // within the range, so it may exist as far as this filter knows
+                assertTrue(filter.mightContain(new BytesRef("c"), hash));
+                assertTrue(filter.mightContain(new BytesRef("f"), hash));
+                assertFalse(filter.mightContain(new BytesRef("g"), hash));
+                assertFalse(IdExistenceFilter.build(terms, terms.size(), () -> false).mightContain(new BytesRef("g"), hash));
+            }
+        }
+    }
+}
@@ -24,15 +24,21 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.SeqNoFieldMapper;
 import org.elasticsearch.index.mapper.VersionFieldMapper;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.VersionUtils;
 
@@ -42,6 +48,7 @@ import java.util.List;
 
 import static org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver.loadDocIdAndVersion;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.nullValue;
 
 public class VersionsTests extends ESTestCase {
@@ -200,6 +207,146 @@ public class VersionsTests extends ESTestCase {
         dir.close();
     }
 
+    /** Test that bloom filters are built once a segment is looked up, used to skip segments and released on close */
+    public void testIdExistenceFilters() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriter writer = newWriterWithOneSegmentPerId(dir, "1", "2");
+        DirectoryReader reader = DirectoryReader.open(writer);
+        assertEquals(2, reader.leaves().size());
+        CircuitBreaker breaker = newAccountingBreaker("100%");
+        // build the filters right away, so that the lookup that triggers them already uses them
+        IdExistenceFilters filters = new IdExistenceFilters(true, breaker, EsExecutors.newDirectExecutorService());
+        assertEquals(0, filters.numBloomFilters());
+
+        assertEquals(87, loadDocIdAndVersion(reader, new Term(IdFieldMapper.NAME, "1"), randomBoolean(), filters).version);
+        assertEquals(2, filters.numBloomFilters());
+        assertEquals(1, filters.getSkippedSegmentCount());
+        assertThat(breaker.getUsed(), greaterThan(0L));
+        // found in the last segment, which is looked up first
+        assertNotNull(VersionsAndSeqNoResolver.loadDocIdAndSeqNo(reader, new Term(IdFieldMapper.NAME, "2"), filters));
+        assertEquals(1, filters.getSkippedSegmentCount());
+        assertNull(loadDocIdAndVersion(reader, new Term(IdFieldMapper.NAME, "3"), randomBoolean(), filters));
+        assertEquals(3, filters.getSkippedSegmentCount());
+        assertEquals(2, filters.numBloomFilters());
+
+        reader.close();
+        writer.close();
+        // filters should be released with their segments
+        assertEquals(0, filters.numBloomFilters());
+        assertEquals(0L, breaker.getUsed());
+        dir.close();
+    }
+
+    /** Test that lookups fall back to the range of the ids of segments if bloom filters are disabled or trip the breaker */
+    public void testIdExistenceFiltersWithoutBloomFilters() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriter writer = newWriterWithOneSegmentPerId(dir, "1", "2");
+        DirectoryReader reader = DirectoryReader.open(writer);
+        final boolean enabled = randomBoolean();
+        CircuitBreaker breaker = newAccountingBreaker(enabled ? "1b" : "100%");
+        IdExistenceFilters filters = new IdExistenceFilters(enabled, breaker, EsExecutors.newDirectExecutorService());
+
+        assertEquals(87, loadDocIdAndVersion(reader, new Term(IdFieldMapper.NAME, "1"), randomBoolean(), filters).version);
+        assertEquals(1, filters.getSkippedSegmentCount());
+        assertNull(loadDocIdAndVersion(reader, new Term(IdFieldMapper.NAME, "3"), randomBoolean(), filters));
+        assertEquals(3, filters.getSkippedSegmentCount());
+        assertEquals(0, filters.numBloomFilters());
+        assertEquals(0L, breaker.getUsed());
+
+        reader.close();
+        writer.close();
+        dir.close();
+    }
+
+    /** Test that lookups only check the range of the ids of segments until their bloom filters got built in the background */
+    public void testIdExistenceFiltersAreBuiltInTheBackground() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(Lucene.STANDARD_ANALYZER)
+            .setMergePolicy(NoMergePolicy.INSTANCE));
+        addDocument(writer, "1");
+        addDocument(writer, "3");
+        writer.commit();
+        addDocument(writer, "0");
+        addDocument(writer, "4");
+        writer.commit();
+        DirectoryReader reader = DirectoryReader.open(writer);
+        CircuitBreaker breaker = newAccountingBreaker("100%");
+        List<Runnable> builds = new ArrayList<>();
+        IdExistenceFilters filters = new IdExistenceFilters(true, breaker, builds::add);
+
+        // "2" is within the range of the ids of both segments
+        assertNull(loadDocIdAndVersion(reader, new Term(IdFieldMapper.NAME, "2"), randomBoolean(), filters));
+        assertEquals(0, filters.getSkippedSegmentCount());
+        assertEquals(2, builds.size());
+        assertNull(loadDocIdAndVersion(reader, new Term(IdFieldMapper.NAME, "2"), randomBoolean(), filters));
+        assertEquals(2, builds.size());
+        assertEquals(0, filters.numBloomFilters());
+        assertEquals(0L, breaker.getUsed());
+
+        builds.forEach(Runnable::run);
+        builds.clear();
+        assertEquals(2, filters.numBloomFilters());
+        assertThat(breaker.getUsed(), greaterThan(0L));
+        assertNull(loadDocIdAndVersion(reader, new Term(IdFieldMapper.NAME, "2"), randomBoolean(), filters));
+        assertEquals(2, filters.getSkippedSegmentCount());
+
+        // nothing is built from a segment whose reader got closed in the meantime
+        addDocument(writer, "5");
+        writer.commit();
+        DirectoryReader newReader = DirectoryReader.open(dir);
+        assertNotNull(loadDocIdAndVersion(newReader, new Term(IdFieldMapper.NAME, "5"), randomBoolean(), filters));
+        assertEquals(1, builds.size());
+        final long used = breaker.getUsed();
+        newReader.close();
+        builds.remove(0).run();
+        assertEquals(2, filters.numBloomFilters());
+        assertEquals(used, breaker.getUsed());
+
+        // no filters are built once closed
+        newReader = DirectoryReader.open(dir);
+        assertNotNull(loadDocIdAndVersion(newReader, new Term(IdFieldMapper.NAME, "5"), randomBoolean(), filters));
+        assertEquals(1, builds.size());
+        filters.close();
+        builds.remove(0).run();
+        assertEquals(2, filters.numBloomFilters());
+        assertEquals(used, breaker.getUsed());
+
+        newReader.close();
+        reader.close();
+        writer.close();
+        assertEquals(0, filters.numBloomFilters());
+        assertEquals(0L, breaker.getUsed());
+        dir.close();
+    }
+
+    private static IndexWriter newWriterWithOneSegmentPerId(Directory dir, String... ids) throws IOException {
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(Lucene.STANDARD_ANALYZER)
+            .setMergePolicy(NoMergePolicy.INSTANCE));
+        for (String id : ids) {
+            addDocument(writer, id);
+            writer.commit();
+        }
+        return writer;
+    }
+
+    private static void addDocument(IndexWriter writer, String id) throws IOException {
+        Document doc = new Document();
+        doc.add(new Field(IdFieldMapper.NAME, id, IdFieldMapper.Defaults.FIELD_TYPE));
+        doc.add(new NumericDocValuesField(VersionFieldMapper.NAME, 87));
+        doc.add(new NumericDocValuesField(SeqNoFieldMapper.NAME, randomNonNegativeLong()));
+        doc.add(new NumericDocValuesField(SeqNoFieldMapper.PRIMARY_TERM_NAME, randomLongBetween(1, Long.MAX_VALUE)));
+        writer.addDocument(doc);
+    }
+
+    private static CircuitBreaker newAccountingBreaker(String limit) {
+        Settings settings = Settings.builder()
+            .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+            .put(HierarchyCircuitBreakerService.ACCOUNTING_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), limit)
+            .build();
+        return new HierarchyCircuitBreakerService(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS))
+            .getBreaker(CircuitBreaker.ACCOUNTING);
+    }
+
     public void testLuceneVersionOnUnknownVersions() {
         // between two known versions, should use the lucene version of the previous version
         Version version = VersionUtils.getPreviousVersion(Version.CURRENT);
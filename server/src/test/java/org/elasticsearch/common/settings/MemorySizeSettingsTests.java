@@ -73,6 +73,9 @@ public class MemorySizeSettingsTests extends ESTestCase {
                 new ByteSizeValue((long) (JvmInfo.jvmInfo().getMem().getHeapMax().getBytes() * 0.6)));
         assertMemorySizeSetting(HierarchyCircuitBreakerService.IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_LIMIT_SETTING,
                 "network.breaker.inflight_requests.limit", new ByteSizeValue((JvmInfo.jvmInfo().getMem().getHeapMax().getBytes())));
+        assertMemorySizeSetting(HierarchyCircuitBreakerService.FROZEN_READERS_CIRCUIT_BREAKER_LIMIT_SETTING,
+                "indices.breaker.frozen_readers.limit",
+                new ByteSizeValue((long) (JvmInfo.jvmInfo().getMem().getHeapMax().getBytes() * 0.05)));
     }
 
     public void testIndicesFieldDataCacheSetting() {
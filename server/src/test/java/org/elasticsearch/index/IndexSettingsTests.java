@@ -562,6 +562,18 @@ public class IndexSettingsTests extends ESTestCase {
         assertThat(error.getMessage(), equalTo("final index setting [index.soft_deletes.enabled], not updateable"));
     }
 
+    public void testTranslogDisabledRequiresSoftDeletes() {
+        Settings settings = Settings.builder()
+            .put(IndexSettings.INDEX_TRANSLOG_ENABLED_SETTING.getKey(), false)
+            .put(IndexSettings.INDEX_SOFT_DELETES_SETTING.getKey(), false).build();
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> new IndexSettings(newIndexMeta("index", settings), Settings.EMPTY));
+        assertThat(e.getMessage(),
+            equalTo("[index.translog.enabled] can only be set to [false] when [index.soft_deletes.enabled] is enabled"));
+        assertFalse(new IndexSettings(newIndexMeta("index", Settings.builder()
+            .put(IndexSettings.INDEX_TRANSLOG_ENABLED_SETTING.getKey(), false).build()), Settings.EMPTY).isTranslogEnabled());
+    }
+
     public void testSoftDeletesDefaultSetting() {
         // enabled by default on 7.0+ or later
         Version createdVersion = VersionUtils.randomIndexCompatibleVersion(random());
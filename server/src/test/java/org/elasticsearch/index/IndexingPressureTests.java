@@ -0,0 +1,105 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.ESTestCase;
+
+public class IndexingPressureTests extends ESTestCase {
+
+    private final Settings settings = Settings.builder().put(IndexingPressure.MAX_INDEXING_BYTES.getKey(), "10KB").build();
+
+    public void testMemoryBytesMarkedAndReleased() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        try (Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(10);
+             Releasable coordinating2 = indexingPressure.markCoordinatingOperationStarted(50);
+             Releasable primary = indexingPressure.markPrimaryOperationStarted(15, false);
+             Releasable localPrimary = indexingPressure.markPrimaryOperationStarted(5, true);
+             Releasable replica = indexingPressure.markReplicaOperationStarted(25)) {
+            IndexingPressureStats stats = indexingPressure.stats();
+            assertEquals(60, stats.getCurrentCoordinatingBytes());
+            assertEquals(20, stats.getCurrentPrimaryBytes());
+            assertEquals(75, stats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+            assertEquals(25, stats.getCurrentReplicaBytes());
+        }
+        IndexingPressureStats stats = indexingPressure.stats();
+        assertEquals(0, stats.getCurrentCoordinatingBytes());
+        assertEquals(0, stats.getCurrentPrimaryBytes());
+        assertEquals(0, stats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+        assertEquals(0, stats.getCurrentReplicaBytes());
+        assertEquals(60, stats.getTotalCoordinatingBytes());
+        assertEquals(20, stats.getTotalPrimaryBytes());
+        assertEquals(75, stats.getTotalCombinedCoordinatingAndPrimaryBytes());
+        assertEquals(25, stats.getTotalReplicaBytes());
+        assertEquals(10 * 1024, stats.getMemoryLimit());
+    }
+
+    public void testReleaseIsIdempotent() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(100);
+        coordinating.close();
+        coordinating.close();
+        assertEquals(0, indexingPressure.getCurrentCoordinatingBytes());
+        assertEquals(0, indexingPressure.getCurrentCombinedCoordinatingAndPrimaryBytes());
+    }
+
+    public void testCoordinatingAndPrimaryRejections() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        try (Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(1024 * 3);
+             Releasable primary = indexingPressure.markPrimaryOperationStarted(1024 * 3, false);
+             Releasable replica = indexingPressure.markReplicaOperationStarted(1024 * 3)) {
+            expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markCoordinatingOperationStarted(1024 * 5));
+            expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markPrimaryOperationStarted(1024 * 5, false));
+            // local primary operations were already admitted by the coordinating stage
+            try (Releasable localPrimary = indexingPressure.markPrimaryOperationStarted(1024 * 5, true)) {
+                assertEquals(1024 * 8, indexingPressure.getCurrentPrimaryBytes());
+            }
+            // the rejected operations did not leak any bytes
+            assertEquals(1024 * 6, indexingPressure.getCurrentCombinedCoordinatingAndPrimaryBytes());
+            assertEquals(1024 * 3, indexingPressure.getCurrentCoordinatingBytes());
+            assertEquals(1024 * 3, indexingPressure.getCurrentPrimaryBytes());
+        }
+        IndexingPressureStats stats = indexingPressure.stats();
+        assertEquals(1, stats.getCoordinatingRejections());
+        assertEquals(1, stats.getPrimaryRejections());
+        assertEquals(0, stats.getReplicaRejections());
+        assertEquals(1024 * 6, stats.getTotalCombinedCoordinatingAndPrimaryBytes());
+    }
+
+    public void testReplicaRejections() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        try (Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(1024 * 9);
+             Releasable replica = indexingPressure.markReplicaOperationStarted(1024 * 14)) {
+            // replicas are not limited by the coordinating and primary bytes, and have a higher limit of their own
+            expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markReplicaOperationStarted(1024 * 2));
+            try (Releasable replica2 = indexingPressure.markReplicaOperationStarted(1024)) {
+                assertEquals(1024 * 15, indexingPressure.getCurrentReplicaBytes());
+            }
+        }
+        IndexingPressureStats stats = indexingPressure.stats();
+        assertEquals(0, stats.getCoordinatingRejections());
+        assertEquals(0, stats.getPrimaryRejections());
+        assertEquals(1, stats.getReplicaRejections());
+        assertEquals(1024 * 15, stats.getTotalReplicaBytes());
+        assertEquals(0, stats.getCurrentReplicaBytes());
+    }
+}
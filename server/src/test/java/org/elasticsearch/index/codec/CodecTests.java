@@ -25,11 +25,14 @@ import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat;
 import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat.Mode;
 import org.apache.lucene.codecs.lucene80.Lucene80Codec;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SegmentReader;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LuceneTestCase.SuppressCodecs;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.env.Environment;
@@ -45,6 +48,7 @@ import org.elasticsearch.test.IndexSettingsModule;
 import java.io.IOException;
 import java.util.Collections;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 
 @SuppressCodecs("*") // we test against default codec so never get a random one here!
@@ -67,6 +71,41 @@ public class CodecTests extends ESTestCase {
         assertCompressionEquals(Mode.BEST_COMPRESSION, codec);
     }
 
+    public void testDictionaryCompression() throws Exception {
+        Codec codec = createCodecService().codec("dictionary_compression");
+        assertThat(codec, instanceOf(DictionaryCompressionCodec.class));
+        assertThat(codec.getName(), equalTo(DictionaryCompressionCodec.CODEC_NAME));
+        assertThat(Codec.forName(DictionaryCompressionCodec.CODEC_NAME), instanceOf(DictionaryCompressionCodec.class));
+
+        // write some log-like docs with it and read them back with the codec that is looked up by name
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig(null);
+        iwc.setCodec(codec);
+        IndexWriter iw = new IndexWriter(dir, iwc);
+        final int numDocs = randomIntBetween(1, 3000);
+        final String[] sources = new String[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+            sources[i] = "{\"@timestamp\":\"2019-05-" + (10 + i % 20) + "T10:00:" + (i % 60) + "Z\",\"message\":\"GET /index/"
+                + randomAlphaOfLength(randomIntBetween(0, 2000)) + " HTTP/1.1\",\"status\":" + randomFrom(200, 404, 500) + "}";
+            Document doc = new Document();
+            doc.add(new StoredField("_source", new BytesRef(sources[i])));
+            iw.addDocument(doc);
+        }
+        iw.commit();
+        iw.close();
+        DirectoryReader ir = DirectoryReader.open(dir);
+        for (LeafReaderContext leaf : ir.leaves()) {
+            assertThat(((SegmentReader) leaf.reader()).getSegmentInfo().info.getCodec(), instanceOf(DictionaryCompressionCodec.class));
+        }
+        for (int i = 0; i < 100; i++) {
+            final int docId = randomIntBetween(0, numDocs - 1);
+            final BytesRef source = ir.document(docId).getBinaryValue("_source");
+            assertEquals(sources[docId], source.utf8ToString());
+        }
+        ir.close();
+        dir.close();
+    }
+
     // write some docs with it, inspect .si to see this was the used compression
     private void assertCompressionEquals(Mode expected, Codec actual) throws Exception {
         Directory dir = newDirectory();
@@ -0,0 +1,98 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static org.hamcrest.Matchers.lessThan;
+
+public class DeflateWithDictionaryCompressionModeTests extends ESTestCase {
+
+    private final CompressionMode mode = new DeflateWithDictionaryCompressionMode(randomIntBetween(1, Deflater.BEST_COMPRESSION));
+
+    private byte[] compress(byte[] bytes, int off, int len) throws IOException {
+        final byte[] compressed = new byte[len * 2 + 64 * 17];
+        final ByteArrayDataOutput out = new ByteArrayDataOutput(compressed);
+        try (Compressor compressor = mode.newCompressor()) {
+            compressor.compress(bytes, off, len, out);
+        }
+        return Arrays.copyOf(compressed, out.getPosition());
+    }
+
+    private BytesRef decompress(byte[] compressed, int originalLength, int offset, int length) throws IOException {
+        final Decompressor decompressor = randomBoolean() ? mode.newDecompressor() : mode.newDecompressor().clone();
+        final BytesRef bytes = new BytesRef(randomBoolean() ? BytesRef.EMPTY_BYTES : new byte[randomIntBetween(1, 100)]);
+        final ByteArrayDataInput in = new ByteArrayDataInput(compressed);
+        decompressor.decompress(in, originalLength, offset, length, bytes);
+        return bytes;
+    }
+
+    private static byte[] randomLogLines(int length) {
+        final StringBuilder builder = new StringBuilder();
+        while (builder.length() < length) {
+            builder.append("{\"@timestamp\":\"2019-05-10T10:00:").append(randomIntBetween(10, 59))
+                .append("Z\",\"host\":\"web-").append(randomIntBetween(1, 5)).append("\",\"message\":\"")
+                .append(randomAlphaOfLength(randomIntBetween(0, 20))).append("\"}\n");
+        }
+        return Arrays.copyOf(builder.toString().getBytes(StandardCharsets.UTF_8), length);
+    }
+
+    public void testRoundTrip() throws IOException {
+        final int length = randomBoolean() ? randomIntBetween(0, 64) : randomIntBetween(0, 200_000);
+        final byte[] bytes = randomBoolean() ? randomLogLines(length) : randomByteArrayOfLength(length);
+        final int off = randomIntBetween(0, 10);
+        final byte[] padded = new byte[off + length + randomIntBetween(0, 10)];
+        System.arraycopy(bytes, 0, padded, off, length);
+        final byte[] compressed = compress(padded, off, length);
+
+        final BytesRef all = decompress(compressed, length, 0, length);
+        assertEquals(new BytesRef(bytes), all);
+
+        for (int i = 0; i < 10; i++) {
+            final int offset = randomIntBetween(0, length);
+            final int sliceLength = randomIntBetween(0, length - offset);
+            final BytesRef slice = decompress(compressed, length, offset, sliceLength);
+            assertEquals(new BytesRef(bytes, offset, sliceLength), slice);
+        }
+    }
+
+    public void testSimilarDocumentsCompressWell() throws IOException {
+        final byte[] bytes = randomLogLines(DictionaryCompressionCodec.CHUNK_SIZE);
+        final byte[] compressed = compress(bytes, 0, bytes.length);
+        assertThat(compressed.length, lessThan(bytes.length / 2));
+        // a single document is read without decompressing the whole chunk
+        final int offset = randomIntBetween(bytes.length / 2, bytes.length - 200);
+        final BytesRef slice = decompress(compressed, bytes.length, offset, 200);
+        assertEquals(new BytesRef(bytes, offset, 200), slice);
+        assertThat(slice.bytes.length, lessThan(ArrayUtil.oversize(bytes.length / 4, 1)));
+    }
+}
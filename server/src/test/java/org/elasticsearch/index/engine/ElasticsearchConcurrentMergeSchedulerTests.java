@@ -0,0 +1,98 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.StringHelper;
+import org.apache.lucene.util.Version;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.merge.OnGoingMerge;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.MergeBudget;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.IndexSettingsModule;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ElasticsearchConcurrentMergeSchedulerTests extends ESTestCase {
+
+    public void testMergeWaitingForTheBudgetIsNotCurrent() throws Exception {
+        final MergeBudget budget = new MergeBudget(Settings.builder()
+            .put(MergeBudget.MAX_CONCURRENT_SETTING.getKey(), 1)
+            .put(MergeBudget.SMALL_MERGE_SIZE_SETTING.getKey(), "0b")
+            .build());
+        final AtomicInteger startedMerges = new AtomicInteger();
+        final ElasticsearchConcurrentMergeScheduler scheduler = new ElasticsearchConcurrentMergeScheduler(new ShardId("index", "_na_", 0),
+            IndexSettingsModule.newIndexSettings("index", Settings.EMPTY), budget) {
+            @Override
+            protected void beforeMerge(OnGoingMerge merge) {
+                startedMerges.incrementAndGet();
+            }
+        };
+        // another merge of the node holds the only slot
+        final Releasable slot = budget.acquire(newMerge());
+        try (Directory directory = newDirectory()) {
+            final LogDocMergePolicy mergePolicy = new LogDocMergePolicy();
+            mergePolicy.setMergeFactor(2);
+            final IndexWriterConfig config = new IndexWriterConfig().setMergeScheduler(scheduler).setMergePolicy(mergePolicy);
+            try (IndexWriter writer = new IndexWriter(directory, config)) {
+                try {
+                    for (int i = 0; i < 2; i++) {
+                        final Document document = new Document();
+                        document.add(new StringField("id", Integer.toString(i), StringField.Store.NO));
+                        writer.addDocument(document);
+                        writer.commit();
+                    }
+                    assertBusy(() -> assertEquals(1, budget.stats().getQueued()));
+                    assertEquals(0, scheduler.stats().getCurrent());
+                    assertEquals(0, scheduler.stats().getCurrentNumDocs());
+                    assertTrue(scheduler.onGoingMerges().isEmpty());
+                    assertEquals(0, startedMerges.get());
+                } finally {
+                    slot.close();
+                }
+                assertBusy(() -> assertEquals(1, scheduler.stats().getTotal()));
+                assertEquals(0, scheduler.stats().getCurrent());
+                assertEquals(1, startedMerges.get());
+            }
+        }
+        assertEquals(0, budget.stats().getRunning());
+    }
+
+    private static MergePolicy.OneMerge newMerge() {
+        final SegmentInfo segmentInfo = new SegmentInfo(new ByteBuffersDirectory(), Version.LATEST, Version.LATEST, "_0", 1, false,
+            Codec.getDefault(), Collections.emptyMap(), StringHelper.randomId(), Collections.emptyMap(), null);
+        final MergePolicy.OneMerge merge = new MergePolicy.OneMerge(
+            Collections.singletonList(new SegmentCommitInfo(segmentInfo, 0, 0, -1, -1, -1)));
+        merge.estimatedMergeBytes = Long.MAX_VALUE;
+        return merge;
+    }
+}
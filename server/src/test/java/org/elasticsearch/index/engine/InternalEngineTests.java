@@ -1475,6 +1475,43 @@ public class InternalEngineTests extends EngineTestCase {
         assertThat(indexResult.getVersion(), equalTo(1L));
     }
 
+    public void testIdBloomFilterSkipsSegments() throws Exception {
+        Settings settings = Settings.builder()
+            .put(defaultSettings.getSettings())
+            .put(IndexSettings.INDEX_ID_BLOOM_FILTER_SETTING.getKey(), true).build();
+        IndexMetaData indexMetaData = IndexMetaData.builder(defaultSettings.getIndexMetaData()).settings(settings).build();
+        try (Store store = createStore();
+             InternalEngine engine = createEngine(config(IndexSettingsModule.newIndexSettings(indexMetaData), store, createTempDir(),
+                 NoMergePolicy.INSTANCE, null))) {
+            int numSegments = randomIntBetween(2, 5);
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < numSegments; i++) {
+                for (int j = 0; j < 10; j++) {
+                    String id = UUIDs.randomBase64UUID(random());
+                    ids.add(id);
+                    engine.index(indexForDoc(testParsedDocument(id, null, testDocument(), B_1, null)));
+                }
+                engine.refresh("test");
+            }
+            // the bloom filters of the segments are built in the background once a lookup reaches them, new ids are in none of them
+            assertBusy(() -> {
+                final long avoidedIdSeeks = engine.getAvoidedIdSeekCount();
+                String newId = UUIDs.randomBase64UUID(random());
+                Engine.IndexResult result = engine.index(indexForDoc(testParsedDocument(newId, null, testDocument(), B_1, null)));
+                assertEquals(1L, result.getVersion());
+                assertEquals(numSegments, engine.getAvoidedIdSeekCount() - avoidedIdSeeks);
+            });
+
+            // existing ids are only in one of them, but a false positive of the bloom filters may require to seek a segment that
+            // doesn't contain the id
+            final long avoidedIdSeeks = engine.getAvoidedIdSeekCount();
+            String existingId = randomFrom(ids);
+            Engine.IndexResult result = engine.index(indexForDoc(testParsedDocument(existingId, null, testDocument(), B_1, null)));
+            assertEquals(2L, result.getVersion());
+            assertThat(engine.getAvoidedIdSeekCount() - avoidedIdSeeks, lessThanOrEqualTo(numSegments - 1L));
+        }
+    }
+
     public void testForceMergeWithoutSoftDeletes() throws IOException {
         Settings settings = Settings.builder()
             .put(defaultSettings.getSettings())
@@ -5409,6 +5446,74 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    public void testTranslogDisabled() throws IOException {
+        IOUtils.close(engine, store);
+        Settings.Builder settings = Settings.builder()
+            .put(defaultSettings.getSettings())
+            .put(IndexSettings.INDEX_SOFT_DELETES_SETTING.getKey(), true)
+            .put(IndexSettings.INDEX_TRANSLOG_ENABLED_SETTING.getKey(), false);
+        final IndexMetaData indexMetaData = IndexMetaData.builder(defaultSettings.getIndexMetaData()).settings(settings).build();
+        final IndexSettings indexSettings = IndexSettingsModule.newIndexSettings(indexMetaData);
+        final AtomicLong globalCheckpoint = new AtomicLong(SequenceNumbers.NO_OPS_PERFORMED);
+        final MapperService mapperService = createMapperService("test");
+        store = createStore();
+        engine = createEngine(config(indexSettings, store, createTempDir(), newMergePolicy(), null, null, globalCheckpoint::get));
+
+        final int numDocs = between(1, 100);
+        for (int i = 0; i < numDocs; i++) {
+            ParsedDocument doc = testParsedDocument(Integer.toString(i), null, testDocumentWithTextField(), SOURCE, null);
+            Engine.IndexResult result = engine.index(indexForDoc(doc));
+            assertNull(result.getTranslogLocation());
+        }
+        engine.delete(new Engine.Delete("test", "0", newUid("0"), primaryTerm.get()));
+        // operations are considered persisted right away, but they are not added to the translog
+        assertThat(engine.getPersistedLocalCheckpoint(), equalTo((long) numDocs));
+        assertThat(engine.getTranslog().stats().estimatedNumberOfOperations(), equalTo(0));
+        assertThat(engine.getTranslog().stats().getUncommittedOperations(), equalTo(0));
+
+        // the history is read from Lucene
+        assertTrue(engine.hasCompleteOperationHistory("test", mapperService, 0));
+        assertThat(engine.estimateNumberOfHistoryOperations("test", mapperService, 0), equalTo(numDocs + 1));
+        try (Translog.Snapshot snapshot = engine.readHistoryOperations("test", mapperService, 0)) {
+            assertThat(snapshot.totalOperations(), equalTo(numDocs + 1));
+        }
+
+        // the global checkpoint is only persisted up to the last commit
+        globalCheckpoint.set(engine.getPersistedLocalCheckpoint());
+        engine.syncTranslog();
+        assertThat(engine.getLastSyncedGlobalCheckpoint(), equalTo(SequenceNumbers.NO_OPS_PERFORMED));
+
+        // commit once the operations would have filled the translog up to its flush threshold
+        assertFalse(engine.shouldPeriodicallyFlush());
+        indexSettings.updateIndexMetaData(IndexMetaData.builder(indexMetaData).settings(Settings.builder().put(settings.build())
+            .put(IndexSettings.INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING.getKey(), "128b")).build());
+        engine.onSettingsChanged();
+        assertTrue(engine.shouldPeriodicallyFlush());
+        engine.flush();
+        assertFalse(engine.shouldPeriodicallyFlush());
+        engine.syncTranslog();
+        assertThat(engine.getLastSyncedGlobalCheckpoint(), equalTo((long) numDocs));
+
+        // operations that were not committed are lost on restart
+        final int uncommittedDocs = between(1, 10);
+        for (int i = 0; i < uncommittedDocs; i++) {
+            ParsedDocument doc = testParsedDocument("uncommitted-" + i, null, testDocumentWithTextField(), SOURCE, null);
+            engine.index(indexForDoc(doc));
+        }
+        globalCheckpoint.set(engine.getPersistedLocalCheckpoint());
+        engine.syncTranslog();
+        assertThat(engine.getLastSyncedGlobalCheckpoint(), equalTo((long) numDocs));
+        engine.close();
+        engine = new InternalEngine(engine.config());
+        engine.recoverFromTranslog(translogHandler, Long.MAX_VALUE);
+        assertThat(engine.getPersistedLocalCheckpoint(), equalTo((long) numDocs));
+        assertThat(engine.getSeqNoStats(globalCheckpoint.get()).getMaxSeqNo(), equalTo((long) numDocs));
+        engine.refresh("test");
+        try (Engine.Searcher searcher = engine.acquireSearcher("test")) {
+            assertThat(searcher.reader().numDocs(), equalTo(numDocs - 1));
+        }
+    }
+
     public void testKeepMinRetainedSeqNoByMergePolicy() throws IOException {
         IOUtils.close(engine, store);
         Settings.Builder settings = Settings.builder()
@@ -0,0 +1,168 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.query.MatchAllQueryBuilder;
+import org.elasticsearch.index.query.MatchNoneQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.query.Rewriteable;
+import org.elasticsearch.index.query.TermQueryBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class ConstantKeywordFieldMapperTests extends ESSingleNodeTestCase {
+
+    private static XContentBuilder mapping(String value) throws IOException {
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("_doc")
+            .startObject("properties")
+                .startObject("tenant").field("type", "constant_keyword");
+        if (value != null) {
+            mapping.field("value", value);
+        }
+        return mapping.endObject()
+            .startObject("message").field("type", "keyword").endObject()
+            .endObject()
+            .endObject().endObject();
+    }
+
+    public void testDefaults() throws IOException {
+        IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test")
+            .addMapping("_doc", mapping("acme")));
+        DocumentMapper mapper = indexService.mapperService().documentMapper();
+        assertThat(mapper.mappingSource().toString(), containsString("\"tenant\":{\"type\":\"constant_keyword\",\"value\":\"acme\"}"));
+
+        ParsedDocument doc = mapper.parse(new SourceToParse("test", "_doc", "1", BytesReference.bytes(XContentFactory.jsonBuilder()
+            .startObject().field("tenant", "acme").field("message", "foo").endObject()), XContentType.JSON));
+        // nothing is indexed
+        assertEquals(0, doc.rootDoc().getFields("tenant").length);
+        assertNull(doc.dynamicMappingsUpdate());
+
+        MapperParsingException e = expectThrows(MapperParsingException.class, () -> mapper.parse(new SourceToParse("test", "_doc",
+            "1", BytesReference.bytes(XContentFactory.jsonBuilder().startObject().field("tenant", "other").endObject()),
+            XContentType.JSON)));
+        assertThat(e.getCause().getMessage(), equalTo("[constant_keyword] field [tenant] only accepts the value [acme] of its mapping, "
+            + "but got [other]"));
+    }
+
+    public void testUnsupportedParameters() {
+        MapperParsingException e = expectThrows(MapperParsingException.class, () -> createIndex("test", client().admin().indices()
+            .prepareCreate("test").addMapping("_doc", "tenant", "type=constant_keyword,index=false")));
+        assertThat(e.getMessage(), containsString("unsupported parameters:  [index : false]"));
+    }
+
+    public void testFirstValueSetsTheValue() throws IOException {
+        IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test")
+            .addMapping("_doc", mapping(null)));
+        client().prepareIndex("test", "_doc", "1").setSource("message", "foo").get();
+        client().prepareIndex("test", "_doc", "2").setSource("tenant", "acme", "message", "bar").get();
+        client().prepareIndex("test", "_doc", "3").setSource("tenant", "acme").setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE)
+            .get();
+
+        MappedFieldType fieldType = indexService.mapperService().fullName("tenant");
+        assertThat(fieldType, instanceOf(ConstantKeywordFieldMapper.ConstantKeywordFieldType.class));
+        assertEquals("acme", ((ConstantFieldType) fieldType).value());
+
+        MapperParsingException parsingException = expectThrows(MapperParsingException.class,
+            () -> client().prepareIndex("test", "_doc", "4").setSource("tenant", "other").get());
+        assertThat(parsingException.getCause().getMessage(),
+            containsString("only accepts the value [acme] of its mapping, but got [other]"));
+
+        // the value can't be changed once it is set
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> client().admin().indices().preparePutMapping("test").setType("_doc").setSource(mapping("other")).get());
+        assertThat(e.getMessage(), containsString("mapper [tenant] has different [value] values, cannot change from [acme] to [other]"));
+    }
+
+    public void testValueCanBeSetByMappingUpdate() throws IOException {
+        IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test")
+            .addMapping("_doc", mapping(null)));
+        assertNull(((ConstantFieldType) indexService.mapperService().fullName("tenant")).value());
+        indexService.mapperService().merge("_doc", new CompressedXContent(Strings.toString(mapping("acme"))),
+            MapperService.MergeReason.MAPPING_UPDATE);
+        assertEquals("acme", ((ConstantFieldType) indexService.mapperService().fullName("tenant")).value());
+    }
+
+    public void testSearch() throws IOException {
+        createIndex("test", client().admin().indices().prepareCreate("test").addMapping("_doc", mapping("acme")));
+        client().prepareIndex("test", "_doc", "1").setSource("tenant", "acme", "message", "foo").get();
+        client().prepareIndex("test", "_doc", "2").setSource("message", "bar").setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE)
+            .get();
+
+        // documents that don't have a value have the value of the mapping
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.termQuery("tenant", "acme")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.termQuery("tenant", "other")).get(), 0);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.termsQuery("tenant", "other", "acme")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.prefixQuery("tenant", "ac")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.prefixQuery("tenant", "b")).get(), 0);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.wildcardQuery("tenant", "a?m*")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.wildcardQuery("tenant", "*b*")).get(), 0);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.regexpQuery("tenant", "ac.*")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.rangeQuery("tenant").gt("acme")).get(), 0);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.existsQuery("tenant")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.boolQuery()
+            .filter(QueryBuilders.termQuery("tenant", "acme")).filter(QueryBuilders.termQuery("message", "foo"))).get(), 1);
+
+        SearchResponse response = client().prepareSearch("test")
+            .addAggregation(AggregationBuilders.terms("tenants").field("tenant")).get();
+        Terms terms = response.getAggregations().get("tenants");
+        assertEquals(1, terms.getBuckets().size());
+        assertEquals("acme", terms.getBuckets().get(0).getKeyAsString());
+        assertEquals(2, terms.getBuckets().get(0).getDocCount());
+    }
+
+    public void testShardRewrite() throws IOException {
+        IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test")
+            .addMapping("_doc", mapping("acme")));
+        QueryShardContext context = indexService.newQueryShardContext(0, null, () -> 0L, null);
+
+        QueryBuilder rewritten = Rewriteable.rewrite(QueryBuilders.termQuery("tenant", "acme").boost(2f).queryName("q"), context);
+        assertThat(rewritten, instanceOf(MatchAllQueryBuilder.class));
+        assertEquals(2f, rewritten.boost(), 0f);
+        assertEquals("q", rewritten.queryName());
+        assertThat(Rewriteable.rewrite(QueryBuilders.prefixQuery("tenant", "b"), context), instanceOf(MatchNoneQueryBuilder.class));
+        assertThat(Rewriteable.rewrite(QueryBuilders.wildcardQuery("tenant", "*me"), context), instanceOf(MatchAllQueryBuilder.class));
+        assertThat(Rewriteable.rewrite(QueryBuilders.termsQuery("tenant", "a", "b"), context), instanceOf(MatchNoneQueryBuilder.class));
+        // queries on other fields are left as they are
+        assertThat(Rewriteable.rewrite(QueryBuilders.termQuery("message", "acme"), context), instanceOf(TermQueryBuilder.class));
+        // compound queries are rewritten as well
+        assertThat(Rewriteable.rewrite(QueryBuilders.boolQuery().filter(QueryBuilders.termQuery("tenant", "other")), context),
+            instanceOf(MatchNoneQueryBuilder.class));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.time.DateFormatters;
+import org.elasticsearch.common.time.DateMathParser;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.mapper.DateFieldMapper.DateFieldType;
+import org.elasticsearch.index.mapper.MappedFieldType.Relation;
+import org.elasticsearch.index.mapper.ParseContext.Document;
+import org.elasticsearch.index.query.QueryRewriteContext;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+public class DateFieldRangeTests extends ESTestCase {
+
+    private static final String[] DATES = new String[] {
+        "2014-01-02", "2015-02-12", "2015-09-25", "2015-10-09", "2015-10-12", "2016-01-02",
+        "2016-02-12", "2016-04-03", "2016-05-11", "2016-05-29", "2016-06-20", "2016-08-30" };
+
+    public void testRelationMatchesFieldType() throws IOException {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(null));
+        Document doc = new Document();
+        LongPoint field = new LongPoint("my_date", parse("2015-10-12"));
+        doc.add(field);
+        w.addDocument(doc);
+        field.setLongValue(parse("2016-04-03"));
+        w.addDocument(doc);
+        DirectoryReader reader = DirectoryReader.open(w);
+        DateFieldType ft = new DateFieldType();
+        ft.setName("my_date");
+        final long nowInMillis = randomNonNegativeLong();
+        QueryRewriteContext context = new QueryRewriteContext(xContentRegistry(), writableRegistry(), null, () -> nowInMillis);
+
+        DateFieldRange range = DateFieldRange.fromReader(reader, ft);
+        assertTrue(range.hasValues());
+        assertEquals(parse("2015-10-12"), range.getMinValue());
+        assertEquals(parse("2016-04-03"), range.getMaxValue());
+        DateMathParser alternateFormat = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.toDateMathParser();
+        for (int i = 0; i < 100; i++) {
+            String from = randomBoolean() ? null : randomFrom(DATES);
+            String to = randomBoolean() ? null : randomFrom(DATES);
+            boolean includeLower = randomBoolean();
+            boolean includeUpper = randomBoolean();
+            ZoneOffset timeZone = randomBoolean() ? null : ZoneOffset.UTC;
+            DateMathParser parser = randomBoolean() ? null : alternateFormat;
+            assertEquals(ft.isFieldWithinQuery(reader, from, to, includeLower, includeUpper, timeZone, parser, context),
+                range.relation(from, to, includeLower, includeUpper, timeZone, parser, context::nowInMillis));
+        }
+
+        // fields with no value indexed
+        DateFieldType ft2 = new DateFieldType();
+        ft2.setName("my_date2");
+        DateFieldRange emptyRange = DateFieldRange.fromReader(reader, ft2);
+        assertFalse(emptyRange.hasValues());
+        assertEquals(Relation.DISJOINT, emptyRange.relation("2015-10-09", "2016-01-02", true, true, null, null, () -> nowInMillis));
+        IOUtils.close(reader, w, dir);
+    }
+
+    public void testEmptyReader() throws IOException {
+        IndexReader reader = new MultiReader();
+        DateFieldType ft = new DateFieldType();
+        ft.setName("my_date");
+        DateFieldRange range = DateFieldRange.fromReader(reader, ft);
+        assertFalse(range.hasValues());
+        assertEquals(Relation.DISJOINT, range.relation("2015-10-12", "2016-04-03", randomBoolean(), randomBoolean(),
+            null, null, () -> 0L));
+    }
+
+    public void testUnmappedField() throws IOException {
+        DateFieldRange range = DateFieldRange.fromReader(new MultiReader(), null);
+        assertSame(DateFieldRange.empty(), range);
+        assertEquals(Relation.DISJOINT, range.relation("2015-10-12", null, randomBoolean(), randomBoolean(), null, null, () -> 0L));
+    }
+
+    public void testNonDateField() throws IOException {
+        NumberFieldMapper.NumberFieldType ft = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        ft.setName("my_long");
+        assertNull(DateFieldRange.fromReader(new MultiReader(), ft));
+    }
+
+    public void testSerialization() throws IOException {
+        DateFieldType ft = new DateFieldType();
+        ft.setName("my_date");
+        DateFieldRange range = randomBoolean() ? DateFieldRange.empty() : DateFieldRange.fromReader(new MultiReader(), ft);
+        DateFieldRange copy = copyWriteable(range, new NamedWriteableRegistry(Collections.emptyList()), DateFieldRange::new);
+        assertEquals(range, copy);
+        assertEquals(range.hashCode(), copy.hashCode());
+    }
+
+    private static long parse(String date) {
+        return DateFormatters.from(DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parse(date)).toInstant().toEpochMilli();
+    }
+}
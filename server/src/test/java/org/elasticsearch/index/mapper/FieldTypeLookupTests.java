@@ -23,6 +23,9 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.test.ESTestCase;
 
@@ -30,8 +33,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import static java.util.Collections.emptyList;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class FieldTypeLookupTests extends ESTestCase {
 
@@ -162,6 +167,38 @@ public class FieldTypeLookupTests extends ESTestCase {
         assertTrue(names.contains("barometer"));
     }
 
+    public void testDynamicKeyFieldTypes() {
+        Settings settings = Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT).build();
+        Mapper.BuilderContext context = new Mapper.BuilderContext(settings, new ContentPath());
+        FlattenedFieldMapper labels = new FlattenedFieldMapper.Builder("labels").build(context);
+        context.path().add("object");
+        FlattenedFieldMapper headers = new FlattenedFieldMapper.Builder("headers").build(context);
+        MockFieldMapper field = new MockFieldMapper("object.field");
+
+        FieldTypeLookup lookup = new FieldTypeLookup();
+        lookup = lookup.copyAndAddAll("type", newList(labels, headers, field), emptyList());
+
+        assertEquals(labels.fieldType(), lookup.get("labels"));
+        assertEquals(field.fieldType(), lookup.get("object.field"));
+
+        MappedFieldType keyed = lookup.get("labels.app");
+        assertThat(keyed, instanceOf(FlattenedFieldMapper.KeyedFlattenedFieldType.class));
+        assertEquals("labels._keyed", keyed.name());
+        assertEquals("app", ((FlattenedFieldMapper.KeyedFlattenedFieldType) keyed).key());
+
+        keyed = lookup.get("object.headers.content.type");
+        assertThat(keyed, instanceOf(FlattenedFieldMapper.KeyedFlattenedFieldType.class));
+        assertEquals("object.headers._keyed", keyed.name());
+        assertEquals("content.type", ((FlattenedFieldMapper.KeyedFlattenedFieldType) keyed).key());
+
+        assertNull(lookup.get("object.other"));
+        assertNull(lookup.get("other.labels.app"));
+
+        assertEquals(Set.of("labels.app"), lookup.simpleMatchToFullName("labels.app"));
+        assertEquals(Set.of("labels"), lookup.simpleMatchToFullName("lab*"));
+        assertTrue(lookup.simpleMatchToFullName("labels.*").isEmpty());
+    }
+
     public void testIteratorImmutable() {
         MockFieldMapper f1 = new MockFieldMapper("foo");
         FieldTypeLookup lookup = new FieldTypeLookup();
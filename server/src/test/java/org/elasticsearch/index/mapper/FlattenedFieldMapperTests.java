@@ -0,0 +1,214 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.mapper.MapperService.MergeReason;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FlattenedFieldMapperTests extends ESSingleNodeTestCase {
+
+    private IndexService indexService;
+    private DocumentMapperParser parser;
+
+    @Before
+    public void setup() {
+        indexService = createIndex("test");
+        parser = indexService.mapperService().documentMapperParser();
+    }
+
+    private static String mapping(String... params) throws IOException {
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("properties").startObject("field").field("type", "flattened");
+        for (int i = 0; i < params.length; i += 2) {
+            mapping.field(params[i], params[i + 1]);
+        }
+        return Strings.toString(mapping.endObject().endObject().endObject().endObject());
+    }
+
+    private static ParsedDocument parse(DocumentMapper mapper, XContentBuilder source) {
+        return mapper.parse(new SourceToParse("test", "type", "1", BytesReference.bytes(source), XContentType.JSON));
+    }
+
+    /** Returns the indexed values of the given field. */
+    private static List<String> indexedValues(ParsedDocument doc, String field) {
+        return Arrays.stream(doc.rootDoc().getFields(field))
+            .filter(f -> f.fieldType().indexOptions() != IndexOptions.NONE)
+            .map(f -> f.binaryValue().utf8ToString())
+            .collect(Collectors.toList());
+    }
+
+    public void testDefaults() throws Exception {
+        String mapping = mapping();
+        DocumentMapper mapper = parser.parse("type", new CompressedXContent(mapping));
+        assertEquals(mapping, mapper.mappingSource().toString());
+
+        ParsedDocument doc = parse(mapper, XContentFactory.jsonBuilder().startObject()
+            .startObject("field").field("key", "value").endObject()
+            .endObject());
+
+        IndexableField[] fields = doc.rootDoc().getFields("field");
+        assertEquals(2, fields.length);
+        assertEquals(new BytesRef("value"), fields[0].binaryValue());
+        assertFalse(fields[0].fieldType().stored());
+        assertFalse(fields[0].fieldType().tokenized());
+        assertTrue(fields[0].fieldType().omitNorms());
+        assertThat(fields[0].fieldType().indexOptions(), equalTo(IndexOptions.DOCS));
+        assertEquals(DocValuesType.NONE, fields[0].fieldType().docValuesType());
+        assertEquals(new BytesRef("value"), fields[1].binaryValue());
+        assertThat(fields[1].fieldType().indexOptions(), equalTo(IndexOptions.NONE));
+        assertEquals(DocValuesType.SORTED_SET, fields[1].fieldType().docValuesType());
+
+        IndexableField[] keyedFields = doc.rootDoc().getFields("field._keyed");
+        assertEquals(2, keyedFields.length);
+        assertEquals(new BytesRef("key\0value"), keyedFields[0].binaryValue());
+        assertThat(keyedFields[0].fieldType().indexOptions(), equalTo(IndexOptions.DOCS));
+        assertEquals(new BytesRef("key\0value"), keyedFields[1].binaryValue());
+        assertEquals(DocValuesType.SORTED_SET, keyedFields[1].fieldType().docValuesType());
+
+        // the keys are not added to the mappings
+        assertNull(doc.dynamicMappingsUpdate());
+        assertEquals(0, doc.rootDoc().getFields(FieldNamesFieldMapper.NAME).length);
+    }
+
+    public void testObjectsAndArrays() throws Exception {
+        DocumentMapper mapper = parser.parse("type", new CompressedXContent(mapping()));
+        ParsedDocument doc = parse(mapper, XContentFactory.jsonBuilder().startObject()
+            .startObject("field")
+                .field("app", "web")
+                .startObject("tier").field("name", "front").field("level", 1).endObject()
+                .field("tags", Arrays.asList("a", "b"))
+                .startArray("hosts")
+                    .startObject().field("ip", "10.0.0.1").endObject()
+                    .startObject().field("ip", "10.0.0.2").field("up", true).endObject()
+                .endArray()
+                .nullField("missing")
+            .endObject()
+            .endObject());
+
+        assertEquals(Arrays.asList("web", "front", "1", "a", "b", "10.0.0.1", "10.0.0.2", "true"), indexedValues(doc, "field"));
+        assertEquals(Arrays.asList("app\0web", "tier.name\0front", "tier.level\0001", "tags\0a", "tags\0b", "hosts.ip\00010.0.0.1",
+            "hosts.ip\00010.0.0.2", "hosts.up\0true"), indexedValues(doc, "field._keyed"));
+    }
+
+    public void testNullValue() throws Exception {
+        DocumentMapper mapper = parser.parse("type", new CompressedXContent(mapping("null_value", "unknown")));
+        ParsedDocument doc = parse(mapper, XContentFactory.jsonBuilder().startObject()
+            .startObject("field").nullField("key").endObject()
+            .endObject());
+        assertEquals(Arrays.asList("key\0unknown"), indexedValues(doc, "field._keyed"));
+
+        doc = parse(mapper, XContentFactory.jsonBuilder().startObject().nullField("field").endObject());
+        assertEquals(0, doc.rootDoc().getFields("field").length);
+    }
+
+    public void testIgnoreAbove() throws Exception {
+        DocumentMapper mapper = parser.parse("type", new CompressedXContent(mapping("ignore_above", "5")));
+        ParsedDocument doc = parse(mapper, XContentFactory.jsonBuilder().startObject()
+            .startObject("field").field("short", "value").field("long", "too long").endObject()
+            .endObject());
+        assertEquals(Arrays.asList("value"), indexedValues(doc, "field"));
+        assertEquals(Arrays.asList("short\0value"), indexedValues(doc, "field._keyed"));
+    }
+
+    public void testDepthLimit() throws Exception {
+        DocumentMapper mapper = parser.parse("type", new CompressedXContent(mapping("depth_limit", "2")));
+        parse(mapper, XContentFactory.jsonBuilder().startObject()
+            .startObject("field").startObject("a").field("b", "c").endObject().endObject()
+            .endObject());
+
+        MapperParsingException e = expectThrows(MapperParsingException.class, () -> parse(mapper, XContentFactory.jsonBuilder()
+            .startObject()
+            .startObject("field").startObject("a").startObject("b").field("c", "d").endObject().endObject().endObject()
+            .endObject()));
+        assertThat(e.getCause().getMessage(), equalTo("the object of [flattened] field [field] exceeds the maximum depth limit of [2]"));
+    }
+
+    public void testUpdateDepthLimit() throws Exception {
+        MapperService mapperService = indexService.mapperService();
+        mapperService.merge("type", new CompressedXContent(mapping()), MergeReason.MAPPING_UPDATE);
+        DocumentMapper mapper = mapperService.merge("type", new CompressedXContent(mapping("depth_limit", "1")),
+            MergeReason.MAPPING_UPDATE);
+        assertEquals(1, ((FlattenedFieldMapper) mapper.mappers().getMapper("field")).depthLimit());
+    }
+
+    public void testDisabledDocValues() throws Exception {
+        DocumentMapper mapper = parser.parse("type", new CompressedXContent(mapping("doc_values", "false")));
+        ParsedDocument doc = parse(mapper, XContentFactory.jsonBuilder().startObject()
+            .startObject("field").field("key", "value").endObject()
+            .endObject());
+        assertEquals(1, doc.rootDoc().getFields("field").length);
+        assertEquals(1, doc.rootDoc().getFields("field._keyed").length);
+        assertEquals(1, doc.rootDoc().getFields(FieldNamesFieldMapper.NAME).length);
+    }
+
+    public void testValueMustBeAnObject() throws Exception {
+        DocumentMapper mapper = parser.parse("type", new CompressedXContent(mapping()));
+        MapperParsingException e = expectThrows(MapperParsingException.class,
+            () -> parse(mapper, XContentFactory.jsonBuilder().startObject().field("field", "value").endObject()));
+        assertThat(e.getMessage(), containsString("failed to parse field [field] of type [flattened]"));
+    }
+
+    public void testKeysCannotContainSeparator() throws Exception {
+        DocumentMapper mapper = parser.parse("type", new CompressedXContent(mapping()));
+        MapperParsingException e = expectThrows(MapperParsingException.class, () -> parse(mapper, XContentFactory.jsonBuilder()
+            .startObject()
+            .startObject("field").field("a\0b", "value").endObject()
+            .endObject()));
+        assertThat(e.getCause().getMessage(), containsString("can't contain the reserved character \\0"));
+    }
+
+    public void testUnsupportedParameters() throws Exception {
+        for (String param : new String[] {"store", "copy_to", "fields"}) {
+            XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("type")
+                .startObject("properties").startObject("field").field("type", "flattened");
+            if (param.equals("store")) {
+                mapping.field("store", true);
+            } else if (param.equals("copy_to")) {
+                mapping.field("copy_to", "other");
+            } else {
+                mapping.startObject("fields").startObject("raw").field("type", "keyword").endObject().endObject();
+            }
+            mapping.endObject().endObject().endObject().endObject();
+            MapperParsingException e = expectThrows(MapperParsingException.class,
+                () -> parser.parse("type", new CompressedXContent(Strings.toString(mapping))));
+            assertThat(e.getMessage(), containsString("[" + param + "] is not supported for [flattened] fields"));
+        }
+    }
+}
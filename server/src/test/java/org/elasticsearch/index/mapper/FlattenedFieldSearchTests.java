@@ -0,0 +1,152 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertOrderedSearchHits;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchHits;
+import static org.hamcrest.Matchers.equalTo;
+
+public class FlattenedFieldSearchTests extends ESSingleNodeTestCase {
+
+    @Before
+    public void createLabelsIndex() throws IOException {
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("_doc")
+            .startObject("properties")
+                .startObject("labels").field("type", "flattened").endObject()
+            .endObject()
+            .endObject().endObject();
+        client().admin().indices().prepareCreate("test").addMapping("_doc", mapping).get();
+
+        client().prepareIndex("test", "_doc", "1").setSource(XContentFactory.jsonBuilder().startObject()
+            .startObject("labels").field("app", "web").field("tier", "frontend").field("version", "10").endObject()
+            .endObject()).get();
+        client().prepareIndex("test", "_doc", "2").setSource(XContentFactory.jsonBuilder().startObject()
+            .startObject("labels").field("app", "db").field("version", "9")
+                .startObject("owner").field("team", "web").endObject()
+            .endObject()
+            .endObject()).get();
+        client().prepareIndex("test", "_doc", "3").setSource(XContentFactory.jsonBuilder().startObject()
+            .startObject("labels").field("app", List.of("web", "worker")).endObject()
+            .endObject()).setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE).get();
+    }
+
+    public void testTermQueries() {
+        // the root field matches the values of all keys
+        SearchResponse response = client().prepareSearch("test").setQuery(QueryBuilders.termQuery("labels", "web")).get();
+        assertSearchHits(response, "1", "2", "3");
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.termQuery("labels.app", "web")).get();
+        assertSearchHits(response, "1", "3");
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.termQuery("labels.owner.team", "web")).get();
+        assertSearchHits(response, "2");
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.termsQuery("labels.app", "db", "worker")).get();
+        assertSearchHits(response, "2", "3");
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.matchQuery("labels.tier", "frontend")).get();
+        assertSearchHits(response, "1");
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.termQuery("labels.missing", "web")).get();
+        assertHitCount(response, 0);
+    }
+
+    public void testExistsQuery() {
+        SearchResponse response = client().prepareSearch("test").setQuery(QueryBuilders.existsQuery("labels")).get();
+        assertHitCount(response, 3);
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.existsQuery("labels.version")).get();
+        assertSearchHits(response, "1", "2");
+
+        // a key that is a prefix of another key
+        response = client().prepareSearch("test").setQuery(QueryBuilders.existsQuery("labels.owner")).get();
+        assertHitCount(response, 0);
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.existsQuery("labels.owner.team")).get();
+        assertSearchHits(response, "2");
+    }
+
+    public void testPrefixAndRangeQueries() {
+        SearchResponse response = client().prepareSearch("test").setQuery(QueryBuilders.prefixQuery("labels.app", "w")).get();
+        assertSearchHits(response, "1", "3");
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.prefixQuery("labels.tier", "w")).get();
+        assertHitCount(response, 0);
+
+        // values are compared as strings
+        response = client().prepareSearch("test").setQuery(QueryBuilders.rangeQuery("labels.version").gte("2")).get();
+        assertSearchHits(response, "2");
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.rangeQuery("labels.app").lt("web")).get();
+        assertSearchHits(response, "2");
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.rangeQuery("labels.app").gt("web")).get();
+        assertSearchHits(response, "3");
+    }
+
+    public void testTermsAggregation() {
+        SearchResponse response = client().prepareSearch("test").setSize(0)
+            .addAggregation(AggregationBuilders.terms("apps").field("labels.app"))
+            .addAggregation(AggregationBuilders.terms("values").field("labels").size(20))
+            .get();
+
+        Terms apps = response.getAggregations().get("apps");
+        assertThat(apps.getBuckets().stream().map(b -> b.getKeyAsString() + ":" + b.getDocCount()).collect(Collectors.toList()),
+            equalTo(List.of("web:2", "db:1", "worker:1")));
+
+        Terms values = response.getAggregations().get("values");
+        assertThat(values.getBucketByKey("web").getDocCount(), equalTo(3L));
+        assertThat(values.getBucketByKey("frontend").getDocCount(), equalTo(1L));
+        assertThat(values.getBuckets().size(), equalTo(6));
+    }
+
+    public void testSortAndDocValueFields() {
+        SearchResponse response = client().prepareSearch("test")
+            .setQuery(QueryBuilders.existsQuery("labels.version"))
+            .addSort("labels.version", SortOrder.ASC)
+            .addDocValueField("labels.version")
+            .get();
+        assertOrderedSearchHits(response, "1", "2");
+        DocumentField version = response.getHits().getAt(0).field("labels.version");
+        assertThat(version.getValues(), equalTo(List.of("10")));
+
+        response = client().prepareSearch("test")
+            .addSort("labels.app", SortOrder.DESC)
+            .get();
+        assertOrderedSearchHits(response, "3", "1", "2");
+    }
+}
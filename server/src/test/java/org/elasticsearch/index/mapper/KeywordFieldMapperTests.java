@@ -27,16 +27,19 @@ import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.IndexableFieldType;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.analysis.PreConfiguredTokenFilter;
 import org.elasticsearch.index.analysis.TokenizerFactory;
 import org.elasticsearch.index.mapper.MapperService.MergeReason;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.indices.analysis.AnalysisModule;
 import org.elasticsearch.plugins.AnalysisPlugin;
 import org.elasticsearch.plugins.Plugin;
@@ -53,6 +56,7 @@ import java.util.Map;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.apache.lucene.analysis.BaseTokenStreamTestCase.assertTokenStreamContents;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
@@ -256,6 +260,25 @@ public class KeywordFieldMapperTests extends ESSingleNodeTestCase {
         assertEquals(DocValuesType.SORTED_SET, fields[0].fieldType().docValuesType());
     }
 
+    public void testSearchWithoutIndex() throws IOException {
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("_doc").startObject("properties")
+            .startObject("field").field("type", "keyword").field("index", false).endObject()
+            .endObject().endObject().endObject();
+        client().admin().indices().prepareCreate("search").addMapping("_doc", mapping).get();
+        client().prepareIndex("search", "_doc", "1").setSource("field", "foo").get();
+        client().prepareIndex("search", "_doc", "2").setSource("field", List.of("bar", "baz")).get();
+        client().prepareIndex("search", "_doc", "3").setSource("other", "foo").setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE).get();
+
+        // the doc values of the field are searched instead
+        assertHitCount(client().prepareSearch("search").setQuery(QueryBuilders.termQuery("field", "foo")).get(), 1);
+        assertHitCount(client().prepareSearch("search").setQuery(QueryBuilders.termsQuery("field", "foo", "baz")).get(), 2);
+        assertHitCount(client().prepareSearch("search").setQuery(QueryBuilders.rangeQuery("field").gt("bar")).get(), 2);
+        assertHitCount(client().prepareSearch("search").setQuery(QueryBuilders.prefixQuery("field", "ba")).get(), 1);
+        assertHitCount(client().prepareSearch("search").setQuery(QueryBuilders.wildcardQuery("field", "f?o")).get(), 1);
+        assertHitCount(client().prepareSearch("search").setQuery(QueryBuilders.regexpQuery("field", "ba[rz]")).get(), 1);
+        assertHitCount(client().prepareSearch("search").setQuery(QueryBuilders.existsQuery("field")).get(), 2);
+    }
+
     public void testDisableDocValues() throws IOException {
         String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
                 .startObject("properties").startObject("field").field("type", "keyword").field("doc_values", false).endObject().endObject()
@@ -25,12 +25,16 @@ import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.DocValuesRewriteMethod;
+import org.apache.lucene.search.DocValuesTermsQuery;
 import org.apache.lucene.search.FuzzyQuery;
 import org.apache.lucene.search.NormsFieldExistsQuery;
 import org.apache.lucene.search.RegexpQuery;
+import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.search.TermInSetQuery;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.util.BytesRef;
@@ -87,9 +91,13 @@ public class KeywordFieldTypeTests extends FieldTypeTestCase {
         assertEquals(new TermQuery(new Term("field", "foo")), ft.termQuery("foo", null));
 
         ft.setIndexOptions(IndexOptions.NONE);
+        ft.setHasDocValues(true);
+        assertEquals(SortedSetDocValuesField.newSlowExactQuery("field", new BytesRef("foo")), ft.termQuery("foo", null));
+
+        ft.setHasDocValues(false);
         IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
                 () -> ft.termQuery("bar", null));
-        assertEquals("Cannot search on field [field] since it is not indexed.", e.getMessage());
+        assertEquals("Cannot search on field [field] since it is not indexed and has no doc values.", e.getMessage());
     }
 
     public void testTermQueryWithNormalizer() {
@@ -112,9 +120,13 @@ public class KeywordFieldTypeTests extends FieldTypeTestCase {
         assertEquals(new TermQuery(new Term("field", "foo bar")), ft.termQuery("fOo BaR", null));
 
         ft.setIndexOptions(IndexOptions.NONE);
+        ft.setHasDocValues(true);
+        assertEquals(SortedSetDocValuesField.newSlowExactQuery("field", new BytesRef("foo bar")), ft.termQuery("fOo BaR", null));
+
+        ft.setHasDocValues(false);
         IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
                 () -> ft.termQuery("bar", null));
-        assertEquals("Cannot search on field [field] since it is not indexed.", e.getMessage());
+        assertEquals("Cannot search on field [field] since it is not indexed and has no doc values.", e.getMessage());
     }
 
     public void testTermsQuery() {
@@ -128,9 +140,32 @@ public class KeywordFieldTypeTests extends FieldTypeTestCase {
                 ft.termsQuery(Arrays.asList("foo", "bar"), null));
 
         ft.setIndexOptions(IndexOptions.NONE);
+        ft.setHasDocValues(true);
+        assertEquals(new DocValuesTermsQuery("field", terms),
+                ft.termsQuery(Arrays.asList("foo", "bar"), null));
+
+        ft.setHasDocValues(false);
         IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
                 () -> ft.termsQuery(Arrays.asList("foo", "bar"), null));
-        assertEquals("Cannot search on field [field] since it is not indexed.", e.getMessage());
+        assertEquals("Cannot search on field [field] since it is not indexed and has no doc values.", e.getMessage());
+    }
+
+    public void testRangeQuery() {
+        MappedFieldType ft = createDefaultFieldType();
+        ft.setName("field");
+        ft.setIndexOptions(IndexOptions.DOCS);
+        assertEquals(new TermRangeQuery("field", new BytesRef("bar"), null, true, false),
+                ft.rangeQuery("bar", null, true, false, null, null, null, null));
+
+        ft.setIndexOptions(IndexOptions.NONE);
+        ft.setHasDocValues(true);
+        assertEquals(SortedSetDocValuesField.newSlowRangeQuery("field", new BytesRef("bar"), null, true, false),
+                ft.rangeQuery("bar", null, true, false, null, null, null, null));
+
+        ft.setHasDocValues(false);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+                () -> ft.rangeQuery("bar", null, true, false, null, null, null, null));
+        assertEquals("Cannot search on field [field] since it is not indexed and has no doc values.", e.getMessage());
     }
 
     public void testExistsQuery() {
@@ -158,9 +193,15 @@ public class KeywordFieldTypeTests extends FieldTypeTestCase {
                 ft.regexpQuery("foo.*", 0, 10, null, null));
 
         ft.setIndexOptions(IndexOptions.NONE);
+        ft.setHasDocValues(true);
+        RegexpQuery docValuesQuery = new RegexpQuery(new Term("field","foo.*"), 0, 10);
+        docValuesQuery.setRewriteMethod(new DocValuesRewriteMethod());
+        assertEquals(docValuesQuery, ft.regexpQuery("foo.*", 0, 10, null, null));
+
+        ft.setHasDocValues(false);
         IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
                 () -> ft.regexpQuery("foo.*", 0, 10, null, null));
-        assertEquals("Cannot search on field [field] since it is not indexed.", e.getMessage());
+        assertEquals("Cannot search on field [field] since it is not indexed and has no doc values.", e.getMessage());
     }
 
     public void testFuzzyQuery() {
@@ -23,6 +23,7 @@ import com.carrotsearch.randomizedtesting.annotations.Timeout;
 
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexableField;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
@@ -32,6 +33,7 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.mapper.NumberFieldMapper.NumberType;
 import org.elasticsearch.index.mapper.NumberFieldTypeTests.OutOfRangeSpec;
+import org.elasticsearch.index.query.QueryBuilders;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -41,6 +43,7 @@ import java.util.HashSet;
 import java.util.List;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
 import static org.hamcrest.Matchers.containsString;
 
 public class NumberFieldMapperTests extends AbstractNumericFieldMapperTestCase {
@@ -300,6 +303,25 @@ public class NumberFieldMapperTests extends AbstractNumericFieldMapperTestCase {
         }
     }
 
+    public void testSearchWithoutIndex() throws IOException {
+        for (String type : TYPES) {
+            String index = "search-" + type;
+            XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("_doc").startObject("properties")
+                .startObject("field").field("type", type).field("index", false).endObject()
+                .endObject().endObject().endObject();
+            client().admin().indices().prepareCreate(index).addMapping("_doc", mapping).get();
+            client().prepareIndex(index, "_doc", "1").setSource("field", 3).get();
+            client().prepareIndex(index, "_doc", "2").setSource("field", List.of(1, 7)).get();
+            client().prepareIndex(index, "_doc", "3").setSource("other", 3).setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE).get();
+
+            // the doc values of the field are searched instead
+            assertHitCount(client().prepareSearch(index).setQuery(QueryBuilders.termQuery("field", 3)).get(), 1);
+            assertHitCount(client().prepareSearch(index).setQuery(QueryBuilders.termsQuery("field", List.of(3, 7))).get(), 2);
+            assertHitCount(client().prepareSearch(index).setQuery(QueryBuilders.rangeQuery("field").gte(2).lt(7)).get(), 1);
+            assertHitCount(client().prepareSearch(index).setQuery(QueryBuilders.rangeQuery("field").gt(0)).get(), 2);
+        }
+    }
+
     /**
      * `index_options` was deprecated and is rejected as of 7.0
      */
@@ -141,9 +141,13 @@ public class NumberFieldTypeTests extends FieldTypeTestCase {
         assertEquals(LongPoint.newExactQuery("field", 42), ft.termQuery("42", null));
 
         ft.setIndexOptions(IndexOptions.NONE);
+        ft.setHasDocValues(true);
+        assertEquals(SortedNumericDocValuesField.newSlowRangeQuery("field", 42, 42), ft.termQuery("42", null));
+
+        ft.setHasDocValues(false);
         IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
                 () -> ft.termQuery("42", null));
-        assertEquals("Cannot search on field [field] since it is not indexed.", e.getMessage());
+        assertEquals("Cannot search on field [field] since it is not indexed and has no doc values.", e.getMessage());
     }
 
     public void testRangeQueryWithNegativeBounds() {
@@ -272,9 +276,14 @@ public class NumberFieldTypeTests extends FieldTypeTestCase {
         assertEquals(expected, ft.rangeQuery("1", "3", true, true, null, null, null, null));
 
         ft.setIndexOptions(IndexOptions.NONE);
+        ft.setHasDocValues(true);
+        assertEquals(SortedNumericDocValuesField.newSlowRangeQuery("field", 1, 3),
+                ft.rangeQuery("1", "3", true, true, null, null, null, null));
+
+        ft.setHasDocValues(false);
         IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
                 () -> ft.rangeQuery("1", "3", true, true, null, null, null, null));
-        assertEquals("Cannot search on field [field] since it is not indexed.", e.getMessage());
+        assertEquals("Cannot search on field [field] since it is not indexed and has no doc values.", e.getMessage());
     }
 
     public void testConversions() {
@@ -362,8 +371,9 @@ public class NumberFieldTypeTests extends FieldTypeTestCase {
             float u = (randomFloat() * 2 - 1) * 65504;
             boolean includeLower = randomBoolean();
             boolean includeUpper = randomBoolean();
-            Query floatQ = NumberFieldMapper.NumberType.FLOAT.rangeQuery("float", l, u, includeLower, includeUpper, false);
-            Query halfFloatQ = NumberFieldMapper.NumberType.HALF_FLOAT.rangeQuery("half_float", l, u, includeLower, includeUpper, false);
+            Query floatQ = NumberFieldMapper.NumberType.FLOAT.rangeQuery("float", l, u, includeLower, includeUpper, false, true);
+            Query halfFloatQ = NumberFieldMapper.NumberType.HALF_FLOAT.rangeQuery("half_float", l, u, includeLower, includeUpper,
+                false, true);
             assertEquals(searcher.count(floatQ), searcher.count(halfFloatQ));
         }
         IOUtils.close(reader, dir);
@@ -371,14 +381,14 @@ public class NumberFieldTypeTests extends FieldTypeTestCase {
 
     public void testNegativeZero() {
         assertEquals(
-                NumberType.DOUBLE.rangeQuery("field", null, -0d, true, true, false),
-                NumberType.DOUBLE.rangeQuery("field", null, +0d, true, false, false));
+                NumberType.DOUBLE.rangeQuery("field", null, -0d, true, true, false, true),
+                NumberType.DOUBLE.rangeQuery("field", null, +0d, true, false, false, true));
         assertEquals(
-                NumberType.FLOAT.rangeQuery("field", null, -0f, true, true, false),
-                NumberType.FLOAT.rangeQuery("field", null, +0f, true, false, false));
+                NumberType.FLOAT.rangeQuery("field", null, -0f, true, true, false, true),
+                NumberType.FLOAT.rangeQuery("field", null, +0f, true, false, false, true));
         assertEquals(
-                NumberType.HALF_FLOAT.rangeQuery("field", null, -0f, true, true, false),
-                NumberType.HALF_FLOAT.rangeQuery("field", null, +0f, true, false, false));
+                NumberType.HALF_FLOAT.rangeQuery("field", null, -0f, true, true, false, true),
+                NumberType.HALF_FLOAT.rangeQuery("field", null, +0f, true, false, false, true));
 
         assertFalse(NumberType.DOUBLE.termQuery("field", -0d).equals(NumberType.DOUBLE.termQuery("field", +0d)));
         assertFalse(NumberType.FLOAT.termQuery("field", -0f).equals(NumberType.FLOAT.termQuery("field", +0f)));
@@ -430,7 +440,7 @@ public class NumberFieldTypeTests extends FieldTypeTestCase {
             Query query = type.rangeQuery("foo",
                     random().nextBoolean() ? null : valueSupplier.get(),
                     random().nextBoolean() ? null : valueSupplier.get(),
-                    randomBoolean(), randomBoolean(), true);
+                    randomBoolean(), randomBoolean(), true, true);
             assertThat(query, Matchers.instanceOf(IndexOrDocValuesQuery.class));
             IndexOrDocValuesQuery indexOrDvQuery = (IndexOrDocValuesQuery) query;
             assertEquals(
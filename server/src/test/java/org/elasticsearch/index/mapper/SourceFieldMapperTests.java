@@ -24,11 +24,14 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.elasticsearch.test.InternalSettingsPlugin;
@@ -189,6 +192,86 @@ public class SourceFieldMapperTests extends ESSingleNodeTestCase {
         assertConflicts(mapping1, mapping1, parser);
     }
 
+    public void testSyntheticNotUpdateable() throws Exception {
+        DocumentMapperParser parser = createIndex("test").mapperService().documentMapperParser();
+        String defaultMapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type").endObject().endObject());
+        String mapping1 = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("_source").field("synthetic", true).endObject()
+            .endObject().endObject());
+        assertConflicts(defaultMapping, mapping1, parser, "Cannot update synthetic setting for [_source]");
+        assertConflicts(mapping1, defaultMapping, parser, "Cannot update synthetic setting for [_source]");
+
+        // not changing is ok
+        assertConflicts(mapping1, mapping1, parser);
+    }
+
+    public void testSyntheticDoesNotStoreSource() throws Exception {
+        String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("_source").field("synthetic", true).endObject()
+            .startObject("properties").startObject("field").field("type", "keyword").endObject().endObject()
+            .endObject().endObject());
+        DocumentMapper documentMapper = createIndex("test",
+            Settings.builder().put(IndexSettings.INDEX_SOFT_DELETES_SETTING.getKey(), true).build())
+            .mapperService().documentMapperParser().parse("type", new CompressedXContent(mapping));
+        assertTrue(documentMapper.sourceMapper().isSynthetic());
+        assertTrue(documentMapper.sourceMapper().isComplete());
+
+        ParsedDocument doc = documentMapper.parse(new SourceToParse("test", "type", "1",
+            BytesReference.bytes(XContentFactory.jsonBuilder().startObject().field("field", "value").endObject()),
+            XContentType.JSON));
+        assertNull(doc.rootDoc().getField("_source"));
+        // the source is still kept until it is not needed for operation-based recoveries anymore
+        assertNotNull(doc.rootDoc().getField(SourceFieldMapper.RECOVERY_SOURCE_NAME));
+    }
+
+    public void testSyntheticCannotBeFiltered() throws Exception {
+        DocumentMapperParser parser = createIndex("test").mapperService().documentMapperParser();
+        for (XContentBuilder source : new XContentBuilder[] {
+            XContentFactory.jsonBuilder().startObject().field("synthetic", true).field("enabled", false).endObject(),
+            XContentFactory.jsonBuilder().startObject().field("synthetic", true).array("includes", "foo.*").endObject(),
+            XContentFactory.jsonBuilder().startObject().field("synthetic", true).array("excludes", "foo.*").endObject()}) {
+            String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+                .field("_source").copyCurrentStructure(createParser(source))
+                .endObject().endObject());
+            MapperParsingException e = expectThrows(MapperParsingException.class,
+                () -> parser.parse("type", new CompressedXContent(mapping)));
+            assertThat(e.getMessage(), containsString("[_source.synthetic] can't be combined with"));
+        }
+    }
+
+    public void testSyntheticRejectsUnsupportedFields() throws Exception {
+        MapperService mapperService = createIndex("test").mapperService();
+        String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("_source").field("synthetic", true).endObject()
+            .startObject("properties")
+                .startObject("keyword").field("type", "keyword").endObject()
+                .startObject("object").startObject("properties")
+                    .startObject("long").field("type", "long").endObject()
+                    .startObject("date").field("type", "date").endObject()
+                .endObject().endObject()
+            .endObject()
+            .endObject().endObject());
+        mapperService.merge("type", new CompressedXContent(mapping), MapperService.MergeReason.MAPPING_UPDATE);
+
+        assertRejected(mapperService, XContentFactory.jsonBuilder().startObject().field("type", "text").endObject(),
+            "field [new_field] of type [text] is not supported because the [_source] is synthetic");
+        assertRejected(mapperService, XContentFactory.jsonBuilder().startObject().field("type", "long").field("doc_values", false)
+            .endObject(), "field [new_field] must have doc values because the [_source] is synthetic");
+        assertRejected(mapperService, XContentFactory.jsonBuilder().startObject().field("type", "keyword").field("ignore_above", 10)
+            .endObject(), "field [new_field] can't set [ignore_above] because the [_source] is synthetic");
+        assertRejected(mapperService, XContentFactory.jsonBuilder().startObject().field("type", "nested").endObject(),
+            "field [new_field] of type [nested] is not supported because the [_source] is synthetic");
+    }
+
+    private void assertRejected(MapperService mapperService, XContentBuilder fieldMapping, String message) throws IOException {
+        String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type")
+            .startObject("properties").field("new_field").copyCurrentStructure(createParser(fieldMapping)).endObject()
+            .endObject().endObject());
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> mapperService.merge("type", new CompressedXContent(mapping), MapperService.MergeReason.MAPPING_UPDATE));
+        assertThat(e.getMessage(), containsString(message));
+    }
+
     public void testComplete() throws Exception {
         DocumentMapperParser parser = createIndex("test").mapperService().documentMapperParser();
         String mapping = Strings.toString(XContentFactory.jsonBuilder().startObject().startObject("type").endObject().endObject());
@@ -0,0 +1,133 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.equalTo;
+
+public class SyntheticSourceLoaderTests extends ESSingleNodeTestCase {
+
+    private void createMetricsIndex() throws IOException {
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("_doc")
+            .startObject("_source").field("synthetic", true).endObject()
+            .startObject("properties")
+                .startObject("@timestamp").field("type", "date").endObject()
+                .startObject("host").startObject("properties")
+                    .startObject("name").field("type", "keyword").endObject()
+                    .startObject("ip").field("type", "ip").endObject()
+                .endObject().endObject()
+                .startObject("cpu").field("type", "float").endObject()
+                .startObject("requests").field("type", "long").endObject()
+                .startObject("up").field("type", "boolean").endObject()
+                .startObject("tags").field("type", "keyword").endObject()
+            .endObject()
+            .endObject().endObject();
+        client().admin().indices().prepareCreate("metrics").addMapping("_doc", mapping).get();
+    }
+
+    public void testGetAndSearch() throws IOException {
+        createMetricsIndex();
+        client().prepareIndex("metrics", "_doc", "1").setSource(XContentFactory.jsonBuilder().startObject()
+            .field("tags", List.of("b", "a", "b"))
+            .field("requests", 12)
+            .field("host.name", "web-1")
+            .startObject("host").field("ip", "10.0.0.1").endObject()
+            .field("@timestamp", "2019-05-10T10:00:00.000Z")
+            .field("cpu", 0.1f)
+            .field("up", true)
+            .field("dynamically_mapped", 3)
+            .endObject()).get();
+        client().prepareIndex("metrics", "_doc", "2").setSource(XContentFactory.jsonBuilder().startObject()
+            .field("requests", List.of(3, 1, 3))
+            .field("@timestamp", 1557482400000L)
+            .endObject()).setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE).get();
+
+        final Map<String, Object> expected1 = new HashMap<>();
+        expected1.put("@timestamp", "2019-05-10T10:00:00.000Z");
+        expected1.put("cpu", 0.1);
+        expected1.put("host", Map.of("ip", "10.0.0.1", "name", "web-1"));
+        expected1.put("dynamically_mapped", 3);
+        expected1.put("requests", 12);
+        expected1.put("tags", List.of("a", "b"));
+        expected1.put("up", true);
+        // numbers are sorted but not deduplicated, and dates use the format of the field
+        final Map<String, Object> expected2 = Map.of("@timestamp", "2019-05-10T10:00:00.000Z", "requests", List.of(1, 3, 3));
+
+        GetResponse get = client().prepareGet("metrics", "_doc", "1").get();
+        assertThat(get.getSourceAsMap(), equalTo(expected1));
+        assertThat(get.getSourceAsString(), equalTo("{\"@timestamp\":\"2019-05-10T10:00:00.000Z\",\"cpu\":0.1,\"dynamically_mapped\":3,"
+            + "\"host\":{\"ip\":\"10.0.0.1\",\"name\":\"web-1\"},\"requests\":12,\"tags\":[\"a\",\"b\"],\"up\":true}"));
+        assertThat(client().prepareGet("metrics", "_doc", "2").get().getSourceAsMap(), equalTo(expected2));
+
+        SearchResponse search = client().prepareSearch("metrics").addSort("_id", SortOrder.ASC).get();
+        assertHitCount(search, 2);
+        assertThat(search.getHits().getAt(0).getSourceAsMap(), equalTo(expected1));
+        assertThat(search.getHits().getAt(1).getSourceAsMap(), equalTo(expected2));
+
+        search = client().prepareSearch("metrics").setQuery(QueryBuilders.termQuery("host.name", "web-1"))
+            .setFetchSource(new String[] {"host.*"}, null).get();
+        assertHitCount(search, 1);
+        SearchHit hit = search.getHits().getAt(0);
+        assertThat(hit.getSourceAsMap(), equalTo(Map.of("host", Map.of("ip", "10.0.0.1", "name", "web-1"))));
+    }
+
+    public void testUpdate() throws IOException {
+        createMetricsIndex();
+        client().prepareIndex("metrics", "_doc", "1").setSource(XContentFactory.jsonBuilder().startObject()
+            .field("requests", 12)
+            .field("tags", "a")
+            .endObject()).setRefreshPolicy(randomFrom(WriteRequest.RefreshPolicy.values())).get();
+        client().prepareUpdate("metrics", "_doc", "1").setDoc(XContentFactory.jsonBuilder().startObject()
+            .field("tags", List.of("c", "b"))
+            .endObject()).get();
+        if (randomBoolean()) {
+            client().admin().indices().prepareRefresh("metrics").get();
+        }
+        client().prepareUpdate("metrics", "_doc", "1").setDoc(XContentFactory.jsonBuilder().startObject()
+            .field("up", false)
+            .endObject()).setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE).get();
+        assertThat(client().prepareGet("metrics", "_doc", "1").get().getSourceAsMap(),
+            equalTo(Map.of("requests", 12, "tags", List.of("b", "c"), "up", false)));
+    }
+
+    public void testDynamicFieldsMustBeSupported() throws IOException {
+        createMetricsIndex();
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> client().prepareIndex("metrics", "_doc", "1")
+            .setSource(XContentFactory.jsonBuilder().startObject().field("message", "a string that is mapped as text").endObject())
+            .get());
+        assertThat(e.getMessage(), equalTo("field [message] of type [text] is not supported because the [_source] is synthetic, only "
+            + "[keyword], numeric, [date], [boolean] and [ip] fields are"));
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.lucene.search.AutomatonOnBinaryDocValuesQuery;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+
+public class WildcardFieldMapperTests extends ESSingleNodeTestCase {
+
+    private static XContentBuilder mapping() throws IOException {
+        return XContentFactory.jsonBuilder().startObject().startObject("_doc")
+            .startObject("properties")
+                .startObject("message").field("type", "wildcard").endObject()
+                .startObject("keyword").field("type", "keyword").endObject()
+                .startObject("short").field("type", "wildcard").field("ignore_above", 5).endObject()
+            .endObject()
+            .endObject().endObject();
+    }
+
+    public void testDefaults() throws IOException {
+        IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test").addMapping("_doc", mapping()));
+        DocumentMapper mapper = indexService.mapperService().documentMapper();
+        assertThat(mapper.mappingSource().toString(), containsString("\"message\":{\"type\":\"wildcard\"}"));
+        assertThat(mapper.mappingSource().toString(), containsString("\"short\":{\"type\":\"wildcard\",\"ignore_above\":5}"));
+
+        ParsedDocument doc = mapper.parse(new SourceToParse("test", "_doc", "1", BytesReference.bytes(XContentFactory.jsonBuilder()
+            .startObject().field("message", List.of("abcab", "ca")).field("short", "too long").endObject()), XContentType.JSON));
+        IndexableField[] fields = doc.rootDoc().getFields("message");
+        Set<BytesRef> ngrams = new HashSet<>();
+        for (IndexableField field : fields) {
+            if (field.fieldType().indexOptions() != IndexOptions.NONE) {
+                ngrams.add(field.binaryValue());
+            } else {
+                assertEquals(DocValuesType.BINARY, field.fieldType().docValuesType());
+            }
+        }
+        // the n-grams of each value are deduplicated, and the values are stored in a single doc value
+        assertEquals(Set.of(new BytesRef("abc"), new BytesRef("bca"), new BytesRef("cab")), ngrams);
+        assertEquals(4, fields.length);
+        assertEquals(0, doc.rootDoc().getFields("short").length);
+    }
+
+    public void testUnsupportedParameters() {
+        MapperParsingException e = expectThrows(MapperParsingException.class, () -> createIndex("test", client().admin().indices()
+            .prepareCreate("test").addMapping("_doc", "message", "type=wildcard,doc_values=false")));
+        assertThat(e.getMessage(), containsString("unsupported parameters:  [doc_values : false]"));
+    }
+
+    public void testWildcardLiterals() {
+        assertEquals(List.of("error"), WildcardFieldMapper.wildcardLiterals("*error*"));
+        assertEquals(List.of("a", "b", "c*d"), WildcardFieldMapper.wildcardLiterals("a?b*c\\*d"));
+        assertEquals(List.of("foo"), WildcardFieldMapper.wildcardLiterals("foo"));
+        assertEquals(List.of(), WildcardFieldMapper.wildcardLiterals("*"));
+    }
+
+    public void testRegexpLiterals() {
+        assertEquals(List.of("error"), WildcardFieldMapper.regexpLiterals(".*error.*"));
+        assertEquals(List.of("ab", "d.e"), WildcardFieldMapper.regexpLiterals("abc?[0-9]+d\\.e"));
+        assertEquals(List.of("ab", "cd", "ef"), WildcardFieldMapper.regexpLiterals("ab+cd@ef"));
+        assertThat(WildcardFieldMapper.regexpLiterals("error|warning"), nullValue());
+        assertThat(WildcardFieldMapper.regexpLiterals("(ab)?cd"), nullValue());
+        assertThat(WildcardFieldMapper.regexpLiterals("ab{0,2}"), nullValue());
+        assertThat(WildcardFieldMapper.regexpLiterals("ab[cd"), nullValue());
+    }
+
+    public void testQueryNGrams() {
+        Set<BytesRef> ngrams = new HashSet<>();
+        WildcardFieldMapper.addQueryNGrams("ab", ngrams);
+        assertEquals(Set.of(), ngrams);
+        WildcardFieldMapper.addQueryNGrams("abcdef", ngrams);
+        assertEquals(Set.of(new BytesRef("abc"), new BytesRef("def")), ngrams);
+        ngrams.clear();
+        WildcardFieldMapper.addQueryNGrams("abcdefg", ngrams);
+        assertEquals(Set.of(new BytesRef("abc"), new BytesRef("def"), new BytesRef("efg")), ngrams);
+        ngrams.clear();
+        // n-grams are made of code points
+        WildcardFieldMapper.addQueryNGrams("a😀b", ngrams);
+        assertEquals(Set.of(new BytesRef("a😀b")), ngrams);
+    }
+
+    public void testApproximation() {
+        MappedFieldType fieldType = new WildcardFieldMapper.WildcardFieldType();
+        fieldType.setName("message");
+        Query query = fieldType.wildcardQuery("*error*", null, null);
+        assertThat(query, instanceOf(AutomatonOnBinaryDocValuesQuery.class));
+        Query approximation = ((AutomatonOnBinaryDocValuesQuery) query).getApproximation();
+        assertThat(approximation, instanceOf(BooleanQuery.class));
+        List<BooleanClause> clauses = ((BooleanQuery) approximation).clauses();
+        assertEquals(2, clauses.size());
+        for (BooleanClause clause : clauses) {
+            assertEquals(BooleanClause.Occur.FILTER, clause.getOccur());
+        }
+
+        // patterns without literals of at least 3 characters need to check the doc values of all of the documents
+        query = fieldType.wildcardQuery("*er*", null, null);
+        assertEquals(new DocValuesFieldExistsQuery("message"), ((AutomatonOnBinaryDocValuesQuery) query).getApproximation());
+        query = fieldType.regexpQuery("error|warning", 0xffff, 10000, null, null);
+        assertEquals(new DocValuesFieldExistsQuery("message"), ((AutomatonOnBinaryDocValuesQuery) query).getApproximation());
+    }
+
+    public void testSearch() throws IOException {
+        createIndex("test", client().admin().indices().prepareCreate("test").addMapping("_doc", mapping()));
+        client().prepareIndex("test", "_doc", "1").setSource("message", "GET /index.html 200").get();
+        client().prepareIndex("test", "_doc", "2").setSource("message", List.of("ok", "connection error: timeout")).get();
+        client().prepareIndex("test", "_doc", "3").setSource("message", "an error occurred").get();
+        client().prepareIndex("test", "_doc", "4").setSource("keyword", "error").setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE)
+            .get();
+
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.wildcardQuery("message", "*error*")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.wildcardQuery("message", "*error")).get(), 0);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.wildcardQuery("message", "*err?r o*")).get(), 1);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.wildcardQuery("message", "*.html *")).get(), 1);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.wildcardQuery("message", "o*")).get(), 1);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.regexpQuery("message", ".*error.*")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.regexpQuery("message", ".* [0-9]+")).get(), 1);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.regexpQuery("message", ".*(timeout|occurred)")).get(), 2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.prefixQuery("message", "an err")).get(), 1);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.termQuery("message", "ok")).get(), 1);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.termQuery("message", "an error")).get(), 0);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.termsQuery("message", "ok", "an error occurred")).get(),
+            2);
+        assertHitCount(client().prepareSearch("test").setQuery(QueryBuilders.existsQuery("message")).get(), 3);
+    }
+
+    public void testSameHitsAsKeyword() throws IOException {
+        createIndex("test", client().admin().indices().prepareCreate("test").addMapping("_doc", mapping()));
+        // values of a small alphabet so that most patterns have hits
+        BulkRequestBuilder bulk = client().prepareBulk("test", "_doc").setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        int numDocs = randomIntBetween(50, 200);
+        for (int i = 0; i < numDocs; i++) {
+            String value = randomAlphaOfLengthBetween(0, 10).toLowerCase().replaceAll("[d-z]", "a");
+            bulk.add(client().prepareIndex().setSource("message", value, "keyword", value));
+        }
+        bulk.get();
+
+        for (int i = 0; i < 50; i++) {
+            StringBuilder pattern = new StringBuilder();
+            int length = randomIntBetween(1, 8);
+            for (int j = 0; j < length; j++) {
+                pattern.append(randomFrom('a', 'b', 'c', '*', '?'));
+            }
+            assertSameHits(QueryBuilders.wildcardQuery("message", pattern.toString()),
+                QueryBuilders.wildcardQuery("keyword", pattern.toString()));
+            String regexp = pattern.toString().replace("*", ".*").replace("?", ".");
+            assertSameHits(QueryBuilders.regexpQuery("message", regexp), QueryBuilders.regexpQuery("keyword", regexp));
+        }
+    }
+
+    private void assertSameHits(QueryBuilder wildcardQuery, QueryBuilder keywordQuery) {
+        long expected = client().prepareSearch("test").setQuery(keywordQuery).setSize(0).get().getHits().getTotalHits().value;
+        long actual = client().prepareSearch("test").setQuery(wildcardQuery).setSize(0).get().getHits().getTotalHits().value;
+        assertThat(wildcardQuery.toString(), actual, equalTo(expected));
+    }
+}
@@ -29,7 +29,8 @@ public class RefreshStatsTests extends ESTestCase {
 
     public void testSerialize() throws IOException {
         RefreshStats stats = new RefreshStats(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
-            randomNonNegativeLong(), between(0, Integer.MAX_VALUE));
+            randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+            between(0, Integer.MAX_VALUE));
         BytesStreamOutput out = new BytesStreamOutput();
         stats.writeTo(out);
         StreamInput input = out.bytes().streamInput();
@@ -40,5 +41,8 @@ public class RefreshStatsTests extends ESTestCase {
         assertEquals(stats.getListeners(), read.getListeners());
         assertEquals(stats.getTotalTimeInMillis(), read.getTotalTimeInMillis());
         assertEquals(stats.getExternalTotalTimeInMillis(), read.getExternalTotalTimeInMillis());
+        assertEquals(stats.getSearchIdleSkippedTotal(), read.getSearchIdleSkippedTotal());
+        assertEquals(stats.getThrottledTotal(), read.getThrottledTotal());
+        assertEquals(stats.getOnDemandTotal(), read.getOnDemandTotal());
     }
 }
@@ -114,6 +114,7 @@ import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogStats;
 import org.elasticsearch.index.translog.TranslogTests;
 import org.elasticsearch.indices.IndicesQueryCache;
+import org.elasticsearch.indices.ScheduledRefreshBudget;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
 import org.elasticsearch.indices.recovery.RecoveryState;
@@ -1572,8 +1573,9 @@ public class IndexShardTests extends IndexShardTestCase {
             assertThat(shard.refreshStats().getTotal(), equalTo(refreshCount+1));
         }
         indexDoc(shard, "_doc", "test");
+        // writing the indexing buffer flushes a segment without refreshing
         shard.writeIndexingBuffer();
-        assertThat(shard.refreshStats().getTotal(), equalTo(refreshCount+2));
+        assertThat(shard.refreshStats().getTotal(), equalTo(refreshCount+1));
         closeShards(shard);
     }
 
@@ -1600,7 +1602,7 @@ public class IndexShardTests extends IndexShardTestCase {
         indexDoc(shard, "_doc", "test");
         shard.writeIndexingBuffer();
         assertThat(shard.refreshStats().getExternalTotal(), equalTo(externalRefreshCount));
-        assertThat(shard.refreshStats().getExternalTotal(), equalTo(shard.refreshStats().getTotal() - 2));
+        assertThat(shard.refreshStats().getExternalTotal(), equalTo(shard.refreshStats().getTotal() - 1));
         closeShards(shard);
     }
 
@@ -3406,6 +3408,7 @@ public class IndexShardTests extends IndexShardTestCase {
         assertTrue(primary.getEngine().refreshNeeded());
         long lastSearchAccess = primary.getLastSearcherAccess();
         assertFalse(primary.scheduledRefresh());
+        assertEquals(1, primary.refreshStats().getSearchIdleSkippedTotal());
         assertEquals(lastSearchAccess, primary.getLastSearcherAccess());
         // wait until the thread-pool has moved the timestamp otherwise we can't assert on this below
         awaitBusy(() -> primary.getThreadPool().relativeTimeInMillis() > lastSearchAccess);
@@ -3422,6 +3425,7 @@ public class IndexShardTests extends IndexShardTestCase {
         }
         assertNotEquals("awaitShardSearchActive must access a searcher to remove search idle state", lastSearchAccess,
             primary.getLastSearcherAccess());
+        assertEquals(10, primary.refreshStats().getOnDemandTotal());
         assertTrue(lastSearchAccess < primary.getLastSearcherAccess());
         try (Engine.Searcher searcher = primary.acquireSearcher("test")) {
             assertEquals(1, searcher.reader().numDocs());
@@ -3452,6 +3456,36 @@ public class IndexShardTests extends IndexShardTestCase {
         closeShards(primary);
     }
 
+    public void testScheduledRefreshBudget() throws IOException {
+        IndexShard primary = newStartedShard(true);
+        ScheduledRefreshBudget budget = new ScheduledRefreshBudget(
+            Settings.builder().put(ScheduledRefreshBudget.MAX_CONCURRENT_SETTING.getKey(), 1).build());
+        // another shard is refreshing
+        assertTrue(budget.tryAcquire(true));
+
+        indexDoc(primary, "_doc", "0");
+        assertFalse(primary.scheduledRefresh(budget));
+        assertEquals(1, primary.refreshStats().getThrottledTotal());
+        try (Engine.Searcher searcher = primary.acquireSearcher("test")) {
+            assertEquals(0, searcher.reader().numDocs());
+        }
+        // the next scheduled refresh goes through regardless of the budget
+        indexDoc(primary, "_doc", "1");
+        assertTrue(primary.scheduledRefresh(budget));
+        assertEquals(1, primary.refreshStats().getThrottledTotal());
+        try (Engine.Searcher searcher = primary.acquireSearcher("test")) {
+            assertEquals(2, searcher.reader().numDocs());
+        }
+
+        indexDoc(primary, "_doc", "2");
+        assertFalse(primary.scheduledRefresh(budget));
+        assertEquals(2, primary.refreshStats().getThrottledTotal());
+        budget.release();
+        assertTrue(primary.scheduledRefresh(budget));
+        assertEquals(2, primary.refreshStats().getThrottledTotal());
+        closeShards(primary);
+    }
+
     public void testRefreshIsNeededWithRefreshListeners() throws IOException, InterruptedException {
         Settings settings = Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
             .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1)
@@ -3524,8 +3558,9 @@ public class IndexShardTests extends IndexShardTestCase {
 
         indexDoc(primary, "_doc", "4", "{\"foo\": \"potato\"}");
         indexDoc(primary, "_doc", "5", "{\"foo\": \"potato\"}");
-        // Forces a refresh with the INTERNAL scope
+        // Writes the indexing buffer to a new segment, whose memory is tracked once it is refreshed
         ((InternalEngine) primary.getEngine()).writeIndexingBuffer();
+        primary.refresh("refresh");
 
         ss = primary.segmentStats(randomBoolean(), randomBoolean());
         breaker = primary.circuitBreakerService.getBreaker(CircuitBreaker.ACCOUNTING);
@@ -3828,6 +3863,38 @@ public class IndexShardTests extends IndexShardTestCase {
         closeShard(shard, false);
     }
 
+    public void testResetEngineWithoutTranslog() throws Exception {
+        final Settings settings = Settings.builder()
+            .put(IndexSettings.INDEX_SOFT_DELETES_SETTING.getKey(), true)
+            .put(IndexSettings.INDEX_TRANSLOG_ENABLED_SETTING.getKey(), false)
+            .build();
+        IndexShard shard = newStartedShard(false, settings);
+        indexOnReplicaWithGaps(shard, between(0, 1000), Math.toIntExact(shard.getLocalCheckpoint()));
+        if (randomBoolean()) {
+            shard.flush(new FlushRequest());
+        }
+        final long globalCheckpoint = randomLongBetween(shard.getLastKnownGlobalCheckpoint(), shard.getLocalCheckpoint());
+        shard.updateGlobalCheckpointOnReplica(globalCheckpoint, "test");
+        Set<String> docBelowGlobalCheckpoint = getShardDocUIDs(shard).stream()
+            .filter(id -> Long.parseLong(id) <= globalCheckpoint).collect(Collectors.toSet());
+
+        final CountDownLatch engineResetLatch = new CountDownLatch(1);
+        shard.acquireAllReplicaOperationsPermits(shard.getOperationPrimaryTerm(), globalCheckpoint, 0L, ActionListener.wrap(r -> {
+            try {
+                shard.resetEngineToGlobalCheckpoint();
+            } finally {
+                r.close();
+                engineResetLatch.countDown();
+            }
+        }, Assert::assertNotNull), TimeValue.timeValueMinutes(1L));
+        engineResetLatch.await();
+        // the operations above the last commit are restored from the history that soft deletes retain
+        assertThat(getShardDocUIDs(shard), equalTo(docBelowGlobalCheckpoint));
+        assertThat(shard.seqNoStats().getMaxSeqNo(), equalTo(globalCheckpoint));
+        assertThat(shard.getLocalCheckpoint(), equalTo(globalCheckpoint));
+        closeShard(shard, false);
+    }
+
     /**
      * This test simulates a scenario seen rarely in ConcurrentSeqNoVersioningIT. Closing a shard while engine is inside
      * resetEngineToGlobalCheckpoint can lead to check index failure in integration tests.
@@ -0,0 +1,178 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.instanceOf;
+
+public class SnapshotBlockCacheTests extends ESTestCase {
+
+    private static final int BLOCK_SIZE = 4096;
+
+    private static SnapshotBlockCache newCache(Path path, int blocks) throws IOException {
+        return new SnapshotBlockCache(Settings.builder()
+            .put(SnapshotBlockCache.BLOCK_SIZE_SETTING.getKey(), BLOCK_SIZE + "b")
+            .put(SnapshotBlockCache.SIZE_SETTING.getKey(), (blocks * BLOCK_SIZE) + "b")
+            .build(), path);
+    }
+
+    /**
+     * Returns a loader that fills the block with bytes derived from the block index and counts the loads.
+     */
+    private static SnapshotBlockCache.BlockLoader loader(long blockIndex, AtomicInteger loads) {
+        return (buffer, length) -> {
+            loads.incrementAndGet();
+            for (int i = 0; i < length; i++) {
+                buffer[i] = (byte) (blockIndex * 31 + i);
+            }
+        };
+    }
+
+    private static void assertBlockContent(long blockIndex, int positionInBlock, byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            assertEquals((byte) (blockIndex * 31 + positionInBlock + i), bytes[i]);
+        }
+    }
+
+    public void testCachesBlocks() throws IOException {
+        final Path path = createTempDir();
+        try (SnapshotBlockCache cache = newCache(path, 4)) {
+            assertTrue(cache.isEnabled());
+            final AtomicInteger loads = new AtomicInteger();
+            final byte[] bytes = new byte[BLOCK_SIZE];
+            final int position = randomIntBetween(0, BLOCK_SIZE - 1);
+            final int length = randomIntBetween(1, BLOCK_SIZE - position);
+            cache.read("file", 2, BLOCK_SIZE, position, bytes, 0, length, loader(2, loads));
+            assertBlockContent(2, position, bytes, length);
+            assertEquals(1, loads.get());
+            assertTrue(Files.exists(path.resolve(SnapshotBlockCache.CACHE_FILE_NAME)));
+
+            final byte[] other = new byte[BLOCK_SIZE];
+            cache.read("file", 2, BLOCK_SIZE, 0, other, 0, BLOCK_SIZE, loader(2, loads));
+            assertBlockContent(2, 0, other, BLOCK_SIZE);
+            assertEquals(1, loads.get());
+            assertEquals(1, cache.hits());
+            assertEquals(1, cache.misses());
+
+            // the same block of another file is another block
+            cache.read("other_file", 2, BLOCK_SIZE, 0, other, 0, BLOCK_SIZE, loader(2, loads));
+            assertEquals(2, loads.get());
+            assertEquals(2, cache.cachedBlocks());
+        }
+        assertFalse(Files.exists(path.resolve(SnapshotBlockCache.CACHE_FILE_NAME)));
+    }
+
+    public void testEvictsLeastRecentlyUsedBlock() throws IOException {
+        try (SnapshotBlockCache cache = newCache(createTempDir(), 2)) {
+            final AtomicInteger loads = new AtomicInteger();
+            final byte[] bytes = new byte[BLOCK_SIZE];
+            cache.read("file", 0, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(0, loads));
+            cache.read("file", 1, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(1, loads));
+            // block 0 is now the most recently used
+            cache.read("file", 0, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(0, loads));
+            // the last block of a file may be shorter
+            cache.read("file", 2, 10, 0, bytes, 0, 10, loader(2, loads));
+            assertBlockContent(2, 0, bytes, 10);
+            assertEquals(3, loads.get());
+            assertEquals(1, cache.evictions());
+            assertEquals(2, cache.cachedBlocks());
+
+            cache.read("file", 0, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(0, loads));
+            assertBlockContent(0, 0, bytes, BLOCK_SIZE);
+            assertEquals(3, loads.get());
+            cache.read("file", 1, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(1, loads));
+            assertBlockContent(1, 0, bytes, BLOCK_SIZE);
+            assertEquals(4, loads.get());
+        }
+    }
+
+    public void testFailedLoadIsNotCached() throws IOException {
+        try (SnapshotBlockCache cache = newCache(createTempDir(), 2)) {
+            final byte[] bytes = new byte[BLOCK_SIZE];
+            expectThrows(IOException.class, () -> cache.read("file", 0, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, (buffer, length) -> {
+                throw new IOException("simulated");
+            }));
+            assertEquals(0, cache.cachedBlocks());
+            final AtomicInteger loads = new AtomicInteger();
+            cache.read("file", 0, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(0, loads));
+            assertBlockContent(0, 0, bytes, BLOCK_SIZE);
+            assertEquals(1, loads.get());
+        }
+    }
+
+    public void testInterruptedReadDoesNotFailOtherReads() throws Exception {
+        try (SnapshotBlockCache cache = newCache(createTempDir(), 2)) {
+            final AtomicInteger loads = new AtomicInteger();
+            final byte[] bytes = new byte[BLOCK_SIZE];
+            cache.read("file", 0, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(0, loads));
+
+            // reading from the cache file on an interrupted thread closes its channel
+            final AtomicReference<Exception> failure = new AtomicReference<>();
+            final Thread thread = new Thread(() -> {
+                Thread.currentThread().interrupt();
+                try {
+                    cache.read("file", 0, BLOCK_SIZE, 0, new byte[BLOCK_SIZE], 0, BLOCK_SIZE, loader(0, loads));
+                } catch (Exception e) {
+                    failure.set(e);
+                }
+            });
+            thread.start();
+            thread.join();
+            assertThat(failure.get(), instanceOf(ClosedByInterruptException.class));
+
+            // the cached block is still read from the cache file, and new blocks are still cached
+            cache.read("file", 0, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(0, loads));
+            assertBlockContent(0, 0, bytes, BLOCK_SIZE);
+            cache.read("file", 1, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(1, loads));
+            assertBlockContent(1, 0, bytes, BLOCK_SIZE);
+            assertEquals(2, loads.get());
+            assertEquals(2, cache.hits());
+            assertEquals(2, cache.cachedBlocks());
+        }
+    }
+
+    public void testDisabled() throws IOException {
+        final Path path = randomBoolean() ? null : createTempDir();
+        try (SnapshotBlockCache cache = path == null ? newCache(null, 4) : newCache(path, 0)) {
+            assertFalse(cache.isEnabled());
+        }
+    }
+
+    public void testDeletesCacheFileOfPreviousRun() throws IOException {
+        final Path path = createTempDir();
+        Files.write(path.resolve(SnapshotBlockCache.CACHE_FILE_NAME), new byte[BLOCK_SIZE]);
+        try (SnapshotBlockCache cache = newCache(path, 1)) {
+            assertFalse(Files.exists(path.resolve(SnapshotBlockCache.CACHE_FILE_NAME)));
+            final AtomicInteger loads = new AtomicInteger();
+            final byte[] bytes = new byte[BLOCK_SIZE];
+            cache.read("file", 0, BLOCK_SIZE, 0, bytes, 0, BLOCK_SIZE, loader(0, loads));
+            assertBlockContent(0, 0, bytes, BLOCK_SIZE);
+        }
+    }
+}
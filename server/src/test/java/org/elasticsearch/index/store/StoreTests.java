@@ -855,6 +855,78 @@ public class StoreTests extends ESTestCase {
         IOUtils.close(store);
     }
 
+    public void testMetadataSnapshotCache() throws IOException {
+        final ShardId shardId = new ShardId("index", "_na_", 1);
+        Store store = new Store(shardId, INDEX_SETTINGS, StoreTests.newDirectory(random()), new DummyShardLock(shardId));
+        IndexWriterConfig config = newIndexWriterConfig(random(), new MockAnalyzer(random())).setCodec(TestUtil.getDefaultCodec());
+        IndexWriter writer = new IndexWriter(store.directory(), config);
+        Document doc = new Document();
+        doc.add(new TextField("id", "1", Field.Store.NO));
+        writer.addDocument(doc);
+        writer.commit();
+
+        Store.MetadataSnapshot first = store.getMetadata(null);
+        assertThat(store.stats().getMetadataCacheMisses(), equalTo(1L));
+        assertThat(store.stats().getMetadataCacheHits(), equalTo(0L));
+        assertSame(first, store.getMetadata(null));
+        assertThat(store.stats().getMetadataCacheMisses(), equalTo(1L));
+        assertThat(store.stats().getMetadataCacheHits(), equalTo(1L));
+
+        // a new commit is read from the directory
+        writer.addDocument(doc);
+        writer.commit();
+        Store.MetadataSnapshot second = store.getMetadata(null);
+        assertNotSame(first, second);
+        assertThat(second.getNumDocs(), equalTo(2L));
+        assertThat(store.stats().getMetadataCacheMisses(), equalTo(2L));
+        assertSame(second, store.getMetadata(null));
+        assertThat(store.stats().getMetadataCacheHits(), equalTo(2L));
+        writer.close();
+
+        // deleting a file of the commit invalidates its snapshot
+        store.directory().deleteFile(second.getSegmentsFile().name());
+        expectThrows(IndexNotFoundException.class, () -> store.getMetadata(null));
+        assertThat(store.stats().getMetadataCacheHits(), equalTo(2L));
+
+        deleteContent(store.directory());
+        IOUtils.close(store);
+    }
+
+    public void testMetadataSnapshotCacheBypassedForIntegrityChecks() throws IOException {
+        final ShardId shardId = new ShardId("index", "_na_", 1);
+        Store store = new Store(shardId, INDEX_SETTINGS, StoreTests.newDirectory(random()), new DummyShardLock(shardId));
+        IndexWriterConfig config = newIndexWriterConfig(random(), new MockAnalyzer(random())).setCodec(TestUtil.getDefaultCodec());
+        IndexWriter writer = new IndexWriter(store.directory(), config);
+        Document doc = new Document();
+        doc.add(new TextField("id", "1", Field.Store.NO));
+        writer.addDocument(doc);
+        writer.commit();
+        writer.close();
+
+        Store.MetadataSnapshot cached = store.getMetadata(null);
+        assertThat(store.stats().getMetadataCacheMisses(), equalTo(1L));
+
+        // integrity checks read the snapshot from the directory and leave the cache alone
+        Store.MetadataSnapshot uncached = store.getUncachedMetadata(null, false);
+        assertNotSame(cached, uncached);
+        assertTrue(cached.recoveryDiff(uncached).identical.size() == cached.size());
+        assertThat(store.stats().getMetadataCacheMisses(), equalTo(1L));
+        assertThat(store.stats().getMetadataCacheHits(), equalTo(0L));
+        assertSame(cached, store.getMetadata(null));
+        assertThat(store.stats().getMetadataCacheHits(), equalTo(1L));
+
+        // a failed integrity check drops the cached snapshots
+        StoreFileMetaData md = cached.getSegmentsFile();
+        assertTrue(store.checkIntegrityNoException(md));
+        StoreFileMetaData mismatch = new StoreFileMetaData(md.name(), md.length(), "foobar", md.writtenBy());
+        assertFalse(store.checkIntegrityNoException(mismatch));
+        assertNotSame(cached, store.getMetadata(null));
+        assertThat(store.stats().getMetadataCacheMisses(), equalTo(2L));
+
+        deleteContent(store.directory());
+        IOUtils.close(store);
+    }
+
     public void testStreamStoreFilesMetaData() throws Exception {
         Store.MetadataSnapshot metadataSnapshot = createMetaDataSnapshot();
         TransportNodesListShardStoreMetaData.StoreFilesMetaData outStoreFileMetaData =
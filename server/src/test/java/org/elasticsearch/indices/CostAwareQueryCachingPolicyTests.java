@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class CostAwareQueryCachingPolicyTests extends ESTestCase {
+
+    private static void build(CostAwareQueryCachingPolicy.CostTracker tracker, Query query, long nanos, long ramBytesUsed, int hits) {
+        for (int i = 0; i < CostAwareQueryCachingPolicy.MIN_SAMPLES; i++) {
+            tracker.onBuild(query, nanos, ramBytesUsed);
+        }
+        for (int i = 0; i < hits; i++) {
+            tracker.onHit(query);
+        }
+    }
+
+    public void testUnmeasuredTypesUseDefaultFrequency() {
+        CostAwareQueryCachingPolicy.CostTracker tracker = new CostAwareQueryCachingPolicy.CostTracker();
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(tracker);
+        Query range = TermRangeQuery.newStringRange("field", "a", "b", true, true);
+        // costly queries are cached after two uses, other queries after five
+        assertEquals(2, policy.minFrequencyToCache(range));
+        assertEquals(5, policy.minFrequencyToCache(new CheapQuery()));
+
+        // not enough samples
+        tracker.onBuild(range, 1000, 10);
+        tracker.onHit(range);
+        assertTrue(Double.isNaN(tracker.relativeValue(range)));
+        assertEquals(2, policy.minFrequencyToCache(range));
+    }
+
+    public void testAdmissionDependsOnTimeSavedPerByte() {
+        CostAwareQueryCachingPolicy.CostTracker tracker = new CostAwareQueryCachingPolicy.CostTracker();
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(tracker);
+        Query wildcard = new WildcardQuery(new Term("field", "a*"));
+        Query other = new CheapQuery();
+        // wildcard doc id sets are expensive to build and often reused, the other ones are cheap and rarely reused
+        build(tracker, wildcard, 100_000, 100, 4 * CostAwareQueryCachingPolicy.MIN_SAMPLES);
+        build(tracker, other, 1_000, 100, CostAwareQueryCachingPolicy.MIN_SAMPLES / 4);
+        assertThat(tracker.relativeValue(wildcard), greaterThan(1d));
+        assertThat(tracker.relativeValue(other), lessThan(1d));
+        assertEquals(2, policy.minFrequencyToCache(wildcard));
+        assertEquals(20, policy.minFrequencyToCache(other));
+    }
+
+    public void testNeverReusedTypes() throws IOException {
+        CostAwareQueryCachingPolicy.CostTracker tracker = new CostAwareQueryCachingPolicy.CostTracker();
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(tracker);
+        Query wildcard = new WildcardQuery(new Term("field", "a*"));
+        Query range = TermRangeQuery.newStringRange("field", "a", "b", true, true);
+        build(tracker, wildcard, 1_000, 100, 0);
+        build(tracker, range, 1_000, 100, CostAwareQueryCachingPolicy.MIN_SAMPLES);
+        assertEquals(0d, tracker.relativeValue(wildcard), 0d);
+        assertEquals(8, policy.minFrequencyToCache(wildcard));
+        for (int i = 0; i < 7; i++) {
+            policy.onUse(wildcard);
+        }
+        assertFalse(policy.shouldCache(wildcard));
+        policy.onUse(wildcard);
+        assertTrue(policy.shouldCache(wildcard));
+        // term queries are never cached
+        assertFalse(policy.shouldCache(new TermQuery(new Term("field", "value"))));
+    }
+
+    /**
+     * A query that isn't considered costly by the {@link org.apache.lucene.search.UsageTrackingQueryCachingPolicy}.
+     */
+    private static class CheapQuery extends Query {
+
+        @Override
+        public String toString(String field) {
+            return "cheap";
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return sameClassAs(obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return classHash();
+        }
+    }
+}
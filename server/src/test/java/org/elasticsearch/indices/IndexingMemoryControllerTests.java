@@ -25,6 +25,7 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.engine.Engine;
@@ -53,6 +54,8 @@ import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 
 public class IndexingMemoryControllerTests extends ESSingleNodeTestCase {
 
@@ -67,6 +70,8 @@ public class IndexingMemoryControllerTests extends ESSingleNodeTestCase {
         // Shards that are currently throttled
         final Set<IndexShard> throttled = new HashSet<>();
 
+        long relativeTimeInNanos;
+
         MockController(Settings settings) {
             super(Settings.builder()
                             .put("indices.memory.interval", "200h") // disable it
@@ -161,6 +166,18 @@ public class IndexingMemoryControllerTests extends ESSingleNodeTestCase {
             forceCheck();
         }
 
+        public void simulateIndexingAt(IndexShard shard, long relativeTimeInNanos) {
+            this.relativeTimeInNanos = relativeTimeInNanos;
+            // record the indexing rate before the bytes show up in the buffer, like the engine does
+            bytesWritten(shard.shardId(), 1024*1024);
+            simulateIndexing(shard);
+        }
+
+        @Override
+        protected long relativeTimeInNanos() {
+            return relativeTimeInNanos;
+        }
+
         @Override
         protected Cancellable scheduleTask(ThreadPool threadPool) {
             return null;
@@ -199,6 +216,53 @@ public class IndexingMemoryControllerTests extends ESSingleNodeTestCase {
         controller.assertBuffer(shard2, 1);
     }
 
+    public void testShareByIndexingRate() {
+        createIndex("test", Settings.builder().put("index.number_of_shards", 2).put("index.number_of_replicas", 0).build());
+        IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        IndexService test = indicesService.indexService(resolveIndex("test"));
+
+        MockController controller = new MockController(Settings.builder()
+                                                       .put("indices.memory.index_buffer_size", "10mb").build());
+        IndexShard shard0 = test.getShard(0);
+        IndexShard shard1 = test.getShard(1);
+
+        // shard1 indexes a bit, then stops indexing
+        for (int i = 0; i < 3; i++) {
+            controller.simulateIndexingAt(shard1, 0);
+        }
+        controller.assertBuffer(shard1, 3);
+
+        // long after, shard0 indexes a lot
+        final long later = TimeValue.timeValueHours(200).nanos() * IndexingMemoryController.RATE_WINDOW_INTERVALS * 10;
+        for (int i = 0; i < 8; i++) {
+            controller.simulateIndexingAt(shard0, later);
+        }
+
+        // the node went over its limit, and the idle shard1 had to write its buffer although shard0 uses more heap
+        controller.assertBuffer(shard0, 8);
+        controller.assertBuffer(shard1, 0);
+        controller.assertWriting(shard1, 3);
+
+        IndexingBufferStats stats = controller.stats();
+        assertEquals(10 * 1024 * 1024, stats.getLimit().getBytes());
+        assertEquals(11 * 1024 * 1024, stats.getUsed().getBytes());
+        assertEquals(1, stats.getBufferWrites());
+        assertEquals(2, stats.getShards().size());
+        for (IndexingBufferStats.ShardStats shardStats : stats.getShards()) {
+            assertFalse(shardStats.isThrottled());
+            if (shardStats.getShardId().equals(shard0.shardId())) {
+                assertEquals(8 * 1024 * 1024, shardStats.getUsed().getBytes());
+                assertEquals(0, shardStats.getWriting().getBytes());
+                assertThat(shardStats.getShare().getBytes(), greaterThan(9L * 1024 * 1024));
+            } else {
+                assertEquals(shard1.shardId(), shardStats.getShardId());
+                assertEquals(3 * 1024 * 1024, shardStats.getUsed().getBytes());
+                assertEquals(3 * 1024 * 1024, shardStats.getWriting().getBytes());
+                assertThat(shardStats.getShare().getBytes(), lessThan(1024L * 1024));
+            }
+        }
+    }
+
     public void testActiveInactive() {
 
         createIndex("test", Settings.builder().put("index.number_of_shards", 2).put("index.number_of_replicas", 0).build());
@@ -41,6 +41,7 @@ import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
+import org.elasticsearch.index.cache.query.QueryTypeStats;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
@@ -174,6 +175,47 @@ public class IndicesQueryCacheTests extends ESTestCase {
         cache.close(); // this triggers some assertions
     }
 
+    public void testTypeStats() throws IOException {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+        w.addDocument(new Document());
+        DirectoryReader r = DirectoryReader.open(w);
+        w.close();
+        ShardId shard = new ShardId("index", "_na_", 0);
+        r = ElasticsearchDirectoryReader.wrap(r, shard);
+        IndexSearcher s = new IndexSearcher(r);
+        s.setQueryCachingPolicy(alwaysCachePolicy());
+
+        Settings settings = Settings.builder()
+                .put(IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.getKey(), 10)
+                .put(IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING.getKey(), true)
+                .build();
+        IndicesQueryCache cache = new IndicesQueryCache(settings);
+        s.setQueryCache(cache);
+
+        assertTrue(cache.getStats(shard).getTypeStats().isEmpty());
+
+        for (int i = 0; i < 20; ++i) {
+            assertEquals(1, s.count(new DummyQuery(i)));
+        }
+        s.count(new DummyQuery(10));
+
+        QueryCacheStats stats = cache.getStats(shard);
+        assertEquals(1, stats.getTypeStats().size());
+        assertEquals(new QueryTypeStats(1, 20, 20, 10), stats.getTypeStats().get("DummyQuery"));
+
+        IOUtils.close(r, dir);
+
+        // closing the segment isn't an eviction of the cached queries
+        stats = cache.getStats(shard);
+        assertEquals(0L, stats.getCacheSize());
+        assertEquals(new QueryTypeStats(1, 20, 20, 10), stats.getTypeStats().get("DummyQuery"));
+
+        cache.onClose(shard);
+        assertTrue(cache.getStats(shard).getTypeStats().isEmpty());
+        cache.close(); // this triggers some assertions
+    }
+
     public void testTwoShards() throws IOException {
         Directory dir1 = newDirectory();
         IndexWriter w1 = new IndexWriter(dir1, newIndexWriterConfig());
@@ -0,0 +1,220 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MergeInfo;
+import org.apache.lucene.util.StringHelper;
+import org.apache.lucene.util.Version;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+
+public class MergeBudgetTests extends ESTestCase {
+
+    private static MergePolicy.OneMerge newMerge(long estimatedBytes) {
+        return newMerge(estimatedBytes, false);
+    }
+
+    private static MergePolicy.OneMerge newMerge(long estimatedBytes, boolean forceMerge) {
+        final SegmentInfo segmentInfo = new SegmentInfo(new ByteBuffersDirectory(), Version.LATEST, Version.LATEST, "_0", 1, false,
+            Codec.getDefault(), Collections.emptyMap(), StringHelper.randomId(), Collections.emptyMap(), null);
+        final MergePolicy.OneMerge merge = new MergePolicy.OneMerge(
+            Collections.singletonList(new SegmentCommitInfo(segmentInfo, 0, 0, -1, -1, -1))) {
+            @Override
+            public MergeInfo getStoreMergeInfo() {
+                return new MergeInfo(totalMaxDoc, estimatedMergeBytes, false, forceMerge ? 1 : -1);
+            }
+        };
+        merge.estimatedMergeBytes = estimatedBytes;
+        return merge;
+    }
+
+    private static long bigMergeSize() {
+        return randomLongBetween(ByteSizeUnit.MB.toBytes(50), ByteSizeUnit.GB.toBytes(10));
+    }
+
+    public void testUnlimitedByDefault() {
+        MergeBudget budget = new MergeBudget(Settings.EMPTY);
+        final int merges = randomIntBetween(1, 20);
+        final List<Releasable> slots = new ArrayList<>();
+        for (int i = 0; i < merges; i++) {
+            slots.add(budget.acquire(newMerge(bigMergeSize())));
+        }
+        assertEquals(merges, budget.running());
+        assertEquals(0, budget.queued());
+        slots.forEach(Releasable::close);
+        assertEquals(0, budget.running());
+        assertEquals(0, budget.stats().getTotalQueued());
+        MergePolicy.OneMerge merge = newMerge(bigMergeSize());
+        Directory directory = new ByteBuffersDirectory();
+        assertSame(directory, budget.wrapForMerge(merge, directory));
+    }
+
+    public void testSmallMergesDoNotWait() {
+        MergeBudget budget = new MergeBudget(Settings.builder().put(MergeBudget.MAX_CONCURRENT_SETTING.getKey(), 1).build());
+        Releasable big = budget.acquire(newMerge(bigMergeSize()));
+        // small merges go over the budget
+        Releasable small = budget.acquire(newMerge(randomLongBetween(0, ByteSizeUnit.MB.toBytes(50) - 1)));
+        assertEquals(2, budget.running());
+        small.close();
+        big.close();
+        // releasing twice has no effect
+        big.close();
+        assertEquals(0, budget.running());
+    }
+
+    public void testWaitingMergesRunSmallestFirst() throws Exception {
+        MergeBudget budget = new MergeBudget(Settings.builder().put(MergeBudget.MAX_CONCURRENT_SETTING.getKey(), 1).build());
+        Releasable running = budget.acquire(newMerge(bigMergeSize()));
+
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = new ArrayList<>();
+        final long[] sizes = new long[] {ByteSizeUnit.GB.toBytes(1), ByteSizeUnit.MB.toBytes(100), ByteSizeUnit.MB.toBytes(200)};
+        for (String name : Arrays.asList("large", "small", "medium")) {
+            final MergePolicy.OneMerge merge = newMerge(sizes[threads.size()]);
+            final Thread thread = new Thread(() -> {
+                try (Releasable ignored = budget.acquire(merge)) {
+                    order.add(name);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            final int queued = threads.size();
+            assertBusy(() -> assertEquals(queued, budget.queued()));
+        }
+        assertEquals(3, budget.stats().getQueued());
+        running.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(Arrays.asList("small", "medium", "large"), order);
+        assertEquals(0, budget.running());
+        assertEquals(3, budget.stats().getTotalQueued());
+    }
+
+    public void testMergesThatWaitedLongEnoughRunFirst() throws Exception {
+        // with a maximum queue time of zero every waiting merge has been waiting long enough, so they run in the order they came in
+        MergeBudget budget = new MergeBudget(Settings.builder()
+            .put(MergeBudget.MAX_CONCURRENT_SETTING.getKey(), 1)
+            .put(MergeBudget.MAX_QUEUE_TIME_SETTING.getKey(), "0s")
+            .build());
+        Releasable running = budget.acquire(newMerge(bigMergeSize()));
+
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = new ArrayList<>();
+        final long[] sizes = new long[] {ByteSizeUnit.GB.toBytes(1), ByteSizeUnit.MB.toBytes(100), ByteSizeUnit.MB.toBytes(200)};
+        for (String name : Arrays.asList("large", "small", "medium")) {
+            final MergePolicy.OneMerge merge = newMerge(sizes[threads.size()]);
+            final Thread thread = new Thread(() -> {
+                try (Releasable ignored = budget.acquire(merge)) {
+                    order.add(name);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            final int queued = threads.size();
+            assertBusy(() -> assertEquals(queued, budget.queued()));
+        }
+        running.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(Arrays.asList("large", "small", "medium"), order);
+        assertEquals(0, budget.running());
+        assertEquals(0, budget.queued());
+    }
+
+    public void testForceMergesBypassTheBudget() throws Exception {
+        MergeBudget budget = new MergeBudget(Settings.builder()
+            .put(MergeBudget.MAX_CONCURRENT_SETTING.getKey(), 1)
+            .put(MergeBudget.MAX_BYTES_PER_SEC_SETTING.getKey(), "1mb")
+            .build());
+        Releasable running = budget.acquire(newMerge(bigMergeSize()));
+        final MergePolicy.OneMerge waiting = newMerge(bigMergeSize());
+        final Thread thread = new Thread(() -> budget.acquire(waiting).close());
+        thread.start();
+        assertBusy(() -> assertEquals(1, budget.queued()));
+
+        // a force merge neither waits for the running and queued merges nor is rate limited
+        final MergePolicy.OneMerge forceMerge = newMerge(bigMergeSize(), true);
+        Releasable forced = budget.acquire(forceMerge);
+        assertEquals(2, budget.running());
+        assertEquals(1, budget.queued());
+        Directory directory = new ByteBuffersDirectory();
+        assertSame(directory, budget.wrapForMerge(forceMerge, directory));
+        forced.close();
+
+        running.close();
+        thread.join();
+        assertEquals(0, budget.running());
+        assertEquals(0, budget.queued());
+    }
+
+    public void testAbortedMergeStopsWaiting() throws Exception {
+        MergeBudget budget = new MergeBudget(Settings.builder().put(MergeBudget.MAX_CONCURRENT_SETTING.getKey(), 1).build());
+        Releasable running = budget.acquire(newMerge(bigMergeSize()));
+        final MergePolicy.OneMerge merge = newMerge(bigMergeSize());
+        final Thread thread = new Thread(() -> budget.acquire(merge).close());
+        thread.start();
+        assertBusy(() -> assertEquals(1, budget.queued()));
+        merge.setAborted();
+        thread.join();
+        assertEquals(0, budget.queued());
+        running.close();
+        assertEquals(0, budget.running());
+    }
+
+    public void testRateLimit() throws Exception {
+        MergeBudget budget = new MergeBudget(Settings.builder()
+            .put(MergeBudget.MAX_BYTES_PER_SEC_SETTING.getKey(), "1mb")
+            .put(MergeBudget.SMALL_MERGE_SIZE_SETTING.getKey(), "1kb")
+            .build());
+        try (Directory directory = new ByteBuffersDirectory()) {
+            assertSame(directory, budget.wrapForMerge(newMerge(randomLongBetween(0, 1023)), directory));
+            Directory wrapped = budget.wrapForMerge(newMerge(ByteSizeUnit.MB.toBytes(1)), directory);
+            assertNotSame(directory, wrapped);
+            final byte[] bytes = new byte[1024];
+            try (IndexOutput output = wrapped.createOutput("merged", IOContext.DEFAULT)) {
+                for (int i = 0; i < 256; i++) {
+                    output.writeBytes(bytes, bytes.length);
+                }
+                assertEquals(256 * 1024, output.getFilePointer());
+            }
+            assertEquals(256 * 1024, directory.fileLength("merged"));
+        }
+        assertThat(budget.stats().getTotalThrottledTime().nanos(), greaterThan(0L));
+    }
+}
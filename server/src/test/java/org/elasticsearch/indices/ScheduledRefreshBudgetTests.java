@@ -0,0 +1,62 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+public class ScheduledRefreshBudgetTests extends ESTestCase {
+
+    public void testUnlimitedByDefault() {
+        ScheduledRefreshBudget budget = new ScheduledRefreshBudget(Settings.EMPTY);
+        final int refreshes = randomIntBetween(1, 100);
+        for (int i = 0; i < refreshes; i++) {
+            assertTrue(budget.tryAcquire(true));
+        }
+        for (int i = 0; i < refreshes; i++) {
+            budget.release();
+        }
+        assertEquals(0, budget.running());
+    }
+
+    public void testLimit() {
+        final int maxConcurrent = randomIntBetween(1, 10);
+        ScheduledRefreshBudget budget = new ScheduledRefreshBudget(
+            Settings.builder().put(ScheduledRefreshBudget.MAX_CONCURRENT_SETTING.getKey(), maxConcurrent).build());
+        for (int i = 0; i < maxConcurrent; i++) {
+            assertTrue(budget.tryAcquire(true));
+        }
+        assertFalse(budget.tryAcquire(true));
+        assertEquals(maxConcurrent, budget.running());
+
+        // refreshes that may not be throttled go over the budget
+        assertTrue(budget.tryAcquire(false));
+        assertEquals(maxConcurrent + 1, budget.running());
+        budget.release();
+        assertFalse(budget.tryAcquire(true));
+
+        budget.release();
+        assertTrue(budget.tryAcquire(true));
+        for (int i = 0; i < maxConcurrent; i++) {
+            budget.release();
+        }
+        assertEquals(0, budget.running());
+    }
+}
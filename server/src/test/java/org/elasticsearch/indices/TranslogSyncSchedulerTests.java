@@ -0,0 +1,190 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.CheckedConsumer;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogSyncStats;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TranslogSyncSchedulerTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        terminate(threadPool);
+    }
+
+    private static Translog.Location location(long translogLocation) {
+        return new Translog.Location(1, translogLocation, 1);
+    }
+
+    public void testDisabledByDefault() {
+        assertFalse(new TranslogSyncScheduler(Settings.EMPTY, threadPool).isEnabled());
+        assertTrue(new TranslogSyncScheduler(Settings.builder()
+            .put(TranslogSyncScheduler.MAX_WAIT_SETTING.getKey(), "5ms").build(), threadPool).isEnabled());
+    }
+
+    public void testBatchSyncsAcrossShards() throws Exception {
+        TranslogSyncScheduler scheduler = new TranslogSyncScheduler(Settings.builder()
+            .put(TranslogSyncScheduler.MAX_WAIT_SETTING.getKey(), "100ms").build(), threadPool);
+        Path dataPath = createTempDir();
+        List<List<Long>> shard1Syncs = new CopyOnWriteArrayList<>();
+        List<List<Long>> shard2Syncs = new CopyOnWriteArrayList<>();
+        CheckedConsumer<Stream<Translog.Location>, IOException> shard1 =
+            locations -> shard1Syncs.add(locations.map(l -> l.translogLocation).collect(Collectors.toList()));
+        CheckedConsumer<Stream<Translog.Location>, IOException> shard2 =
+            locations -> shard2Syncs.add(locations.map(l -> l.translogLocation).collect(Collectors.toList()));
+
+        CountDownLatch latch = new CountDownLatch(5);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        for (long i = 0; i < 3; i++) {
+            scheduler.sync(dataPath, shard1, location(i), e -> {
+                failure.compareAndSet(null, e);
+                latch.countDown();
+            });
+        }
+        for (long i = 0; i < 2; i++) {
+            scheduler.sync(dataPath, shard2, location(i), e -> {
+                failure.compareAndSet(null, e);
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThat(failure.get(), nullValue());
+        assertThat(shard1Syncs, contains(containsInAnyOrder(0L, 1L, 2L)));
+        assertThat(shard2Syncs, contains(containsInAnyOrder(0L, 1L)));
+
+        TranslogSyncStats stats = scheduler.stats();
+        assertEquals(1, stats.getRounds());
+        assertEquals(2, stats.getFsyncs());
+        assertEquals(5, stats.getSyncedLocations());
+    }
+
+    public void testFailureOnlyAffectsTheFailingShard() throws Exception {
+        TranslogSyncScheduler scheduler = new TranslogSyncScheduler(Settings.builder()
+            .put(TranslogSyncScheduler.MAX_WAIT_SETTING.getKey(), "10ms").build(), threadPool);
+        Path dataPath = createTempDir();
+        CheckedConsumer<Stream<Translog.Location>, IOException> failing = locations -> {
+            throw new IOException("disk is gone");
+        };
+        CheckedConsumer<Stream<Translog.Location>, IOException> working = locations -> {};
+        CountDownLatch latch = new CountDownLatch(2);
+        AtomicReference<Exception> failingResult = new AtomicReference<>();
+        AtomicReference<Exception> workingResult = new AtomicReference<>();
+        scheduler.sync(dataPath, failing, location(0), e -> {
+            failingResult.set(e);
+            latch.countDown();
+        });
+        scheduler.sync(dataPath, working, location(0), e -> {
+            workingResult.set(e);
+            latch.countDown();
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThat(failingResult.get(), instanceOf(IOException.class));
+        assertThat(workingResult.get(), nullValue());
+        assertEquals(1, scheduler.stats().getFsyncs());
+    }
+
+    public void testSyncsAfterARoundStartANewRound() throws Exception {
+        TranslogSyncScheduler scheduler = new TranslogSyncScheduler(Settings.builder()
+            .put(TranslogSyncScheduler.MAX_WAIT_SETTING.getKey(), "1ms").build(), threadPool);
+        Path dataPath = createTempDir();
+        CheckedConsumer<Stream<Translog.Location>, IOException> shard = locations -> {};
+        int rounds = randomIntBetween(2, 5);
+        for (int i = 0; i < rounds; i++) {
+            CountDownLatch latch = new CountDownLatch(1);
+            scheduler.sync(dataPath, shard, location(i), e -> latch.countDown());
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+        assertEquals(rounds, scheduler.stats().getRounds());
+        assertEquals(rounds, scheduler.stats().getFsyncs());
+    }
+
+    public void testListenersAreNotifiedInTheContextOfTheirRequest() throws Exception {
+        TranslogSyncScheduler scheduler = new TranslogSyncScheduler(Settings.builder()
+            .put(TranslogSyncScheduler.MAX_WAIT_SETTING.getKey(), "100ms").build(), threadPool);
+        Path dataPath = createTempDir();
+        ThreadContext threadContext = threadPool.getThreadContext();
+        AtomicReference<String> syncContext = new AtomicReference<>("unset");
+        CheckedConsumer<Stream<Translog.Location>, IOException> shard = locations -> syncContext.set(threadContext.getHeader("request"));
+        int requests = randomIntBetween(2, 10);
+        CountDownLatch latch = new CountDownLatch(requests);
+        List<String> notifiedContexts = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("request", "request-" + i);
+                final String expected = "request-" + i;
+                scheduler.sync(dataPath, shard, location(i), e -> {
+                    if (expected.equals(threadContext.getHeader("request"))) {
+                        notifiedContexts.add(expected);
+                    }
+                    latch.countDown();
+                });
+            }
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThat(notifiedContexts.size(), equalTo(requests));
+        // the sync itself does not run in the context of any of the requests
+        assertThat(syncContext.get(), nullValue());
+    }
+
+    public void testLatencyHistogram() {
+        TranslogSyncScheduler scheduler = new TranslogSyncScheduler(Settings.EMPTY, threadPool);
+        scheduler.onSyncCompleted(TimeUnit.MICROSECONDS.toNanos(500));
+        scheduler.onSyncCompleted(TimeUnit.MILLISECONDS.toNanos(7));
+        scheduler.onSyncCompleted(TimeUnit.MILLISECONDS.toNanos(8));
+        scheduler.onSyncCompleted(TimeUnit.SECONDS.toNanos(3));
+        long[] histogram = scheduler.stats().getLatencyHistogram();
+        assertThat(histogram.length, equalTo(TranslogSyncStats.LATENCY_BUCKETS_MILLIS.length + 1));
+        assertEquals(1, histogram[0]);
+        assertEquals(0, histogram[1]);
+        assertEquals(2, histogram[2]);
+        assertEquals(1, histogram[histogram.length - 1]);
+    }
+}
@@ -379,6 +379,39 @@ public class RecoveryTests extends ESIndexLevelReplicationTestCase {
         }
     }
 
+    public void testRecoveryWithoutTranslog() throws Exception {
+        Settings settings = Settings.builder()
+            .put(IndexSettings.INDEX_SOFT_DELETES_SETTING.getKey(), true)
+            .put(IndexSettings.INDEX_TRANSLOG_ENABLED_SETTING.getKey(), false).build();
+        try (ReplicationGroup shards = createGroup(1, settings)) {
+            shards.startAll();
+            final IndexShard replica = shards.getReplicas().get(0);
+            final int initDocs = shards.indexDocs(between(1, 20));
+            shards.syncGlobalCheckpoint();
+            shards.flush();
+            shards.removeReplica(replica);
+            final int moreDocs = shards.indexDocs(between(1, 20));
+            replica.close("test", randomBoolean());
+            replica.store().close();
+
+            // the operations that the replica misses are replayed from the history retained by soft deletes
+            final IndexShard newReplica = shards.addReplicaWithExistingPath(replica.shardPath(), replica.routingEntry().currentNodeId());
+            shards.recoverReplica(newReplica);
+            assertThat(newReplica.recoveryState().getIndex().fileDetails(), empty());
+            assertThat(newReplica.recoveryState().getTranslog().recoveredOperations(), equalTo(moreDocs));
+
+            // a file-based recovery replays the operations above the local checkpoint of the commit it copies
+            final IndexShard emptyReplica = shards.addReplica();
+            shards.recoverReplica(emptyReplica);
+            assertThat(emptyReplica.recoveryState().getTranslog().recoveredOperations(), equalTo(moreDocs));
+
+            shards.assertAllEqual(initDocs + moreDocs);
+            for (IndexShard shard : shards) {
+                assertThat(getTranslog(shard).totalOperations(), equalTo(0));
+            }
+        }
+    }
+
     /**
      * This test makes sure that there is no infinite loop of flushing (the condition `shouldPeriodicallyFlush` eventually is false)
      * in peer-recovery if a primary sends a fully-baked index commit.
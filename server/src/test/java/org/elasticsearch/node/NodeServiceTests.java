@@ -0,0 +1,40 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.node;
+
+import org.elasticsearch.action.admin.cluster.node.stats.NodeStats;
+import org.elasticsearch.action.admin.cluster.node.stats.NodesStatsResponse;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+public class NodeServiceTests extends ESSingleNodeTestCase {
+
+    public void testMergeBudgetStatsOnlyWhenRequested() {
+        NodesStatsResponse response = client().admin().cluster().prepareNodesStats().all().setMergeBudget(false).get();
+        assertEquals(1, response.getNodes().size());
+        NodeStats nodeStats = response.getNodes().get(0);
+        assertNotNull(nodeStats.getIndexingBufferStats());
+        assertNull(nodeStats.getMergeBudgetStats());
+
+        response = client().admin().cluster().prepareNodesStats().clear().setMergeBudget(true).get();
+        nodeStats = response.getNodes().get(0);
+        assertNull(nodeStats.getIndexingBufferStats());
+        assertNotNull(nodeStats.getMergeBudgetStats());
+    }
+}
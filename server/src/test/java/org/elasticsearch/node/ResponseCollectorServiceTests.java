@@ -36,7 +36,9 @@ import org.junit.Before;
 
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 
@@ -45,6 +47,7 @@ public class ResponseCollectorServiceTests extends ESTestCase {
     private ClusterService clusterService;
     private ResponseCollectorService collector;
     private ThreadPool threadpool;
+    private AtomicLong relativeTimeInNanos;
 
     @Before
     public void setUp() throws Exception {
@@ -53,7 +56,8 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         clusterService = new ClusterService(Settings.EMPTY,
                 new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS),
                 threadpool);
-        collector = new ResponseCollectorService(clusterService);
+        relativeTimeInNanos = new AtomicLong(randomNonNegativeLong() / 2);
+        collector = new ResponseCollectorService(clusterService, relativeTimeInNanos::get);
     }
 
     @After
@@ -137,4 +141,122 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         assertTrue(nodeStats.containsKey("node1"));
         assertFalse(nodeStats.containsKey("node2"));
     }
+
+    public void testIndexCostFactor() {
+        assertThat(collector.getIndexCostFactor("unknown"), equalTo(1.0));
+        collector.addIndexStatistics("cheap", 10);
+        collector.updateIndexCostFactors();
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(1.0));
+        collector.addIndexStatistics("expensive", 30);
+        // cost factors are only recomputed when a cluster state is applied
+        assertThat(collector.getIndexCostFactor("expensive"), equalTo(1.0));
+        collector.updateIndexCostFactors();
+        // the average response time over all indices is 20
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(0.5));
+        assertThat(collector.getIndexCostFactor("expensive"), equalTo(1.5));
+        assertThat(collector.getIndexCostFactor("unknown"), equalTo(1.0));
+        assertThat(collector.getIndexCostFactor(null), equalTo(1.0));
+
+        collector.addIndexStatistics("other", 80);
+        collector.updateIndexCostFactors();
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(0.25));
+        collector.removeIndex("other");
+        collector.updateIndexCostFactors();
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(0.5));
+        assertThat(collector.getIndexCostFactor("other"), equalTo(1.0));
+    }
+
+    public void testIndexCostFactorsUpdatedOnClusterStateChange() {
+        collector.addIndexStatistics("cheap", 10);
+        collector.addIndexStatistics("expensive", 30);
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(1.0));
+
+        final ClusterState state = ClusterState.builder(new ClusterName("test")).build();
+        collector.clusterChanged(new ClusterChangedEvent("test", state, state));
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(0.5));
+        assertThat(collector.getIndexCostFactor("expensive"), equalTo(1.5));
+    }
+
+    public void testIndexCostFactorsUpdatedWhenStatisticsAreCollected() {
+        collector.addIndexStatistics("cheap", 10);
+        collector.addIndexStatistics("expensive", 30);
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(1.0));
+
+        // not updated more than once per interval
+        relativeTimeInNanos.addAndGet(ResponseCollectorService.COST_FACTORS_UPDATE_INTERVAL_NANOS - 1);
+        collector.addIndexStatistics("expensive", 30);
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(1.0));
+        assertThat(collector.getIndexCostFactor("expensive"), equalTo(1.0));
+
+        relativeTimeInNanos.incrementAndGet();
+        collector.addIndexStatistics("expensive", 30);
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(0.5));
+        assertThat(collector.getIndexCostFactor("expensive"), equalTo(1.5));
+
+        // the next update happens one interval after the previous one
+        collector.addIndexStatistics("cheap", 50);
+        assertThat(collector.getIndexCostFactor("cheap"), equalTo(0.5));
+        relativeTimeInNanos.addAndGet(ResponseCollectorService.COST_FACTORS_UPDATE_INTERVAL_NANOS);
+        collector.addIndexStatistics("other", 38);
+        assertThat(collector.getIndexCostFactor("cheap"), closeTo(22.0 / 30.0, 0.0001));
+        assertThat(collector.getIndexCostFactor("expensive"), closeTo(1.0, 0.0001));
+        assertThat(collector.getIndexCostFactor("other"), closeTo(38.0 / 30.0, 0.0001));
+    }
+
+    public void testIndexCostFactorIsBounded() {
+        for (int i = 0; i < 20; i++) {
+            collector.addIndexStatistics("index" + i, 100);
+        }
+        collector.addIndexStatistics("very_cheap", 0);
+        collector.addIndexStatistics("very_expensive", 100000);
+        collector.updateIndexCostFactors();
+        assertThat(collector.getIndexCostFactor("very_cheap"), equalTo(ResponseCollectorService.MIN_COST_FACTOR));
+        assertThat(collector.getIndexCostFactor("very_expensive"), equalTo(ResponseCollectorService.MAX_COST_FACTOR));
+    }
+
+    public void testAddResponseTime() {
+        // ignored until the node reported its queue size and service time
+        collector.addResponseTime("node1", 50);
+        assertFalse(collector.getNodeStatistics("node1").isPresent());
+
+        collector.addNodeStatistics("node1", 1, 100, 10);
+        collector.addResponseTime("node1", 50);
+        assertThat(collector.getNodeStatistics("node1").get().responseTime, equalTo(85.0));
+    }
+
+    public void testOutstandingRequests() {
+        collector.addIndexStatistics("cheap", 10);
+        collector.addIndexStatistics("expensive", 30);
+        collector.updateIndexCostFactors();
+        collector.addNodeStatistics("node1", 1, 100, 10);
+
+        assertThat(collector.getOutstandingRequests().isEmpty(), equalTo(true));
+        assertThat(collector.getNodeStatistics("node1").get().outstandingCostFactor, equalTo(1.0));
+
+        final double expensiveCost = collector.onRequestSent("node1", "expensive");
+        final double cheapCost = collector.onRequestSent("node1", "cheap");
+        assertThat(expensiveCost, equalTo(1.5));
+        assertThat(cheapCost, equalTo(0.5));
+        assertThat(collector.getOutstandingRequests().get("node1"), equalTo(2L));
+        assertThat(collector.getNodeStatistics("node1").get().outstandingCostFactor, equalTo(1.0));
+
+        collector.onRequestCompleted("node1", cheapCost);
+        assertThat(collector.getOutstandingRequests().get("node1"), equalTo(1L));
+        assertThat(collector.getNodeStatistics("node1").get().outstandingCostFactor, equalTo(1.5));
+        assertThat(collector.getAllNodeStatistics().get("node1").outstandingCostFactor, equalTo(1.5));
+
+        collector.onRequestCompleted("node1", expensiveCost);
+        assertFalse(collector.getOutstandingRequests().containsKey("node1"));
+        assertThat(collector.getNodeStatistics("node1").get().outstandingCostFactor, equalTo(1.0));
+    }
+
+    public void testRankWeightedByOutstandingCost() {
+        ResponseCollectorService.ComputedNodeStats cheap = new ResponseCollectorService.ComputedNodeStats("node1", 2, 10, 100, 10, 0.5);
+        ResponseCollectorService.ComputedNodeStats average = new ResponseCollectorService.ComputedNodeStats("node1", 2, 10, 100, 10);
+        ResponseCollectorService.ComputedNodeStats expensive =
+            new ResponseCollectorService.ComputedNodeStats("node1", 2, 10, 100, 10, 3.0);
+        final long outstandingRequests = randomLongBetween(1, 10);
+        assertThat(average.rank(outstandingRequests), greaterThan(cheap.rank(outstandingRequests)));
+        assertThat(expensive.rank(outstandingRequests), greaterThan(average.rank(outstandingRequests)));
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlocks;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.time.DateFormatters;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.DateFieldRange;
+import org.elasticsearch.index.mapper.ParseContext.Document;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.QueryRewriteContext;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+public class CanMatchFieldRangeCacheTests extends ESTestCase {
+
+    public void testSkipsShardsOutsideOfCachedRange() throws IOException {
+        IndexMetaData indexMetaData = indexMetaData(true, 1);
+        ClusterState state = clusterState(indexMetaData);
+        ShardId shardId = new ShardId(indexMetaData.getIndex(), 0);
+        CanMatchFieldRangeCache cache = new CanMatchFieldRangeCache(Settings.EMPTY);
+        QueryRewriteContext context = new QueryRewriteContext(xContentRegistry(), writableRegistry(), null, () -> 0L);
+
+        // nothing is cached yet
+        assertTrue(cache.canMatch(state, shardId, QueryBuilders.rangeQuery("@timestamp").gte("2019-01-01"), context));
+
+        cache.put(state, shardId, Map.of("@timestamp", timestampRange("2018-01-01", "2018-12-31")));
+        assertEquals(1, cache.stats().getCachedShards());
+        assertFalse(cache.canMatch(state, shardId, QueryBuilders.rangeQuery("@timestamp").gte("2019-01-01"), context));
+        assertFalse(cache.canMatch(state, shardId, new BoolQueryBuilder()
+            .filter(QueryBuilders.rangeQuery("@timestamp").lt("2018-01-01"))
+            .must(QueryBuilders.termQuery("foo", "bar")), context));
+        assertEquals(2, cache.stats().getSkippedShards());
+
+        assertTrue(cache.canMatch(state, shardId, QueryBuilders.rangeQuery("@timestamp").gte("2018-06-01"), context));
+        assertTrue(cache.canMatch(state, shardId, QueryBuilders.rangeQuery("other_field").gte("2019-01-01"), context));
+        assertTrue(cache.canMatch(state, shardId, QueryBuilders.termQuery("foo", "bar"), context));
+        assertTrue(cache.canMatch(state, shardId, null, context));
+        assertEquals(2, cache.stats().getSkippedShards());
+    }
+
+    public void testOnlyCachesWriteBlockedIndices() throws IOException {
+        IndexMetaData indexMetaData = indexMetaData(false, 1);
+        ClusterState state = clusterState(indexMetaData);
+        ShardId shardId = new ShardId(indexMetaData.getIndex(), 0);
+        CanMatchFieldRangeCache cache = new CanMatchFieldRangeCache(Settings.EMPTY);
+        cache.put(state, shardId, Map.of("@timestamp", timestampRange("2018-01-01", "2018-12-31")));
+        assertNull(cache.get(state, shardId));
+        assertEquals(0, cache.stats().getCachedShards());
+    }
+
+    public void testInvalidatesWhenIndexChanges() throws IOException {
+        IndexMetaData indexMetaData = indexMetaData(true, 1);
+        ShardId shardId = new ShardId(indexMetaData.getIndex(), 0);
+        CanMatchFieldRangeCache cache = new CanMatchFieldRangeCache(Settings.EMPTY);
+        Map<String, DateFieldRange> ranges = Map.of("@timestamp", timestampRange("2018-01-01", "2018-12-31"));
+        cache.put(clusterState(indexMetaData), shardId, ranges);
+        assertEquals(ranges, cache.get(clusterState(indexMetaData), shardId));
+
+        final ClusterState newState;
+        switch (randomIntBetween(0, 2)) {
+            case 0:
+                // the write block was removed
+                newState = clusterState(IndexMetaData.builder(indexMetaData)
+                    .settings(Settings.builder().put(indexMetaData.getSettings()).put(IndexMetaData.SETTING_BLOCKS_WRITE, false))
+                    .settingsVersion(indexMetaData.getSettingsVersion() + 1).build());
+                break;
+            case 1:
+                // the settings of the index changed
+                newState = clusterState(indexMetaData(true, indexMetaData.getSettingsVersion() + 1));
+                break;
+            case 2:
+                // the index was deleted
+                newState = ClusterState.builder(ClusterName.DEFAULT).build();
+                break;
+            default:
+                throw new AssertionError();
+        }
+        assertNull(cache.get(newState, shardId));
+        assertEquals(0, cache.stats().getCachedShards());
+    }
+
+    public void testSkipsIndicesByConstantFields() throws IOException {
+        IndexMetaData indexMetaData = IndexMetaData.builder(indexMetaData(false, 1))
+            .putMapping("_doc", "{\"_doc\":{\"properties\":{\"tenant\":{\"type\":\"constant_keyword\",\"value\":\"acme\"},"
+                + "\"unset\":{\"type\":\"constant_keyword\"},\"obj\":{\"properties\":{\"dc\":{\"type\":\"constant_keyword\","
+                + "\"value\":\"eu-1\"}}}}}}")
+            .mappingVersion(1)
+            .build();
+        ClusterState state = clusterState(indexMetaData);
+        ShardId shardId = new ShardId(indexMetaData.getIndex(), 0);
+        CanMatchFieldRangeCache cache = new CanMatchFieldRangeCache(Settings.EMPTY);
+        QueryRewriteContext context = new QueryRewriteContext(xContentRegistry(), writableRegistry(), null, () -> 0L);
+
+        // the index doesn't need to be write-blocked since constant fields can't change
+        assertEquals(Set.of("tenant", "obj.dc"), cache.getConstantFieldTypes(state, indexMetaData.getIndex()).keySet());
+        assertFalse(cache.canMatch(state, shardId, QueryBuilders.termQuery("tenant", "other"), context));
+        assertFalse(cache.canMatch(state, shardId, QueryBuilders.prefixQuery("obj.dc", "us-"), context));
+        assertFalse(cache.canMatch(state, shardId, new BoolQueryBuilder()
+            .filter(QueryBuilders.wildcardQuery("tenant", "foo*"))
+            .must(QueryBuilders.termQuery("foo", "bar")), context));
+        assertEquals(3, cache.stats().getSkippedShards());
+
+        assertTrue(cache.canMatch(state, shardId, QueryBuilders.termQuery("tenant", "acme"), context));
+        assertTrue(cache.canMatch(state, shardId, QueryBuilders.termsQuery("tenant", "other", "acme"), context));
+        assertTrue(cache.canMatch(state, shardId, QueryBuilders.wildcardQuery("obj.dc", "eu-?"), context));
+        // the value of the field might have been set by a document since the cluster state was published
+        assertTrue(cache.canMatch(state, shardId, QueryBuilders.termQuery("unset", "foo"), context));
+        assertEquals(3, cache.stats().getSkippedShards());
+
+        // the constant fields are extracted again when the mapping changes
+        ClusterState newState = clusterState(IndexMetaData.builder(indexMetaData)
+            .putMapping("_doc", "{\"_doc\":{\"properties\":{\"tenant\":{\"type\":\"constant_keyword\",\"value\":\"acme\"},"
+                + "\"unset\":{\"type\":\"constant_keyword\",\"value\":\"bar\"}}}}")
+            .mappingVersion(2)
+            .build());
+        assertEquals(Set.of("tenant", "unset"), cache.getConstantFieldTypes(newState, indexMetaData.getIndex()).keySet());
+        assertFalse(cache.canMatch(newState, shardId, QueryBuilders.termQuery("unset", "foo"), context));
+    }
+
+    private static IndexMetaData indexMetaData(boolean writeBlocked, long settingsVersion) {
+        return IndexMetaData.builder("index")
+            .settings(Settings.builder()
+                .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(IndexMetaData.SETTING_INDEX_UUID, "_uuid")
+                .put(IndexMetaData.SETTING_BLOCKS_WRITE, writeBlocked))
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .settingsVersion(settingsVersion)
+            .build();
+    }
+
+    private static ClusterState clusterState(IndexMetaData indexMetaData) {
+        return ClusterState.builder(ClusterName.DEFAULT)
+            .metaData(MetaData.builder().put(indexMetaData, false))
+            .blocks(ClusterBlocks.builder().addBlocks(indexMetaData))
+            .build();
+    }
+
+    private static DateFieldRange timestampRange(String min, String max) throws IOException {
+        try (Directory dir = newDirectory(); IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(null))) {
+            for (String date : new String[] { min, max }) {
+                Document doc = new Document();
+                doc.add(new LongPoint("@timestamp", DateFormatters.from(DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parse(date))
+                    .toInstant().toEpochMilli()));
+                w.addDocument(doc);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(w)) {
+                DateFieldMapper.DateFieldType fieldType = new DateFieldMapper.Builder("@timestamp").fieldType();
+                fieldType.setName("@timestamp");
+                return DateFieldRange.fromReader(reader, fieldType);
+            }
+        }
+    }
+}
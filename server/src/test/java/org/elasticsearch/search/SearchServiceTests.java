@@ -33,6 +33,7 @@ import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -43,12 +44,14 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.mapper.DateFieldRange;
 import org.elasticsearch.index.query.AbstractQueryBuilder;
 import org.elasticsearch.index.query.MatchAllQueryBuilder;
 import org.elasticsearch.index.query.MatchNoneQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.index.query.TermQueryBuilder;
 import org.elasticsearch.index.search.stats.SearchStats;
 import org.elasticsearch.index.shard.IndexShard;
@@ -578,6 +581,53 @@ public class SearchServiceTests extends ESSingleNodeTestCase {
             new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, -1, null, null)));
     }
 
+    public void testCanMatchReportsFieldRangesOfWriteBlockedIndices() {
+        createIndex("index", Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 2)
+            .putList(IndexSettings.COORDINATOR_CAN_MATCH_FIELDS_SETTING.getKey(), "@timestamp")
+            .build(), "_doc", "@timestamp", "type=date");
+        for (int i = 0; i < 10; i++) {
+            client().prepareIndex("index", "_doc").setSource("@timestamp", "2018-01-0" + (i % 9 + 1)).get();
+        }
+        client().admin().indices().prepareRefresh("index").get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final ShardId shardId = new ShardId(resolveIndex("index"), 0);
+        final SearchRequest searchRequest = new SearchRequest().allowPartialSearchResults(true)
+            .source(new SearchSourceBuilder().query(new RangeQueryBuilder("@timestamp").gte("2019-01-01")));
+        final ShardSearchLocalRequest request = new ShardSearchLocalRequest(searchRequest, shardId, 2,
+            new AliasFilter(null, Strings.EMPTY_ARRAY), 1f, -1, null, null);
+
+        // the index may still receive writes
+        PlainActionFuture<SearchService.CanMatchResponse> future = new PlainActionFuture<>();
+        service.canMatch(request, future);
+        assertNull(future.actionGet().getFieldRanges());
+
+        client().admin().indices().prepareUpdateSettings("index")
+            .setSettings(Settings.builder().put(IndexMetaData.SETTING_BLOCKS_WRITE, true)).get();
+        try {
+            future = new PlainActionFuture<>();
+            service.canMatch(request, future);
+            Map<String, DateFieldRange> fieldRanges = future.actionGet().getFieldRanges();
+            assertNotNull(fieldRanges);
+            assertTrue(fieldRanges.get("@timestamp").hasValues());
+
+            // the first search populates the cache of the coordinating node, the second one skips all shards
+            final CanMatchFieldRangeCache fieldRangeCache = service.getCanMatchFieldRangeCache();
+            for (int i = 0; i < 2; i++) {
+                SearchResponse response = client().prepareSearch("index").setPreFilterShardSize(1)
+                    .setQuery(new RangeQueryBuilder("@timestamp").gte("2019-01-01")).get();
+                assertHitCount(response, 0);
+            }
+            assertEquals(2, fieldRangeCache.stats().getCachedShards());
+            assertEquals(2, fieldRangeCache.stats().getSkippedShards());
+            assertHitCount(client().prepareSearch("index").setPreFilterShardSize(1)
+                .setQuery(new RangeQueryBuilder("@timestamp").lt("2019-01-01")).get(), 10);
+        } finally {
+            client().admin().indices().prepareUpdateSettings("index")
+                .setSettings(Settings.builder().put(IndexMetaData.SETTING_BLOCKS_WRITE, false)).get();
+        }
+    }
+
     public void testCanRewriteToMatchNone() {
         assertFalse(SearchService.canRewriteToMatchNone(new SearchSourceBuilder().query(new MatchNoneQueryBuilder())
             .aggregation(new GlobalAggregationBuilder("test"))));
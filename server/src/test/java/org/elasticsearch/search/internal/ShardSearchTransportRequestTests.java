@@ -75,6 +75,7 @@ public class ShardSearchTransportRequestTests extends AbstractSearchTestCase {
         assertEquals(deserializedRequest.indexBoost(), shardSearchTransportRequest.indexBoost(), 0.0f);
         assertEquals(deserializedRequest.getClusterAlias(), shardSearchTransportRequest.getClusterAlias());
         assertEquals(shardSearchTransportRequest.allowPartialSearchResults(), deserializedRequest.allowPartialSearchResults());
+        assertEquals(shardSearchTransportRequest.speculativeFetch(), deserializedRequest.speculativeFetch());
     }
 
     private ShardSearchTransportRequest createShardSearchTransportRequest() throws IOException {
@@ -88,9 +89,11 @@ public class ShardSearchTransportRequestTests extends AbstractSearchTestCase {
             filteringAliases = new AliasFilter(null, Strings.EMPTY_ARRAY);
         }
         final String[] routings = generateRandomStringArray(5, 10, false, true);
-        return new ShardSearchTransportRequest(new OriginalIndices(searchRequest), searchRequest, shardId,
-            randomIntBetween(1, 100), filteringAliases, randomBoolean() ? 1.0f : randomFloat(),
+        ShardSearchTransportRequest request = new ShardSearchTransportRequest(new OriginalIndices(searchRequest), searchRequest,
+            shardId, randomIntBetween(1, 100), filteringAliases, randomBoolean() ? 1.0f : randomFloat(),
             Math.abs(randomLong()), randomAlphaOfLengthBetween(3, 10), routings);
+        request.speculativeFetch(randomBoolean());
+        return request;
     }
 
     public void testFilteringAliases() throws Exception {
@@ -24,7 +24,9 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.LatLonDocValuesField;
 import org.apache.lucene.document.LatLonPoint;
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
@@ -45,6 +47,7 @@ import org.apache.lucene.search.FieldComparator;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.FilterCollector;
 import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -52,6 +55,7 @@ import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.TotalHits;
@@ -64,6 +68,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.action.search.SearchTask;
+import org.elasticsearch.common.lucene.search.IndexSortSortedNumericDocValuesRangeQuery;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.search.ESToParentBlockJoinQuery;
@@ -511,6 +516,43 @@ public class QueryPhaseTests extends IndexShardTestCase {
         dir.close();
     }
 
+    public void testIndexSortedRangeQueryEarlyTermination() throws Exception {
+        Directory dir = newDirectory();
+        final Sort sort = new Sort(new SortedNumericSortField("@timestamp", SortField.Type.LONG, true));
+        IndexWriterConfig iwc = newIndexWriterConfig().setIndexSort(sort);
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+        final int numDocs = scaledRandomIntBetween(100, 200);
+        for (int i = 0; i < numDocs; ++i) {
+            Document doc = new Document();
+            doc.add(new LongPoint("@timestamp", i));
+            doc.add(new SortedNumericDocValuesField("@timestamp", i));
+            w.addDocument(doc);
+        }
+        w.close();
+
+        final long lower = numDocs / 2;
+        final Query fallback = new IndexOrDocValuesQuery(LongPoint.newRangeQuery("@timestamp", lower, Long.MAX_VALUE),
+            SortedNumericDocValuesField.newSlowRangeQuery("@timestamp", lower, Long.MAX_VALUE));
+        TestSearchContext context = new TestSearchContext(null, indexShard);
+        context.parsedQuery(new ParsedQuery(
+            new IndexSortSortedNumericDocValuesRangeQuery("@timestamp", lower, Long.MAX_VALUE, fallback)));
+        context.setSize(1);
+        context.setTask(new SearchTask(123L, "", "", "", null, Collections.emptyMap()));
+        context.sort(new SortAndFormats(sort, new DocValueFormat[] {DocValueFormat.RAW}));
+
+        final IndexReader reader = DirectoryReader.open(dir);
+        // the total hit count is computed from the doc id ranges, so only the top hit of each segment is collected
+        IndexSearcher contextSearcher = getAssertingEarlyTerminationSearcher(reader, 1);
+        QueryPhase.execute(context, contextSearcher, checkCancelled -> {});
+        assertThat(context.queryResult().topDocs().topDocs.totalHits.value, equalTo(numDocs - lower));
+        assertThat(context.queryResult().topDocs().topDocs.totalHits.relation, equalTo(TotalHits.Relation.EQUAL_TO));
+        assertThat(context.queryResult().topDocs().topDocs.scoreDocs.length, equalTo(1));
+        FieldDoc fieldDoc = (FieldDoc) context.queryResult().topDocs().topDocs.scoreDocs[0];
+        assertThat(fieldDoc.fields[0], equalTo((long) numDocs - 1));
+        reader.close();
+        dir.close();
+    }
+
     public void testIndexSortScrollOptimization() throws Exception {
         Directory dir = newDirectory();
         final Sort indexSort = new Sort(
@@ -0,0 +1,109 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.snapshots;
+
+import org.elasticsearch.action.admin.cluster.snapshots.create.CreateSnapshotResponse;
+import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.index.IndexModule;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.store.SearchableSnapshotDirectoryFactory;
+import org.elasticsearch.index.store.SnapshotBlockCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class SearchableSnapshotIT extends AbstractSnapshotIntegTestCase {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return Settings.builder().put(super.nodeSettings(nodeOrdinal))
+            .put(SnapshotBlockCache.BLOCK_SIZE_SETTING.getKey(), randomIntBetween(4, 16), ByteSizeUnit.KB)
+            .put(SnapshotBlockCache.SIZE_SETTING.getKey(), randomFrom("0b", "64kb", "10mb"))
+            .build();
+    }
+
+    public void testMountSnapshot() throws Exception {
+        assertAcked(client().admin().cluster().preparePutRepository("test-repo").setType("fs").setSettings(Settings.builder()
+            .put("location", randomRepoPath())
+            .put("chunk_size", randomBoolean() ? randomIntBetween(1000, 10000) + "b" : null)));
+
+        createIndex("test-idx");
+        final int numDocs = randomIntBetween(10, 200);
+        final List<IndexRequestBuilder> builders = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            builders.add(client().prepareIndex("test-idx", "_doc", Integer.toString(i)).setSource("foo", "bar" + i, "num", i));
+        }
+        indexRandom(true, builders);
+        flushAndRefresh("test-idx");
+
+        final CreateSnapshotResponse createSnapshotResponse = client().admin().cluster()
+            .prepareCreateSnapshot("test-repo", "test-snap").setWaitForCompletion(true).setIndices("test-idx").get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(), greaterThan(0));
+        assertThat(createSnapshotResponse.getSnapshotInfo().successfulShards(),
+            equalTo(createSnapshotResponse.getSnapshotInfo().totalShards()));
+        assertAcked(client().admin().indices().prepareDelete("test-idx"));
+
+        final RestoreSnapshotResponse restoreResponse = client().admin().cluster().prepareRestoreSnapshot("test-repo", "test-snap")
+            .setRenamePattern("test-idx").setRenameReplacement("mounted-idx")
+            .setIndexSettings(Settings.builder()
+                .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), SearchableSnapshotDirectoryFactory.STORE_TYPE))
+            .setWaitForCompletion(true).get();
+        assertThat(restoreResponse.getRestoreInfo().failedShards(), equalTo(0));
+        ensureGreen("mounted-idx");
+
+        final Settings settings = client().admin().indices().prepareGetSettings("mounted-idx").get().getIndexToSettings()
+            .get("mounted-idx");
+        assertThat(settings.get(SearchableSnapshotDirectoryFactory.SNAPSHOT_NAME_SETTING.getKey()), equalTo("test-snap"));
+        assertThat(settings.get(IndexMetaData.SETTING_NUMBER_OF_REPLICAS), equalTo("0"));
+
+        assertHitCount(client().prepareSearch("mounted-idx").setSize(0).get(), numDocs);
+        assertHitCount(client().prepareSearch("mounted-idx").setQuery(QueryBuilders.termQuery("foo", "bar0")).get(), 1);
+        assertHitCount(client().prepareSearch("mounted-idx").setQuery(QueryBuilders.rangeQuery("num").gte(numDocs / 2)).get(),
+            numDocs - numDocs / 2);
+        assertThat(client().prepareGet("mounted-idx", "_doc", "0").get().isExists(), equalTo(true));
+
+        expectThrows(ClusterBlockException.class, () -> client().prepareIndex("mounted-idx", "_doc", "new").setSource("foo", "baz").get());
+
+        // the shards are recovered from the existing store on reopening, which must read the files of the snapshot again
+        assertAcked(client().admin().indices().prepareClose("mounted-idx"));
+        assertAcked(client().admin().indices().prepareOpen("mounted-idx"));
+        ensureGreen("mounted-idx");
+        assertHitCount(client().prepareSearch("mounted-idx").setSize(0).get(), numDocs);
+        assertHitCount(client().prepareSearch("mounted-idx").setQuery(QueryBuilders.termQuery("foo", "bar0")).get(), 1);
+
+        final SnapshotException e = expectThrows(SnapshotException.class,
+            () -> client().admin().cluster().prepareDeleteSnapshot("test-repo", "test-snap").get());
+        assertThat(e.getMessage(), containsString("is mounted from it"));
+
+        assertAcked(client().admin().indices().prepareDelete("mounted-idx"));
+        assertAcked(client().admin().cluster().prepareDeleteSnapshot("test-repo", "test-snap").get());
+    }
+}
@@ -124,6 +124,7 @@ import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.env.TestEnvironment;
 import org.elasticsearch.gateway.MetaStateService;
 import org.elasticsearch.gateway.TransportNodesListGatewayStartedShards;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
 import org.elasticsearch.index.seqno.GlobalCheckpointSyncAction;
 import org.elasticsearch.index.seqno.RetentionLeaseBackgroundSyncAction;
@@ -1018,9 +1019,10 @@ public class SnapshotResiliencyTests extends ESTestCase {
                 ));
             final MappingUpdatedAction mappingUpdatedAction = new MappingUpdatedAction(settings, clusterSettings);
             mappingUpdatedAction.setClient(client);
+            final IndexingPressure indexingPressure = new IndexingPressure(settings);
             final TransportShardBulkAction transportShardBulkAction = new TransportShardBulkAction(settings, transportService,
                 clusterService, indicesService, threadPool, shardStateAction, mappingUpdatedAction, new UpdateHelper(scriptService),
-                actionFilters, indexNameExpressionResolver);
+                actionFilters, indexNameExpressionResolver, indexingPressure);
             actions.put(BulkAction.INSTANCE,
                 new TransportBulkAction(threadPool, transportService, clusterService,
                     new IngestService(
@@ -1028,7 +1030,7 @@ public class SnapshotResiliencyTests extends ESTestCase {
                         new AnalysisModule(environment, Collections.emptyList()).getAnalysisRegistry(),
                         Collections.emptyList()),
                     transportShardBulkAction, client, actionFilters, indexNameExpressionResolver,
-                    new AutoCreateIndex(settings, clusterSettings, indexNameExpressionResolver)
+                    new AutoCreateIndex(settings, clusterSettings, indexNameExpressionResolver), indexingPressure
                 ));
             final RestoreService restoreService = new RestoreService(
                 clusterService, repositoriesService, allocationService,
@@ -1046,7 +1048,7 @@ public class SnapshotResiliencyTests extends ESTestCase {
                     actionFilters, indexNameExpressionResolver, new RequestValidators<>(Collections.emptyList())));
             final ResponseCollectorService responseCollectorService = new ResponseCollectorService(clusterService);
             final SearchTransportService searchTransportService = new SearchTransportService(transportService,
-                SearchExecutionStatsCollector.makeWrapper(responseCollectorService));
+                responseCollectorService, SearchExecutionStatsCollector.makeWrapper(responseCollectorService));
             final SearchService searchService = new SearchService(clusterService, indicesService, threadPool, scriptService,
                 bigArrays, new FetchPhase(Collections.emptyList()), responseCollectorService);
             actions.put(SearchAction.INSTANCE,
@@ -459,6 +459,21 @@ public abstract class AbstractBytesReferenceTestCase extends ESTestCase {
         }
     }
 
+    public void testSliceBackingArray() throws IOException {
+        int length = randomIntBetween(1, PAGE_SIZE * randomIntBetween(2, 5));
+        BytesReference pbr = newBytesReference(length);
+        int sliceOffset = randomIntBetween(0, pbr.length() - 1);
+        int sliceLength = randomIntBetween(1, pbr.length() - sliceOffset);
+        BytesReference slice = pbr.slice(sliceOffset, sliceLength);
+        if (slice.hasArray()) {
+            byte[] expected = BytesReference.toBytes(slice);
+            assertArrayEquals(expected, Arrays.copyOfRange(slice.array(), slice.arrayOffset(), slice.arrayOffset() + sliceLength));
+        } else {
+            expectThrows(UnsupportedOperationException.class, slice::array);
+            expectThrows(UnsupportedOperationException.class, slice::arrayOffset);
+        }
+    }
+
     public void testToUtf8() throws IOException {
         // test empty
         BytesReference pbr = newBytesReference(0);
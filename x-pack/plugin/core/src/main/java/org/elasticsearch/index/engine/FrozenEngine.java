@@ -31,6 +31,7 @@ import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Bits;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.SuppressForbidden;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -65,6 +66,9 @@ import java.util.function.Function;
  *
  * The internal reopen of readers is treated like a refresh and refresh listeners are called up-on reopen. This allows to consume refresh
  * stats in order to obtain the number of reopens.
+ *
+ * Optionally the reader is put in a node-level {@link FrozenReaderCache} once it is opened, which keeps it open between search phases
+ * and searches until it is evicted to make room for the readers of other frozen shards. Reopens only happen after such an eviction.
  */
 public final class FrozenEngine extends ReadOnlyEngine {
     public static final Setting<Boolean> INDEX_FROZEN = Setting.boolSetting("index.frozen", false, Setting.Property.IndexScope,
@@ -72,9 +76,20 @@ public final class FrozenEngine extends ReadOnlyEngine {
     private final SegmentsStats stats;
     private volatile DirectoryReader lastOpenedReader;
     private final DirectoryReader canMatchReader;
+    @Nullable
+    private final FrozenReaderCache readerCache;
 
     public FrozenEngine(EngineConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * @param readerCache the node-level cache that keeps the reader of this engine open between searches, or {@code null} to close
+     *                    the reader as soon as no search uses it anymore
+     */
+    public FrozenEngine(EngineConfig config, @Nullable FrozenReaderCache readerCache) {
         super(config, null, null, true, Function.identity());
+        this.readerCache = readerCache;
 
         boolean success = false;
         Directory directory = store.directory();
@@ -159,7 +174,29 @@ public final class FrozenEngine extends ReadOnlyEngine {
         }
     }
 
-    private synchronized DirectoryReader getOrOpenReader() throws IOException {
+    @SuppressForbidden(reason = "we manage references explicitly here")
+    private DirectoryReader getOrOpenReader() throws IOException {
+        final DirectoryReader reader = doGetOrOpenReader();
+        if (readerCache != null) {
+            boolean success = false;
+            try {
+                // this is done outside of the lock of this engine as it may close the readers of other engines
+                readerCache.put(this, reader, engineConfig.getCircuitBreakerService());
+                if (isClosed.get()) {
+                    // the engine was closed concurrently and may have removed its reader from the cache already
+                    readerCache.remove(this);
+                }
+                success = true;
+            } finally {
+                if (success == false) {
+                    reader.decRef();
+                }
+            }
+        }
+        return reader;
+    }
+
+    private synchronized DirectoryReader doGetOrOpenReader() throws IOException {
         DirectoryReader reader = null;
         boolean success = false;
         try {
@@ -585,6 +622,18 @@ public final class FrozenEngine extends ReadOnlyEngine {
         }
     }
 
+    @Override
+    protected void closeNoLock(String reason, CountDownLatch closedLatch) {
+        if (readerCache != null) {
+            try {
+                readerCache.remove(this);
+            } catch (IOException e) {
+                logger.warn("failed to release cached reader", e);
+            }
+        }
+        super.closeNoLock(reason, closedLatch);
+    }
+
     @Override
     public SegmentsStats segmentsStats(boolean includeSegmentFileSizes, boolean includeUnloadedSegments) {
         if (includeUnloadedSegments) {
@@ -0,0 +1,161 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.common.SuppressForbidden;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A node-level cache that keeps the readers of the frozen shards that were searched most recently open, so that the next search of
+ * these shards does not have to reopen their segments. Every {@link FrozenEngine} of the node puts the reader it opened in this cache,
+ * which holds a reference to the reader until the reader is evicted or the engine is closed.
+ *
+ * The memory that the segments of the cached readers use is accounted in the {@link CircuitBreaker#FROZEN_READERS} breaker, and the
+ * least recently used readers are evicted when a new reader would exceed its limit. Readers that are in use by a search are only
+ * closed once that search releases them, so the memory of frozen shards is still bounded by the size of the search_throttled pool
+ * plus the limit of this breaker.
+ */
+public final class FrozenReaderCache {
+
+    private final LinkedHashMap<FrozenEngine, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Caches the given reader of the given engine, which the caller holds a reference to. If the reader is cached already, this only
+     * marks it as the most recently used one.
+     */
+    void put(FrozenEngine engine, DirectoryReader reader, CircuitBreakerService breakerService) throws IOException {
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.FROZEN_READERS);
+        final List<Entry> evicted = new ArrayList<>();
+        try {
+            synchronized (this) {
+                final Entry existing = entries.get(engine);
+                if (existing != null) {
+                    if (existing.reader == reader) {
+                        return;
+                    }
+                    entries.remove(engine);
+                    existing.breaker.addWithoutBreaking(-existing.bytes);
+                    evicted.add(existing);
+                }
+                final long bytes = ramBytesUsed(reader);
+                final long limit = breaker.getLimit();
+                final long estimatedBytes = (long) (bytes * breaker.getOverhead());
+                // make room for the reader, evicting the least recently used readers first
+                for (Iterator<Entry> iterator = entries.values().iterator();
+                     limit >= 0 && breaker.getUsed() + estimatedBytes > limit && iterator.hasNext(); ) {
+                    final Entry entry = iterator.next();
+                    iterator.remove();
+                    entry.breaker.addWithoutBreaking(-entry.bytes);
+                    evicted.add(entry);
+                }
+                try {
+                    breaker.addEstimateBytesAndMaybeBreak(bytes, "frozen reader of " + engine.shardId);
+                } catch (CircuitBreakingException e) {
+                    // the reader doesn't fit, it is closed once the search that opened it releases it
+                    return;
+                }
+                reader.incRef();
+                entries.put(engine, new Entry(reader, bytes, breaker));
+            }
+        } finally {
+            // closing a reader notifies its engine, which must not happen under the lock of the cache
+            release(evicted);
+        }
+    }
+
+    /**
+     * Removes the reader of the given engine from the cache, if any.
+     */
+    void remove(FrozenEngine engine) throws IOException {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.remove(engine);
+            if (entry != null) {
+                entry.breaker.addWithoutBreaking(-entry.bytes);
+            }
+        }
+        if (entry != null) {
+            release(Collections.singletonList(entry));
+        }
+    }
+
+    /**
+     * Evicts the least recently used readers until the cached readers fit in the given limit of the
+     * {@link CircuitBreaker#FROZEN_READERS} breaker. Called when the settings of the breaker are updated, since readers are otherwise
+     * only evicted to make room for a new reader.
+     */
+    public void evictToLimit(ByteSizeValue limit, Double overhead) {
+        final List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            long bytes = entries.values().stream().mapToLong(entry -> entry.bytes).sum();
+            for (Iterator<Entry> iterator = entries.values().iterator();
+                 limit.getBytes() >= 0 && (long) (bytes * overhead) > limit.getBytes() && iterator.hasNext(); ) {
+                final Entry entry = iterator.next();
+                iterator.remove();
+                entry.breaker.addWithoutBreaking(-entry.bytes);
+                bytes -= entry.bytes;
+                evicted.add(entry);
+            }
+        }
+        try {
+            release(evicted);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressForbidden(reason = "we manage references explicitly here")
+    private static void release(List<Entry> entries) throws IOException {
+        IOUtils.close(entries.stream().map(entry -> (Closeable) entry.reader::decRef).collect(Collectors.toList()));
+    }
+
+    private static long ramBytesUsed(DirectoryReader reader) {
+        long bytes = 0;
+        for (LeafReaderContext leaf : reader.leaves()) {
+            bytes += Lucene.segmentReader(leaf.reader()).ramBytesUsed();
+        }
+        return bytes;
+    }
+
+    // for tests
+    synchronized boolean contains(FrozenEngine engine) {
+        return entries.containsKey(engine);
+    }
+
+    // for tests
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final DirectoryReader reader;
+        private final long bytes;
+        private final CircuitBreaker breaker;
+
+        Entry(DirectoryReader reader, long bytes, CircuitBreaker breaker) {
+            this.reader = reader;
+            this.bytes = bytes;
+            this.breaker = breaker;
+        }
+    }
+}
@@ -38,6 +38,8 @@ import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.engine.EngineFactory;
 import org.elasticsearch.index.engine.FrozenEngine;
+import org.elasticsearch.index.engine.FrozenReaderCache;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.license.LicenseService;
 import org.elasticsearch.license.LicensesMetaData;
 import org.elasticsearch.license.Licensing;
@@ -135,6 +137,8 @@ public class XPackPlugin extends XPackClientPlugin implements ExtensiblePlugin,
     private static final SetOnce<SSLService> sslService = new SetOnce<>();
     private static final SetOnce<LicenseService> licenseService = new SetOnce<>();
 
+    private final FrozenReaderCache frozenReaderCache = new FrozenReaderCache();
+
     public XPackPlugin(
             final Settings settings,
             final Path configPath) {
@@ -236,6 +240,10 @@ public class XPackPlugin extends XPackClientPlugin implements ExtensiblePlugin,
         setLicenseService(new LicenseService(settings, clusterService, getClock(),
                 environment, resourceWatcherService, getLicenseState()));
 
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            HierarchyCircuitBreakerService.FROZEN_READERS_CIRCUIT_BREAKER_LIMIT_SETTING,
+            HierarchyCircuitBreakerService.FROZEN_READERS_CIRCUIT_BREAKER_OVERHEAD_SETTING, frozenReaderCache::evictToLimit);
+
         // It is useful to override these as they are what guice is injecting into actions
         components.add(getSslService());
         components.add(getLicenseService());
@@ -355,7 +363,7 @@ public class XPackPlugin extends XPackClientPlugin implements ExtensiblePlugin,
         if (indexSettings.getValue(SourceOnlySnapshotRepository.SOURCE_ONLY)) {
             return Optional.of(SourceOnlySnapshotRepository.getEngineFactory());
         } else if (indexSettings.getValue(FrozenEngine.INDEX_FROZEN)) {
-            return Optional.of(FrozenEngine::new);
+            return Optional.of(config -> new FrozenEngine(config, frozenReaderCache));
         }
 
         return Optional.empty();
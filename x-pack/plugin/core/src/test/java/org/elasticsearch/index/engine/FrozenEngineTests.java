@@ -16,6 +16,7 @@ import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.seqno.SequenceNumbers;
@@ -177,6 +178,109 @@ public class FrozenEngineTests extends EngineTestCase {
         }
     }
 
+    public void testReaderCache() throws IOException {
+        IOUtils.close(engine, store);
+        final AtomicLong globalCheckpoint1 = new AtomicLong(SequenceNumbers.NO_OPS_PERFORMED);
+        final AtomicLong globalCheckpoint2 = new AtomicLong(SequenceNumbers.NO_OPS_PERFORMED);
+        final ClusterSettings clusterSettings = new ClusterSettings(defaultSettings.getNodeSettings(),
+            ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        final HierarchyCircuitBreakerService breakerService = new HierarchyCircuitBreakerService(defaultSettings.getSettings(),
+            clusterSettings);
+        final FrozenReaderCache cache = new FrozenReaderCache();
+        clusterSettings.addSettingsUpdateConsumer(HierarchyCircuitBreakerService.FROZEN_READERS_CIRCUIT_BREAKER_LIMIT_SETTING,
+            HierarchyCircuitBreakerService.FROZEN_READERS_CIRCUIT_BREAKER_OVERHEAD_SETTING, cache::evictToLimit);
+        try (Store store1 = createStore(); Store store2 = createStore()) {
+            CountingRefreshListener listener1 = new CountingRefreshListener();
+            EngineConfig config1 = config(defaultSettings, store1, createTempDir(), NoMergePolicy.INSTANCE, null, listener1, null,
+                globalCheckpoint1::get, breakerService);
+            CountingRefreshListener listener2 = new CountingRefreshListener();
+            EngineConfig config2 = config(defaultSettings, store2, createTempDir(), NoMergePolicy.INSTANCE, null, listener2, null,
+                globalCheckpoint2::get, breakerService);
+            try (InternalEngine engine = createEngine(config1)) {
+                addDocuments(globalCheckpoint1, engine);
+                engine.flushAndClose();
+            }
+            try (InternalEngine engine = createEngine(config2)) {
+                addDocuments(globalCheckpoint2, engine);
+                engine.flushAndClose();
+            }
+            listener1.reset();
+            listener2.reset();
+            try (FrozenEngine frozenEngine1 = new FrozenEngine(config1, cache);
+                 FrozenEngine frozenEngine2 = new FrozenEngine(config2, cache)) {
+                Engine.Searcher searcher = frozenEngine1.acquireSearcher("test");
+                FrozenEngine.unwrapLazyReader(searcher.getDirectoryReader()).release();
+                // the cache keeps the reader open
+                assertTrue(frozenEngine1.isReaderOpen());
+                assertTrue(cache.contains(frozenEngine1));
+                final long readerBytes = breakerService.getBreaker(CircuitBreaker.FROZEN_READERS).getUsed();
+                assertTrue(readerBytes > 0);
+                FrozenEngine.unwrapLazyReader(searcher.getDirectoryReader()).reset();
+                searcher.close();
+                searcher = frozenEngine1.acquireSearcher("test");
+                searcher.close();
+                assertEquals(1, listener1.afterRefresh.get());
+                assertTrue(frozenEngine1.isReaderOpen());
+
+                // the least recently used reader is evicted when the limit is lowered
+                searcher = frozenEngine2.acquireSearcher("test");
+                searcher.close();
+                assertEquals(1, listener2.afterRefresh.get());
+                assertTrue(cache.contains(frozenEngine2));
+                final long bothReadersBytes = breakerService.getBreaker(CircuitBreaker.FROZEN_READERS).getUsed();
+                final long otherReaderBytes = bothReadersBytes - readerBytes;
+                assertTrue(otherReaderBytes > 0);
+                searcher = frozenEngine1.acquireSearcher("test");
+                searcher.close();
+                assertEquals(1, listener1.afterRefresh.get());
+                final long limit = Math.max(readerBytes, otherReaderBytes);
+                clusterSettings.applySettings(Settings.builder()
+                    .put(HierarchyCircuitBreakerService.FROZEN_READERS_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), limit + "b")
+                    .build());
+                assertTrue(cache.contains(frozenEngine1));
+                assertTrue(frozenEngine1.isReaderOpen());
+                assertFalse(cache.contains(frozenEngine2));
+                assertFalse(frozenEngine2.isReaderOpen());
+                assertEquals(readerBytes, breakerService.getBreaker(CircuitBreaker.FROZEN_READERS).getUsed());
+
+                // the reader of the second engine evicts the reader of the first one
+                searcher = frozenEngine2.acquireSearcher("test");
+                assertFalse(cache.contains(frozenEngine1));
+                assertFalse(frozenEngine1.isReaderOpen());
+                searcher.close();
+                assertEquals(2, listener2.afterRefresh.get());
+                assertTrue(cache.contains(frozenEngine2));
+                assertTrue(frozenEngine2.isReaderOpen());
+                assertEquals(otherReaderBytes, breakerService.getBreaker(CircuitBreaker.FROZEN_READERS).getUsed());
+                searcher = frozenEngine1.acquireSearcher("test");
+                searcher.close();
+                assertEquals(2, listener1.afterRefresh.get());
+
+                // no reader is cached if they don't fit
+                clusterSettings.applySettings(Settings.builder()
+                    .put(HierarchyCircuitBreakerService.FROZEN_READERS_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), "0b")
+                    .build());
+                assertEquals(0, cache.size());
+                assertFalse(frozenEngine1.isReaderOpen());
+                assertFalse(frozenEngine2.isReaderOpen());
+                assertEquals(0, breakerService.getBreaker(CircuitBreaker.FROZEN_READERS).getUsed());
+                searcher = frozenEngine2.acquireSearcher("test");
+                searcher.close();
+                assertEquals(0, cache.size());
+                assertFalse(frozenEngine2.isReaderOpen());
+                assertEquals(0, breakerService.getBreaker(CircuitBreaker.FROZEN_READERS).getUsed());
+
+                clusterSettings.applySettings(Settings.EMPTY);
+                searcher = frozenEngine1.acquireSearcher("test");
+                searcher.close();
+                assertTrue(frozenEngine1.isReaderOpen());
+            }
+            // closing the engine releases its reader
+            assertEquals(0, cache.size());
+            assertEquals(0, breakerService.getBreaker(CircuitBreaker.FROZEN_READERS).getUsed());
+        }
+    }
+
     private int addDocuments(AtomicLong globalCheckpoint, InternalEngine engine) throws IOException {
         int numDocs = scaledRandomIntBetween(10, 1000);
         int numDocsAdded = 0;